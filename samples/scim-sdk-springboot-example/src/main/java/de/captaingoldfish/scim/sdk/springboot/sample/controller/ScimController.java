@@ -1,5 +1,6 @@
 package de.captaingoldfish.scim.sdk.springboot.sample.controller;
 
+import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,7 +11,6 @@ import javax.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
-import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import de.captaingoldfish.scim.sdk.common.constants.HttpHeader;
@@ -47,15 +47,16 @@ public class ScimController
    * the rest-endpoint for SCIM accessbile under the path ${basepath}/scim/v2/**
    *
    * @param request the request object created by the underlying tomcat
+   * @param response the response object into which the scim response is streamed
    * @param requestBody the request body
-   * @return the scim response that will automatically be converted to json by spring
    */
   @RequestMapping(value = "/**", method = {RequestMethod.POST, RequestMethod.GET, RequestMethod.PUT,
                                            RequestMethod.PATCH,
                                            RequestMethod.DELETE}, produces = HttpHeader.SCIM_CONTENT_TYPE)
-  public @ResponseBody String handleScimRequest(HttpServletRequest request,
-                                                HttpServletResponse response,
-                                                @RequestBody(required = false) String requestBody)
+  public void handleScimRequest(HttpServletRequest request,
+                                HttpServletResponse response,
+                                @RequestBody(required = false) String requestBody)
+    throws IOException
   {
     Map<String, String> httpHeaders = getHttpHeaders(request);
     String query = request.getQueryString() == null ? "" : "?" + request.getQueryString();
@@ -66,7 +67,7 @@ public class ScimController
     response.setContentType(HttpHeader.SCIM_CONTENT_TYPE);
     scimResponse.getHttpHeaders().forEach(response::setHeader);
     response.setStatus(scimResponse.getHttpStatus());
-    return scimResponse.toPrettyString();
+    scimResponse.writeTo(response.getOutputStream());
   }
 
   /**
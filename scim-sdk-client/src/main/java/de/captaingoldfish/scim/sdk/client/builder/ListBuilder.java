@@ -198,6 +198,17 @@ public class ListBuilder<T extends ResourceNode>
     return this;
   }
 
+  /**
+   * requests a page with cursor based pagination instead of the startIndex
+   *
+   * @param cursor the "nextCursor" value of the previous list response or an empty string for the first page
+   */
+  public ListBuilder<T> cursor(String cursor)
+  {
+    requestParameters.put(AttributeNames.Custom.CURSOR, cursor);
+    return this;
+  }
+
   /**
    * adds additional custom parameters to the request that are unknown by the SCIM specification
    *
@@ -34,6 +34,37 @@ public final class AttributeNames
      */
     public static final String AUTO_SORTING = "autoSorting";
 
+    /**
+     * the attribute key for the attributes that should be indexed for automatic filtering
+     */
+    public static final String INDEXED_ATTRIBUTES = "indexedAttributes";
+
+    /**
+     * the attribute key for the string attributes that should get an n-gram index for "co" and "ew" filters
+     */
+    public static final String NGRAM_INDEXED_ATTRIBUTES = "ngramIndexedAttributes";
+
+    /**
+     * the attribute key for the attributes that should get an incrementally maintained sorted view
+     */
+    public static final String SORTED_ATTRIBUTES = "sortedAttributes";
+
+    /**
+     * the parameter key of list requests that requests cursor based pagination and holds the cursor of the page
+     */
+    public static final String CURSOR = "cursor";
+
+    /**
+     * the attribute key of list responses that holds the cursor of the next page
+     */
+    public static final String NEXT_CURSOR = "nextCursor";
+
+    /**
+     * the attribute key of the filter config that holds the number of parsed expressions that are cached for each
+     * resource type
+     */
+    public static final String EXPRESSION_CACHE_SIZE = "expressionCacheSize";
+
     /**
      * this attribute tells us if a resource type was disabled
      */
@@ -48,6 +48,12 @@ public class ScimType
      * if the client / user is not authenticated
      */
     public static final String UNAUTENTICATED = "unauthenticated";
+
+    /**
+     * the cursor of a cursor based list request is malformed, was not issued by this server or does not belong to
+     * the request
+     */
+    public static final String INVALID_CURSOR = "invalidCursor";
   }
 
 
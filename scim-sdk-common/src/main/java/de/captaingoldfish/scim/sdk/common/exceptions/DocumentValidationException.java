@@ -17,4 +17,13 @@ public class DocumentValidationException extends ScimException
   {
     super(message, cause, status, scimType);
   }
+
+  /**
+   * @param writableStackTrace false if the stack trace should not be filled in, e.g. for the validation errors
+   *          of client requests
+   */
+  public DocumentValidationException(String message, Integer status, String scimType, boolean writableStackTrace)
+  {
+    super(message, null, status, scimType, writableStackTrace);
+  }
 }
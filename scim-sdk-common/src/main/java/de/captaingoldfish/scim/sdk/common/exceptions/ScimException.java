@@ -53,6 +53,20 @@ public abstract class ScimException extends RuntimeException
     this.responseHeaders = responseHeaders;
   }
 
+  /**
+   * creates an exception that may skip filling in its stack trace. Exceptions that are caused by invalid client
+   * input are thrown often and their stack trace does not help anyone
+   *
+   * @param writableStackTrace false if the stack trace should not be filled in
+   */
+  protected ScimException(String message, Throwable cause, Integer status, String scimType, boolean writableStackTrace)
+  {
+    super(message, cause, true, writableStackTrace);
+    this.status = status == null ? HttpStatus.INTERNAL_SERVER_ERROR : status;
+    this.scimType = StringUtils.isBlank(scimType) ? null : scimType;
+    this.responseHeaders = new HashMap<>();
+  }
+
   public String getDetail()
   {
     return getMessage();
@@ -3,10 +3,13 @@ package de.captaingoldfish.scim.sdk.common.request;
 import java.util.Collections;
 import java.util.Optional;
 
+import com.fasterxml.jackson.databind.node.TextNode;
+
 import de.captaingoldfish.scim.sdk.common.constants.AttributeNames;
 import de.captaingoldfish.scim.sdk.common.constants.SchemaUris;
 import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
 import de.captaingoldfish.scim.sdk.common.resources.AbstractSchemasHolder;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
 import lombok.Builder;
 
 
@@ -21,10 +24,9 @@ public class SearchRequest extends AbstractSchemasHolder
 
   public SearchRequest()
   {
-    this(null, null, null, null, null, null, null);
+    this(null, null, null, null, null, null, null, null);
   }
 
-  @Builder
   public SearchRequest(Long startIndex,
                        Integer count,
                        String filter,
@@ -32,6 +34,19 @@ public class SearchRequest extends AbstractSchemasHolder
                        SortOrder sortOrder,
                        String attributes,
                        String excludedAttributes)
+  {
+    this(startIndex, count, filter, sortBy, sortOrder, attributes, excludedAttributes, null);
+  }
+
+  @Builder
+  public SearchRequest(Long startIndex,
+                       Integer count,
+                       String filter,
+                       String sortBy,
+                       SortOrder sortOrder,
+                       String attributes,
+                       String excludedAttributes,
+                       String cursor)
   {
     setSchemas(Collections.singletonList(SchemaUris.SEARCH_REQUEST_URI));
     setStartIndex(startIndex);
@@ -41,6 +56,7 @@ public class SearchRequest extends AbstractSchemasHolder
     setSortOrder(sortOrder);
     setAttributes(attributes);
     setExcludedAttributes(excludedAttributes);
+    setCursor(cursor);
   }
 
   /**
@@ -173,4 +189,30 @@ public class SearchRequest extends AbstractSchemasHolder
   {
     setAttribute(AttributeNames.RFC7643.EXCLUDED_ATTRIBUTES, excludedAttributes);
   }
+
+  /**
+   * the cursor of the requested page if the client wants to use cursor based pagination instead of the
+   * startIndex. An empty string requests the first page. The cursor of the next page is returned in the
+   * "nextCursor" attribute of the list response. OPTIONAL.
+   */
+  public Optional<String> getCursor()
+  {
+    return getStringAttribute(AttributeNames.Custom.CURSOR);
+  }
+
+  /**
+   * the cursor of the requested page if the client wants to use cursor based pagination instead of the
+   * startIndex. An empty string requests the first page. The cursor of the next page is returned in the
+   * "nextCursor" attribute of the list response. OPTIONAL.
+   */
+  public void setCursor(String cursor)
+  {
+    if (cursor == null)
+    {
+      JsonHelper.removeAttribute(this, AttributeNames.Custom.CURSOR);
+      return;
+    }
+    // an empty cursor must be kept because it requests the first page
+    JsonHelper.addAttribute(this, AttributeNames.Custom.CURSOR, new TextNode(cursor));
+  }
 }
@@ -24,12 +24,23 @@ public class FilterConfig extends ScimObjectNode
    */
   protected static final Integer DEFAULT_MAX_RESULTS = 1;
 
-  @Builder
+  /**
+   * the default number of parsed filter expressions and patch paths that are cached for each resource type
+   */
+  public static final int DEFAULT_EXPRESSION_CACHE_SIZE = 256;
+
   public FilterConfig(Boolean supported, Integer maxResults)
+  {
+    this(supported, maxResults, null);
+  }
+
+  @Builder
+  public FilterConfig(Boolean supported, Integer maxResults, Integer expressionCacheSize)
   {
     super(null);
     setSupported(supported);
     setMaxResults(maxResults);
+    setExpressionCacheSize(expressionCacheSize);
   }
 
   /**
@@ -65,4 +76,24 @@ public class FilterConfig extends ScimObjectNode
     setAttribute(AttributeNames.RFC7643.MAX_RESULTS,
                  Optional.ofNullable(results).orElse(Long.valueOf(DEFAULT_MAX_RESULTS)));
   }
+
+  /**
+   * the number of parsed filter expressions and patch paths that are cached for each resource type. This is a
+   * custom attribute of this implementation. A value lower than 1 disables the caching
+   */
+  public int getExpressionCacheSize()
+  {
+    return getLongAttribute(AttributeNames.Custom.EXPRESSION_CACHE_SIZE).map(Long::intValue)
+                                                                        .orElse(DEFAULT_EXPRESSION_CACHE_SIZE);
+  }
+
+  /**
+   * the number of parsed filter expressions and patch paths that are cached for each resource type. This is a
+   * custom attribute of this implementation. A value lower than 1 disables the caching
+   */
+  public void setExpressionCacheSize(Integer expressionCacheSize)
+  {
+    setAttribute(AttributeNames.Custom.EXPRESSION_CACHE_SIZE,
+                 expressionCacheSize == null ? null : Long.valueOf(expressionCacheSize));
+  }
 }
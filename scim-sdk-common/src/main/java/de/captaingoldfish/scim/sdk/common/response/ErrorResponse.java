@@ -139,6 +139,15 @@ public class ErrorResponse extends ScimResponse
            && StringUtils.isBlank(getScimType().orElse(null));
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasBody()
+  {
+    return !useEmptyBody() && super.hasBody();
+  }
+
   @Override
   public String toString()
   {
@@ -3,6 +3,7 @@ package de.captaingoldfish.scim.sdk.common.response;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Optional;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -131,6 +132,22 @@ public class ListResponse<T extends ScimObjectNode> extends ScimResponse
     setAttribute(AttributeNames.RFC7643.START_INDEX, startIndex);
   }
 
+  /**
+   * the cursor of the next page if the client used cursor based pagination and more results are available
+   */
+  public Optional<String> getNextCursor()
+  {
+    return getStringAttribute(AttributeNames.Custom.NEXT_CURSOR);
+  }
+
+  /**
+   * the cursor of the next page if the client used cursor based pagination and more results are available
+   */
+  public void setNextCursor(String nextCursor)
+  {
+    setAttribute(AttributeNames.Custom.NEXT_CURSOR, nextCursor);
+  }
+
   /**
    * the resources that have been extracted
    */
@@ -1,15 +1,19 @@
 package de.captaingoldfish.scim.sdk.common.response;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
 import de.captaingoldfish.scim.sdk.common.constants.HttpHeader;
 import de.captaingoldfish.scim.sdk.common.resources.AbstractSchemasHolder;
 import de.captaingoldfish.scim.sdk.common.resources.complex.Meta;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -65,13 +69,68 @@ public abstract class ScimResponse extends AbstractSchemasHolder
   {
     Response.ResponseBuilder responseBuilder = Response.status(getHttpStatus());
     httpHeaders.forEach(responseBuilder::header);
-    if (this.size() != 0)
+    if (hasBody())
     {
       responseBuilder.entity(toString());
     }
     return responseBuilder.build();
   }
 
+  /**
+   * builds a response object whose body is written directly into the output stream of the rest api. Other than
+   * {@link #buildResponse()} the body is not rendered into a string first, which saves several copies of large
+   * list responses
+   *
+   * @return a jax-rs response with a streamed response body and the http headers
+   */
+  public Response buildStreamingResponse()
+  {
+    Response.ResponseBuilder responseBuilder = Response.status(getHttpStatus());
+    httpHeaders.forEach(responseBuilder::header);
+    if (hasBody())
+    {
+      responseBuilder.entity((StreamingOutput)this::writeTo);
+    }
+    return responseBuilder.build();
+  }
+
+  /**
+   * @return true if this response has a body that must be written to the client
+   */
+  public boolean hasBody()
+  {
+    return this.size() != 0;
+  }
+
+  /**
+   * writes the response body as compact UTF-8 encoded json into the given stream. Nothing is written if this
+   * response has no body. The stream is not closed
+   *
+   * @param outputStream the stream to write into
+   * @throws IOException if the stream could not be written
+   */
+  public void writeTo(OutputStream outputStream) throws IOException
+  {
+    writeTo(outputStream, false);
+  }
+
+  /**
+   * writes the response body as UTF-8 encoded json into the given stream. Nothing is written if this response
+   * has no body. The stream is not closed
+   *
+   * @param outputStream the stream to write into
+   * @param prettyPrint if the json should be indented
+   * @throws IOException if the stream could not be written
+   */
+  public void writeTo(OutputStream outputStream, boolean prettyPrint) throws IOException
+  {
+    if (!hasBody())
+    {
+      return;
+    }
+    JsonHelper.writeJsonDocument(this, outputStream, prettyPrint);
+  }
+
   /**
    * the http status code of the response
    */
@@ -55,6 +55,12 @@ public class Schema extends ResourceNode
    */
   private List<SchemaAttribute> bulkIdCandidates = new ArrayList<>();
 
+  /**
+   * the compiled and unmodifiable list of the top level attributes of this schema. It is kept in sync with the
+   * json representation so that the attributes are not read from the json document again and again
+   */
+  private List<SchemaAttribute> attributes = Collections.emptyList();
+
   public Schema(JsonNode jsonNode, String namePrefix)
   {
     setSchemas(JsonHelper.getSimpleAttributeArray(jsonNode, AttributeNames.RFC7643.SCHEMAS)
@@ -162,7 +168,7 @@ public class Schema extends ResourceNode
    */
   public List<SchemaAttribute> getAttributes()
   {
-    return super.getArrayAttribute(AttributeNames.RFC7643.ATTRIBUTES, SchemaAttribute.class);
+    return attributes;
   }
 
   /**
@@ -170,6 +176,7 @@ public class Schema extends ResourceNode
    */
   private void setAttributes(List<SchemaAttribute> attributes)
   {
+    this.attributes = Collections.unmodifiableList(new ArrayList<>(attributes));
     setAttribute(AttributeNames.RFC7643.ATTRIBUTES, attributes);
   }
 
@@ -178,7 +185,7 @@ public class Schema extends ResourceNode
    */
   public void addAttribute(JsonNode schemaAttribute)
   {
-    List<SchemaAttribute> attributes = getAttributes();
+    List<SchemaAttribute> attributes = new ArrayList<>(getAttributes());
     attributes.add(new SchemaAttribute(this, getNonNullId(), null, schemaAttribute));
     setAttributes(attributes);
   }
@@ -202,7 +209,7 @@ public class Schema extends ResourceNode
    */
   public void removeAttribute(SchemaAttribute schemaAttribute)
   {
-    List<SchemaAttribute> attributes = getAttributes();
+    List<SchemaAttribute> attributes = new ArrayList<>(getAttributes());
     attributeRegister.remove(schemaAttribute.getScimNodeName());
     attributes.remove(schemaAttribute);
     setAttributes(attributes);
@@ -33,11 +33,18 @@ import lombok.extern.slf4j.Slf4j;
 
 
 /**
- * holds the data of an attribute definition from a schema type document
+ * holds the data of an attribute definition from a schema type document. The definition is compiled when the
+ * schema is registered: the values are read once from the json document into fields so that the getters that
+ * are called for each attribute of each validated, filtered, patched or sorted resource do not need to parse
+ * the json again. The json representation itself is only kept to be returned by the /Schemas endpoint
  */
 @Slf4j
 @Getter
-@EqualsAndHashCode(exclude = {"schema", "parent"}, callSuper = true)
+@EqualsAndHashCode(exclude = {"schema", "parent", "name", "scimNodeName", "fullResourceName", "type", "description",
+                              "mutability", "returned", "uniqueness", "multiValued", "required", "caseExact",
+                              "canonicalValues", "referenceTypes", "subAttributes", "multipleOf", "minimum", "maximum",
+                              "maxLength", "minLength", "minItems", "maxItems", "notBefore",
+                              "notAfter"}, callSuper = true)
 public final class SchemaAttribute extends ScimObjectNode
 {
 
@@ -73,6 +80,97 @@ public final class SchemaAttribute extends ScimObjectNode
    */
   private Pattern pattern;
 
+  /**
+   * the compiled "name" of this attribute
+   */
+  private final String name;
+
+  /**
+   * the compiled name of this attribute in dot notation e.g. "name.givenName"
+   */
+  private final String scimNodeName;
+
+  /**
+   * the compiled name of this attribute together with its resource uri
+   */
+  private final String fullResourceName;
+
+  /**
+   * the compiled "type" of this attribute
+   */
+  private final Type type;
+
+  /**
+   * the compiled "description" of this attribute
+   */
+  private final String description;
+
+  /**
+   * the compiled "mutability" of this attribute
+   */
+  private final Mutability mutability;
+
+  /**
+   * the compiled "returned" value of this attribute
+   */
+  private final Returned returned;
+
+  /**
+   * the compiled "uniqueness" of this attribute
+   */
+  private final Uniqueness uniqueness;
+
+  /**
+   * the compiled "multiValued" value of this attribute
+   */
+  private final boolean multiValued;
+
+  /**
+   * the compiled "required" value of this attribute
+   */
+  private final boolean required;
+
+  /**
+   * the compiled "caseExact" value of this attribute
+   */
+  private final boolean caseExact;
+
+  /**
+   * the compiled and unmodifiable "canonicalValues" of this attribute
+   */
+  private final List<String> canonicalValues;
+
+  /**
+   * the compiled and unmodifiable "referenceTypes" of this attribute
+   */
+  private final List<ReferenceTypes> referenceTypes;
+
+  /**
+   * the compiled and unmodifiable "subAttributes" of this attribute
+   */
+  private final List<SchemaAttribute> subAttributes;
+
+  /**
+   * the compiled validation attributes. They are kept in sync with the json representation by their setters
+   */
+  private Double multipleOf;
+
+  private Double minimum;
+
+  private Double maximum;
+
+  private Long maxLength;
+
+  private Long minLength;
+
+  private Integer minItems;
+
+  private Integer maxItems;
+
+  private Instant notBefore;
+
+  private Instant notAfter;
+
   protected SchemaAttribute(Schema schema,
                             String resourceUri,
                             SchemaAttribute parent,
@@ -83,44 +181,61 @@ public final class SchemaAttribute extends ScimObjectNode
     this.schema = schema;
     this.resourceUri = resourceUri;
     this.namePrefix = namePrefix;
+    this.parent = parent;
     Function<String, String> errorMessageBuilder = attribute -> "could not find required attribute '" + attribute
                                                                 + "' in meta-schema for attribute: "
                                                                 + getScimNodeName();
     final String nameAttribute = AttributeNames.RFC7643.NAME;
     final String nameErrorMessage = errorMessageBuilder.apply(nameAttribute);
-    setName(JsonHelper.getSimpleAttribute(jsonNode, nameAttribute)
-                      .orElseThrow(() -> getException(nameErrorMessage, null)));
+    this.name = JsonHelper.getSimpleAttribute(jsonNode, nameAttribute)
+                          .orElseThrow(() -> getException(nameErrorMessage, null));
+    setName(name);
+    this.scimNodeName = parent == null ? getNamePrefix() + name : parent.getScimNodeName() + "." + name;
+    this.fullResourceName = resourceUri + ":" + scimNodeName;
     final String typeAttribute = AttributeNames.RFC7643.TYPE;
     final String typeErrorMessage = errorMessageBuilder.apply(typeAttribute);
-    final Type type = Type.getByValue(JsonHelper.getSimpleAttribute(jsonNode, typeAttribute)
-                                                .orElseThrow(() -> getException(typeErrorMessage, null)));
+    this.type = Type.getByValue(JsonHelper.getSimpleAttribute(jsonNode, typeAttribute)
+                                          .orElseThrow(() -> getException(typeErrorMessage, null)));
     setType(type);
     final String descriptionAttribute = AttributeNames.RFC7643.DESCRIPTION;
     final String descriptionErrorMessage = errorMessageBuilder.apply(descriptionAttribute);
-    setDescription(JsonHelper.getSimpleAttribute(jsonNode, descriptionAttribute)
-                             .orElseThrow(() -> getException(descriptionErrorMessage, null)));
-    setMutability(Mutability.getByValue(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.MUTABILITY)
-                                                  .orElse(null)));
-    setReturned(Returned.getByValue(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.RETURNED)
-                                              .orElse(null)));
-    setUniqueness(Uniqueness.getByValue(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.UNIQUENESS)
-                                                  .orElse(Uniqueness.NONE.getValue())));
-    setMultiValued(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.MULTI_VALUED, Boolean.class)
-                             .orElse(false));
-    setRequired(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.REQUIRED, Boolean.class).orElse(false));
-    setCaseExact(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.CASE_EXACT, Boolean.class)
-                           .orElse(false));
-    setCanonicalValues(JsonHelper.getSimpleAttributeArray(jsonNode, AttributeNames.RFC7643.CANONICAL_VALUES)
-                                 .orElse(Collections.emptyList()));
-    setReferenceTypes(JsonHelper.getSimpleAttributeArray(jsonNode, AttributeNames.RFC7643.REFERENCE_TYPES)
-                                .map(strings -> strings.stream()
-                                                       .map(ReferenceTypes::getByValue)
-                                                       .collect(Collectors.toList()))
-                                .orElse(Type.REFERENCE.equals(type) ? Collections.singletonList(ReferenceTypes.EXTERNAL)
-                                  : Collections.emptyList()));
+    this.description = JsonHelper.getSimpleAttribute(jsonNode, descriptionAttribute)
+                                 .orElseThrow(() -> getException(descriptionErrorMessage, null));
+    setDescription(description);
+    this.mutability = Mutability.getByValue(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.MUTABILITY)
+                                                      .orElse(null));
+    setMutability(mutability);
+    this.returned = Returned.getByValue(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.RETURNED)
+                                                  .orElse(null));
+    setReturned(returned);
+    this.uniqueness = Uniqueness.getByValue(JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.UNIQUENESS)
+                                                      .orElse(Uniqueness.NONE.getValue()));
+    setUniqueness(uniqueness);
+    this.multiValued = JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.MULTI_VALUED, Boolean.class)
+                                 .orElse(false);
+    setMultiValued(multiValued);
+    this.required = JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.REQUIRED, Boolean.class)
+                              .orElse(false);
+    setRequired(required);
+    this.caseExact = JsonHelper.getSimpleAttribute(jsonNode, AttributeNames.RFC7643.CASE_EXACT, Boolean.class)
+                               .orElse(false);
+    setCaseExact(caseExact);
+    this.canonicalValues = Collections.unmodifiableList(new ArrayList<>(JsonHelper.getSimpleAttributeArray(jsonNode,
+                                                                                                           AttributeNames.RFC7643.CANONICAL_VALUES)
+                                                                                  .orElse(Collections.emptyList())));
+    setCanonicalValues(canonicalValues);
+    this.referenceTypes = Collections.unmodifiableList(JsonHelper.getSimpleAttributeArray(jsonNode,
+                                                                                          AttributeNames.RFC7643.REFERENCE_TYPES)
+                                                                 .map(strings -> strings.stream()
+                                                                                        .map(ReferenceTypes::getByValue)
+                                                                                        .collect(Collectors.toList()))
+                                                                 .orElse(Type.REFERENCE.equals(type)
+                                                                   ? Collections.singletonList(ReferenceTypes.EXTERNAL)
+                                                                   : Collections.emptyList()));
+    setReferenceTypes(referenceTypes);
     setValidationAttributes(jsonNode);
-    setSubAttributes(resolveSubAttributes(jsonNode));
-    this.parent = parent;
+    this.subAttributes = Collections.unmodifiableList(resolveSubAttributes(jsonNode));
+    setSubAttributes(subAttributes);
     validateAttribute();
     schema.addSchemaAttribute(this);
   }
@@ -159,8 +274,7 @@ public final class SchemaAttribute extends ScimObjectNode
    */
   public String getFullResourceName()
   {
-    return getParent() == null ? getResourceUri() + ":" + getScimNodeName()
-      : getResourceUri() + ":" + getScimNodeName();
+    return fullResourceName;
   }
 
   /**
@@ -168,7 +282,7 @@ public final class SchemaAttribute extends ScimObjectNode
    */
   public String getScimNodeName()
   {
-    return getParent() == null ? getNamePrefix() + getName() : getParent().getScimNodeName() + "." + getName();
+    return scimNodeName;
   }
 
   /**
@@ -184,7 +298,7 @@ public final class SchemaAttribute extends ScimObjectNode
    */
   public String getName()
   {
-    return getStringAttribute(AttributeNames.RFC7643.NAME).orElse(null);
+    return name;
   }
 
   /**
@@ -206,7 +320,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Type getType()
   {
-    return getStringAttribute(AttributeNames.RFC7643.TYPE).map(Type::getByValue).orElse(null);
+    return type;
   }
 
   // @formatter:off
@@ -231,7 +345,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public String getDescription()
   {
-    return getStringAttribute(AttributeNames.RFC7643.DESCRIPTION).orElse(null);
+    return description;
   }
 
   // @formatter:off
@@ -267,7 +381,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Mutability getMutability()
   {
-    return getStringAttribute(AttributeNames.RFC7643.MUTABILITY).map(Mutability::getByValue).orElse(null);
+    return mutability;
   }
 
   // @formatter:off
@@ -327,7 +441,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Returned getReturned()
   {
-    return getStringAttribute(AttributeNames.RFC7643.RETURNED).map(Returned::getByValue).orElse(null);
+    return returned;
   }
 
   // @formatter:off
@@ -391,7 +505,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Uniqueness getUniqueness()
   {
-    return getStringAttribute(AttributeNames.RFC7643.UNIQUENESS).map(Uniqueness::getByValue).orElse(null);
+    return uniqueness;
   }
 
   // @formatter:off
@@ -430,7 +544,7 @@ public final class SchemaAttribute extends ScimObjectNode
    */
   public boolean isMultiValued()
   {
-    return getBooleanAttribute(AttributeNames.RFC7643.MULTI_VALUED).orElse(false);
+    return multiValued;
   }
 
   /**
@@ -449,7 +563,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public boolean isRequired()
   {
-    return getBooleanAttribute(AttributeNames.RFC7643.REQUIRED).orElse(false);
+    return required;
   }
 
   // @formatter:off
@@ -477,7 +591,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public boolean isCaseExact()
   {
-    return getBooleanAttribute(AttributeNames.RFC7643.CASE_EXACT).orElse(false);
+    return caseExact;
   }
 
   // @formatter:off
@@ -506,7 +620,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public List<String> getCanonicalValues()
   {
-    return getSimpleArrayAttribute(AttributeNames.RFC7643.CANONICAL_VALUES);
+    return canonicalValues;
   }
 
   // @formatter:off
@@ -541,9 +655,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public List<ReferenceTypes> getReferenceTypes()
   {
-    return getSimpleArrayAttribute(AttributeNames.RFC7643.REFERENCE_TYPES).stream()
-                                                                          .map(ReferenceTypes::getByValue)
-                                                                          .collect(Collectors.toList());
+    return referenceTypes;
   }
 
   // @formatter:off
@@ -580,7 +692,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Optional<Double> getMultipleOf()
   {
-    return getDoubleAttribute(AttributeNames.Custom.MULTIPLE_OF);
+    return Optional.ofNullable(multipleOf);
   }
 
   // @formatter:off
@@ -596,6 +708,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.INTEGER.equals(getType()) || Type.DECIMAL.equals(getType()))
     {
       setAttribute(AttributeNames.Custom.MULTIPLE_OF, multipleOf);
+      this.multipleOf = multipleOf;
     }
     else
     {
@@ -615,7 +728,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Optional<Double> getMinimum()
   {
-    return getDoubleAttribute(AttributeNames.Custom.MINIMUM);
+    return Optional.ofNullable(minimum);
   }
 
   // @formatter:off
@@ -632,6 +745,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.INTEGER.equals(getType()) || Type.DECIMAL.equals(getType()))
     {
       setAttribute(AttributeNames.Custom.MINIMUM, minimum);
+      this.minimum = minimum;
     }
     else
     {
@@ -651,7 +765,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Optional<Double> getMaximum()
   {
-    return getDoubleAttribute(AttributeNames.Custom.MAXIMUM);
+    return Optional.ofNullable(maximum);
   }
 
   // @formatter:off
@@ -668,6 +782,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.INTEGER.equals(getType()) || Type.DECIMAL.equals(getType()))
     {
       setAttribute(AttributeNames.Custom.MAXIMUM, maximum);
+      this.maximum = maximum;
     }
     else
     {
@@ -689,7 +804,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Optional<Long> getMaxLength()
   {
-    return getLongAttribute(AttributeNames.Custom.MAX_LENGTH);
+    return Optional.ofNullable(maxLength);
   }
 
   // @formatter:off
@@ -708,6 +823,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.STRING.equals(getType()) || Type.REFERENCE.equals(getType()))
     {
       setAttribute(AttributeNames.Custom.MAX_LENGTH, maxLength);
+      this.maxLength = maxLength;
     }
     else
     {
@@ -731,7 +847,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Optional<Long> getMinLength()
   {
-    return getLongAttribute(AttributeNames.Custom.MIN_LENGTH);
+    return Optional.ofNullable(minLength);
   }
 
   // @formatter:off
@@ -752,6 +868,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.STRING.equals(getType()) || Type.REFERENCE.equals(getType()))
     {
       setAttribute(AttributeNames.Custom.MIN_LENGTH, minLength);
+      this.minLength = minLength;
     }
     else
     {
@@ -821,7 +938,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Optional<Integer> getMinItems()
   {
-    return getIntegerAttribute(AttributeNames.Custom.MIN_ITEMS);
+    return Optional.ofNullable(minItems);
   }
 
   // @formatter:off
@@ -839,6 +956,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (isMultiValued())
     {
       setAttribute(AttributeNames.Custom.MIN_ITEMS, minItems);
+      this.minItems = minItems;
     }
     else
     {
@@ -857,7 +975,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public Optional<Integer> getMaxItems()
   {
-    return getIntegerAttribute(AttributeNames.Custom.MAX_ITEMS);
+    return Optional.ofNullable(maxItems);
   }
 
   // @formatter:off
@@ -873,6 +991,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (isMultiValued())
     {
       setAttribute(AttributeNames.Custom.MAX_ITEMS, maxItems);
+      this.maxItems = maxItems;
     }
     else
     {
@@ -886,7 +1005,7 @@ public final class SchemaAttribute extends ScimObjectNode
    */
   public Optional<Instant> getNotBefore()
   {
-    return getDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE);
+    return Optional.ofNullable(notBefore);
   }
 
   /**
@@ -897,6 +1016,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setAttribute(AttributeNames.Custom.NOT_BEFORE, notBefore);
+      this.notBefore = getDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE).orElse(null);
     }
     else
     {
@@ -913,6 +1033,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE, notBefore);
+      this.notBefore = getDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE).orElse(null);
     }
     else
     {
@@ -929,6 +1050,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE, notBefore);
+      this.notBefore = getDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE).orElse(null);
     }
     else
     {
@@ -945,6 +1067,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE, notBefore);
+      this.notBefore = getDateTimeAttribute(AttributeNames.Custom.NOT_BEFORE).orElse(null);
     }
     else
     {
@@ -958,7 +1081,7 @@ public final class SchemaAttribute extends ScimObjectNode
    */
   public Optional<Instant> getNotAfter()
   {
-    return getDateTimeAttribute(AttributeNames.Custom.NOT_AFTER);
+    return Optional.ofNullable(notAfter);
   }
 
   /**
@@ -969,6 +1092,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setAttribute(AttributeNames.Custom.NOT_AFTER, notAfter);
+      this.notAfter = getDateTimeAttribute(AttributeNames.Custom.NOT_AFTER).orElse(null);
     }
     else
     {
@@ -985,6 +1109,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setDateTimeAttribute(AttributeNames.Custom.NOT_AFTER, notAfter);
+      this.notAfter = getDateTimeAttribute(AttributeNames.Custom.NOT_AFTER).orElse(null);
     }
     else
     {
@@ -1001,6 +1126,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setDateTimeAttribute(AttributeNames.Custom.NOT_AFTER, notAfter);
+      this.notAfter = getDateTimeAttribute(AttributeNames.Custom.NOT_AFTER).orElse(null);
     }
     else
     {
@@ -1017,6 +1143,7 @@ public final class SchemaAttribute extends ScimObjectNode
     if (Type.DATE_TIME.equals(getType()))
     {
       setDateTimeAttribute(AttributeNames.Custom.NOT_AFTER, notAfter);
+      this.notAfter = getDateTimeAttribute(AttributeNames.Custom.NOT_AFTER).orElse(null);
     }
     else
     {
@@ -1035,7 +1162,7 @@ public final class SchemaAttribute extends ScimObjectNode
   // @formatter:on
   public List<SchemaAttribute> getSubAttributes()
   {
-    return getArrayAttribute(AttributeNames.RFC7643.SUB_ATTRIBUTES, SchemaAttribute.class);
+    return subAttributes;
   }
 
   // @formatter:off
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.Constructor;
@@ -15,6 +16,8 @@ import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -41,6 +44,12 @@ import lombok.extern.slf4j.Slf4j;
 public final class JsonHelper
 {
 
+  /**
+   * the mapper that writes json documents into output streams. It is shared because its factory recycles the
+   * internal buffers of the generators and its serializers are only resolved once
+   */
+  private static final ObjectMapper STREAMING_MAPPER = new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
   /**
    * will read a json document from the classpath
    *
@@ -561,6 +570,28 @@ public final class JsonHelper
     }
   }
 
+  /**
+   * writes the given json node as UTF-8 encoded json into the given stream without creating an intermediate
+   * string. The stream is flushed but not closed
+   *
+   * @param jsonNode the json node to write
+   * @param outputStream the stream to write into
+   * @param prettyPrint if the json should be indented. Compact json is written otherwise
+   * @throws IOException if the stream could not be written
+   */
+  public static void writeJsonDocument(JsonNode jsonNode, OutputStream outputStream, boolean prettyPrint)
+    throws IOException
+  {
+    try (JsonGenerator generator = STREAMING_MAPPER.getFactory().createGenerator(outputStream, JsonEncoding.UTF8))
+    {
+      if (prettyPrint)
+      {
+        generator.useDefaultPrettyPrinter();
+      }
+      STREAMING_MAPPER.writeTree(generator, jsonNode);
+    }
+  }
+
   /**
    * override method for usage with wildfly 18 that still uses jackson 2.9.x
    */
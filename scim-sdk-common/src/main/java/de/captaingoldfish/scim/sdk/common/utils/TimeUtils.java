@@ -3,6 +3,7 @@ package de.captaingoldfish.scim.sdk.common.utils;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
 
 import de.captaingoldfish.scim.sdk.common.exceptions.InvalidDateTimeRepresentationException;
 import lombok.AccessLevel;
@@ -112,6 +113,21 @@ public final class TimeUtils
    */
   public static final String XSD_DATE_TIME_FORMAT = XSD_DATE_TIME_PARTIAL_FORMAT + TIMEZONE_OFFSET_FRAGMENT;
 
+  /**
+   * the compiled {@link #XSD_DATE_TIME_PARTIAL_FORMAT}
+   */
+  private static final Pattern XSD_DATE_TIME_PARTIAL_PATTERN = Pattern.compile(XSD_DATE_TIME_PARTIAL_FORMAT);
+
+  /**
+   * the compiled {@link #XSD_DATE_TIME_FORMAT}
+   */
+  private static final Pattern XSD_DATE_TIME_PATTERN = Pattern.compile(XSD_DATE_TIME_FORMAT);
+
+  /**
+   * finds the end of day representation "24:00:00" within a date time
+   */
+  private static final Pattern END_OF_DAY_PATTERN = Pattern.compile(".*?" + END_OF_DAY_FRAGMENT + ".*");
+
   /**
    * this method will try to parse the date time send in a scim resource request. Please not that the timestamp
    * format must apply to the xsd:datetime definition from W3C XML-schema definition specification as pointed in
@@ -130,26 +146,69 @@ public final class TimeUtils
     }
     final String errorMessage = "value '" + dateTime + "' does not match the xsd:dateTime definition: "
                                 + XSD_DATE_TIME_FORMAT;
-    String tmpDateTime = dateTime;
-    if (tmpDateTime.matches(XSD_DATE_TIME_PARTIAL_FORMAT))
+    String tmpDateTime = normalizeDateTime(dateTime);
+    if (tmpDateTime == null)
     {
-      tmpDateTime = tmpDateTime + "Z";
+      throw new InvalidDateTimeRepresentationException(errorMessage, null, null, null);
     }
-    if (!tmpDateTime.matches(XSD_DATE_TIME_FORMAT))
+    try
     {
-      throw new InvalidDateTimeRepresentationException(errorMessage, null, null, null);
+      return OffsetDateTime.parse(tmpDateTime).toInstant();
     }
-    if (tmpDateTime.matches(".*?" + END_OF_DAY_FRAGMENT + ".*"))
+    catch (DateTimeParseException ex)
     {
-      tmpDateTime = tmpDateTime.replace("24:00:00", "23:59:59");
+      throw new InvalidDateTimeRepresentationException(errorMessage, ex, null, null);
+    }
+  }
+
+  /**
+   * checks if the given value is a valid xsd:dateTime representation like {@link #parseDateTime(String)} but
+   * without throwing an exception for values that do not match the format. This is used by the schema
+   * validation that sees invalid values from clients quite often
+   *
+   * @param dateTime the date time representation to check
+   * @return true if the value can be parsed by {@link #parseDateTime(String)}
+   */
+  public static boolean isDateTime(String dateTime)
+  {
+    String tmpDateTime = dateTime == null ? null : normalizeDateTime(dateTime);
+    if (tmpDateTime == null)
+    {
+      return false;
     }
     try
     {
-      return OffsetDateTime.parse(tmpDateTime).toInstant();
+      OffsetDateTime.parse(tmpDateTime);
+      return true;
     }
     catch (DateTimeParseException ex)
     {
-      throw new InvalidDateTimeRepresentationException(errorMessage, ex, null, null);
+      // the format matches but the date does not exist e.g. the 31st of february
+      return false;
+    }
+  }
+
+  /**
+   * adds the missing timezone to partial date times and replaces the end of day representation
+   *
+   * @return the date time that is parseable by {@link OffsetDateTime} or null if the value does not match the
+   *         xsd:dateTime definition
+   */
+  private static String normalizeDateTime(String dateTime)
+  {
+    String tmpDateTime = dateTime;
+    if (XSD_DATE_TIME_PARTIAL_PATTERN.matcher(tmpDateTime).matches())
+    {
+      tmpDateTime = tmpDateTime + "Z";
+    }
+    if (!XSD_DATE_TIME_PATTERN.matcher(tmpDateTime).matches())
+    {
+      return null;
+    }
+    if (END_OF_DAY_PATTERN.matcher(tmpDateTime).matches())
+    {
+      tmpDateTime = tmpDateTime.replace("24:00:00", "23:59:59");
     }
+    return tmpDateTime;
   }
 }
@@ -146,5 +146,19 @@ public class SearchRequestTest
     Assertions.assertFalse(searchRequest.getSchemas().isEmpty());
   }
 
-
+  /**
+   * verifies that the constructor without a cursor is still available and leaves the cursor empty
+   */
+  @Test
+  public void testConstructorWithoutCursor()
+  {
+    SearchRequest searchRequest = new SearchRequest(1L, 5, "userName eq \"chuck\"", "userName", SortOrder.DESCENDING,
+                                                    "userName", null);
+    Assertions.assertEquals(1L, searchRequest.getStartIndex().get());
+    Assertions.assertEquals(5, searchRequest.getCount().get());
+    Assertions.assertEquals("userName eq \"chuck\"", searchRequest.getFilter().get());
+    Assertions.assertEquals("descending", searchRequest.getSortOrder().get());
+    Assertions.assertFalse(searchRequest.getCursor().isPresent());
+    Assertions.assertFalse(searchRequest.getExcludedAttributes().isPresent());
+  }
 }
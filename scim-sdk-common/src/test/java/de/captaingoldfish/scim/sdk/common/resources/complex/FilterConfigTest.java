@@ -71,4 +71,20 @@ public class FilterConfigTest
     Assertions.assertTrue(eTagConfig.isSupported());
     Assertions.assertEquals(maxResults, eTagConfig.getMaxResults());
   }
+
+  /**
+   * verifies that the expression cache size is only written into the document if it was set explicitly
+   */
+  @Test
+  public void testExpressionCacheSize()
+  {
+    FilterConfig filterConfig = FilterConfig.builder().build();
+    Assertions.assertEquals(FilterConfig.DEFAULT_EXPRESSION_CACHE_SIZE, filterConfig.getExpressionCacheSize());
+    Assertions.assertNull(filterConfig.get(AttributeNames.Custom.EXPRESSION_CACHE_SIZE));
+
+    filterConfig = FilterConfig.builder().expressionCacheSize(10).build();
+    Assertions.assertEquals(10, filterConfig.getExpressionCacheSize());
+    filterConfig.setExpressionCacheSize(null);
+    Assertions.assertEquals(FilterConfig.DEFAULT_EXPRESSION_CACHE_SIZE, filterConfig.getExpressionCacheSize());
+  }
 }
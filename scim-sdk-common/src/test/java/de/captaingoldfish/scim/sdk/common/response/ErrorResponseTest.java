@@ -1,5 +1,8 @@
 package de.captaingoldfish.scim.sdk.common.response;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
 import javax.ws.rs.core.Response;
 
 import org.junit.jupiter.api.Assertions;
@@ -104,4 +107,23 @@ public class ErrorResponseTest
     Assertions.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatus());
     Assertions.assertNull(response.getEntity());
   }
+
+  /**
+   * verifies that a conditional error response without body does not write anything into an output stream and
+   * that the streaming response has no entity
+   */
+  @Test
+  public void testStreamErrorResponseWithEmptyBody() throws IOException
+  {
+    ErrorResponse errorResponse = new ErrorResponse(new NotModifiedException());
+    Assertions.assertFalse(errorResponse.hasBody());
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    errorResponse.writeTo(outputStream);
+    Assertions.assertEquals(0, outputStream.size());
+
+    Response response = errorResponse.buildStreamingResponse();
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatus());
+    Assertions.assertNull(response.getEntity());
+  }
 }
@@ -1,9 +1,13 @@
 package de.captaingoldfish.scim.sdk.common.response;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -88,4 +92,33 @@ public class ListResponseTest implements FileReferences
 
     // TODO
   }
+
+  /**
+   * verifies that a list response is written as compact json directly into an output stream and that the
+   * streaming jax-rs response writes the same body
+   */
+  @Test
+  public void testWriteListResponseToOutputStream() throws IOException
+  {
+    List<JsonNode> resourceNodes = Arrays.asList(JsonHelper.loadJsonDocument(FileReferences.USER_RESOURCE),
+                                                 JsonHelper.loadJsonDocument(FileReferences.USER_RESOURCE));
+    ListResponse listResponse = new ListResponse(resourceNodes, 10L, 2, 1L);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    listResponse.writeTo(outputStream);
+    Assertions.assertEquals(listResponse.toString(), new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+    ByteArrayOutputStream prettyOutputStream = new ByteArrayOutputStream();
+    listResponse.writeTo(prettyOutputStream, true);
+    Assertions.assertEquals(listResponse.toPrettyString(),
+                            new String(prettyOutputStream.toByteArray(), StandardCharsets.UTF_8));
+
+    Response response = listResponse.buildStreamingResponse();
+    Assertions.assertEquals(HttpStatus.OK, response.getStatus());
+    Assertions.assertEquals(HttpHeader.SCIM_CONTENT_TYPE,
+                            response.getHeaders().get(HttpHeader.CONTENT_TYPE_HEADER).get(0));
+    ByteArrayOutputStream streamedOutputStream = new ByteArrayOutputStream();
+    ((StreamingOutput)response.getEntity()).write(streamedOutputStream);
+    Assertions.assertArrayEquals(outputStream.toByteArray(), streamedOutputStream.toByteArray());
+  }
 }
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.TestFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import de.captaingoldfish.scim.sdk.common.constants.AttributeNames;
 import de.captaingoldfish.scim.sdk.common.constants.HttpStatus;
 import de.captaingoldfish.scim.sdk.common.exceptions.InvalidSchemaException;
 import de.captaingoldfish.scim.sdk.common.utils.FileReferences;
@@ -53,6 +54,41 @@ public class SchemaTest implements FileReferences
                             schema.getSchemaAttribute("date").getNotAfter().get());
   }
 
+  /**
+   * verifies that the compiled attribute definitions match their json representation and that the compiled
+   * validation attributes are kept in sync with the json representation by the setters
+   */
+  @Test
+  public void testCompiledAttributeDefinitions()
+  {
+    JsonNode validationSchema = JsonHelper.loadJsonDocument(VALIDATION_TEST_SCHEMA);
+    Schema schema = new Schema(validationSchema);
+    Assertions.assertEquals(schema.get(AttributeNames.RFC7643.ATTRIBUTES).size(), schema.getAttributes().size());
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> schema.getAttributes().clear());
+    for ( SchemaAttribute schemaAttribute : schema.getAttributes() )
+    {
+      Assertions.assertSame(schemaAttribute, schema.getSchemaAttribute(schemaAttribute.getScimNodeName()));
+      Assertions.assertEquals(JsonHelper.getSimpleAttribute(schemaAttribute, AttributeNames.RFC7643.TYPE).get(),
+                              schemaAttribute.getType().getValue());
+      Assertions.assertEquals(JsonHelper.getSimpleAttribute(schemaAttribute, AttributeNames.RFC7643.MUTABILITY).get(),
+                              schemaAttribute.getMutability().getValue());
+      Assertions.assertEquals(JsonHelper.getSimpleAttribute(schemaAttribute,
+                                                            AttributeNames.RFC7643.MULTI_VALUED,
+                                                            Boolean.class)
+                                        .get(),
+                              schemaAttribute.isMultiValued());
+      Assertions.assertEquals(schema.getNonNullId() + ":" + schemaAttribute.getName(),
+                              schemaAttribute.getFullResourceName());
+    }
+
+    SchemaAttribute numberAttribute = schema.getSchemaAttribute("number");
+    numberAttribute.setMinimum(20);
+    Assertions.assertEquals(20, numberAttribute.getMinimum().get());
+    Assertions.assertEquals(20,
+                            JsonHelper.getSimpleAttribute(numberAttribute, AttributeNames.Custom.MINIMUM, Double.class)
+                                      .get());
+  }
+
   /**
    * verifies that the setter methods for the validation attributes cannot be set if the type is not applicable
    */
@@ -85,6 +85,7 @@ public class TimeUtilsTest
   public void testDateTimeparsingSuccess(String dateTime)
   {
     Assertions.assertDoesNotThrow(() -> TimeUtils.parseDateTime(dateTime));
+    Assertions.assertTrue(TimeUtils.isDateTime(dateTime));
   }
 
   /**
@@ -92,9 +93,10 @@ public class TimeUtilsTest
    * chapter 2.3.5
    */
   @ParameterizedTest
-  @ValueSource(strings = {"hello world", "123456", "2019-12-24", "2019-12-24 13:54:28"})
+  @ValueSource(strings = {"hello world", "123456", "2019-12-24", "2019-12-24 13:54:28", "2019-02-31T10:00:00Z"})
   public void testDateTimeparsingFail(String dateTime)
   {
     Assertions.assertThrows(InvalidDateTimeRepresentationException.class, () -> TimeUtils.parseDateTime(dateTime));
+    Assertions.assertFalse(TimeUtils.isDateTime(dateTime));
   }
 }
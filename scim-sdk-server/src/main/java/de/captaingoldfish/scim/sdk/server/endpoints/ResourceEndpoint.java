@@ -332,6 +332,7 @@ public final class ResourceEndpoint extends ResourceEndpointHandler
                                uriInfos.getQueryParameters().get(AttributeNames.RFC7643.ATTRIBUTES),
                                uriInfos.getQueryParameters()
                                        .get(AttributeNames.RFC7643.EXCLUDED_ATTRIBUTES.toLowerCase()),
+                               uriInfos.getQueryParameters().get(AttributeNames.Custom.CURSOR),
                                uriInfos::getBaseUri,
                                authorization);
         }
@@ -4,12 +4,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -49,17 +54,29 @@ import de.captaingoldfish.scim.sdk.server.endpoints.base.SchemaEndpointDefinitio
 import de.captaingoldfish.scim.sdk.server.endpoints.base.ServiceProviderEndpointDefinition;
 import de.captaingoldfish.scim.sdk.server.etag.ETagHandler;
 import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceList;
+import de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore;
+import de.captaingoldfish.scim.sdk.server.filter.resources.FilterCompiler;
 import de.captaingoldfish.scim.sdk.server.filter.resources.FilterResourceResolver;
 import de.captaingoldfish.scim.sdk.server.patch.PatchHandler;
 import de.captaingoldfish.scim.sdk.server.response.PartialListResponse;
+import de.captaingoldfish.scim.sdk.server.response.PartialStreamResponse;
+import de.captaingoldfish.scim.sdk.server.response.QueryResultCache;
+import de.captaingoldfish.scim.sdk.server.schemas.AttributeProjection;
 import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
 import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
 import de.captaingoldfish.scim.sdk.server.schemas.SchemaValidator;
 import de.captaingoldfish.scim.sdk.server.schemas.custom.ResourceTypeFeatures;
-import de.captaingoldfish.scim.sdk.server.sort.ResourceNodeComparator;
+import de.captaingoldfish.scim.sdk.server.sort.ExternalMergeSorter;
+import de.captaingoldfish.scim.sdk.server.sort.PrecomputedKeySorter;
+import de.captaingoldfish.scim.sdk.server.sort.ResourceCursor;
+import de.captaingoldfish.scim.sdk.server.sort.ResourceCursorCodec;
+import de.captaingoldfish.scim.sdk.server.sort.TopKSelector;
+import de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy;
 import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 
@@ -86,6 +103,13 @@ class ResourceEndpointHandler
   @Getter(AccessLevel.PROTECTED)
   private ResourceTypeFactory resourceTypeFactory;
 
+  /**
+   * signs and verifies the cursors of cursor based list requests
+   */
+  @Getter
+  @Setter
+  private ResourceCursorCodec cursorCodec = new ResourceCursorCodec();
+
   /**
    * this constructor was introduced for unit tests to add a specific resourceTypeFactory instance which will
    * prevent application context pollution within unit tests
@@ -126,6 +150,8 @@ class ResourceEndpointHandler
                                                     .collect(Collectors.toList()));
     resourceHandler.setChangePasswordSupported(() -> serviceProvider.getChangePasswordConfig().isSupported());
     resourceHandler.setMaxResults(() -> serviceProvider.getFilterConfig().getMaxResults());
+    resourceType.getFilterCache().setMaxSize(() -> serviceProvider.getFilterConfig().getExpressionCacheSize());
+    resourceType.getPatchPathCache().setMaxSize(() -> serviceProvider.getFilterConfig().getExpressionCacheSize());
     return resourceType;
   }
 
@@ -230,6 +256,7 @@ class ResourceEndpointHandler
       createdMeta.setLocation(location);
       createdMeta.setResourceType(resourceType.getName());
       ETagHandler.getResourceVersion(serviceProvider, resourceType, resourceNode).ifPresent(createdMeta::setVersion);
+      putIntoResourceStore(resourceType, resourceNode);
       JsonNode responseResource = SchemaValidator.validateDocumentForResponse(resourceTypeFactory,
                                                                               resourceType,
                                                                               resourceNode,
@@ -326,14 +353,17 @@ class ResourceEndpointHandler
     {
       RequestUtils.validateAttributesAndExcludedAttributes(attributes, excludedAttributes);
       ResourceType resourceType = getResourceType(endpoint);
+      AttributeProjection projection = AttributeProjection.of(attributes, excludedAttributes);
       ResourceHandler resourceHandler = resourceType.getResourceHandlerImpl();
-      ResourceNode resourceNode = resourceHandler.getResource(id, authorization);
+      ResourceNode resourceNode = copyIfStored(resourceType,
+                                               resourceHandler.getResource(id, projection, authorization));
       if (resourceNode == null)
       {
         throw new ResourceNotFoundException("the '" + resourceType.getName() + "' resource with id '" + id + "' does "
                                             + "not exist", null, null);
       }
-      ETagHandler.validateVersion(serviceProvider, resourceType, () -> resourceNode, httpHeaders);
+      ResourceNode versionedResource = getVersionedResource(resourceType, id, resourceNode, projection, authorization);
+      ETagHandler.validateVersion(serviceProvider, resourceType, () -> versionedResource, httpHeaders);
       String resourceId = resourceNode.getId().orElse(null);
       if (resourceId != null && !resourceId.equals(id))
       {
@@ -346,21 +376,27 @@ class ResourceEndpointHandler
         }
       }
       final String location = getLocation(resourceType, resourceId, baseUrlSupplier);
-      resourceNode.getMeta().ifPresent(meta -> {
+      Consumer<Meta> completeMeta = meta -> {
         if (!meta.getLastModified().isPresent())
         {
           meta.setLastModified(meta.getCreated().orElse(null));
         }
         meta.setLocation(location);
         meta.setResourceType(resourceType.getName());
-        ETagHandler.getResourceVersion(serviceProvider, resourceType, resourceNode).ifPresent(meta::setVersion);
+      };
+      resourceNode.getMeta().ifPresent(meta -> {
+        completeMeta.accept(meta);
+        if (versionedResource != resourceNode)
+        {
+          versionedResource.getMeta().ifPresent(completeMeta);
+        }
+        ETagHandler.getResourceVersion(serviceProvider, resourceType, versionedResource).ifPresent(meta::setVersion);
       });
       JsonNode responseResource = SchemaValidator.validateDocumentForResponse(resourceTypeFactory,
                                                                               resourceType,
                                                                               resourceNode,
                                                                               null,
-                                                                              attributes,
-                                                                              excludedAttributes,
+                                                                              projection,
                                                                               baseUrlSupplier);
       return new GetResponse(responseResource, location, resourceNode.getMeta().orElse(null));
     }
@@ -374,6 +410,36 @@ class ResourceEndpointHandler
     }
   }
 
+  /**
+   * the version of a resource must not depend on the "attributes" and "excludedAttributes" parameters because
+   * PUT, PATCH and DELETE validate the version against the complete resource. If the resource handler might
+   * have returned a partial resource without a version the complete resource is loaded to calculate the version
+   *
+   * @param resourceType the resource type of the resource
+   * @param id the id of the requested resource
+   * @param resourceNode the resource as returned for the projection
+   * @param projection the parsed "attributes" and "excludedAttributes" parameters
+   * @param authorization the authorization of the current client
+   * @return the resource from which the version must be calculated
+   */
+  private ResourceNode getVersionedResource(ResourceType resourceType,
+                                            String id,
+                                            ResourceNode resourceNode,
+                                            AttributeProjection projection,
+                                            Authorization authorization)
+  {
+    ResourceHandler resourceHandler = resourceType.getResourceHandlerImpl();
+    boolean eTagsEnabled = serviceProvider.getETagConfig().isSupported()
+                           && resourceType.getFeatures().getETagFeature().isEnabled();
+    boolean projected = projection.isAttributesPresent() || projection.isExcludedAttributesPresent();
+    if (!eTagsEnabled || !projected || !resourceHandler.isResourceProjectionSupported()
+        || resourceNode.getMeta().flatMap(Meta::getVersion).isPresent())
+    {
+      return resourceNode;
+    }
+    return Optional.ofNullable(resourceHandler.getResource(id, authorization)).orElse(resourceNode);
+  }
+
   /**
    * Clients MAY execute queries without passing parameters on the URL by using the HTTP POST verb combined with
    * the "/.search" path extension. The inclusion of "/.search" on the end of a valid SCIM endpoint SHALL be
@@ -435,6 +501,7 @@ class ResourceEndpointHandler
                          searchRequest.getSortOrder().orElse(null),
                          searchRequest.getAttributes().orElse(null),
                          searchRequest.getExcludedAttributes().orElse(null),
+                         searchRequest.getCursor().orElse(null),
                          baseUrlSupplier,
                          authorization);
   }
@@ -505,10 +572,140 @@ class ResourceEndpointHandler
                                                                 String excludedAttributes,
                                                                 Supplier<String> baseUrlSupplier,
                                                                 Authorization authorization)
+  {
+    return listResources(endpoint,
+                         startIndex,
+                         count,
+                         filter,
+                         sortBy,
+                         sortOrder,
+                         attributes,
+                         excludedAttributes,
+                         null,
+                         baseUrlSupplier,
+                         authorization);
+  }
+
+  /**
+   * lists the resources like
+   * {@link #listResources(String, Long, Integer, String, String, String, String, String, Supplier, Authorization)}
+   * but supports cursor based pagination. If a cursor is given the startIndex is ignored and the page consists
+   * of the resources that follow the cursor. The cursor of the next page is returned in the "nextCursor"
+   * attribute of the list response
+   *
+   * @param cursor the cursor from the "nextCursor" attribute of the previous page, an empty string for the
+   *          first page or null if the client uses the startIndex based pagination
+   * @see #listResources(String, Long, Integer, String, String, String, String, String, Supplier, Authorization)
+   */
+  protected <T extends ResourceNode> ScimResponse listResources(String endpoint,
+                                                                Long startIndex,
+                                                                Integer count,
+                                                                String filter,
+                                                                String sortBy,
+                                                                String sortOrder,
+                                                                String attributes,
+                                                                String excludedAttributes,
+                                                                String cursor,
+                                                                Supplier<String> baseUrlSupplier,
+                                                                Authorization authorization)
   {
     try
     {
       final ResourceType resourceType = getResourceType(endpoint);
+      final QueryResultCache queryResultCache = resourceType.getQueryResultCache();
+      if (queryResultCache == null || cursor != null)
+      {
+        return resolveListResponse(resourceType,
+                                   startIndex,
+                                   count,
+                                   filter,
+                                   sortBy,
+                                   sortOrder,
+                                   attributes,
+                                   excludedAttributes,
+                                   cursor,
+                                   baseUrlSupplier,
+                                   authorization);
+      }
+      final SchemaAttribute sortByAttribute = getSortByAttribute(resourceType, sortBy);
+      final String baseUrl = baseUrlSupplier == null ? null : baseUrlSupplier.get();
+      final Optional<String> cacheKey = queryResultCache.createKey(getFilterNode(resourceType, filter),
+                                                                   sortByAttribute,
+                                                                   getSortOrdering(sortOrder, sortByAttribute),
+                                                                   RequestUtils.getEffectiveStartIndex(startIndex),
+                                                                   RequestUtils.getEffectiveCount(serviceProvider,
+                                                                                                  count),
+                                                                   attributes,
+                                                                   excludedAttributes,
+                                                                   baseUrl,
+                                                                   authorization);
+      if (!cacheKey.isPresent())
+      {
+        // the client can not be distinguished from other clients so its response must not be cached
+        return resolveListResponse(resourceType,
+                                   startIndex,
+                                   count,
+                                   filter,
+                                   sortBy,
+                                   sortOrder,
+                                   attributes,
+                                   excludedAttributes,
+                                   null,
+                                   () -> baseUrl,
+                                   authorization);
+      }
+      Optional<String> cachedResponse = queryResultCache.get(cacheKey.get());
+      if (cachedResponse.isPresent())
+      {
+        return new ListResponse<T>(cachedResponse.get());
+      }
+      final long generation = queryResultCache.getGeneration();
+      ScimResponse scimResponse = resolveListResponse(resourceType,
+                                                      startIndex,
+                                                      count,
+                                                      filter,
+                                                      sortBy,
+                                                      sortOrder,
+                                                      attributes,
+                                                      excludedAttributes,
+                                                      null,
+                                                      () -> baseUrl,
+                                                      authorization);
+      if (scimResponse instanceof ListResponse)
+      {
+        queryResultCache.put(cacheKey.get(), generation, scimResponse.toString());
+      }
+      return scimResponse;
+    }
+    catch (ScimException ex)
+    {
+      return new ErrorResponse(ex);
+    }
+    catch (Exception ex)
+    {
+      return new ErrorResponse(new InternalServerException(ex.getMessage(), ex, null));
+    }
+  }
+
+  /**
+   * computes the list response of
+   * {@link #listResources(String, Long, Integer, String, String, String, String, String, String, Supplier, Authorization)}
+   * without using the {@link QueryResultCache} of the resource type
+   */
+  private <T extends ResourceNode> ScimResponse resolveListResponse(ResourceType resourceType,
+                                                                    Long startIndex,
+                                                                    Integer count,
+                                                                    String filter,
+                                                                    String sortBy,
+                                                                    String sortOrder,
+                                                                    String attributes,
+                                                                    String excludedAttributes,
+                                                                    String cursor,
+                                                                    Supplier<String> baseUrlSupplier,
+                                                                    Authorization authorization)
+  {
+    try
+    {
       final long effectiveStartIndex = RequestUtils.getEffectiveStartIndex(startIndex);
       final int effectiveCount = RequestUtils.getEffectiveCount(serviceProvider, count);
       final FilterNode filterNode = getFilterNode(resourceType, filter);
@@ -516,17 +713,63 @@ class ResourceEndpointHandler
       final SchemaAttribute sortByAttribute = getSortByAttribute(resourceType, sortBy);
       final SortOrder sortOrdering = getSortOrdering(sortOrder, sortByAttribute);
       final boolean autoSorting = resourceType.getFeatures().isAutoSorting();
-      final List<SchemaAttribute> attributesList = RequestUtils.getAttributes(resourceType, attributes);
-      final List<SchemaAttribute> excludedAttributesList = RequestUtils.getAttributes(resourceType, excludedAttributes);
+      final AttributeProjection projection = AttributeProjection.of(resourceType, attributes, excludedAttributes);
+
+      if (cursor != null)
+      {
+        return listResourcesAfterCursor(cursor,
+                                        effectiveCount,
+                                        filterNode,
+                                        sortByAttribute,
+                                        sortOrdering,
+                                        resourceType,
+                                        projection,
+                                        baseUrlSupplier,
+                                        authorization);
+      }
+
+      if (effectiveCount == 0)
+      {
+        long totalResults = countResources(filterNode, effectiveStartIndex, resourceType, projection, authorization);
+        return new ListResponse<T>(Collections.emptyList(), totalResults, 0, effectiveStartIndex);
+      }
 
       ResourceHandler<T> resourceHandler = resourceType.getResourceHandlerImpl();
+      PartialStreamResponse<T> streamResponse = resourceHandler.streamResources(autoFiltering ? null : filterNode,
+                                                                                autoSorting ? null : sortByAttribute,
+                                                                                autoSorting ? null : sortOrdering,
+                                                                                projection.getAttributes(),
+                                                                                projection.getExcludedAttributes(),
+                                                                                authorization);
+      if (streamResponse != null && autoSorting && sortByAttribute != null
+          && serviceProvider.getSortConfig().isSupported())
+      {
+        return listSortedStreamedResources(streamResponse,
+                                           autoFiltering ? filterNode : null,
+                                           sortByAttribute,
+                                           sortOrdering,
+                                           effectiveStartIndex,
+                                           effectiveCount,
+                                           resourceType,
+                                           projection,
+                                           baseUrlSupplier);
+      }
+      if (streamResponse != null)
+      {
+        return listStreamedResources(streamResponse,
+                                     autoFiltering ? filterNode : null,
+                                     effectiveStartIndex,
+                                     effectiveCount,
+                                     resourceType,
+                                     projection,
+                                     baseUrlSupplier);
+      }
       PartialListResponse<T> resources = resourceHandler.listResources(effectiveStartIndex,
                                                                        effectiveCount,
                                                                        autoFiltering ? null : filterNode,
                                                                        autoSorting ? null : sortByAttribute,
                                                                        autoSorting ? null : sortOrdering,
-                                                                       attributesList,
-                                                                       excludedAttributesList,
+                                                                       projection,
                                                                        authorization);
       if (resources == null)
       {
@@ -535,12 +778,32 @@ class ResourceEndpointHandler
       }
 
       List<T> resourceList = resources.getResources();
+      Optional<List<T>> sortedPage = getPageFromSortedView(resourceList,
+                                                           filterNode,
+                                                           sortByAttribute,
+                                                           sortOrdering,
+                                                           resourceType,
+                                                           effectiveStartIndex,
+                                                           effectiveCount);
+      if (sortedPage.isPresent())
+      {
+        long totalResults = resources.getTotalResults() == 0 ? resourceList.size() : resources.getTotalResults();
+        List<JsonNode> validatedResourceList = validateListedResources(copyStoredResources(sortedPage.get()),
+                                                                       resourceType,
+                                                                       projection,
+                                                                       baseUrlSupplier);
+        return new ListResponse<T>(validatedResourceList, totalResults, validatedResourceList.size(),
+                                   effectiveStartIndex);
+      }
       List<T> filteredResources = filterResources(filterNode, resourceList, resourceType);
-      filteredResources = sortResources(filteredResources, sortByAttribute, sortOrdering, resourceType);
 
       long totalResults = resourceList.size() != filteredResources.size() ? filteredResources.size()
         : (resources.getTotalResults() == 0 ? filteredResources.size() : resources.getTotalResults());
 
+      // only the resources up to the end of the requested page must be sorted
+      long sortLimit = effectiveStartIndex - 1 + effectiveCount;
+      filteredResources = sortResources(filteredResources, sortByAttribute, sortOrdering, resourceType, sortLimit);
+
       // this if-block will assert that no more results will be returned than the countValue allows.
       if (effectiveStartIndex <= filteredResources.size())
       {
@@ -561,30 +824,15 @@ class ResourceEndpointHandler
                  + "' results");
         filteredResources = filteredResources.subList(0, effectiveCount);
       }
-
-      List<JsonNode> validatedResourceList = new ArrayList<>();
-      for ( ResourceNode resourceNode : filteredResources )
+      if (resourceList instanceof IndexedResourceList)
       {
-        final String location = getLocation(resourceType, resourceNode.getId().orElse(null), baseUrlSupplier);
-        resourceNode.getMeta().ifPresent(meta -> {
-          if (!meta.getLastModified().isPresent())
-          {
-            meta.setLastModified(meta.getCreated().orElse(null));
-          }
-          meta.setLocation(location);
-          meta.setResourceType(resourceType.getName());
-          ETagHandler.getResourceVersion(serviceProvider, resourceType, resourceNode).ifPresent(meta::setVersion);
-        });
-        JsonNode validatedResource = SchemaValidator.validateDocumentForResponse(resourceTypeFactory,
-                                                                                 resourceType,
-                                                                                 resourceNode,
-                                                                                 null,
-                                                                                 attributes,
-                                                                                 excludedAttributes,
-                                                                                 baseUrlSupplier);
-        validatedResourceList.add(validatedResource);
+        filteredResources = copyStoredResources(filteredResources);
       }
 
+      List<JsonNode> validatedResourceList = validateListedResources(filteredResources,
+                                                                     resourceType,
+                                                                     projection,
+                                                                     baseUrlSupplier);
       return new ListResponse<T>(validatedResourceList, totalResults, validatedResourceList.size(),
                                  effectiveStartIndex);
     }
@@ -598,18 +846,506 @@ class ResourceEndpointHandler
     }
   }
 
+  /**
+   * counts the resources that match the given filter for requests with a count of 0. The handler is asked first
+   * with {@link ResourceHandler#countResources(FilterNode, Authorization)}. If it does not support counting or
+   * if the filter must be applied automatically the resources are read from the handler and the matches are
+   * counted. The resources are neither sorted nor validated because none of them is returned
+   *
+   * @param filterNode the filter expression from the client. Might be null
+   * @param effectiveStartIndex the 1-based index of the first resource that was requested
+   * @param resourceType the resource type of the resources
+   * @param projection the parsed attributes and excludedAttributes parameters
+   * @param authorization the authorization of the current client
+   * @return the number of matching resources
+   */
+  private <T extends ResourceNode> long countResources(FilterNode filterNode,
+                                                       long effectiveStartIndex,
+                                                       ResourceType resourceType,
+                                                       AttributeProjection projection,
+                                                       Authorization authorization)
+  {
+    final boolean autoFiltering = resourceType.getFeatures().isAutoFiltering();
+    final boolean filterByEndpoint = autoFiltering && filterNode != null;
+    ResourceHandler<T> resourceHandler = resourceType.getResourceHandlerImpl();
+    if (!filterByEndpoint)
+    {
+      Long numberOfResources = resourceHandler.countResources(filterNode, authorization);
+      if (numberOfResources != null)
+      {
+        return numberOfResources;
+      }
+    }
+
+    PartialStreamResponse<T> streamResponse = resourceHandler.streamResources(autoFiltering ? null
+      : filterNode, null, null, projection.getAttributes(), projection.getExcludedAttributes(), authorization);
+    if (streamResponse != null)
+    {
+      try (Stream<T> resources = streamResponse.getResources())
+      {
+        if (!filterByEndpoint && streamResponse.getTotalResults() != null)
+        {
+          return streamResponse.getTotalResults();
+        }
+        Predicate<ResourceNode> predicate = filterByEndpoint ? FilterCompiler.compile(filterNode) : resource -> true;
+        return resources.filter(predicate).count();
+      }
+    }
+
+    PartialListResponse<T> resources = resourceHandler.listResources(effectiveStartIndex,
+                                                                     0,
+                                                                     autoFiltering ? null : filterNode,
+                                                                     null,
+                                                                     null,
+                                                                     projection,
+                                                                     authorization);
+    if (resources == null)
+    {
+      throw new NotImplementedException("listResources was not implemented for resourceType '" + resourceType.getName()
+                                        + "'");
+    }
+    List<T> resourceList = resources.getResources();
+    if (filterByEndpoint)
+    {
+      return filterResources(filterNode, resourceList, resourceType).size();
+    }
+    return resources.getTotalResults() == 0 ? resourceList.size() : resources.getTotalResults();
+  }
+
+  /**
+   * returns the page of resources that follows the given cursor. The resource handler is asked first with
+   * {@link ResourceHandler#listResourcesAfter(ResourceCursor, int, FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}
+   * so that it can seek directly to the position of the cursor. If the handler does not support this the
+   * resources are read from the handler, filtered and the resources following the cursor are selected with a
+   * bounded heap. One more resource than requested is selected to find out if a next page exists
+   *
+   * @param cursor the cursor sent by the client. An empty cursor requests the first page
+   * @param effectiveCount the maximum number of resources to return
+   * @param filterNode the filter expression from the client. Might be null
+   * @param sortByAttribute the sortBy attribute. Might be null
+   * @param sortOrdering the sort order to use
+   * @param resourceType the resource type of the resources
+   * @param projection the parsed attributes and excludedAttributes parameters
+   * @param baseUrlSupplier supplies the base url of this application
+   * @param authorization the authorization of the current client
+   * @return the list response with the requested page and the cursor of the next page if more resources exist
+   */
+  private <T extends ResourceNode> ScimResponse listResourcesAfterCursor(String cursor,
+                                                                         int effectiveCount,
+                                                                         FilterNode filterNode,
+                                                                         SchemaAttribute sortByAttribute,
+                                                                         SortOrder sortOrdering,
+                                                                         ResourceType resourceType,
+                                                                         AttributeProjection projection,
+                                                                         Supplier<String> baseUrlSupplier,
+                                                                         Authorization authorization)
+  {
+    ResourceCursor resourceCursor = null;
+    if (StringUtils.isNotEmpty(cursor))
+    {
+      resourceCursor = cursorCodec.decode(cursor);
+      if (!resourceCursor.matches(resourceType.getName(), filterNode, sortByAttribute, sortOrdering))
+      {
+        throw new BadRequestException("the cursor was issued for another resource type, filter or sorting",
+                                      ScimType.Custom.INVALID_CURSOR);
+      }
+    }
+    ResourceHandler<T> resourceHandler = resourceType.getResourceHandlerImpl();
+    PartialListResponse<T> keysetResponse = resourceHandler.listResourcesAfter(resourceCursor,
+                                                                               effectiveCount,
+                                                                               filterNode,
+                                                                               sortByAttribute,
+                                                                               sortOrdering,
+                                                                               projection.getAttributes(),
+                                                                               projection.getExcludedAttributes(),
+                                                                               authorization);
+    List<T> page;
+    long totalResults;
+    boolean hasNextPage;
+    if (keysetResponse != null)
+    {
+      page = keysetResponse.getResources();
+      if (page.size() > effectiveCount)
+      {
+        log.warn("the service provider tried to return more results than allowed. Tried to return '" + page.size()
+                 + "' results. The list will be reduced to '" + effectiveCount + "' results");
+        page = page.subList(0, effectiveCount);
+      }
+      totalResults = keysetResponse.getTotalResults() == 0 ? page.size() : keysetResponse.getTotalResults();
+      hasNextPage = effectiveCount > 0 && page.size() == effectiveCount;
+    }
+    else
+    {
+      AtomicBoolean storedResources = new AtomicBoolean(false);
+      List<T> matchingResources = readAllMatchingResources(resourceHandler,
+                                                           filterNode,
+                                                           sortByAttribute,
+                                                           sortOrdering,
+                                                           resourceType,
+                                                           projection,
+                                                           authorization,
+                                                           storedResources);
+      totalResults = matchingResources.size();
+      if (resourceCursor != null)
+      {
+        final ResourceCursor position = resourceCursor;
+        matchingResources = matchingResources.stream()
+                                             .filter(resource -> position.follows(resource, sortByAttribute))
+                                             .collect(Collectors.toList());
+      }
+      // one more resource is selected to find out if another page follows
+      int selectionSize = effectiveCount == Integer.MAX_VALUE ? effectiveCount : effectiveCount + 1;
+      page = TopKSelector.selectTopK(matchingResources,
+                                     selectionSize,
+                                     ResourceCursor.getKeysetOrder(sortByAttribute, sortOrdering));
+      hasNextPage = page.size() > effectiveCount;
+      if (hasNextPage)
+      {
+        page = page.subList(0, effectiveCount);
+      }
+      if (storedResources.get())
+      {
+        page = copyStoredResources(page);
+      }
+    }
+    List<JsonNode> validatedResourceList = validateListedResources(page, resourceType, projection, baseUrlSupplier);
+    ListResponse<T> listResponse = new ListResponse<>(validatedResourceList, totalResults, validatedResourceList.size(),
+                                                      null);
+    if (hasNextPage && !page.isEmpty())
+    {
+      listResponse.setNextCursor(cursorCodec.encode(ResourceCursor.after(resourceType.getName(),
+                                                                         page.get(page.size() - 1),
+                                                                         filterNode,
+                                                                         sortByAttribute,
+                                                                         sortOrdering)));
+    }
+    return listResponse;
+  }
+
+  /**
+   * reads all resources that match the given filter from the resource handler. The resources are read from
+   * {@link ResourceHandler#streamResources(FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}
+   * if the handler supports streaming and from
+   * {@link ResourceHandler#listResources(long, int, FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}
+   * otherwise
+   *
+   * @param storedResources is set to true if the resources were read from an {@link IndexedResourceList} and
+   *          are therefore shared with the store
+   * @return all resources that match the filter in no specific order
+   */
+  private <T extends ResourceNode> List<T> readAllMatchingResources(ResourceHandler<T> resourceHandler,
+                                                                    FilterNode filterNode,
+                                                                    SchemaAttribute sortByAttribute,
+                                                                    SortOrder sortOrdering,
+                                                                    ResourceType resourceType,
+                                                                    AttributeProjection projection,
+                                                                    Authorization authorization,
+                                                                    AtomicBoolean storedResources)
+  {
+    final boolean autoFiltering = resourceType.getFeatures().isAutoFiltering();
+    final boolean autoSorting = resourceType.getFeatures().isAutoSorting();
+    PartialStreamResponse<T> streamResponse = resourceHandler.streamResources(autoFiltering ? null : filterNode,
+                                                                              autoSorting ? null : sortByAttribute,
+                                                                              autoSorting ? null : sortOrdering,
+                                                                              projection.getAttributes(),
+                                                                              projection.getExcludedAttributes(),
+                                                                              authorization);
+    if (streamResponse != null)
+    {
+      Predicate<ResourceNode> predicate = autoFiltering && filterNode != null ? FilterCompiler.compile(filterNode)
+        : resource -> true;
+      try (Stream<T> resources = streamResponse.getResources())
+      {
+        return resources.filter(predicate).collect(Collectors.toList());
+      }
+    }
+    PartialListResponse<T> resources = resourceHandler.listResources(1,
+                                                                     Integer.MAX_VALUE,
+                                                                     autoFiltering ? null : filterNode,
+                                                                     autoSorting ? null : sortByAttribute,
+                                                                     autoSorting ? null : sortOrdering,
+                                                                     projection,
+                                                                     authorization);
+    if (resources == null)
+    {
+      throw new NotImplementedException("listResources was not implemented for resourceType '" + resourceType.getName()
+                                        + "'");
+    }
+    storedResources.set(resources.getResources() instanceof IndexedResourceList);
+    return filterResources(filterNode, resources.getResources(), resourceType);
+  }
+
+  /**
+   * reads the page that was requested by the client from the given stream. The filter is evaluated on each
+   * resource while the stream is read and the stream is not read any further than one resource after the page
+   * unless the handler requested counting the total results
+   *
+   * @param streamResponse the lazily evaluated resources from the resource handler
+   * @param filterNode the filter that must be applied on the resources or null
+   * @param effectiveStartIndex the 1-based index of the first resource to return
+   * @param effectiveCount the maximum number of resources to return
+   * @param resourceType the resource type of the resources
+   * @param projection the parsed attributes and excludedAttributes parameters
+   * @param baseUrlSupplier supplies the base url of this application
+   * @return the list response with the requested page
+   */
+  private <T extends ResourceNode> ScimResponse listStreamedResources(PartialStreamResponse<T> streamResponse,
+                                                                      FilterNode filterNode,
+                                                                      long effectiveStartIndex,
+                                                                      int effectiveCount,
+                                                                      ResourceType resourceType,
+                                                                      AttributeProjection projection,
+                                                                      Supplier<String> baseUrlSupplier)
+  {
+    Predicate<ResourceNode> predicate = filterNode == null ? resource -> true : FilterCompiler.compile(filterNode);
+    boolean countTotalResults = streamResponse.isCountTotalResults() && streamResponse.getTotalResults() == null;
+    List<T> page = new ArrayList<>(Math.min(effectiveCount, 1024));
+    long numberOfMatches = 0;
+    try (Stream<T> resources = streamResponse.getResources())
+    {
+      Iterator<T> iterator = resources.iterator();
+      while (iterator.hasNext())
+      {
+        T resource = iterator.next();
+        if (!predicate.test(resource))
+        {
+          continue;
+        }
+        numberOfMatches++;
+        if (numberOfMatches < effectiveStartIndex)
+        {
+          continue;
+        }
+        if (page.size() < effectiveCount)
+        {
+          page.add(resource);
+        }
+        else if (!countTotalResults)
+        {
+          // we know now that at least one more result is available
+          break;
+        }
+      }
+    }
+    long totalResults = streamResponse.getTotalResults() != null && filterNode == null
+      ? streamResponse.getTotalResults() : numberOfMatches;
+    List<JsonNode> validatedResourceList = validateListedResources(page, resourceType, projection, baseUrlSupplier);
+    return new ListResponse<T>(validatedResourceList, totalResults, validatedResourceList.size(), effectiveStartIndex);
+  }
+
+  /**
+   * reads the whole stream, sorts the matching resources and returns the page that was requested by the client.
+   * The matching resources are sorted in memory as long as their number does not exceed the
+   * {@link ExecutionPolicy#getExternalSortThreshold()} of the resource type. Larger results are written in
+   * sorted runs into temporary files that are merged while the page is read
+   *
+   * @param streamResponse the lazily evaluated resources from the resource handler
+   * @param filterNode the filter that must be applied on the resources or null
+   * @param sortByAttribute the attribute that defines the order
+   * @param sortOrdering the sort order to use
+   * @param effectiveStartIndex the 1-based index of the first resource to return
+   * @param effectiveCount the maximum number of resources to return
+   * @param resourceType the resource type of the resources
+   * @param projection the parsed attributes and excludedAttributes parameters
+   * @param baseUrlSupplier supplies the base url of this application
+   * @return the list response with the requested page
+   */
+  private <T extends ResourceNode> ScimResponse listSortedStreamedResources(PartialStreamResponse<T> streamResponse,
+                                                                            FilterNode filterNode,
+                                                                            SchemaAttribute sortByAttribute,
+                                                                            SortOrder sortOrdering,
+                                                                            long effectiveStartIndex,
+                                                                            int effectiveCount,
+                                                                            ResourceType resourceType,
+                                                                            AttributeProjection projection,
+                                                                            Supplier<String> baseUrlSupplier)
+  {
+    Predicate<ResourceNode> predicate = filterNode == null ? resource -> true : FilterCompiler.compile(filterNode);
+    ExecutionPolicy executionPolicy = resourceType.getExecutionPolicy();
+    List<T> page;
+    long totalResults;
+    try (Stream<T> resources = streamResponse.getResources();
+      ExternalMergeSorter<T> sorter = new ExternalMergeSorter<>(sortByAttribute, sortOrdering,
+                                                                executionPolicy.getExternalSortThreshold(),
+                                                                executionPolicy))
+    {
+      Iterator<T> iterator = resources.iterator();
+      while (iterator.hasNext())
+      {
+        T resource = iterator.next();
+        if (predicate.test(resource))
+        {
+          sorter.add(resource);
+        }
+      }
+      page = sorter.getPage(effectiveStartIndex, effectiveCount);
+      totalResults = streamResponse.getTotalResults() != null && filterNode == null ? streamResponse.getTotalResults()
+        : sorter.getSize();
+      if (sorter.getNumberOfRuns() > 0)
+      {
+        log.debug("sorted '{}' streamed resources of type '{}' in '{}' runs on the file system",
+                  sorter.getSize(),
+                  resourceType.getName(),
+                  sorter.getNumberOfRuns());
+      }
+    }
+    List<JsonNode> validatedResourceList = validateListedResources(page, resourceType, projection, baseUrlSupplier);
+    return new ListResponse<T>(validatedResourceList, totalResults, validatedResourceList.size(), effectiveStartIndex);
+  }
+
+  /**
+   * copies the resources of a page that was read from an {@link IndexedResourceList}. These resources are
+   * shared with the store and with concurrent requests so the meta information of the response must not be
+   * written into them. Only the page is copied so the costs do not depend on the size of the store
+   *
+   * @param page the resources of the page
+   * @return the copied resources
+   */
+  private <T extends ResourceNode> List<T> copyStoredResources(List<T> page)
+  {
+    List<T> copiedPage = new ArrayList<>(page.size());
+    for ( T resource : page )
+    {
+      copiedPage.add(copyResource(resource));
+    }
+    return copiedPage;
+  }
+
+  /**
+   * copies the given resource if it is the instance that is kept in the {@link IndexedResourceStore} of the
+   * resource type so that the response handling does not write into the store
+   *
+   * @param resourceType the resource type of the resource
+   * @param resourceNode the resource as it was returned by the resource handler or null
+   * @return a copy of the resource if it is kept in the store, the resource itself else
+   */
+  private ResourceNode copyIfStored(ResourceType resourceType, ResourceNode resourceNode)
+  {
+    IndexedResourceStore<?> resourceStore = resourceType.getIndexedResourceStore();
+    if (resourceStore == null || resourceNode == null || !resourceNode.getId().isPresent())
+    {
+      return resourceNode;
+    }
+    boolean isStored = resourceStore.get(resourceNode.getId().get()).orElse(null) == resourceNode;
+    return isStored ? copyResource(resourceNode) : resourceNode;
+  }
+
+  /**
+   * @param resource the resource to copy
+   * @return a deep copy of the given resource with the same type
+   */
+  @SuppressWarnings("unchecked")
+  private static <T extends ResourceNode> T copyResource(T resource)
+  {
+    return JsonHelper.copyResourceToObject(resource.deepCopy(), (Class<T>)resource.getClass());
+  }
+
+  /**
+   * adds the meta information to the given resources and validates them for the response. Large pages are
+   * processed in parallel if the {@link ExecutionPolicy#getResponseValidationThreshold()} of the resource type
+   * was configured
+   *
+   * @param resources the resources that will be returned to the client
+   * @param resourceType the resource type of the resources
+   * @param projection the parsed attributes and excludedAttributes parameters
+   * @param baseUrlSupplier supplies the base url of this application
+   * @return the validated resources
+   */
+  private <T extends ResourceNode> List<JsonNode> validateListedResources(List<T> resources,
+                                                                          ResourceType resourceType,
+                                                                          AttributeProjection projection,
+                                                                          Supplier<String> baseUrlSupplier)
+  {
+    // the supplier might depend on the request bound to the calling thread so it is resolved only once here
+    final String baseUrl = baseUrlSupplier == null ? null : baseUrlSupplier.get();
+    final Supplier<String> resolvedBaseUrlSupplier = () -> baseUrl;
+    return resourceType.getExecutionPolicy().mapResponse(resources, resourceNode -> {
+      final String location = getLocation(resourceType, resourceNode.getId().orElse(null), resolvedBaseUrlSupplier);
+      resourceNode.getMeta().ifPresent(meta -> {
+        if (!meta.getLastModified().isPresent())
+        {
+          meta.setLastModified(meta.getCreated().orElse(null));
+        }
+        meta.setLocation(location);
+        meta.setResourceType(resourceType.getName());
+        ETagHandler.getResourceVersion(serviceProvider, resourceType, resourceNode).ifPresent(meta::setVersion);
+      });
+      return SchemaValidator.validateDocumentForResponse(resourceTypeFactory,
+                                                         resourceType,
+                                                         resourceNode,
+                                                         null,
+                                                         projection,
+                                                         resolvedBaseUrlSupplier);
+    });
+  }
+
+  /**
+   * adds the created or updated resource to the in-memory store of the resource type if one was registered so
+   * that the indexes of the store are kept up to date and invalidates the cached list responses of the resource
+   * type
+   *
+   * @param resourceType the resource type of the resource
+   * @param resourceNode the resource as it was returned by the resource handler. A copy is stored because the
+   *          response handling writes into the resource
+   */
+  private void putIntoResourceStore(ResourceType resourceType, ResourceNode resourceNode)
+  {
+    IndexedResourceStore resourceStore = resourceType.getIndexedResourceStore();
+    if (resourceStore != null)
+    {
+      resourceStore.put(copyResource(resourceNode));
+    }
+    Optional.ofNullable(resourceType.getQueryResultCache()).ifPresent(QueryResultCache::invalidate);
+  }
+
+  /**
+   * reads the requested page directly from the sorted view of an {@link IndexedResourceList} if the request is
+   * not filtered and the store of the list maintains a sorted view for the sortBy attribute. Filtered requests
+   * are sorted after the filtering as usual
+   *
+   * @param resourceList the resources returned by the resource handler
+   * @param filterNode the filter expression from the client. Might be null
+   * @param sortByAttribute the sortBy attribute. Might be null
+   * @param sortOrdering the sort order to use
+   * @param effectiveStartIndex the 1-based index of the first resource to return
+   * @param effectiveCount the maximum number of resources to return
+   * @return the requested page or an empty if the page cannot be read from a sorted view
+   */
+  private <T extends ResourceNode> Optional<List<T>> getPageFromSortedView(List<T> resourceList,
+                                                                           FilterNode filterNode,
+                                                                           SchemaAttribute sortByAttribute,
+                                                                           SortOrder sortOrdering,
+                                                                           ResourceType resourceType,
+                                                                           long effectiveStartIndex,
+                                                                           int effectiveCount)
+  {
+    if (filterNode != null || !(resourceList instanceof IndexedResourceList)
+        || !serviceProvider.getSortConfig().isSupported() || sortByAttribute == null
+        || !resourceType.getFeatures().isAutoSorting())
+    {
+      return Optional.empty();
+    }
+    return ((IndexedResourceList<T>)resourceList).getSortedPage(sortByAttribute,
+                                                                sortOrdering,
+                                                                effectiveStartIndex,
+                                                                effectiveCount);
+  }
+
   /**
    * this method will sort the resources based on the given attribute and the ordering
    *
    * @param filteredResources the resources that might have already been filtered
    * @param sortByAttribute the sortby attribute that tells us which attribute should be used for sorting
    * @param sortOrdering the sort order to use
+   * @param sortLimit the number of resources up to the end of the requested page. Resources behind this limit
+   *          might be missing in the returned list
    * @return the ordered resources
    */
   private <T extends ResourceNode> List<T> sortResources(List<T> filteredResources,
                                                          SchemaAttribute sortByAttribute,
                                                          SortOrder sortOrdering,
-                                                         ResourceType resourceType)
+                                                         ResourceType resourceType,
+                                                         long sortLimit)
   {
     if (!serviceProvider.getSortConfig().isSupported() || sortByAttribute == null
         || !resourceType.getFeatures().isAutoSorting())
@@ -617,16 +1353,19 @@ class ResourceEndpointHandler
       log.trace("auto-sorting skipped for auto-sorting is not supported or missing sortBy attribute");
       return filteredResources;
     }
-    return filteredResources.parallelStream()
-                            .sorted(new ResourceNodeComparator(sortByAttribute, sortOrdering))
-                            .collect(Collectors.toList());
+    return PrecomputedKeySorter.sort(filteredResources,
+                                     sortByAttribute,
+                                     sortOrdering,
+                                     resourceType.getExecutionPolicy(),
+                                     sortLimit);
   }
 
   /**
    * this method executes filtering on the given resource list
    *
    * @param filterNode the filter expression from the client. Might be null if filtering is disabled
-   * @param resourceList the list that should be filtered
+   * @param resourceList the list that should be filtered. If this is an {@link IndexedResourceList} the
+   *          filtering is delegated to its store in order to use the declared indexes
    * @param resourceType the resource type must have filtering enabled. If filtering is not explicitly enabled
    *          the developer must do the filtering manually
    * @return the filtered list or the {@code resourceList}
@@ -637,9 +1376,15 @@ class ResourceEndpointHandler
   {
     boolean isApplicationFilteringEnabled = resourceType.getFeatures().isAutoFiltering();
     List<T> filteredResourceType;
-    if (isApplicationFilteringEnabled && filterNode != null)
+    if (isApplicationFilteringEnabled && filterNode != null && resourceList instanceof IndexedResourceList)
+    {
+      filteredResourceType = ((IndexedResourceList<T>)resourceList).filter(filterNode);
+    }
+    else if (isApplicationFilteringEnabled && filterNode != null)
     {
-      filteredResourceType = FilterResourceResolver.filterResources(resourceList, filterNode);
+      filteredResourceType = FilterResourceResolver.filterResources(resourceList,
+                                                                    filterNode,
+                                                                    resourceType.getExecutionPolicy());
     }
     else
     {
@@ -793,7 +1538,9 @@ class ResourceEndpointHandler
       meta.setLocation(location);
       meta.setResourceType(resourceType.getName());
       resourceNode.setMeta(meta);
-      resourceNode = resourceHandler.updateResource(resourceNode, authorization);
+      resourceNode = resourceHandler.updateResource(resourceNode,
+                                                    AttributeProjection.defaultProjection(),
+                                                    authorization);
       if (resourceNode == null)
       {
         throw new ResourceNotFoundException("the '" + resourceType.getName() + "' resource with id '" + id + "' does "
@@ -819,6 +1566,7 @@ class ResourceEndpointHandler
                                           + "requested id: requestedId: '" + id + "', returnedId: '" + resourceId + "'",
                                           null, null);
       }
+      putIntoResourceStore(resourceType, resourceNode);
 
       JsonNode responseResource = SchemaValidator.validateDocumentForResponse(resourceTypeFactory,
                                                                               resourceType,
@@ -872,6 +1620,8 @@ class ResourceEndpointHandler
                                             + "not exist", ex, null);
       }
       resourceHandler.deleteResource(id, authorization);
+      Optional.ofNullable(resourceType.getIndexedResourceStore()).ifPresent(store -> store.remove(id));
+      Optional.ofNullable(resourceType.getQueryResultCache()).ifPresent(QueryResultCache::invalidate);
       return new DeleteResponse();
     }
     catch (ScimException ex)
@@ -954,6 +1704,7 @@ class ResourceEndpointHandler
         throw new NotImplementedException("patch is not supported by this service provider");
       }
       ResourceType resourceType = getResourceType(endpoint);
+      AttributeProjection projection = AttributeProjection.of(attributes, excludedAttributes);
       ResourceHandler resourceHandler = resourceType.getResourceHandlerImpl();
       Schema patchSchema = resourceTypeFactory.getSchemaFactory().getMetaSchema(SchemaUris.PATCH_OP);
       JsonNode patchDocument = JsonHelper.readJsonDocument(requestBody);
@@ -999,7 +1750,10 @@ class ResourceEndpointHandler
       {
         // a security call In case that someone finds a way to manipulate the id within a patch operation
         patchedResourceNode.setId(id);
-        patchedResourceNode = resourceHandler.updateResource(patchedResourceNode, authorization);
+        // the updated resource is put into the resource store so it must not be reduced to the projection
+        patchedResourceNode = resourceHandler.updateResource(patchedResourceNode,
+                                                             AttributeProjection.defaultProjection(),
+                                                             authorization);
         meta = patchedResourceNode.getMeta().orElseThrow(() -> {
           return new InternalServerException("The mandatory meta attribute is missing in the updated user");
         });
@@ -1009,13 +1763,13 @@ class ResourceEndpointHandler
         }
         meta.setResourceType(resourceType.getName());
         meta.setLocation(location);
+        putIntoResourceStore(resourceType, patchedResourceNode);
       }
       JsonNode responseResource = SchemaValidator.validateDocumentForResponse(resourceTypeFactory,
                                                                               resourceType,
                                                                               patchedResourceNode,
                                                                               patchHandler.getRequestedAttributes(),
-                                                                              attributes,
-                                                                              excludedAttributes,
+                                                                              projection,
                                                                               baseUrlSupplier);
 
       return new UpdateResponse(responseResource, location, meta);
@@ -14,6 +14,9 @@ import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
 import de.captaingoldfish.scim.sdk.server.endpoints.authorize.Authorization;
 import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
 import de.captaingoldfish.scim.sdk.server.response.PartialListResponse;
+import de.captaingoldfish.scim.sdk.server.response.PartialStreamResponse;
+import de.captaingoldfish.scim.sdk.server.schemas.AttributeProjection;
+import de.captaingoldfish.scim.sdk.server.sort.ResourceCursor;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -61,6 +64,13 @@ public abstract class ResourceHandler<T extends ResourceNode>
   @Setter(AccessLevel.PACKAGE)
   private Supplier<Integer> maxResults;
 
+  /**
+   * true if this implementation overrides {@link #getResource(String, AttributeProjection, Authorization)} and
+   * might therefore return resources that only contain the projected attributes
+   */
+  @Getter(AccessLevel.PACKAGE)
+  private final boolean resourceProjectionSupported;
+
   /**
    * default constructor that resolves the generic type for this class
    */
@@ -88,6 +98,25 @@ public abstract class ResourceHandler<T extends ResourceNode>
     {
       throw new InternalServerException("ResourceHandler implementations must be generified!", null, null);
     }
+    this.resourceProjectionSupported = isOverridden("getResource",
+                                                    String.class,
+                                                    AttributeProjection.class,
+                                                    Authorization.class);
+  }
+
+  /**
+   * checks if the given public method of this class is overridden by the implementation
+   */
+  private boolean isOverridden(String methodName, Class<?>... parameterTypes)
+  {
+    try
+    {
+      return getClass().getMethod(methodName, parameterTypes).getDeclaringClass() != ResourceHandler.class;
+    }
+    catch (NoSuchMethodException ex)
+    {
+      return false;
+    }
   }
 
   /**
@@ -110,6 +139,28 @@ public abstract class ResourceHandler<T extends ResourceNode>
    */
   public abstract T getResource(String id, Authorization authorization);
 
+  /**
+   * extract a resource by its id. Override this method to load only the attributes that are returned to the
+   * client. The attributes that are not part of the projection are removed from the response anyway. <br>
+   * <br>
+   * <b>NOTE:</b><br>
+   * if entity tags are enabled the version of the resource must not depend on the projection. So an
+   * implementation that returns partial resources should set the version into the meta attribute of the
+   * returned resource. Otherwise the complete resource is additionally loaded with
+   * {@link #getResource(String, Authorization)} to calculate the version
+   *
+   * @param id the id of the resource to return
+   * @param projection the parsed "attributes" and "excludedAttributes" parameters of the request. Use
+   *          {@link AttributeProjection#isReturned(SchemaAttribute)} to check if an attribute must be loaded
+   * @param authorization should return the roles of an user and may contain arbitrary data needed in the
+   *          handler implementation
+   * @return the found resource
+   */
+  public T getResource(String id, AttributeProjection projection, Authorization authorization)
+  {
+    return getResource(id, authorization);
+  }
+
   /**
    * queries several resources based on the following values
    *
@@ -117,7 +168,11 @@ public abstract class ResourceHandler<T extends ResourceNode>
    *          lower than 1
    * @param count the number of entries that should be returned to the client. The minimum value of this value
    *          is 0.
-   * @param filter the parsed filter expression if the client has given a filter
+   * @param filter the parsed filter expression if the client has given a filter. Chains of "eq" comparisons on
+   *          the same attribute are kept as
+   *          {@link de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode}s. Use
+   *          {@link de.captaingoldfish.scim.sdk.server.filter.InExpressionNode#collapseOrOperands(de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode)}
+   *          to translate such a chain into a single "IN" list
    * @param sortBy the attribute value that should be used for sorting
    * @param sortOrder the sort order
    * @param attributes the attributes that should be returned to the client. If the client send this parameter
@@ -140,6 +195,136 @@ public abstract class ResourceHandler<T extends ResourceNode>
                                                        List<SchemaAttribute> excludedAttributes,
                                                        Authorization authorization);
 
+  /**
+   * queries several resources like
+   * {@link #listResources(long, int, FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}.
+   * Override this method to load only the attributes that are returned to the client
+   *
+   * @param startIndex the start index that has a minimum value of 1
+   * @param count the number of entries that should be returned to the client
+   * @param filter the parsed filter expression if the client has given a filter
+   * @param sortBy the attribute value that should be used for sorting
+   * @param sortOrder the sort order
+   * @param projection the parsed "attributes" and "excludedAttributes" parameters of the request. Use
+   *          {@link AttributeProjection#isReturned(SchemaAttribute)} to check if an attribute must be loaded
+   * @param authorization should return the roles of an user and may contain arbitrary data needed in the
+   *          handler implementation
+   * @return a list of several resources and a total results value
+   */
+  public PartialListResponse<T> listResources(long startIndex,
+                                              int count,
+                                              FilterNode filter,
+                                              SchemaAttribute sortBy,
+                                              SortOrder sortOrder,
+                                              AttributeProjection projection,
+                                              Authorization authorization)
+  {
+    return listResources(startIndex,
+                         count,
+                         filter,
+                         sortBy,
+                         sortOrder,
+                         projection.getAttributes(),
+                         projection.getExcludedAttributes(),
+                         authorization);
+  }
+
+  /**
+   * an alternative to
+   * {@link #listResources(long, int, FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)} that
+   * returns the resources lazily. If this method returns a response the automatic filtering, the startIndex and
+   * the count are applied while the stream is read and the stream is not read any further than necessary for
+   * the requested page. So the resources do not have to be held in memory at once. <br>
+   * <br>
+   * If the automatic sorting is enabled and the client requested sorting the whole stream is read and sorted.
+   * Streams that are larger than the
+   * {@link de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy#getExternalSortThreshold()} of the resource
+   * type are sorted with temporary files so that the resources do not have to be held in memory at once either.
+   *
+   * @param filter the parsed filter expression if the client has given a filter and the automatic filtering is
+   *          disabled
+   * @param sortBy the attribute value that should be used for sorting if the automatic sorting is disabled
+   * @param sortOrder the sort order
+   * @param attributes the attributes that should be returned to the client
+   * @param excludedAttributes the attributes that should NOT be returned to the client
+   * @param authorization should return the roles of an user and may contain arbitrary data needed in the
+   *          handler implementation
+   * @return the lazily evaluated resources or null if streaming is not supported by this handler. In the latter
+   *         case
+   *         {@link #listResources(long, int, FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}
+   *         is used
+   */
+  public PartialStreamResponse<T> streamResources(FilterNode filter,
+                                                  SchemaAttribute sortBy,
+                                                  SortOrder sortOrder,
+                                                  List<SchemaAttribute> attributes,
+                                                  List<SchemaAttribute> excludedAttributes,
+                                                  Authorization authorization)
+  {
+    return null;
+  }
+
+  /**
+   * an optional hook for list requests with a count of 0. Clients send such requests to read the number of
+   * matching resources only, so the implementation should simply count the resources e.g. with a
+   * {@code SELECT COUNT(*)} instead of loading them.
+   *
+   * @param filter the parsed filter expression if the client has given a filter and the automatic filtering is
+   *          disabled
+   * @param authorization should return the roles of an user and may contain arbitrary data needed in the
+   *          handler implementation
+   * @return the number of matching resources or null if counting is not supported by this handler. The result
+   *         is also ignored if the automatic filtering is enabled and the client has given a filter. In these
+   *         cases the resources are read from
+   *         {@link #streamResources(FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)} or
+   *         {@link #listResources(long, int, FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}
+   *         and counted by the endpoint without sorting or validating them
+   */
+  public Long countResources(FilterNode filter, Authorization authorization)
+  {
+    return null;
+  }
+
+  /**
+   * an optional keyset hook for cursor based list requests. If a client requests cursor based pagination this
+   * method is asked for the resources that follow the given cursor. The implementation should seek directly to
+   * the position of the cursor e.g. with a query like
+   * {@code WHERE (sortValue, id) > (cursor.sortValue, cursor.id) ORDER BY sortValue, id LIMIT count} so that
+   * deep pages cost the same as the first page. <br>
+   * <br>
+   * The resources must be ordered by the value of the sortBy attribute in the given sort order, resources
+   * without a value come last, and resources with equal values must be ordered by their ids in ascending order.
+   * If sortBy is null the resources are only ordered by their ids. The filter and the sorting are always given
+   * to this method regardless of the automatic filtering and sorting features because the resources must be
+   * filtered and sorted before the page is cut.
+   *
+   * @param cursor the position behind the last resource of the previous page or null for the first page
+   * @param count the maximum number of resources to return
+   * @param filter the parsed filter expression or null
+   * @param sortBy the sorting attribute or null
+   * @param sortOrder the sort order. Null is treated as ascending
+   * @param attributes the attributes that should be returned to the client
+   * @param excludedAttributes the attributes that should NOT be returned to the client
+   * @param authorization should return the roles of an user and may contain arbitrary data needed in the
+   *          handler implementation
+   * @return at most {@code count} resources that follow the cursor or null if this handler does not support the
+   *         keyset access. In the latter case the resources are read from
+   *         {@link #streamResources(FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)} or
+   *         {@link #listResources(long, int, FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}
+   *         and the page is selected by the endpoint
+   */
+  public PartialListResponse<T> listResourcesAfter(ResourceCursor cursor,
+                                                   int count,
+                                                   FilterNode filter,
+                                                   SchemaAttribute sortBy,
+                                                   SortOrder sortOrder,
+                                                   List<SchemaAttribute> attributes,
+                                                   List<SchemaAttribute> excludedAttributes,
+                                                   Authorization authorization)
+  {
+    return null;
+  }
+
   /**
    * should update an existing resource with the given one. Simply use the id of the given resource and override
    * the existing one with the given one. Be careful there have been no checks in advance for you if the
@@ -156,6 +341,22 @@ public abstract class ResourceHandler<T extends ResourceNode>
    */
   public abstract T updateResource(T resourceToUpdate, Authorization authorization);
 
+  /**
+   * updates an existing resource like {@link #updateResource(ResourceNode, Authorization)}. Override this
+   * method to load only the attributes of the updated resource that are returned to the client
+   *
+   * @param resourceToUpdate the resource that should override an existing one
+   * @param projection the parsed "attributes" and "excludedAttributes" parameters of the request. Use
+   *          {@link AttributeProjection#isReturned(SchemaAttribute)} to check if an attribute must be loaded
+   * @param authorization should return the roles of an user and may contain arbitrary data needed in the
+   *          handler implementation
+   * @return the updated resource with the values changed and a new lastModified value
+   */
+  public T updateResource(T resourceToUpdate, AttributeProjection projection, Authorization authorization)
+  {
+    return updateResource(resourceToUpdate, authorization);
+  }
+
   /**
    * permanently deletes the resource with the given id
    *
@@ -30,19 +30,28 @@ public final class AndExpressionNode extends FilterNode
     setSubAttributeName(leftNode.getSubAttributeName());
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <R> R accept(FilterNodeVisitor<R> visitor)
+  {
+    return visitor.visitAndExpression(this);
+  }
+
   @Override
   public String toString()
   {
     String leftNodeLeftBrace = "";
     String leftNodeRightBrace = "";
-    if (leftNode instanceof OrExpressionNode)
+    if (leftNode instanceof OrExpressionNode || leftNode instanceof InExpressionNode)
     {
       leftNodeLeftBrace = "(";
       leftNodeRightBrace = ")";
     }
     String rightNodeLeftBrace = "";
     String rightNodeRightBrace = "";
-    if (rightNode instanceof OrExpressionNode)
+    if (rightNode instanceof OrExpressionNode || rightNode instanceof InExpressionNode)
     {
       rightNodeLeftBrace = "(";
       rightNodeRightBrace = ")";
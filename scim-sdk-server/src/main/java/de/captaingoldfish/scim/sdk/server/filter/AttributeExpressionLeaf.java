@@ -281,6 +281,15 @@ public final class AttributeExpressionLeaf extends FilterNode
     return compareValue == null || compareValue.isNull();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <R> R accept(FilterNodeVisitor<R> visitor)
+  {
+    return visitor.visitAttributeExpression(this);
+  }
+
   @Override
   public String toString()
   {
@@ -1,12 +1,14 @@
 package de.captaingoldfish.scim.sdk.server.filter;
 
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.misc.Interval;
+
 import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
 import de.captaingoldfish.scim.sdk.server.filter.antlr.FilterAttributeName;
 import de.captaingoldfish.scim.sdk.server.filter.antlr.ScimFilterParser;
 import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
 import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
 import lombok.Getter;
-import lombok.Setter;
 
 
 /**
@@ -37,10 +39,10 @@ public class AttributePathRoot extends FilterNode
   private final SchemaAttribute schemaAttribute;
 
   /**
-   * represents the original expression of this node
+   * represents the original expression of this node if it was parsed as patch path. Parsed trees are cached and
+   * shared between requests so this value must not be changed after parsing
    */
-  @Setter
-  private String originalExpressionString;
+  private final String originalExpressionString;
 
   public AttributePathRoot(FilterNode child, ResourceType resourceType, ScimFilterParser.ValuePathContext ctx)
   {
@@ -48,6 +50,9 @@ public class AttributePathRoot extends FilterNode
     this.filterAttributeName = new FilterAttributeName((ScimFilterParser.ValuePathContext)null, ctx.attributePath());
     this.schemaAttribute = RequestUtils.getSchemaAttributeForFilter(resourceType, filterAttributeName);
     setSubAttributeName(ctx.subattribute == null ? null : ctx.subattribute.getText());
+    // a patch path is parsed on its own so its original expression is the whole input of the parser
+    CharStream input = ctx.start.getInputStream();
+    this.originalExpressionString = ctx.getParent() == null ? input.getText(Interval.of(0, input.size() - 1)) : null;
   }
 
   public String getResourceUri()
@@ -80,6 +85,15 @@ public class AttributePathRoot extends FilterNode
     return filterAttributeName.getAttributeName();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <R> R accept(FilterNodeVisitor<R> visitor)
+  {
+    return visitor.visitAttributePath(this);
+  }
+
   @Override
   public String toString()
   {
@@ -30,8 +30,17 @@ public abstract class FilterNode
   /**
    * this attribute is relevant for resolving value-paths on patch operations
    */
-  public void setSubAttributeName(String subAttributeName)
+  protected void setSubAttributeName(String subAttributeName)
   {
     this.subAttributeName = subAttributeName;
   }
+
+  /**
+   * calls the matching method of the given visitor for this node
+   *
+   * @param visitor the visitor that should handle this node
+   * @param <R> the result type of the visitor
+   * @return the result of the visitor
+   */
+  public abstract <R> R accept(FilterNodeVisitor<R> visitor);
 }
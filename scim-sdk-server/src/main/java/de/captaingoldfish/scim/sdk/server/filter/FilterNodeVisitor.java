@@ -0,0 +1,60 @@
+package de.captaingoldfish.scim.sdk.server.filter;
+
+import java.util.List;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 13:05 <br>
+ * <br>
+ * a visitor for the parsed {@link FilterNode} tree. Implementations can be used to translate a filter
+ * expression into another representation e.g. a query for a datastore without writing an own tree walker
+ *
+ * @param <R> the result type of the visitor
+ */
+public interface FilterNodeVisitor<R>
+{
+
+  /**
+   * visits an and-expression. The child nodes must be visited by the implementation if needed
+   */
+  R visitAndExpression(AndExpressionNode andExpressionNode);
+
+  /**
+   * visits an or-expression. The child nodes must be visited by the implementation if needed
+   */
+  R visitOrExpression(OrExpressionNode orExpressionNode);
+
+  /**
+   * visits a chain of "eq" comparisons on the same attribute that were combined with "or". Such a node can be
+   * translated into an "IN" list. The parsed filter tree does not contain these nodes, they are only created by
+   * {@link InExpressionNode#collapseOrOperands(OrExpressionNode)}. The default implementation visits the
+   * comparisons as the "or" chain they were collapsed from so that existing visitors keep working
+   */
+  default R visitInExpression(InExpressionNode inExpressionNode)
+  {
+    List<AttributeExpressionLeaf> leafs = inExpressionNode.getLeafs();
+    FilterNode orChain = leafs.get(0);
+    for ( int i = 1 ; i < leafs.size() ; i++ )
+    {
+      orChain = OrExpressionNode.ofForeignNodes(orChain, leafs.get(i));
+    }
+    return orChain.accept(this);
+  }
+
+  /**
+   * visits a not-expression. The child node must be visited by the implementation if needed
+   */
+  R visitNotExpression(NotExpressionNode notExpressionNode);
+
+  /**
+   * visits a leaf of the tree that represents a single attribute comparison
+   */
+  R visitAttributeExpression(AttributeExpressionLeaf attributeExpressionLeaf);
+
+  /**
+   * visits a value path expression like "emails[type eq \"work\"]". The child node must be visited by the
+   * implementation if needed
+   */
+  R visitAttributePath(AttributePathRoot attributePathRoot);
+}
@@ -0,0 +1,219 @@
+package de.captaingoldfish.scim.sdk.server.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.Comparator;
+import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 18:20 <br>
+ * <br>
+ * represents a chain of "or" expressions that compare the same attribute with the "eq" operator like "id eq
+ * \"1\" or id eq \"2\" or id eq \"3\"". The parsed filter tree keeps the original {@link OrExpressionNode}s.
+ * The filter compiler, the index planner and the sql translator collapse such chains with
+ * {@link #collapseOrOperands(OrExpressionNode)} so that the expression can be evaluated with a single set
+ * lookup or translated into an "IN" list like "WHERE id IN ('1', '2', '3')"
+ */
+@EqualsAndHashCode(callSuper = false, of = "leafs")
+public final class InExpressionNode extends FilterNode
+{
+
+  /**
+   * the minimum number of "eq" expressions within an "or" chain before the chain is collapsed into this node
+   */
+  public static final int MIN_IN_LIST_SIZE = 3;
+
+  /**
+   * the original "eq" expressions in the order of the filter expression
+   */
+  @Getter
+  private final List<AttributeExpressionLeaf> leafs;
+
+  /**
+   * the values of the original "eq" expressions in the order of the filter expression
+   */
+  @Getter
+  private final List<String> values;
+
+  /**
+   * the values that are used for the membership check. Folded to lowercase if the attribute is not case exact
+   */
+  private final Set<String> valueSet;
+
+  /**
+   * if the values are compared with respect to their case
+   */
+  private final boolean caseExact;
+
+  public InExpressionNode(List<AttributeExpressionLeaf> leafs)
+  {
+    this.leafs = Collections.unmodifiableList(new ArrayList<>(leafs));
+    this.caseExact = getSchemaAttribute().isCaseExact();
+    this.values = Collections.unmodifiableList(leafs.stream()
+                                                    .map(AttributeExpressionLeaf::getValue)
+                                                    .collect(Collectors.toList()));
+    this.valueSet = new HashSet<>();
+    values.forEach(value -> valueSet.add(toSetValue(value)));
+    setSubAttributeName(leafs.get(0).getSubAttributeName());
+  }
+
+  /**
+   * @return the attribute that is compared with the values of this node
+   */
+  public SchemaAttribute getSchemaAttribute()
+  {
+    return leafs.get(0).getSchemaAttribute();
+  }
+
+  /**
+   * @return the first of the original leafs that can be used to access the attribute names
+   */
+  public AttributeExpressionLeaf getFirstLeaf()
+  {
+    return leafs.get(0);
+  }
+
+  /**
+   * checks if the given value is one of the values of this node with respect to the case exactness of the
+   * attribute
+   *
+   * @param value the value to check
+   * @return true if the value is within the list of this node
+   */
+  public boolean containsValue(String value)
+  {
+    return value != null && valueSet.contains(toSetValue(value));
+  }
+
+  /**
+   * folds the given value the same way as {@link String#equalsIgnoreCase(String)} compares the characters if
+   * the attribute is not case exact
+   */
+  private String toSetValue(String value)
+  {
+    if (caseExact)
+    {
+      return value;
+    }
+    char[] chars = value.toCharArray();
+    for ( int i = 0 ; i < chars.length ; i++ )
+    {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  /**
+   * flattens the given chain of "or" expressions into its operands and collapses the "eq" comparisons with
+   * string values on the same attribute into {@link InExpressionNode}s if there are at least
+   * {@link #MIN_IN_LIST_SIZE} of them. The chain is traversed only once and the given tree is not modified
+   *
+   * @param orExpressionNode the root of the "or" chain
+   * @return the operands of the chain in the order of the filter expression. A collapsed node takes the place
+   *         of its first comparison
+   */
+  public static List<FilterNode> collapseOrOperands(OrExpressionNode orExpressionNode)
+  {
+    List<FilterNode> operands = new ArrayList<>();
+    Map<SchemaAttribute, Map<String, List<AttributeExpressionLeaf>>> comparisons = new IdentityHashMap<>();
+    Deque<FilterNode> pending = new ArrayDeque<>();
+    pending.push(orExpressionNode);
+    while (!pending.isEmpty())
+    {
+      FilterNode filterNode = pending.pop();
+      if (filterNode instanceof OrExpressionNode)
+      {
+        pending.push(((OrExpressionNode)filterNode).getRightNode());
+        pending.push(((OrExpressionNode)filterNode).getLeftNode());
+        continue;
+      }
+      operands.add(filterNode);
+      if (isCollapsible(filterNode))
+      {
+        AttributeExpressionLeaf leaf = (AttributeExpressionLeaf)filterNode;
+        comparisons.computeIfAbsent(leaf.getSchemaAttribute(), attribute -> new LinkedHashMap<>())
+                   .computeIfAbsent(leaf.getFullName(), name -> new ArrayList<>())
+                   .add(leaf);
+      }
+    }
+
+    Map<FilterNode, InExpressionNode> replacements = new IdentityHashMap<>();
+    Set<FilterNode> collapsedLeafs = Collections.newSetFromMap(new IdentityHashMap<>());
+    comparisons.values().stream().flatMap(byName -> byName.values().stream()).forEach(leafs -> {
+      if (leafs.size() >= MIN_IN_LIST_SIZE)
+      {
+        replacements.put(leafs.get(0), new InExpressionNode(leafs));
+        collapsedLeafs.addAll(leafs);
+      }
+    });
+    if (replacements.isEmpty())
+    {
+      return operands;
+    }
+    List<FilterNode> collapsedOperands = new ArrayList<>();
+    for ( FilterNode operand : operands )
+    {
+      InExpressionNode inExpressionNode = replacements.get(operand);
+      if (inExpressionNode != null)
+      {
+        collapsedOperands.add(inExpressionNode);
+      }
+      else if (!collapsedLeafs.contains(operand))
+      {
+        collapsedOperands.add(operand);
+      }
+    }
+    return collapsedOperands;
+  }
+
+  /**
+   * @return true if the given node is an "eq" comparison with a string value
+   */
+  private static boolean isCollapsible(FilterNode filterNode)
+  {
+    if (!(filterNode instanceof AttributeExpressionLeaf))
+    {
+      return false;
+    }
+    AttributeExpressionLeaf leaf = (AttributeExpressionLeaf)filterNode;
+    return Comparator.EQ.equals(leaf.getComparator()) && !leaf.isNull() && isStringType(leaf.getType());
+  }
+
+  /**
+   * @return true if the attribute values are compared as strings
+   */
+  private static boolean isStringType(Type type)
+  {
+    return Type.STRING.equals(type) || Type.REFERENCE.equals(type);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <R> R accept(FilterNodeVisitor<R> visitor)
+  {
+    return visitor.visitInExpression(this);
+  }
+
+  @Override
+  public String toString()
+  {
+    return leafs.stream().map(AttributeExpressionLeaf::toString).collect(Collectors.joining(" or "));
+  }
+}
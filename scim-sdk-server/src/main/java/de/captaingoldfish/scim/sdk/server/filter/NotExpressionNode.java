@@ -28,6 +28,15 @@ public final class NotExpressionNode extends FilterNode
     setSubAttributeName(rightNode.getSubAttributeName());
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <R> R accept(FilterNodeVisitor<R> visitor)
+  {
+    return visitor.visitNotExpression(this);
+  }
+
   @Override
   public String toString()
   {
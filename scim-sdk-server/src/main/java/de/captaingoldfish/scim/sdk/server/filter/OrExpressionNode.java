@@ -23,13 +23,39 @@ public final class OrExpressionNode extends FilterNode
 
   public OrExpressionNode(FilterNode leftNode, FilterNode rightNode)
   {
-    leftNode.setParent(this);
+    this(leftNode, rightNode, true);
+  }
+
+  private OrExpressionNode(FilterNode leftNode, FilterNode rightNode, boolean adoptChildren)
+  {
+    if (adoptChildren)
+    {
+      leftNode.setParent(this);
+      rightNode.setParent(this);
+    }
     this.leftNode = leftNode;
-    rightNode.setParent(this);
     this.rightNode = rightNode;
     setSubAttributeName(leftNode.getSubAttributeName());
   }
 
+  /**
+   * creates an or-expression on nodes that belong to another tree without changing their parents so that the
+   * other tree is not modified
+   */
+  static OrExpressionNode ofForeignNodes(FilterNode leftNode, FilterNode rightNode)
+  {
+    return new OrExpressionNode(leftNode, rightNode, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <R> R accept(FilterNodeVisitor<R> visitor)
+  {
+    return visitor.visitOrExpression(this);
+  }
+
   @Override
   public String toString()
   {
@@ -0,0 +1,156 @@
+package de.captaingoldfish.scim.sdk.server.filter;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import lombok.Setter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 11:20 <br>
+ * <br>
+ * a concurrent and size-bounded cache for parsed filter expressions and patch paths. Parsing an expression
+ * requires a new antlr lexer, parser and visitor for each call so clients that send the same expressions over
+ * and over again will profit from reusing the already parsed trees. The cached trees do not keep any antlr
+ * parse contexts alive and are not modified after they were parsed so they may be shared between several
+ * requests.<br>
+ * If the cache is full the oldest entry is removed. The maximum size is read on each insertion so that it can
+ * be bound to the {@link de.captaingoldfish.scim.sdk.common.resources.complex.FilterConfig} of the service
+ * provider
+ */
+public class ParsedExpressionCache<T extends FilterNode>
+{
+
+  /**
+   * the default number of expressions that will be cached for a single resource type
+   */
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  /**
+   * the maximum number of entries within this cache
+   */
+  @Setter
+  private IntSupplier maxSize;
+
+  /**
+   * the cached expressions
+   */
+  private final Map<String, T> cache = new ConcurrentHashMap<>();
+
+  /**
+   * the insertion order of the cached expressions that is used to evict the oldest entries
+   */
+  private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+  /**
+   * counts the number of calls that were served from the cache
+   */
+  private final LongAdder hitCount = new LongAdder();
+
+  /**
+   * counts the number of calls that required the expression to be parsed
+   */
+  private final LongAdder missCount = new LongAdder();
+
+  public ParsedExpressionCache()
+  {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param maxSize the maximum number of entries within this cache. A value lower than 1 will disable caching
+   */
+  public ParsedExpressionCache(int maxSize)
+  {
+    this.maxSize = () -> maxSize;
+  }
+
+  /**
+   * @return the maximum number of entries within this cache
+   */
+  public int getMaxSize()
+  {
+    return maxSize.getAsInt();
+  }
+
+  /**
+   * gets the parsed tree of the given expression from the cache or parses and caches it if not present
+   *
+   * @param expression the expression to get the parsed tree for
+   * @param parser the parser that is used if the expression was not cached yet
+   * @return the parsed expression tree
+   */
+  public T get(String expression, Function<String, T> parser)
+  {
+    T filterNode = cache.get(expression);
+    if (filterNode != null)
+    {
+      hitCount.increment();
+      return filterNode;
+    }
+    missCount.increment();
+    filterNode = parser.apply(expression);
+    int currentMaxSize = maxSize.getAsInt();
+    if (filterNode == null || currentMaxSize < 1)
+    {
+      return filterNode;
+    }
+    T previous = cache.putIfAbsent(expression, filterNode);
+    if (previous != null)
+    {
+      return previous;
+    }
+    insertionOrder.add(expression);
+    while (cache.size() > currentMaxSize)
+    {
+      String eldest = insertionOrder.poll();
+      if (eldest == null)
+      {
+        break;
+      }
+      cache.remove(eldest);
+    }
+    return filterNode;
+  }
+
+  /**
+   * @return the number of calls that were served from the cache
+   */
+  public long getHitCount()
+  {
+    return hitCount.sum();
+  }
+
+  /**
+   * @return the number of calls that required the expression to be parsed
+   */
+  public long getMissCount()
+  {
+    return missCount.sum();
+  }
+
+  /**
+   * @return the current number of cached expressions
+   */
+  public int getSize()
+  {
+    return cache.size();
+  }
+
+  /**
+   * removes all cached expressions and resets the counters
+   */
+  public void clear()
+  {
+    cache.clear();
+    insertionOrder.clear();
+    hitCount.reset();
+    missCount.reset();
+  }
+}
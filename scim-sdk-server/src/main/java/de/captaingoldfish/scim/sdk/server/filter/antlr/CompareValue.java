@@ -5,6 +5,7 @@ import java.time.Instant;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
 import de.captaingoldfish.scim.sdk.common.exceptions.InvalidDateTimeRepresentationException;
 import de.captaingoldfish.scim.sdk.common.exceptions.InvalidFilterException;
 import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
@@ -23,20 +24,53 @@ import lombok.extern.slf4j.Slf4j;
  * was parsed and to get the value in the desired type
  */
 @Slf4j
-@EqualsAndHashCode(exclude = "context")
+@EqualsAndHashCode
 public class CompareValue
 {
 
   /**
-   * the antlr context node that is used to get the value-data of the expression
+   * if this node represents a true-boolean
    */
-  private ScimFilterParser.CompareValueContext context;
+  private final boolean isTrue;
+
+  /**
+   * if this node represents a false-boolean
+   */
+  private final boolean isFalse;
+
+  /**
+   * if this value is null
+   */
+  private final boolean isNull;
+
+  /**
+   * if this value is a string value
+   */
+  private final boolean isString;
+
+  /**
+   * the parsed number value if this value is a parsable number. The antlr context is not kept within this
+   * object so the value is resolved directly on construction
+   */
+  private final BigDecimal numberValue;
+
+  /**
+   * if this value is a number. The number might still not be parsable in which case {@link #numberValue} is
+   * null
+   */
+  private final boolean isNumber;
+
+  /**
+   * the parsed dateTime value if the attribute is of type dateTime and this value is a string that represents a
+   * valid dateTime. Values of other attributes are not parsed because most of them are no dateTimes
+   */
+  private final Instant dateTime;
 
   /**
    * this is used as display variable for the {@link #toString()} method. It holds the value of the context
    */
   @Getter
-  private String value;
+  private final String value;
 
   /**
    * @param compareValueContext the antlr context for this value
@@ -44,8 +78,12 @@ public class CompareValue
    */
   public CompareValue(ScimFilterParser.CompareValueContext compareValueContext, SchemaAttribute schemaAttribute)
   {
-    this.context = compareValueContext;
-    if (compareValueContext.isNull != null)
+    this.isTrue = compareValueContext.isTrue != null;
+    this.isFalse = compareValueContext.isFalse != null;
+    this.isNull = compareValueContext.isNull != null;
+    this.isString = compareValueContext.string != null;
+    this.isNumber = compareValueContext.number != null;
+    if (isNull)
     {
       this.value = null;
     }
@@ -53,9 +91,47 @@ public class CompareValue
     {
       this.value = compareValueContext.getText().replaceFirst("^\"", "").replaceFirst("\"$", "");
     }
+    this.numberValue = isNumber ? parseNumber(compareValueContext.number.getText()) : null;
+    this.dateTime = isString && Type.DATE_TIME.equals(schemaAttribute.getType()) ? parseDateTime(value) : null;
     validateCompareValue(schemaAttribute);
   }
 
+  /**
+   * parses the given number text
+   *
+   * @return the parsed number or null if not parsable
+   */
+  private static BigDecimal parseNumber(String number)
+  {
+    try
+    {
+      return new BigDecimal(number);
+    }
+    catch (NumberFormatException ex)
+    {
+      log.trace(ex.getMessage(), ex);
+      return null;
+    }
+  }
+
+  /**
+   * parses the given string into a dateTime
+   *
+   * @return the parsed dateTime or null if the string does not represent a dateTime
+   */
+  private static Instant parseDateTime(String value)
+  {
+    try
+    {
+      return TimeUtils.parseDateTime(value);
+    }
+    catch (InvalidDateTimeRepresentationException e)
+    {
+      log.trace(e.getMessage(), e);
+      return null;
+    }
+  }
+
   /**
    * this method will verify that the given comparison value does apply to the attributes data type
    *
@@ -105,7 +181,7 @@ public class CompareValue
    */
   private boolean isTrue()
   {
-    return context.isTrue != null;
+    return isTrue;
   }
 
   /**
@@ -113,7 +189,7 @@ public class CompareValue
    */
   private boolean isFalse()
   {
-    return context.isFalse != null;
+    return isFalse;
   }
 
   /**
@@ -121,7 +197,7 @@ public class CompareValue
    */
   public boolean isNull()
   {
-    return context.isNull != null;
+    return isNull;
   }
 
   /**
@@ -129,7 +205,7 @@ public class CompareValue
    */
   public boolean isNumber()
   {
-    return context.number != null;
+    return isNumber;
   }
 
   /**
@@ -138,11 +214,11 @@ public class CompareValue
    */
   public boolean isString()
   {
-    return context.string != null;
+    return isString;
   }
 
   /**
-   * @return if this value is a valid dateTime value
+   * @return if this value is a valid dateTime value of an attribute with type dateTime
    */
   public boolean isDateTime()
   {
@@ -175,18 +251,7 @@ public class CompareValue
    */
   public Optional<BigDecimal> getNumberValue()
   {
-    if (isNumber())
-    {
-      try
-      {
-        return Optional.of(new BigDecimal(context.number.getText()));
-      }
-      catch (NumberFormatException ex)
-      {
-        log.trace(ex.getMessage(), ex);
-      }
-    }
-    return Optional.empty();
+    return Optional.ofNullable(numberValue);
   }
 
   /**
@@ -206,19 +271,7 @@ public class CompareValue
    */
   public Optional<Instant> getDateTime()
   {
-    if (!isString())
-    {
-      return Optional.empty();
-    }
-    try
-    {
-      return Optional.of(TimeUtils.parseDateTime(value));
-    }
-    catch (InvalidDateTimeRepresentationException e)
-    {
-      log.trace(e.getMessage(), e);
-      return Optional.empty();
-    }
+    return Optional.ofNullable(dateTime);
   }
 
   @Override
@@ -0,0 +1,375 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.Comparator;
+import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
+import de.captaingoldfish.scim.sdk.common.exceptions.InvalidConfigException;
+import de.captaingoldfish.scim.sdk.common.exceptions.InvalidDateTimeRepresentationException;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.TimeUtils;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 15:02 <br>
+ * <br>
+ * an index over the values of a single attribute. It holds a hash index that is used for "eq" comparisons and
+ * an ordered index that is used for "gt", "ge", "lt", "le" and "sw" comparisons. Both indexes map the
+ * attribute values to the ids of the resources that contain this value. <br>
+ * <br>
+ * The lookups of this index will always return a superset of the resources that match the comparison so the
+ * result must still be checked against the filter expression. Strings of attributes that are not case exact
+ * are folded the same way as {@link String#compareToIgnoreCase(String)} does it
+ */
+@Slf4j
+class AttributeIndex implements ResourceIndex
+{
+
+  /**
+   * the attribute that is indexed
+   */
+  @Getter
+  private final SchemaAttribute schemaAttribute;
+
+  /**
+   * the name of the attribute within the resource
+   */
+  private final String attributeName;
+
+  /**
+   * the name of the parent attribute within the resource if the indexed attribute is a sub-attribute
+   */
+  private final String parentName;
+
+  /**
+   * if string values must be folded before they are put into the index
+   */
+  private final boolean foldCase;
+
+  /**
+   * the hash index for "eq" lookups
+   */
+  private final Map<Comparable<?>, Set<String>> hashIndex = new ConcurrentHashMap<>();
+
+  /**
+   * the ordered index for range lookups
+   */
+  private final NavigableMap<Comparable<?>, Set<String>> orderedIndex = new ConcurrentSkipListMap<>();
+
+  public AttributeIndex(SchemaAttribute schemaAttribute)
+  {
+    if (Type.COMPLEX.equals(schemaAttribute.getType()) || Type.BOOLEAN.equals(schemaAttribute.getType()))
+    {
+      throw new InvalidConfigException("the attribute '" + schemaAttribute.getFullResourceName() + "' of type '"
+                                       + schemaAttribute.getType().getValue() + "' cannot be indexed");
+    }
+    this.schemaAttribute = schemaAttribute;
+    this.attributeName = schemaAttribute.getName();
+    this.parentName = schemaAttribute.getParent() == null ? null : schemaAttribute.getParent().getName();
+    this.foldCase = isStringType() && !schemaAttribute.isCaseExact();
+  }
+
+  /**
+   * adds the values of the given resource to this index
+   */
+  @Override
+  public void add(String id, ResourceNode resourceNode)
+  {
+    for ( Comparable<?> key : getKeys(resourceNode) )
+    {
+      hashIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+      orderedIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+  }
+
+  /**
+   * removes the values of the given resource from this index
+   */
+  @Override
+  public void remove(String id, ResourceNode resourceNode)
+  {
+    for ( Comparable<?> key : getKeys(resourceNode) )
+    {
+      removeFromIndex(hashIndex, key, id);
+      removeFromIndex(orderedIndex, key, id);
+    }
+  }
+
+  /**
+   * removes all entries from this index
+   */
+  @Override
+  public void clear()
+  {
+    hashIndex.clear();
+    orderedIndex.clear();
+  }
+
+  /**
+   * removes the id from the index entry of the given key and removes the entry if it became empty
+   */
+  private static void removeFromIndex(Map<Comparable<?>, Set<String>> index, Comparable<?> key, String id)
+  {
+    index.computeIfPresent(key, (k, ids) -> {
+      ids.remove(id);
+      return ids.isEmpty() ? null : ids;
+    });
+  }
+
+  /**
+   * tells us if this index is able to resolve the given expression
+   *
+   * @param attributeExpressionLeaf the expression to resolve
+   * @return true if {@link #lookup(AttributeExpressionLeaf)} will return a result
+   */
+  @Override
+  public boolean supports(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    if (attributeExpressionLeaf.isNull())
+    {
+      return false;
+    }
+    switch (attributeExpressionLeaf.getComparator())
+    {
+      case EQ:
+      case GT:
+      case GE:
+        return getCompareKey(attributeExpressionLeaf) != null;
+      case LT:
+      case LE:
+        // missing string values are considered lower than any other value by the filter evaluation
+        return !isStringType() && getCompareKey(attributeExpressionLeaf) != null;
+      case SW:
+        return isStringType() && getCompareKey(attributeExpressionLeaf) != null;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * retrieves the ids of the resources that might match the given expression
+   *
+   * @param attributeExpressionLeaf an expression that is supported by this index
+   * @return the ids of all resources that might match the expression
+   */
+  @Override
+  public Set<String> lookup(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    Comparable<?> key = getCompareKey(attributeExpressionLeaf);
+    Comparator comparator = attributeExpressionLeaf.getComparator();
+    switch (comparator)
+    {
+      case EQ:
+        return hashIndex.getOrDefault(key, Collections.emptySet());
+      case GT:
+        return union(orderedIndex.tailMap(key, false));
+      case GE:
+        return union(orderedIndex.tailMap(key, true));
+      case LT:
+        return union(orderedIndex.headMap(key, false));
+      case LE:
+        return union(orderedIndex.headMap(key, true));
+      case SW:
+        String prefix = (String)key;
+        return union(orderedIndex.subMap(prefix, true, prefix + Character.MAX_VALUE, false));
+      default:
+        throw new IllegalStateException("the comparator '" + comparator + "' is not supported by the index");
+    }
+  }
+
+  /**
+   * puts all ids of the given index range into a single set
+   */
+  private static Set<String> union(Map<Comparable<?>, Set<String>> range)
+  {
+    Set<String> ids = new HashSet<>();
+    range.values().forEach(ids::addAll);
+    return ids;
+  }
+
+  /**
+   * extracts the index keys for the indexed attribute from the given resource
+   */
+  private Set<Comparable<?>> getKeys(ResourceNode resourceNode)
+  {
+    Set<Comparable<?>> keys = new HashSet<>();
+    forEachValue(resourceNode, parentName, attributeName, jsonNode -> {
+      Comparable<?> key = toKey(jsonNode);
+      if (key != null)
+      {
+        keys.add(key);
+      }
+    });
+    return keys;
+  }
+
+  /**
+   * passes each simple value of an attribute within the given resource to the consumer. The elements of
+   * multivalued attributes and the values of all elements of a multivalued complex parent are passed one by one
+   *
+   * @param resourceNode the resource that holds the attribute
+   * @param parentName the name of the parent attribute or null if the attribute is not a sub-attribute
+   * @param attributeName the name of the attribute
+   * @param consumer receives the non-null simple values
+   */
+  static void forEachValue(ResourceNode resourceNode,
+                           String parentName,
+                           String attributeName,
+                           Consumer<JsonNode> consumer)
+  {
+    if (parentName == null)
+    {
+      forEachElement(resourceNode.get(attributeName), consumer);
+      return;
+    }
+    JsonNode complexNode = resourceNode.get(parentName);
+    if (complexNode == null)
+    {
+      return;
+    }
+    if (complexNode.isArray())
+    {
+      for ( JsonNode complexElement : complexNode )
+      {
+        forEachElement(complexElement.get(attributeName), consumer);
+      }
+    }
+    else
+    {
+      forEachElement(complexNode.get(attributeName), consumer);
+    }
+  }
+
+  /**
+   * passes the given simple node or the elements of the given simple array node to the consumer
+   */
+  private static void forEachElement(JsonNode jsonNode, Consumer<JsonNode> consumer)
+  {
+    if (jsonNode == null || jsonNode.isNull())
+    {
+      return;
+    }
+    if (jsonNode.isArray())
+    {
+      for ( JsonNode element : jsonNode )
+      {
+        forEachElement(element, consumer);
+      }
+      return;
+    }
+    consumer.accept(jsonNode);
+  }
+
+  /**
+   * converts the given simple node into an index key
+   */
+  private Comparable<?> toKey(JsonNode jsonNode)
+  {
+    switch (schemaAttribute.getType())
+    {
+      case INTEGER:
+      case DECIMAL:
+        return normalize(jsonNode.decimalValue());
+      case DATE_TIME:
+        return toEpochMillis(jsonNode.textValue());
+      default:
+        return toStringKey(jsonNode.textValue());
+    }
+  }
+
+  /**
+   * converts the comparison value of the given expression into an index key
+   */
+  private Comparable<?> getCompareKey(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    switch (schemaAttribute.getType())
+    {
+      case INTEGER:
+      case DECIMAL:
+        return attributeExpressionLeaf.getNumberValue().map(AttributeIndex::normalize).orElse(null);
+      case DATE_TIME:
+        return attributeExpressionLeaf.getDateTime().map(instant -> instant.toEpochMilli()).orElse(null);
+      default:
+        return toStringKey(attributeExpressionLeaf.getValue());
+    }
+  }
+
+  /**
+   * folds the given string if the attribute is not case exact
+   */
+  private String toStringKey(String value)
+  {
+    if (value == null || !foldCase)
+    {
+      return value;
+    }
+    return foldCase(value);
+  }
+
+  /**
+   * folds the given string the same way as {@link String#compareToIgnoreCase(String)} does it
+   */
+  static String foldCase(String value)
+  {
+    char[] chars = value.toCharArray();
+    for ( int i = 0 ; i < chars.length ; i++ )
+    {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  /**
+   * parses the given dateTime string into epoch millis
+   *
+   * @return the epoch millis or null if the value is not a valid dateTime
+   */
+  private static Long toEpochMillis(String dateTime)
+  {
+    if (dateTime == null)
+    {
+      return null;
+    }
+    try
+    {
+      return TimeUtils.parseDateTime(dateTime).toEpochMilli();
+    }
+    catch (InvalidDateTimeRepresentationException ex)
+    {
+      log.trace(ex.getMessage(), ex);
+      return null;
+    }
+  }
+
+  /**
+   * makes sure that equal numbers with different scales are equal within the hash index
+   */
+  private static BigDecimal normalize(BigDecimal decimal)
+  {
+    return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+  }
+
+  /**
+   * @return true if the values of this attribute are compared as strings
+   */
+  private boolean isStringType()
+  {
+    Type type = schemaAttribute.getType();
+    return !Type.INTEGER.equals(type) && !Type.DECIMAL.equals(type) && !Type.DATE_TIME.equals(type);
+  }
+}
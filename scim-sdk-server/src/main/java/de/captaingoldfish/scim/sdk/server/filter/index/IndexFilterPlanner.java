@@ -0,0 +1,152 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.captaingoldfish.scim.sdk.server.filter.AndExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import de.captaingoldfish.scim.sdk.server.filter.AttributePathRoot;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNodeVisitor;
+import de.captaingoldfish.scim.sdk.server.filter.InExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.NotExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 15:40 <br>
+ * <br>
+ * resolves the indexable sub-expressions of a filter into a set of candidate resource ids. A result of null
+ * means that the expression cannot be narrowed by the indexes and all resources must be scanned. The
+ * candidates are always a superset of the matching resources so the filter must still be evaluated on them
+ */
+class IndexFilterPlanner implements FilterNodeVisitor<Set<String>>
+{
+
+  /**
+   * the available indexes mapped by the full resource name of the indexed attribute
+   */
+  private final Map<String, List<ResourceIndex>> indexes;
+
+  public IndexFilterPlanner(Map<String, List<ResourceIndex>> indexes)
+  {
+    this.indexes = indexes;
+  }
+
+  /**
+   * @param filterNode the filter expression
+   * @return the candidate ids or null if all resources must be scanned
+   */
+  public Set<String> getCandidates(FilterNode filterNode)
+  {
+    return filterNode.accept(this);
+  }
+
+  /**
+   * an and-expression can be narrowed by any of its children
+   */
+  @Override
+  public Set<String> visitAndExpression(AndExpressionNode andExpressionNode)
+  {
+    Set<String> left = andExpressionNode.getLeftNode().accept(this);
+    Set<String> right = andExpressionNode.getRightNode().accept(this);
+    if (left == null || right == null)
+    {
+      return left == null ? right : left;
+    }
+    Set<String> smaller = left.size() <= right.size() ? left : right;
+    Set<String> bigger = smaller == left ? right : left;
+    Set<String> intersection = new HashSet<>();
+    for ( String id : smaller )
+    {
+      if (bigger.contains(id))
+      {
+        intersection.add(id);
+      }
+    }
+    return intersection;
+  }
+
+  /**
+   * an or-expression can only be narrowed if all operands of the chain can be narrowed. Chains of "eq"
+   * comparisons on the same attribute are resolved as "IN" list
+   */
+  @Override
+  public Set<String> visitOrExpression(OrExpressionNode orExpressionNode)
+  {
+    Set<String> union = new HashSet<>();
+    for ( FilterNode operand : InExpressionNode.collapseOrOperands(orExpressionNode) )
+    {
+      Set<String> candidates = operand.accept(this);
+      if (candidates == null)
+      {
+        return null;
+      }
+      union.addAll(candidates);
+    }
+    return union;
+  }
+
+  /**
+   * an "IN" list is resolved with a single hash lookup per value
+   */
+  @Override
+  public Set<String> visitInExpression(InExpressionNode inExpressionNode)
+  {
+    Set<String> union = new HashSet<>();
+    for ( AttributeExpressionLeaf leaf : inExpressionNode.getLeafs() )
+    {
+      Set<String> candidates = visitAttributeExpression(leaf);
+      if (candidates == null)
+      {
+        return null;
+      }
+      union.addAll(candidates);
+    }
+    return union;
+  }
+
+  /**
+   * the complement of the candidates would not be a superset of the matching resources
+   */
+  @Override
+  public Set<String> visitNotExpression(NotExpressionNode notExpressionNode)
+  {
+    return null;
+  }
+
+  /**
+   * a single expression is resolved by the first index of the attribute that supports its comparator
+   */
+  @Override
+  public Set<String> visitAttributeExpression(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    List<ResourceIndex> attributeIndexes = indexes.get(attributeExpressionLeaf.getSchemaAttribute()
+                                                                              .getFullResourceName());
+    if (attributeIndexes == null)
+    {
+      return null;
+    }
+    for ( ResourceIndex resourceIndex : attributeIndexes )
+    {
+      if (resourceIndex.supports(attributeExpressionLeaf))
+      {
+        return resourceIndex.lookup(attributeExpressionLeaf);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * a value path can be narrowed by its filter because the indexes of sub-attributes contain the values of all
+   * elements of a multivalued complex attribute
+   */
+  @Override
+  public Set<String> visitAttributePath(AttributePathRoot attributePathRoot)
+  {
+    return attributePathRoot.getChild() == null ? null : attributePathRoot.getChild().accept(this);
+  }
+}
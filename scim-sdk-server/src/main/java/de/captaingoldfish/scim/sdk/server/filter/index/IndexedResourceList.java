@@ -0,0 +1,110 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Optional;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 16:21 <br>
+ * <br>
+ * a read-only list view on the resources of an {@link IndexedResourceStore}. The automatic filtering
+ * recognizes this list and delegates the filtering to the store so that its indexes are used. The automatic
+ * sorting reads unfiltered pages from the sorted views of the store if available. The resources are only
+ * copied into this list if its elements are accessed. <br>
+ * <br>
+ * The list is pinned to the version of the store at the time it was created. So its size, the filtering, the
+ * sorted pages and its elements always reflect the same resources even if the store is modified concurrently
+ */
+public class IndexedResourceList<T extends ResourceNode> extends AbstractList<T>
+{
+
+  /**
+   * the store that is viewed by this list
+   */
+  private final IndexedResourceStore<T> store;
+
+  /**
+   * the version of the store that is viewed by this list
+   */
+  private final IndexedResourceStore.Version<T> version;
+
+  /**
+   * the size of the store in the viewed version
+   */
+  private final int size;
+
+  /**
+   * the resources of the store. Copied on the first access of an element
+   */
+  private volatile List<T> snapshot;
+
+  IndexedResourceList(IndexedResourceStore<T> store, IndexedResourceStore.Version<T> version, int size)
+  {
+    this.store = store;
+    this.version = version;
+    this.size = size;
+  }
+
+  /**
+   * returns all resources of the viewed version of the store that match the given filter
+   *
+   * @param filterNode the filter expression
+   * @return the matching resources
+   */
+  public List<T> filter(FilterNode filterNode)
+  {
+    return store.filter(version, filterNode);
+  }
+
+  /**
+   * reads a page of all resources of the underlying store sorted by the given attribute
+   *
+   * @param sortBy the attribute that defines the order
+   * @param sortOrder the ordering direction
+   * @param startIndex the one based index of the first resource of the page
+   * @param count the maximum number of resources of the page
+   * @return the sorted page or an empty if the store has no sorted view for the given attribute or if the store
+   *         was modified after this list was created
+   */
+  public Optional<List<T>> getSortedPage(SchemaAttribute sortBy, SortOrder sortOrder, long startIndex, int count)
+  {
+    return store.getSortedPage(version, sortBy, sortOrder, startIndex, count);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public T get(int index)
+  {
+    return getSnapshot().get(index);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size()
+  {
+    return size;
+  }
+
+  /**
+   * copies the resources of the store on first access
+   */
+  private synchronized List<T> getSnapshot()
+  {
+    if (snapshot == null)
+    {
+      snapshot = store.getResourceSnapshot(version);
+    }
+    return snapshot;
+  }
+}
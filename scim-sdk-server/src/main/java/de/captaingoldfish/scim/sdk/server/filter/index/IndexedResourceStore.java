@@ -0,0 +1,569 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
+import de.captaingoldfish.scim.sdk.common.exceptions.InvalidConfigException;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.resources.FilterCompiler;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 15:58 <br>
+ * <br>
+ * an in-memory store for resources that maintains secondary indexes on the attributes that were declared in
+ * {@link de.captaingoldfish.scim.sdk.server.schemas.custom.ResourceTypeFeatures#getIndexedAttributes()} and
+ * trigram indexes on the attributes that were declared in
+ * {@link de.captaingoldfish.scim.sdk.server.schemas.custom.ResourceTypeFeatures#getNgramIndexedAttributes()}.
+ * Additionally a {@link SortedView} is maintained for each attribute that was declared in
+ * {@link de.captaingoldfish.scim.sdk.server.schemas.custom.ResourceTypeFeatures#getSortedAttributes()} so
+ * that unfiltered list requests sorted by such an attribute are paged without sorting the resources. <br>
+ * <br>
+ * If a {@link de.captaingoldfish.scim.sdk.server.endpoints.ResourceHandler} keeps its resources within this
+ * store and returns {@link #getResources()} from its listResources method the automatic filtering will use
+ * the indexes to find the candidates of a filter expression instead of scanning all resources. If the store
+ * is registered with {@link ResourceType#setIndexedResourceStore(IndexedResourceStore)} the resource endpoint
+ * adds created and updated resources to the store and removes deleted resources from it so that the indexes
+ * are maintained incrementally without any additional code in the resource handler. <br>
+ * <br>
+ * Each {@link IndexedResourceList} is pinned to the {@link Version} of the store at the time it was created.
+ * The stored entries are stamped with the version that added them and the version that replaced or removed
+ * them. Replaced and removed entries are retained as long as a pinned version might still see them so that
+ * the size, the filtering and the paging of a request always see the same resources without copying the store
+ * on modifications
+ */
+public class IndexedResourceStore<T extends ResourceNode>
+{
+
+  /**
+   * the current entries of the stored resources mapped by their ids
+   */
+  private final Map<String, Entry<T>> resources = new ConcurrentHashMap<>();
+
+  /**
+   * the replaced and removed entries that might still be visible to a pinned version ordered by the stamp of
+   * their removal. Only modified with the write lock
+   */
+  private final Deque<Entry<T>> retiredEntries = new ArrayDeque<>();
+
+  /**
+   * the versions that were pinned by a list. The versions are removed as soon as the lists that pinned them are
+   * no longer referenced
+   */
+  private final Map<Version<T>, Boolean> pinnedVersions = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * the resource type of the stored resources
+   */
+  private final ResourceType resourceType;
+
+  /**
+   * the indexes mapped by the full resource name of the indexed attribute
+   */
+  private final Map<String, List<ResourceIndex>> indexes;
+
+  /**
+   * the sorted views mapped by the full resource name of the sorted attribute
+   */
+  private final Map<String, SortedView<T>> sortedViews;
+
+  /**
+   * the write lock is held while the resources and their indexes are modified. The read lock is held while the
+   * indexes are queried so that a query never sees a half updated index
+   */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * the current state of the store
+   */
+  private Version<T> currentVersion = new Version<>(0);
+
+  /**
+   * creates a store that indexes the attributes that are declared within the features of the resource type
+   *
+   * @param resourceType the resource type of the stored resources
+   */
+  public IndexedResourceStore(ResourceType resourceType)
+  {
+    this(resourceType, resourceType.getFeatures().getIndexedAttributes(),
+         resourceType.getFeatures().getNgramIndexedAttributes(), resourceType.getFeatures().getSortedAttributes());
+  }
+
+  /**
+   * @param resourceType the resource type of the stored resources
+   * @param indexedAttributes the names of the attributes that should be indexed e.g. "userName" or
+   *          "emails.value"
+   */
+  public IndexedResourceStore(ResourceType resourceType, List<String> indexedAttributes)
+  {
+    this(resourceType, indexedAttributes, Collections.emptyList());
+  }
+
+  /**
+   * @param resourceType the resource type of the stored resources
+   * @param indexedAttributes the names of the attributes that should be indexed e.g. "userName" or
+   *          "emails.value"
+   * @param ngramIndexedAttributes the names of the string attributes that should get a trigram index for "co",
+   *          "sw" and "ew" comparisons e.g. "displayName"
+   */
+  public IndexedResourceStore(ResourceType resourceType,
+                              List<String> indexedAttributes,
+                              List<String> ngramIndexedAttributes)
+  {
+    this(resourceType, indexedAttributes, ngramIndexedAttributes, Collections.emptyList());
+  }
+
+  /**
+   * @param resourceType the resource type of the stored resources
+   * @param indexedAttributes the names of the attributes that should be indexed e.g. "userName" or
+   *          "emails.value"
+   * @param ngramIndexedAttributes the names of the string attributes that should get a trigram index for "co",
+   *          "sw" and "ew" comparisons e.g. "displayName"
+   * @param sortedAttributes the names of the attributes that should get a sorted view for paging sorted list
+   *          requests e.g. "userName" or "meta.created"
+   */
+  public IndexedResourceStore(ResourceType resourceType,
+                              List<String> indexedAttributes,
+                              List<String> ngramIndexedAttributes,
+                              List<String> sortedAttributes)
+  {
+    this.resourceType = resourceType;
+    Map<String, List<ResourceIndex>> indexMap = new HashMap<>();
+    for ( String attributeName : indexedAttributes )
+    {
+      SchemaAttribute schemaAttribute = getIndexedAttribute(attributeName);
+      indexMap.computeIfAbsent(schemaAttribute.getFullResourceName(), k -> new ArrayList<>())
+              .add(new AttributeIndex(schemaAttribute));
+    }
+    for ( String attributeName : ngramIndexedAttributes )
+    {
+      SchemaAttribute schemaAttribute = getIndexedAttribute(attributeName);
+      indexMap.computeIfAbsent(schemaAttribute.getFullResourceName(), k -> new ArrayList<>())
+              .add(new TrigramIndex(schemaAttribute));
+    }
+    this.indexes = Collections.unmodifiableMap(indexMap);
+    Map<String, SortedView<T>> viewMap = new HashMap<>();
+    for ( String attributeName : sortedAttributes )
+    {
+      SchemaAttribute schemaAttribute = getIndexedAttribute(attributeName);
+      viewMap.put(schemaAttribute.getFullResourceName(), new SortedView<>(schemaAttribute));
+    }
+    this.sortedViews = Collections.unmodifiableMap(viewMap);
+  }
+
+  /**
+   * resolves the attribute definition of an attribute that should be indexed
+   */
+  private SchemaAttribute getIndexedAttribute(String attributeName)
+  {
+    SchemaAttribute schemaAttribute = RequestUtils.getSchemaAttributeByAttributeName(resourceType, attributeName);
+    if (schemaAttribute == null)
+    {
+      throw new InvalidConfigException("the attribute '" + attributeName + "' cannot be indexed because it "
+                                       + "does not exist on resource type '" + resourceType.getName() + "'");
+    }
+    return schemaAttribute;
+  }
+
+  /**
+   * adds the given resource to the store or replaces the resource with the same id
+   *
+   * @param resource the resource to store. It must have an id
+   */
+  public void put(T resource)
+  {
+    String id = resource.getId().orElseThrow(() -> {
+      return new InternalServerException("resources without an id cannot be stored", null, null);
+    });
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try
+    {
+      startNewVersion();
+      Entry<T> previous = resources.put(id, new Entry<>(resource, currentVersion.stamp));
+      if (previous != null)
+      {
+        retire(previous);
+      }
+      for ( List<ResourceIndex> attributeIndexes : indexes.values() )
+      {
+        for ( ResourceIndex resourceIndex : attributeIndexes )
+        {
+          if (previous != null)
+          {
+            resourceIndex.remove(id, previous.resource);
+          }
+          resourceIndex.add(id, resource);
+        }
+      }
+      sortedViews.values().forEach(sortedView -> sortedView.add(id, resource));
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * removes the resource with the given id from the store
+   *
+   * @param id the id of the resource to remove
+   * @return the removed resource or null if no resource with this id was present
+   */
+  public T remove(String id)
+  {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try
+    {
+      if (!resources.containsKey(id))
+      {
+        return null;
+      }
+      startNewVersion();
+      Entry<T> previous = resources.remove(id);
+      retire(previous);
+      indexes.values().forEach(attributeIndexes -> {
+        attributeIndexes.forEach(resourceIndex -> resourceIndex.remove(id, previous.resource));
+      });
+      sortedViews.values().forEach(sortedView -> sortedView.remove(id));
+      return previous.resource;
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * removes all resources from the store
+   */
+  public void clear()
+  {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try
+    {
+      startNewVersion();
+      resources.values().forEach(this::retire);
+      resources.clear();
+      indexes.values().forEach(attributeIndexes -> attributeIndexes.forEach(ResourceIndex::clear));
+      sortedViews.values().forEach(SortedView::clear);
+    }
+    finally
+    {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * must be called with the write lock before the resources are modified. If a list was pinned to the current
+   * version a new version is started so that the modification is not visible to the list. Otherwise the current
+   * version is simply continued because nobody has seen it yet. Retired entries that are no longer visible to
+   * any pinned version are discarded
+   */
+  private void startNewVersion()
+  {
+    if (currentVersion.pinned)
+    {
+      currentVersion = new Version<>(currentVersion.stamp + 1);
+    }
+    long oldestPinnedStamp = currentVersion.stamp;
+    synchronized (pinnedVersions)
+    {
+      for ( Version<T> version : pinnedVersions.keySet() )
+      {
+        oldestPinnedStamp = Math.min(oldestPinnedStamp, version.stamp);
+      }
+    }
+    while (!retiredEntries.isEmpty() && retiredEntries.peekFirst().removedAt <= oldestPinnedStamp)
+    {
+      retiredEntries.pollFirst();
+    }
+  }
+
+  /**
+   * must be called with the write lock if an entry was replaced or removed. The entry is retained as long as a
+   * pinned version might still see it
+   */
+  private void retire(Entry<T> entry)
+  {
+    entry.removedAt = currentVersion.stamp;
+    if (!pinnedVersions.isEmpty())
+    {
+      retiredEntries.addLast(entry);
+    }
+  }
+
+  /**
+   * @param id the id of the resource
+   * @return the resource with the given id
+   */
+  public Optional<T> get(String id)
+  {
+    return Optional.ofNullable(resources.get(id)).map(entry -> entry.resource);
+  }
+
+  /**
+   * @return the number of stored resources
+   */
+  public int size()
+  {
+    return resources.size();
+  }
+
+  /**
+   * @return a list of all resources within this store that can be returned by the listResources method of a
+   *         resource handler so that the automatic filtering is able to use the indexes of this store
+   */
+  public IndexedResourceList<T> getResources()
+  {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try
+    {
+      Version<T> version = currentVersion;
+      version.pinned = true;
+      pinnedVersions.put(version, Boolean.TRUE);
+      return new IndexedResourceList<>(this, version, resources.size());
+    }
+    finally
+    {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * @param version the version of the store that was pinned by a list
+   * @return a list of all resources of the given version
+   */
+  List<T> getResourceSnapshot(Version<T> version)
+  {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try
+    {
+      return getVisibleResources(version, null);
+    }
+    finally
+    {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * must be called with the read lock. Collects the resources that are visible to the given version
+   *
+   * @param version the version for which the resources should be collected
+   * @param candidates the ids of the current resources that should be collected or null to collect all current
+   *          resources. Retired entries that are still visible to the version are always collected because the
+   *          indexes only reflect the current state of the store
+   * @return the visible resources
+   */
+  private List<T> getVisibleResources(Version<T> version, Set<String> candidates)
+  {
+    List<T> visibleResources = new ArrayList<>();
+    if (candidates == null)
+    {
+      resources.values()
+               .stream()
+               .filter(entry -> entry.isVisibleTo(version))
+               .forEach(entry -> visibleResources.add(entry.resource));
+    }
+    else
+    {
+      for ( String id : candidates )
+      {
+        Entry<T> entry = resources.get(id);
+        if (entry != null && entry.isVisibleTo(version))
+        {
+          visibleResources.add(entry.resource);
+        }
+      }
+    }
+    if (version != currentVersion)
+    {
+      retiredEntries.stream()
+                    .filter(entry -> entry.isVisibleTo(version))
+                    .forEach(entry -> visibleResources.add(entry.resource));
+    }
+    return visibleResources;
+  }
+
+  /**
+   * reads a page of all resources sorted by the given attribute from the sorted view of this attribute
+   *
+   * @param sortBy the attribute that defines the order
+   * @param sortOrder the ordering direction
+   * @param startIndex the one based index of the first resource of the page
+   * @param count the maximum number of resources of the page
+   * @return the sorted page or an empty if no sorted view was declared for the given attribute
+   */
+  public Optional<List<T>> getSortedPage(SchemaAttribute sortBy, SortOrder sortOrder, long startIndex, int count)
+  {
+    return getSortedPage(null, sortBy, sortOrder, startIndex, count);
+  }
+
+  /**
+   * reads a page from the sorted view of the given attribute if the store is still in the given version
+   *
+   * @param version the version that was pinned by a list or null to read the current version
+   * @return the sorted page or an empty if no sorted view was declared for the given attribute or if the store
+   *         was modified after the given version
+   */
+  Optional<List<T>> getSortedPage(Version<T> version,
+                                  SchemaAttribute sortBy,
+                                  SortOrder sortOrder,
+                                  long startIndex,
+                                  int count)
+  {
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try
+    {
+      SortedView<T> sortedView = sortedViews.get(sortBy.getFullResourceName());
+      if (sortedView == null || (version != null && version != currentVersion))
+      {
+        return Optional.empty();
+      }
+      int fromIndex = (int)Math.min(Integer.MAX_VALUE, Math.max(0, startIndex - 1));
+      return Optional.of(sortedView.getPage(!SortOrder.DESCENDING.equals(sortOrder), fromIndex, count));
+    }
+    finally
+    {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * returns all resources that match the given filter. The indexes are used to narrow the resources that must
+   * be checked against the filter. If no index is usable all resources will be scanned
+   *
+   * @param filterNode the filter expression
+   * @return the matching resources
+   */
+  public List<T> filter(FilterNode filterNode)
+  {
+    return filter(null, filterNode);
+  }
+
+  /**
+   * returns all resources of the given version that match the given filter. The candidates are read from the
+   * indexes and completed by the entries that were replaced or removed after the given version. The candidates
+   * are collected with the read lock and checked against the filter after the lock was released
+   *
+   * @param version the version that was pinned by a list or null to filter the current version
+   * @param filterNode the filter expression
+   * @return the matching resources
+   */
+  List<T> filter(Version<T> version, FilterNode filterNode)
+  {
+    Predicate<ResourceNode> predicate = FilterCompiler.compile(filterNode);
+    Set<String> candidates;
+    List<T> candidateResources;
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try
+    {
+      candidates = new IndexFilterPlanner(indexes).getCandidates(filterNode);
+      candidateResources = getVisibleResources(version == null ? currentVersion : version, candidates);
+    }
+    finally
+    {
+      readLock.unlock();
+    }
+    if (candidates == null)
+    {
+      return resourceType.getExecutionPolicy().filter(candidateResources, predicate);
+    }
+    List<T> matchingResources = new ArrayList<>();
+    for ( T resource : candidateResources )
+    {
+      if (predicate.test(resource))
+      {
+        matchingResources.add(resource);
+      }
+    }
+    return matchingResources;
+  }
+
+  /**
+   * a state of the store between two modifications. A version is identified by its stamp. The stamp is only
+   * increased if the store is modified after a list was pinned to the current version
+   */
+  static final class Version<T>
+  {
+
+    /**
+     * the stamp of this version
+     */
+    private final long stamp;
+
+    /**
+     * true if an {@link IndexedResourceList} was created for this version. Only set with the read lock and only
+     * read with the write lock
+     */
+    private volatile boolean pinned;
+
+    private Version(long stamp)
+    {
+      this.stamp = stamp;
+    }
+  }
+
+  /**
+   * a stored resource together with the stamps of the versions that see it
+   */
+  private static final class Entry<T>
+  {
+
+    /**
+     * the stored resource
+     */
+    private final T resource;
+
+    /**
+     * the stamp of the version that added this entry
+     */
+    private final long addedAt;
+
+    /**
+     * the stamp of the version that replaced or removed this entry. Only modified with the write lock
+     */
+    private long removedAt = Long.MAX_VALUE;
+
+    private Entry(T resource, long addedAt)
+    {
+      this.resource = resource;
+      this.addedAt = addedAt;
+    }
+
+    /**
+     * @return true if the given version sees this entry
+     */
+    private boolean isVisibleTo(Version<?> version)
+    {
+      return addedAt <= version.stamp && version.stamp < removedAt;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.util.Set;
+
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 01:05 <br>
+ * <br>
+ * an index over the values of a single attribute that maps the values to the ids of the resources that
+ * contain them. The lookups of an index will always return a superset of the resources that match the
+ * comparison so the result must still be checked against the filter expression
+ */
+interface ResourceIndex
+{
+
+  /**
+   * @return the attribute that is indexed
+   */
+  SchemaAttribute getSchemaAttribute();
+
+  /**
+   * adds the values of the given resource to this index
+   */
+  void add(String id, ResourceNode resourceNode);
+
+  /**
+   * removes the values of the given resource from this index
+   */
+  void remove(String id, ResourceNode resourceNode);
+
+  /**
+   * removes all entries from this index
+   */
+  void clear();
+
+  /**
+   * tells us if this index is able to resolve the given expression
+   *
+   * @param attributeExpressionLeaf the expression to resolve
+   * @return true if {@link #lookup(AttributeExpressionLeaf)} will return a result
+   */
+  boolean supports(AttributeExpressionLeaf attributeExpressionLeaf);
+
+  /**
+   * retrieves the ids of the resources that might match the given expression
+   *
+   * @param attributeExpressionLeaf an expression that is supported by this index
+   * @return the ids of all resources that might match the expression
+   */
+  Set<String> lookup(AttributeExpressionLeaf attributeExpressionLeaf);
+}
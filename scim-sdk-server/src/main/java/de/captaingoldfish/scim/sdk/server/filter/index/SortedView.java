@@ -0,0 +1,337 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.sort.SortKey;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 03:40 <br>
+ * <br>
+ * an incrementally maintained sorted view on the resources of an {@link IndexedResourceStore}. The resources
+ * are kept in a randomized balanced search tree (a treap) that is ordered by the precomputed {@link SortKey}
+ * of the sorted attribute and the id of the resource. Each node knows the size of its subtree so that the
+ * resource at a given position is found in O(log n) and a page of {@code count} resources is read in O(log n
+ * + count) without sorting the resources again. Resources without a value for the sorted attribute are kept
+ * at the end of the view regardless of the requested sort order just like the
+ * {@link de.captaingoldfish.scim.sdk.server.sort.ResourceNodeComparator} does it. <br>
+ * <br>
+ * This class is not thread-safe. The {@link IndexedResourceStore} synchronizes the access
+ */
+class SortedView<T extends ResourceNode>
+{
+
+  /**
+   * the attribute that defines the order of this view
+   */
+  @Getter
+  private final SchemaAttribute schemaAttribute;
+
+  /**
+   * the keys of the resources within this view mapped by the ids of the resources. The key that was used to
+   * insert a resource is remembered so that the resource is found again even if the stored resource object was
+   * modified in the meantime
+   */
+  private final Map<String, SortKey> keys = new HashMap<>();
+
+  /**
+   * used to generate the priorities of the tree nodes
+   */
+  private final Random random = new Random();
+
+  /**
+   * the root of the tree
+   */
+  private Node<T> root;
+
+  /**
+   * the number of resources that have a value for the sorted attribute
+   */
+  private int presentCount;
+
+  SortedView(SchemaAttribute schemaAttribute)
+  {
+    this.schemaAttribute = schemaAttribute;
+  }
+
+  /**
+   * adds the given resource to this view or moves it to its new position if it was already present
+   *
+   * @param id the id of the resource
+   * @param resource the resource to add
+   */
+  public void add(String id, T resource)
+  {
+    remove(id);
+    SortKey key = SortKey.of(resource, schemaAttribute);
+    keys.put(id, key);
+    if (key.isPresent())
+    {
+      presentCount++;
+    }
+    root = insert(root, new Node<>(key, id, resource, random.nextInt()));
+  }
+
+  /**
+   * removes the resource with the given id from this view
+   *
+   * @param id the id of the resource to remove
+   */
+  public void remove(String id)
+  {
+    SortKey key = keys.remove(id);
+    if (key == null)
+    {
+      return;
+    }
+    if (key.isPresent())
+    {
+      presentCount--;
+    }
+    root = delete(root, key, id);
+  }
+
+  /**
+   * removes all resources from this view
+   */
+  public void clear()
+  {
+    keys.clear();
+    root = null;
+    presentCount = 0;
+  }
+
+  /**
+   * @return the number of resources within this view
+   */
+  public int size()
+  {
+    return size(root);
+  }
+
+  /**
+   * reads a page of resources in the given order
+   *
+   * @param ascending the sort direction
+   * @param fromIndex the zero based position of the first resource of the page
+   * @param count the maximum number of resources of the page
+   * @return the resources of the page in the requested order
+   */
+  public List<T> getPage(boolean ascending, int fromIndex, int count)
+  {
+    int size = size();
+    int toIndex = (int)Math.min(size, (long)fromIndex + count);
+    if (fromIndex >= toIndex)
+    {
+      return new ArrayList<>();
+    }
+    List<T> page = new ArrayList<>(toIndex - fromIndex);
+    if (ascending)
+    {
+      collect(root, fromIndex, toIndex, 0, page);
+      return page;
+    }
+    // the resources with a value are read in reversed order while the resources without a value stay at the end
+    int presentTo = Math.min(toIndex, presentCount);
+    if (fromIndex < presentTo)
+    {
+      collect(root, presentCount - presentTo, presentCount - fromIndex, 0, page);
+      Collections.reverse(page);
+    }
+    int missingFrom = Math.max(fromIndex, presentCount);
+    if (missingFrom < toIndex)
+    {
+      collect(root, missingFrom, toIndex, 0, page);
+    }
+    return page;
+  }
+
+  /**
+   * adds the resources at the positions {@code [fromIndex, toIndex)} of the given subtree in ascending order
+   *
+   * @param node the root of the subtree
+   * @param offset the position of the first resource of the subtree within the whole view
+   */
+  private void collect(Node<T> node, int fromIndex, int toIndex, int offset, List<T> page)
+  {
+    if (node == null || offset >= toIndex || offset + node.size <= fromIndex)
+    {
+      return;
+    }
+    collect(node.left, fromIndex, toIndex, offset, page);
+    int position = offset + size(node.left);
+    if (position >= fromIndex && position < toIndex)
+    {
+      page.add(node.resource);
+    }
+    collect(node.right, fromIndex, toIndex, position + 1, page);
+  }
+
+  /**
+   * compares the given key and id with the key and id of the node
+   */
+  private static int compare(SortKey key, String id, Node<?> node)
+  {
+    int result = SortKey.compare(key, node.key, true);
+    return result == 0 ? id.compareTo(node.id) : result;
+  }
+
+  private Node<T> insert(Node<T> node, Node<T> newNode)
+  {
+    if (node == null)
+    {
+      return newNode;
+    }
+    if (compare(newNode.key, newNode.id, node) < 0)
+    {
+      node.left = insert(node.left, newNode);
+      if (node.left.priority > node.priority)
+      {
+        node = rotateRight(node);
+      }
+    }
+    else
+    {
+      node.right = insert(node.right, newNode);
+      if (node.right.priority > node.priority)
+      {
+        node = rotateLeft(node);
+      }
+    }
+    node.update();
+    return node;
+  }
+
+  private Node<T> delete(Node<T> node, SortKey key, String id)
+  {
+    if (node == null)
+    {
+      return null;
+    }
+    int result = compare(key, id, node);
+    if (result < 0)
+    {
+      node.left = delete(node.left, key, id);
+    }
+    else if (result > 0)
+    {
+      node.right = delete(node.right, key, id);
+    }
+    else
+    {
+      return merge(node.left, node.right);
+    }
+    node.update();
+    return node;
+  }
+
+  /**
+   * merges two subtrees. All nodes of the left subtree must be less than the nodes of the right subtree
+   */
+  private Node<T> merge(Node<T> left, Node<T> right)
+  {
+    if (left == null)
+    {
+      return right;
+    }
+    if (right == null)
+    {
+      return left;
+    }
+    if (left.priority > right.priority)
+    {
+      left.right = merge(left.right, right);
+      left.update();
+      return left;
+    }
+    right.left = merge(left, right.left);
+    right.update();
+    return right;
+  }
+
+  private Node<T> rotateRight(Node<T> node)
+  {
+    Node<T> left = node.left;
+    node.left = left.right;
+    node.update();
+    left.right = node;
+    left.update();
+    return left;
+  }
+
+  private Node<T> rotateLeft(Node<T> node)
+  {
+    Node<T> right = node.right;
+    node.right = right.left;
+    node.update();
+    right.left = node;
+    right.update();
+    return right;
+  }
+
+  private static int size(Node<?> node)
+  {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * a node of the tree
+   */
+  private static final class Node<T>
+  {
+
+    /**
+     * the precomputed sort key of the resource
+     */
+    private final SortKey key;
+
+    /**
+     * the id of the resource. Used to order resources with equal keys
+     */
+    private final String id;
+
+    /**
+     * the resource
+     */
+    private final T resource;
+
+    /**
+     * the random priority of this node that keeps the tree balanced
+     */
+    private final int priority;
+
+    /**
+     * the number of nodes within the subtree of this node
+     */
+    private int size = 1;
+
+    private Node<T> left;
+
+    private Node<T> right;
+
+    public Node(SortKey key, String id, T resource, int priority)
+    {
+      this.key = key;
+      this.id = id;
+      this.resource = resource;
+      this.priority = priority;
+    }
+
+    /**
+     * recalculates the size of the subtree after its children have changed
+     */
+    private void update()
+    {
+      size = 1 + size(left) + size(right);
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
+import de.captaingoldfish.scim.sdk.common.exceptions.InvalidConfigException;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 01:12 <br>
+ * <br>
+ * an n-gram index over the values of a single string attribute that is used for "co", "sw" and "ew"
+ * comparisons. Each value is surrounded by a boundary character and split into all of its substrings with a
+ * length of three characters. A value that contains the compared string must also contain all trigrams of the
+ * compared string so the candidates of a comparison are the intersection of the resources of its trigrams.
+ * The boundary character makes it possible to narrow "sw" and "ew" comparisons to the start and the end of
+ * the values. <br>
+ * <br>
+ * Comparison values with less than three characters (including the boundary character for "sw" and "ew")
+ * cannot be resolved by this index. Strings of attributes that are not case exact are folded the same way as
+ * the {@link AttributeIndex} does it
+ */
+class TrigramIndex implements ResourceIndex
+{
+
+  /**
+   * the length of the indexed substrings
+   */
+  private static final int GRAM_LENGTH = 3;
+
+  /**
+   * marks the start and the end of an indexed value. This character is not expected within scim string values
+   */
+  private static final char BOUNDARY = '\u0000';
+
+  /**
+   * the attribute that is indexed
+   */
+  @Getter
+  private final SchemaAttribute schemaAttribute;
+
+  /**
+   * the name of the attribute within the resource
+   */
+  private final String attributeName;
+
+  /**
+   * the name of the parent attribute within the resource if the indexed attribute is a sub-attribute
+   */
+  private final String parentName;
+
+  /**
+   * if string values must be folded before they are put into the index
+   */
+  private final boolean foldCase;
+
+  /**
+   * maps the trigrams to the ids of the resources that contain the trigram within any of their values
+   */
+  private final Map<String, Set<String>> trigramIndex = new ConcurrentHashMap<>();
+
+  public TrigramIndex(SchemaAttribute schemaAttribute)
+  {
+    if (!Type.STRING.equals(schemaAttribute.getType()) && !Type.REFERENCE.equals(schemaAttribute.getType()))
+    {
+      throw new InvalidConfigException("the attribute '" + schemaAttribute.getFullResourceName() + "' of type '"
+                                       + schemaAttribute.getType().getValue() + "' cannot get an n-gram index");
+    }
+    this.schemaAttribute = schemaAttribute;
+    this.attributeName = schemaAttribute.getName();
+    this.parentName = schemaAttribute.getParent() == null ? null : schemaAttribute.getParent().getName();
+    this.foldCase = !schemaAttribute.isCaseExact();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void add(String id, ResourceNode resourceNode)
+  {
+    for ( String trigram : getTrigrams(resourceNode) )
+    {
+      trigramIndex.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void remove(String id, ResourceNode resourceNode)
+  {
+    for ( String trigram : getTrigrams(resourceNode) )
+    {
+      trigramIndex.computeIfPresent(trigram, (k, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void clear()
+  {
+    trigramIndex.clear();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean supports(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    if (attributeExpressionLeaf.isNull() || attributeExpressionLeaf.getValue() == null)
+    {
+      return false;
+    }
+    switch (attributeExpressionLeaf.getComparator())
+    {
+      case CO:
+      case SW:
+      case EW:
+        return getSearchString(attributeExpressionLeaf).length() >= GRAM_LENGTH;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<String> lookup(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    String searchString = getSearchString(attributeExpressionLeaf);
+    List<Set<String>> idSets = new ArrayList<>();
+    for ( String trigram : splitIntoTrigrams(searchString, new HashSet<>()) )
+    {
+      Set<String> ids = trigramIndex.get(trigram);
+      if (ids == null)
+      {
+        return Collections.emptySet();
+      }
+      idSets.add(ids);
+    }
+    idSets.sort((ids1, ids2) -> Integer.compare(ids1.size(), ids2.size()));
+    Set<String> candidates = new HashSet<>(idSets.get(0));
+    for ( int i = 1 ; i < idSets.size() && !candidates.isEmpty() ; i++ )
+    {
+      candidates.retainAll(idSets.get(i));
+    }
+    return candidates;
+  }
+
+  /**
+   * builds the string whose trigrams must be present within a matching value. The boundary character anchors
+   * the comparison value at the start or the end of the value
+   */
+  private String getSearchString(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    String value = foldCase ? AttributeIndex.foldCase(attributeExpressionLeaf.getValue())
+      : attributeExpressionLeaf.getValue();
+    switch (attributeExpressionLeaf.getComparator())
+    {
+      case SW:
+        return BOUNDARY + value;
+      case EW:
+        return value + BOUNDARY;
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * extracts the trigrams of all values of the indexed attribute from the given resource
+   */
+  private Set<String> getTrigrams(ResourceNode resourceNode)
+  {
+    Set<String> trigrams = new HashSet<>();
+    AttributeIndex.forEachValue(resourceNode, parentName, attributeName, jsonNode -> {
+      String value = jsonNode.textValue();
+      if (value != null)
+      {
+        value = foldCase ? AttributeIndex.foldCase(value) : value;
+        splitIntoTrigrams(BOUNDARY + value + BOUNDARY, trigrams);
+      }
+    });
+    return trigrams;
+  }
+
+  /**
+   * adds all substrings of the given string with a length of three to the given set
+   */
+  private static Set<String> splitIntoTrigrams(String value, Set<String> trigrams)
+  {
+    for ( int i = 0 ; i + GRAM_LENGTH <= value.length() ; i++ )
+    {
+      trigrams.add(value.substring(i, i + GRAM_LENGTH));
+    }
+    return trigrams;
+  }
+}
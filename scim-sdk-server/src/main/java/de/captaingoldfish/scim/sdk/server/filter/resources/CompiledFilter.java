@@ -0,0 +1,64 @@
+package de.captaingoldfish.scim.sdk.server.filter.resources;
+
+import java.util.function.Predicate;
+
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 17:20 <br>
+ * <br>
+ * a compiled part of a filter expression together with the estimations that are used by the
+ * {@link FilterOptimizer} to find the cheapest evaluation order
+ */
+@Getter
+@AllArgsConstructor
+class CompiledFilter
+{
+
+  /**
+   * a filter part that matches any resource
+   */
+  public static final CompiledFilter TRUE = new CompiledFilter(resourceNode -> true, 0, 1, Boolean.TRUE);
+
+  /**
+   * a filter part that matches no resource
+   */
+  public static final CompiledFilter FALSE = new CompiledFilter(resourceNode -> false, 0, 0, Boolean.FALSE);
+
+  /**
+   * the predicate that evaluates this filter part
+   */
+  private final Predicate<ResourceNode> predicate;
+
+  /**
+   * the estimated relative cost of evaluating the predicate on a single resource
+   */
+  private final double cost;
+
+  /**
+   * the estimated probability that the predicate matches a resource
+   */
+  private final double selectivity;
+
+  /**
+   * the constant result of this filter part if it does not depend on the evaluated resource. Null else
+   */
+  private final Boolean constant;
+
+  public CompiledFilter(Predicate<ResourceNode> predicate, double cost, double selectivity)
+  {
+    this(predicate, cost, selectivity, null);
+  }
+
+  /**
+   * @return true if the result of this filter part does not depend on the evaluated resource
+   */
+  public boolean isConstant()
+  {
+    return constant != null;
+  }
+}
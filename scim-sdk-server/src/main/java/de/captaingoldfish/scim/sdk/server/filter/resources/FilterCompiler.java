@@ -0,0 +1,597 @@
+package de.captaingoldfish.scim.sdk.server.filter.resources;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.Comparator;
+import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
+import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.TimeUtils;
+import de.captaingoldfish.scim.sdk.server.filter.AndExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import de.captaingoldfish.scim.sdk.server.filter.AttributePathRoot;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.InExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.NotExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 09:12 <br>
+ * <br>
+ * compiles a {@link FilterNode} tree into a tree of {@link Predicate}s. All information that does not depend
+ * on the evaluated resource like attribute names, case sensitivity, the comparator operation and the parsed
+ * comparison values are resolved once while compiling so that evaluating the predicate on a large list of
+ * resources does only the work that is really necessary for the single resource
+ */
+public final class FilterCompiler
+{
+
+  private FilterCompiler()
+  {}
+
+  /**
+   * compiles the given filter tree into a predicate that can be reused for any number of resources. The
+   * operands of "and" and "or" expressions are reordered by the {@link FilterOptimizer} so that the cheapest
+   * and most decisive operands are evaluated first
+   *
+   * @param filterNode the filter expression
+   * @return a predicate that tells us if the evaluated resource does match the filter or not
+   */
+  public static Predicate<ResourceNode> compile(FilterNode filterNode)
+  {
+    return compileNode(filterNode).getPredicate();
+  }
+
+  /**
+   * compiles the given filter tree into a predicate together with its estimated cost and selectivity
+   *
+   * @param filterNode the filter expression
+   * @return the compiled filter
+   */
+  static CompiledFilter compileNode(FilterNode filterNode)
+  {
+    if (filterNode instanceof AndExpressionNode)
+    {
+      List<CompiledFilter> operands = new ArrayList<>();
+      collectOperands(filterNode, AndExpressionNode.class, operands);
+      return FilterOptimizer.and(operands);
+    }
+    else if (filterNode instanceof OrExpressionNode)
+    {
+      // chains of "eq" comparisons on the same attribute are evaluated with a single set lookup
+      List<CompiledFilter> operands = new ArrayList<>();
+      for ( FilterNode operand : InExpressionNode.collapseOrOperands((OrExpressionNode)filterNode) )
+      {
+        operands.add(compileNode(operand));
+      }
+      return FilterOptimizer.or(operands);
+    }
+    else if (filterNode instanceof NotExpressionNode)
+    {
+      FilterNode innerNode = ((NotExpressionNode)filterNode).getRightNode();
+      if (innerNode instanceof NotExpressionNode)
+      {
+        // a double negation does not need to be evaluated
+        return compileNode(((NotExpressionNode)innerNode).getRightNode());
+      }
+      return FilterOptimizer.not(compileNode(innerNode));
+    }
+    else if (filterNode instanceof AttributeExpressionLeaf)
+    {
+      AttributeExpressionLeaf attributeExpressionLeaf = (AttributeExpressionLeaf)filterNode;
+      if (isAlwaysPresent(attributeExpressionLeaf))
+      {
+        return CompiledFilter.TRUE;
+      }
+      return new CompiledFilter(compileAttributeExpressionLeaf(attributeExpressionLeaf),
+                                FilterOptimizer.estimateCost(attributeExpressionLeaf),
+                                FilterOptimizer.estimateSelectivity(attributeExpressionLeaf));
+    }
+    else if (filterNode instanceof InExpressionNode)
+    {
+      InExpressionNode inExpressionNode = (InExpressionNode)filterNode;
+      return new CompiledFilter(compileAttributeAccess(inExpressionNode.getFirstLeaf(),
+                                                       compileInPredicate(inExpressionNode)),
+                                FilterOptimizer.estimateCost(inExpressionNode),
+                                FilterOptimizer.estimateSelectivity(inExpressionNode));
+    }
+    else if (filterNode instanceof AttributePathRoot)
+    {
+      return compileNode(((AttributePathRoot)filterNode).getChild());
+    }
+    return CompiledFilter.FALSE;
+  }
+
+  /**
+   * flattens a chain of nested expressions of the same type into a single list of compiled operands so that all
+   * of them can be reordered together
+   *
+   * @param filterNode the current node of the chain
+   * @param chainType the type of the chain. Only {@link AndExpressionNode} chains are collected this way
+   * @param operands the list to which the compiled operands are added
+   */
+  private static void collectOperands(FilterNode filterNode,
+                                      Class<? extends FilterNode> chainType,
+                                      List<CompiledFilter> operands)
+  {
+    if (filterNode instanceof AndExpressionNode && AndExpressionNode.class.equals(chainType))
+    {
+      collectOperands(((AndExpressionNode)filterNode).getLeftNode(), chainType, operands);
+      collectOperands(((AndExpressionNode)filterNode).getRightNode(), chainType, operands);
+    }
+    else
+    {
+      operands.add(compileNode(filterNode));
+    }
+  }
+
+  /**
+   * a simple boolean attribute that is not present is treated as false so a "pr" expression on such an
+   * attribute is always true unless the attribute is part of a multivalued complex attribute that might be
+   * empty
+   */
+  private static boolean isAlwaysPresent(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    SchemaAttribute schemaAttribute = attributeExpressionLeaf.getSchemaAttribute();
+    return Type.BOOLEAN.equals(attributeExpressionLeaf.getType())
+           && Comparator.PR.equals(attributeExpressionLeaf.getComparator()) && !attributeExpressionLeaf.isMultiValued()
+           && (schemaAttribute.getParent() == null || !schemaAttribute.getParent().isMultiValued());
+  }
+
+  /**
+   * compiles a leaf node into a predicate that extracts the referenced attribute from the resource and checks
+   * it against the expression
+   *
+   * @param attributeExpressionLeaf the leaf node that holds the expressions information
+   * @return the predicate that evaluates the expression on a resource
+   */
+  private static Predicate<ResourceNode> compileAttributeExpressionLeaf(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    return compileAttributeAccess(attributeExpressionLeaf, compileValuePredicate(attributeExpressionLeaf));
+  }
+
+  /**
+   * compiles a predicate that extracts the attribute that is referenced by the given leaf from the resource and
+   * checks it with the given value predicate
+   *
+   * @param attributeExpressionLeaf the leaf that references the attribute
+   * @param valuePredicate the check for the extracted attribute node
+   * @return the predicate that evaluates the check on a resource
+   */
+  private static Predicate<ResourceNode> compileAttributeAccess(AttributeExpressionLeaf attributeExpressionLeaf,
+                                                                Predicate<JsonNode> valuePredicate)
+  {
+    SchemaAttribute schemaAttribute = attributeExpressionLeaf.getSchemaAttribute();
+    final String attributeName = schemaAttribute.getName();
+    if (attributeExpressionLeaf.getShortName().indexOf('.') == -1)
+    {
+      return resourceNode -> valuePredicate.test(resourceNode.get(attributeName));
+    }
+    final String parentName = schemaAttribute.getParent().getName();
+    return resourceNode -> {
+      JsonNode complexNode = resourceNode.get(parentName);
+      if (complexNode == null)
+      {
+        return valuePredicate.test(null);
+      }
+      if (complexNode.isArray())
+      {
+        for ( int i = 0 ; i < complexNode.size() ; i++ )
+        {
+          if (valuePredicate.test(complexNode.get(i).get(attributeName)))
+          {
+            return true;
+          }
+        }
+        return false;
+      }
+      return valuePredicate.test(complexNode.get(attributeName));
+    };
+  }
+
+  /**
+   * compiles the comparison of a simple attribute node with the given filter expression. The attribute node
+   * might be a json array with primitives or a json primitive
+   *
+   * @param attributeExpressionLeaf the expression leaf that describes the node
+   * @return a predicate that checks if the attribute matches the expression
+   */
+  public static Predicate<JsonNode> compileValuePredicate(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    switch (attributeExpressionLeaf.getType())
+    {
+      case BOOLEAN:
+        return compileBooleanPredicate(attributeExpressionLeaf);
+      case INTEGER:
+      case DECIMAL:
+        return compileNumberPredicate(attributeExpressionLeaf.getNumberValue().orElse(null),
+                                      attributeExpressionLeaf.getComparator());
+      case DATE_TIME:
+        return compileDateTimePredicate(attributeExpressionLeaf);
+      default:
+        return compileStringTypePredicate(attributeExpressionLeaf);
+    }
+  }
+
+  /**
+   * compiles the set membership check of an "IN" list. The attribute node might be a json array with strings or
+   * a json string
+   *
+   * @param inExpressionNode the node that holds the values
+   * @return a predicate that checks if any value of the attribute node is one of the values of the list
+   */
+  public static Predicate<JsonNode> compileInPredicate(InExpressionNode inExpressionNode)
+  {
+    return jsonNode -> anyStringMatch(jsonNode, inExpressionNode::containsValue);
+  }
+
+  /**
+   * compiles the check for a simple attribute node (json array with boolean or json boolean)
+   *
+   * @param attributeExpressionLeaf the expression leaf that describes the node
+   * @return the predicate that checks if the node matches
+   */
+  private static Predicate<JsonNode> compileBooleanPredicate(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    final Boolean boolValue = attributeExpressionLeaf.getBooleanValue().orElse(null);
+    final boolean multiValued = attributeExpressionLeaf.isMultiValued();
+    Comparator comparator = attributeExpressionLeaf.getComparator();
+    final Predicate<Boolean> comparison;
+    switch (comparator)
+    {
+      case PR:
+        comparison = Objects::nonNull;
+        break;
+      case EQ:
+        comparison = booleanValue -> Objects.equals(booleanValue, boolValue);
+        break;
+      case NE:
+        comparison = booleanValue -> !Objects.equals(booleanValue, boolValue);
+        break;
+      default:
+        throw new InternalServerException("Illegal comparator '" + comparator + "' for boolean type", null, null);
+    }
+    return attributeNode -> {
+      if (attributeNode != null && attributeNode.isArray())
+      {
+        // a single null value on a simple attribute is expected to be false as default value
+        if (attributeNode.size() == 1 && attributeNode.get(0).isNull() && !multiValued)
+        {
+          return comparison.test(false);
+        }
+        for ( int i = 0 ; i < attributeNode.size() ; i++ )
+        {
+          JsonNode jsonNode = attributeNode.get(i);
+          if (comparison.test(jsonNode.isNull() ? null : jsonNode.asBoolean()))
+          {
+            return true;
+          }
+        }
+        return false;
+      }
+      Boolean booleanValue = attributeNode == null || attributeNode.isNull() ? null : attributeNode.booleanValue();
+      // if the attribute is a simple node and not present expect it to be false as default value
+      if (booleanValue == null && !multiValued)
+      {
+        booleanValue = false;
+      }
+      return comparison.test(booleanValue);
+    };
+  }
+
+  /**
+   * compiles the comparison of string values based on the given filter {@link Comparator}
+   *
+   * @param attributeExpressionLeaf the filter node expression
+   * @return a predicate that tells us if the resource value is matching the filter node expression
+   */
+  private static Predicate<JsonNode> compileStringTypePredicate(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    final String value = attributeExpressionLeaf.getValue();
+    final boolean caseExact = attributeExpressionLeaf.getSchemaAttribute().isCaseExact();
+    Comparator comparator = attributeExpressionLeaf.getComparator();
+    switch (comparator)
+    {
+      case PR:
+        return jsonNode -> jsonNode != null && !jsonNode.isNull();
+      case EQ:
+        return caseExact ? jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.equals(string, value))
+          : jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.equalsIgnoreCase(string, value));
+      case NE:
+        return caseExact ? jsonNode -> !anyStringMatch(jsonNode, string -> StringUtils.equals(string, value))
+          : jsonNode -> !anyStringMatch(jsonNode, string -> StringUtils.equalsIgnoreCase(string, value));
+      case EW:
+        return caseExact ? jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.endsWith(string, value))
+          : jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.endsWithIgnoreCase(string, value));
+      case SW:
+        return caseExact ? jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.startsWith(string, value))
+          : jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.startsWithIgnoreCase(string, value));
+      case CO:
+        return caseExact ? jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.contains(string, value))
+          : jsonNode -> anyStringMatch(jsonNode, string -> StringUtils.containsIgnoreCase(string, value));
+      case LT:
+        return jsonNode -> anyStringMatch(jsonNode, string -> compareStrings(string, value, caseExact) < 0);
+      case LE:
+        return jsonNode -> anyStringMatch(jsonNode, string -> compareStrings(string, value, caseExact) <= 0);
+      case GT:
+        return jsonNode -> anyStringMatch(jsonNode, string -> compareStrings(string, value, caseExact) > 0);
+      case GE:
+        return jsonNode -> anyStringMatch(jsonNode, string -> compareStrings(string, value, caseExact) >= 0);
+      default:
+        throw new InternalServerException("Illegal comparator '" + comparator + "' for attribute type string", null,
+                                          null);
+    }
+  }
+
+  /**
+   * compares two strings null-safe with or without respect to the case
+   */
+  private static int compareStrings(String string, String value, boolean caseExact)
+  {
+    return caseExact ? StringUtils.compare(string, value) : StringUtils.compareIgnoreCase(string, value);
+  }
+
+  /**
+   * evaluates if the given json string node does apply to the given comparison operation (this might also be an
+   * array of json primitive strings)
+   *
+   * @param jsonNode the json string primitive
+   * @param comparison a comparison operation that should be executed on the given json string
+   * @return true if the json string applies to the given comparison operation
+   */
+  private static boolean anyStringMatch(JsonNode jsonNode, Predicate<String> comparison)
+  {
+    if (jsonNode != null && jsonNode.isArray())
+    {
+      for ( int i = 0 ; i < jsonNode.size() ; i++ )
+      {
+        JsonNode value = jsonNode.get(i);
+        if (comparison.test(value.isNull() ? null : value.textValue()))
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+    return comparison.test(jsonNode == null || jsonNode.isNull() ? null : jsonNode.textValue());
+  }
+
+  /**
+   * compiles the evaluation of a dateTime jsonNode that should be a primitive json string or array with
+   * primitive strings applying to the dateTime syntax. The comparison value is resolved to epoch millis only
+   * once
+   *
+   * @param attributeExpressionLeaf the expression leaf that describes the node
+   * @return a predicate that checks if the given datetime does match to the given expression
+   */
+  private static Predicate<JsonNode> compileDateTimePredicate(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    final Comparator comparator = attributeExpressionLeaf.getComparator();
+    if (Comparator.PR.equals(comparator))
+    {
+      return jsonNode -> jsonNode != null && !jsonNode.isNull();
+    }
+    final boolean compareWithNull = attributeExpressionLeaf.isNull();
+    final Predicate<String> dateTimeComparison;
+    switch (comparator)
+    {
+      case EQ:
+      case NE:
+      case GT:
+      case GE:
+      case LT:
+      case LE:
+        final Long compareMillis = attributeExpressionLeaf.getDateTime().map(Instant::toEpochMilli).orElse(null);
+        if (compareMillis == null)
+        {
+          dateTimeComparison = dateTimeString -> false;
+          break;
+        }
+        IntPredicate comparisonResult = getComparisonResultPredicate(comparator);
+        dateTimeComparison = dateTimeString -> {
+          long dateTimeLong = TimeUtils.parseDateTime(dateTimeString).toEpochMilli();
+          return comparisonResult.test(Long.compare(dateTimeLong, compareMillis));
+        };
+        break;
+      default:
+        Predicate<JsonNode> stringPredicate = compileStringTypePredicate(attributeExpressionLeaf);
+        // the string comparison is always executed on the whole node. So we need the node itself here
+        return jsonNode -> evaluateDateTimes(jsonNode, compareWithNull, dateTimeString -> {
+          return stringPredicate.test(jsonNode);
+        });
+    }
+    return jsonNode -> evaluateDateTimes(jsonNode, compareWithNull, dateTimeComparison);
+  }
+
+  /**
+   * checks if any of the dateTime strings within the given node does match the given comparison
+   *
+   * @param jsonNode a primitive json string or an array of primitive strings
+   * @param compareWithNull if the filter expression compares with null. In this case a null value in the
+   *          resource will be a match
+   * @param dateTimeComparison the comparison operation that is executed on each non-null value
+   * @return true if at least a single value matches
+   */
+  private static boolean evaluateDateTimes(JsonNode jsonNode,
+                                           boolean compareWithNull,
+                                           Predicate<String> dateTimeComparison)
+  {
+    if (jsonNode != null && jsonNode.isArray())
+    {
+      for ( int i = 0 ; i < jsonNode.size() ; i++ )
+      {
+        JsonNode dateNode = jsonNode.get(i);
+        if (evaluateDateTime(dateNode.isNull() ? null : dateNode.textValue(), compareWithNull, dateTimeComparison))
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+    return evaluateDateTime(jsonNode == null ? null : jsonNode.textValue(), compareWithNull, dateTimeComparison);
+  }
+
+  /**
+   * evaluates a single dateTime string
+   */
+  private static boolean evaluateDateTime(String dateTimeString,
+                                          boolean compareWithNull,
+                                          Predicate<String> dateTimeComparison)
+  {
+    if (dateTimeString == null)
+    {
+      return compareWithNull;
+    }
+    return dateTimeComparison.test(dateTimeString);
+  }
+
+  /**
+   * compiles the check for a number json node. This might be a simple json number or an array of json numbers
+   *
+   * @param compareNumber the number from the filter expression
+   * @param comparator the comparator operation
+   * @return a predicate that checks if the number matches the compareNumber based on the given comparator
+   *         operator
+   */
+  private static Predicate<JsonNode> compileNumberPredicate(BigDecimal compareNumber, Comparator comparator)
+  {
+    switch (comparator)
+    {
+      case PR:
+        return number -> number != null && !number.isNull();
+      case NE:
+        return number -> !anyNumberMatch(number, compareNumber, comparison -> comparison == 0);
+      case EQ:
+      case LT:
+      case LE:
+      case GT:
+      case GE:
+        IntPredicate comparisonResult = getComparisonResultPredicate(comparator);
+        return number -> anyNumberMatch(number, compareNumber, comparisonResult);
+      case SW:
+      {
+        final String compareString = String.valueOf(compareNumber);
+        return number -> anyNumberStringMatch(number, s -> s.startsWith(compareString));
+      }
+      case EW:
+      {
+        final String compareString = String.valueOf(compareNumber);
+        return number -> anyNumberStringMatch(number, s -> s.endsWith(compareString));
+      }
+      case CO:
+      {
+        final String compareString = String.valueOf(compareNumber);
+        return number -> anyNumberStringMatch(number, s -> s.contains(compareString));
+      }
+      default:
+        throw new InternalServerException("Illegal comparator '" + comparator
+                                          + "' for attribute type number or dateTime", null, null);
+    }
+  }
+
+  /**
+   * translates an ordering comparator into a check on the result of a {@link Comparable#compareTo(Object)} call
+   */
+  private static IntPredicate getComparisonResultPredicate(Comparator comparator)
+  {
+    switch (comparator)
+    {
+      case EQ:
+        return comparison -> comparison == 0;
+      case NE:
+        return comparison -> comparison != 0;
+      case LT:
+        return comparison -> comparison < 0;
+      case LE:
+        return comparison -> comparison <= 0;
+      case GT:
+        return comparison -> comparison > 0;
+      case GE:
+        return comparison -> comparison >= 0;
+      default:
+        throw new InternalServerException("Illegal comparator '" + comparator + "' for an ordering comparison", null,
+                                          null);
+    }
+  }
+
+  /**
+   * evaluates that the given number node applies to the given comparison operation
+   *
+   * @param numberNode the number node that is either a primitive json number node or an array of numbers
+   * @param compareNumber the number from the filter expression
+   * @param comparisonResult the check on the comparison result to which at least one of the numbers of the json
+   *          node must apply
+   * @return true if the json node applies to the given comparison operation, false else
+   */
+  private static boolean anyNumberMatch(JsonNode numberNode, BigDecimal compareNumber, IntPredicate comparisonResult)
+  {
+    if (numberNode != null && numberNode.isArray())
+    {
+      for ( int i = 0 ; i < numberNode.size() ; i++ )
+      {
+        if (compareDecimal(numberNode.get(i).decimalValue(), compareNumber, comparisonResult))
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+    return compareDecimal(numberNode == null ? null : numberNode.decimalValue(), compareNumber, comparisonResult);
+  }
+
+  /**
+   * compares a single decimal from the resource with the decimal from the filter expression
+   */
+  private static boolean compareDecimal(BigDecimal decimal, BigDecimal compareNumber, IntPredicate comparisonResult)
+  {
+    if (decimal == null)
+    {
+      return compareNumber == null;
+    }
+    if (compareNumber == null)
+    {
+      return false;
+    }
+    return comparisonResult.test(decimal.compareTo(compareNumber));
+  }
+
+  /**
+   * checks the string representations of the given number node against the given comparison
+   *
+   * @param number a number node which is either a simple json node or a json array of numbers
+   * @param comparison the string comparison operation
+   * @return true if at least one of the string representations matches
+   */
+  private static boolean anyNumberStringMatch(JsonNode number, Predicate<String> comparison)
+  {
+    if (number == null)
+    {
+      return false;
+    }
+    if (number.isArray())
+    {
+      for ( int i = 0 ; i < number.size() ; i++ )
+      {
+        if (comparison.test(number.get(i).decimalValue().toString()))
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+    return comparison.test(number.decimalValue().toString());
+  }
+}
@@ -0,0 +1,282 @@
+package de.captaingoldfish.scim.sdk.server.filter.resources;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.Uniqueness;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import de.captaingoldfish.scim.sdk.server.filter.InExpressionNode;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 17:31 <br>
+ * <br>
+ * estimates the cost and the selectivity of compiled filter parts and combines them in the order that lets
+ * the short-circuit evaluation of "and" and "or" expressions stop as early as possible. Constant operands are
+ * folded into their parents. <br>
+ * <br>
+ * The estimations are only based on the meta information of the attributes and not on the data itself. The
+ * operands of an "and" expression are ordered by {@code cost / (1 - selectivity)} and the operands of an "or"
+ * expression by {@code cost / selectivity}, which minimizes the expected evaluation cost for independent
+ * operands
+ */
+final class FilterOptimizer
+{
+
+  /**
+   * prevents divisions by zero for operands that always or never match
+   */
+  private static final double EPSILON = 1e-6;
+
+  private FilterOptimizer()
+  {}
+
+  /**
+   * estimates the relative cost to evaluate the given leaf on a single resource
+   *
+   * @param attributeExpressionLeaf the leaf to evaluate
+   * @return the relative cost of the evaluation
+   */
+  public static double estimateCost(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    double cost;
+    switch (attributeExpressionLeaf.getType())
+    {
+      case BOOLEAN:
+        cost = 1;
+        break;
+      case DATE_TIME:
+        // the dateTime values of the resource must be parsed for each evaluation
+        cost = 8;
+        break;
+      default:
+        cost = 2;
+    }
+    switch (attributeExpressionLeaf.getComparator())
+    {
+      case SW:
+      case EW:
+        cost *= 2;
+        break;
+      case CO:
+        cost *= 3;
+        break;
+      default:
+        // comparisons that are resolved by a single compare operation
+    }
+    if (isMultiValued(attributeExpressionLeaf.getSchemaAttribute()))
+    {
+      cost *= 4;
+    }
+    return cost;
+  }
+
+  /**
+   * estimates the probability that the given leaf matches a resource
+   *
+   * @param attributeExpressionLeaf the leaf to evaluate
+   * @return a probability between 0 and 1
+   */
+  public static double estimateSelectivity(AttributeExpressionLeaf attributeExpressionLeaf)
+  {
+    switch (attributeExpressionLeaf.getComparator())
+    {
+      case EQ:
+        Uniqueness uniqueness = attributeExpressionLeaf.getSchemaAttribute().getUniqueness();
+        return uniqueness == null || Uniqueness.NONE.equals(uniqueness) ? 0.1 : 0.001;
+      case NE:
+        return 0.9;
+      case PR:
+        return 0.8;
+      case SW:
+      case EW:
+        return 0.2;
+      case CO:
+        return 0.3;
+      default:
+        return 0.4;
+    }
+  }
+
+  /**
+   * estimates the relative cost to evaluate an "IN" list. The membership check is a single hash lookup for each
+   * value of the attribute
+   *
+   * @param inExpressionNode the node to evaluate
+   * @return the relative cost of the evaluation
+   */
+  public static double estimateCost(InExpressionNode inExpressionNode)
+  {
+    // the case folding of the attribute value costs about as much as a string comparison
+    double cost = 3;
+    return isMultiValued(inExpressionNode.getSchemaAttribute()) ? cost * 4 : cost;
+  }
+
+  /**
+   * estimates the probability that an "IN" list matches a resource
+   *
+   * @param inExpressionNode the node to evaluate
+   * @return a probability between 0 and 1
+   */
+  public static double estimateSelectivity(InExpressionNode inExpressionNode)
+  {
+    double selectivity = estimateSelectivity(inExpressionNode.getFirstLeaf());
+    return Math.min(1, selectivity * inExpressionNode.getValues().size());
+  }
+
+  /**
+   * combines the given operands into an "and" expression
+   *
+   * @param operands the compiled operands of a chain of "and" expressions
+   * @return the combined filter part
+   */
+  public static CompiledFilter and(List<CompiledFilter> operands)
+  {
+    List<CompiledFilter> remaining = new ArrayList<>();
+    for ( CompiledFilter operand : operands )
+    {
+      if (Boolean.FALSE.equals(operand.getConstant()))
+      {
+        return CompiledFilter.FALSE;
+      }
+      if (!operand.isConstant())
+      {
+        remaining.add(operand);
+      }
+    }
+    if (remaining.isEmpty())
+    {
+      return CompiledFilter.TRUE;
+    }
+    if (remaining.size() == 1)
+    {
+      return remaining.get(0);
+    }
+    remaining.sort(Comparator.comparingDouble(rank(operand -> 1 - operand.getSelectivity())));
+    double cost = 0;
+    double reachProbability = 1;
+    Predicate<ResourceNode>[] predicates = toPredicates(remaining);
+    for ( CompiledFilter operand : remaining )
+    {
+      cost += reachProbability * operand.getCost();
+      reachProbability *= operand.getSelectivity();
+    }
+    Predicate<ResourceNode> predicate = resourceNode -> {
+      for ( Predicate<ResourceNode> operand : predicates )
+      {
+        if (!operand.test(resourceNode))
+        {
+          return false;
+        }
+      }
+      return true;
+    };
+    return new CompiledFilter(predicate, cost, reachProbability);
+  }
+
+  /**
+   * combines the given operands into an "or" expression
+   *
+   * @param operands the compiled operands of a chain of "or" expressions
+   * @return the combined filter part
+   */
+  public static CompiledFilter or(List<CompiledFilter> operands)
+  {
+    List<CompiledFilter> remaining = new ArrayList<>();
+    for ( CompiledFilter operand : operands )
+    {
+      if (Boolean.TRUE.equals(operand.getConstant()))
+      {
+        return CompiledFilter.TRUE;
+      }
+      if (!operand.isConstant())
+      {
+        remaining.add(operand);
+      }
+    }
+    if (remaining.isEmpty())
+    {
+      return CompiledFilter.FALSE;
+    }
+    if (remaining.size() == 1)
+    {
+      return remaining.get(0);
+    }
+    remaining.sort(Comparator.comparingDouble(rank(CompiledFilter::getSelectivity)));
+    double cost = 0;
+    double reachProbability = 1;
+    Predicate<ResourceNode>[] predicates = toPredicates(remaining);
+    for ( CompiledFilter operand : remaining )
+    {
+      cost += reachProbability * operand.getCost();
+      reachProbability *= 1 - operand.getSelectivity();
+    }
+    Predicate<ResourceNode> predicate = resourceNode -> {
+      for ( Predicate<ResourceNode> operand : predicates )
+      {
+        if (operand.test(resourceNode))
+        {
+          return true;
+        }
+      }
+      return false;
+    };
+    return new CompiledFilter(predicate, cost, 1 - reachProbability);
+  }
+
+  /**
+   * negates the given operand
+   *
+   * @param operand the operand to negate
+   * @return the negated filter part
+   */
+  public static CompiledFilter not(CompiledFilter operand)
+  {
+    if (operand.isConstant())
+    {
+      return operand.getConstant() ? CompiledFilter.FALSE : CompiledFilter.TRUE;
+    }
+    Predicate<ResourceNode> predicate = operand.getPredicate();
+    return new CompiledFilter(resourceNode -> !predicate.test(resourceNode), operand.getCost(),
+                              1 - operand.getSelectivity());
+  }
+
+  /**
+   * the rank of an operand is its cost divided by the probability that the operand stops the evaluation
+   *
+   * @param stopProbability the probability that the operand stops the short-circuit evaluation
+   */
+  private static ToDoubleFunction<CompiledFilter> rank(ToDoubleFunction<CompiledFilter> stopProbability)
+  {
+    return operand -> operand.getCost() / Math.max(EPSILON, stopProbability.applyAsDouble(operand));
+  }
+
+  /**
+   * extracts the predicates of the given operands into an array to avoid iterators during the evaluation
+   */
+  @SuppressWarnings("unchecked")
+  private static Predicate<ResourceNode>[] toPredicates(List<CompiledFilter> operands)
+  {
+    Predicate<ResourceNode>[] predicates = new Predicate[operands.size()];
+    for ( int i = 0 ; i < operands.size() ; i++ )
+    {
+      predicates[i] = operands.get(i).getPredicate();
+    }
+    return predicates;
+  }
+
+  /**
+   * @return true if the attribute or its parent is multivalued
+   */
+  private static boolean isMultiValued(SchemaAttribute schemaAttribute)
+  {
+    return schemaAttribute.isMultiValued()
+           || schemaAttribute.getParent() != null && schemaAttribute.getParent().isMultiValued();
+  }
+}
@@ -8,6 +8,7 @@ import de.captaingoldfish.scim.sdk.server.filter.AndExpressionNode;
 import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
 import de.captaingoldfish.scim.sdk.server.filter.AttributePathRoot;
 import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.InExpressionNode;
 import de.captaingoldfish.scim.sdk.server.filter.NotExpressionNode;
 import de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode;
 
@@ -64,6 +65,16 @@ public class PatchFilterResolver
         return Optional.of(complexNode);
       }
     }
+    else if (InExpressionNode.class.isAssignableFrom(path.getClass()))
+    {
+      InExpressionNode inExpressionNode = (InExpressionNode)path;
+      if (FilterCompiler.compileInPredicate(inExpressionNode)
+                        .test(complexNode.get(inExpressionNode.getSchemaAttribute().getName())))
+      {
+        return Optional.of(complexNode);
+      }
+      return Optional.empty();
+    }
     else if (OrExpressionNode.class.isAssignableFrom(path.getClass()))
     {
       OrExpressionNode orExpressionNode = (OrExpressionNode)path;
@@ -0,0 +1,303 @@
+package de.captaingoldfish.scim.sdk.server.filter.resources;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.AndExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import de.captaingoldfish.scim.sdk.server.filter.AttributePathRoot;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNodeVisitor;
+import de.captaingoldfish.scim.sdk.server.filter.InExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.NotExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 00:20 <br>
+ * <br>
+ * evaluates a {@link FilterNode} directly on serialized json documents. The document is read with a streaming
+ * {@link JsonParser} and only the top level attributes that are referenced by the filter are turned into json
+ * nodes. All other attributes are skipped without building any object tree and the parser stops as soon as
+ * all referenced attributes were read. A {@link ResourceNode} is only created for documents that do match the
+ * filter. <br>
+ * <br>
+ * The evaluator is immutable and can be shared between threads
+ */
+public class RawJsonFilterEvaluator
+{
+
+  /**
+   * used to create the parsers and to read the referenced attributes into json nodes
+   */
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  /**
+   * the compiled filter that is evaluated on the extracted attributes
+   */
+  private final Predicate<ResourceNode> predicate;
+
+  /**
+   * the names of the top level attributes that are referenced by the filter
+   */
+  private final Set<String> referencedAttributes;
+
+  /**
+   * @param filterNode the filter that should be evaluated on the json documents
+   */
+  public RawJsonFilterEvaluator(FilterNode filterNode)
+  {
+    this.predicate = FilterCompiler.compile(filterNode);
+    Set<String> attributeNames = new HashSet<>();
+    filterNode.accept(new ReferencedAttributeCollector(attributeNames));
+    this.referencedAttributes = Collections.unmodifiableSet(attributeNames);
+  }
+
+  /**
+   * @return the names of the top level attributes that are read from the documents
+   */
+  public Set<String> getReferencedAttributes()
+  {
+    return referencedAttributes;
+  }
+
+  /**
+   * checks if the given json document matches the filter
+   *
+   * @param document the utf-8 encoded json document
+   * @return true if the document matches the filter, false else
+   */
+  public boolean matches(byte[] document)
+  {
+    try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(document))
+    {
+      return matches(parser);
+    }
+    catch (IOException ex)
+    {
+      throw getParseException(ex);
+    }
+  }
+
+  /**
+   * checks if the given json document matches the filter
+   *
+   * @param document the json document
+   * @return true if the document matches the filter, false else
+   */
+  public boolean matches(String document)
+  {
+    try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(document))
+    {
+      return matches(parser);
+    }
+    catch (IOException ex)
+    {
+      throw getParseException(ex);
+    }
+  }
+
+  /**
+   * checks if the json object that is read by the given parser matches the filter. The parser must either be
+   * positioned before or on the start of the json object. The parser is not closed by this method and its
+   * position after this method returned is undefined because the parser stops reading as soon as all referenced
+   * attributes have been found
+   *
+   * @param parser the parser that reads the json object
+   * @return true if the document matches the filter, false else
+   */
+  public boolean matches(JsonParser parser)
+  {
+    try
+    {
+      return predicate.test(readReferencedAttributes(parser));
+    }
+    catch (IOException ex)
+    {
+      throw getParseException(ex);
+    }
+  }
+
+  /**
+   * parses the given json document into a resource if it does match the filter
+   *
+   * @param document the utf-8 encoded json document
+   * @param type the type of the resource
+   * @return the parsed resource or an empty if the document does not match the filter
+   */
+  public <T extends ResourceNode> Optional<T> readIfMatching(byte[] document, Class<T> type)
+  {
+    if (!matches(document))
+    {
+      return Optional.empty();
+    }
+    try
+    {
+      return Optional.of(JsonHelper.copyResourceToObject(OBJECT_MAPPER.readTree(document), type));
+    }
+    catch (IOException ex)
+    {
+      throw getParseException(ex);
+    }
+  }
+
+  /**
+   * parses the given json document into a resource if it does match the filter
+   *
+   * @param document the json document
+   * @param type the type of the resource
+   * @return the parsed resource or an empty if the document does not match the filter
+   */
+  public <T extends ResourceNode> Optional<T> readIfMatching(String document, Class<T> type)
+  {
+    if (!matches(document))
+    {
+      return Optional.empty();
+    }
+    return Optional.of(JsonHelper.readJsonDocument(document, type));
+  }
+
+  /**
+   * filters the given json documents and parses only the matching documents into resources
+   *
+   * @param documents the utf-8 encoded json documents
+   * @param type the type of the resources
+   * @return the matching resources in the same order as the documents
+   */
+  public <T extends ResourceNode> List<T> filterDocuments(List<byte[]> documents, Class<T> type)
+  {
+    List<T> resources = new ArrayList<>();
+    for ( byte[] document : documents )
+    {
+      readIfMatching(document, type).ifPresent(resources::add);
+    }
+    return resources;
+  }
+
+  /**
+   * reads the attributes that are referenced by the filter from the current json object of the parser and skips
+   * all other attributes
+   *
+   * @param parser the parser that reads the json object
+   * @return a resource that contains only the referenced attributes
+   */
+  private ResourceNode readReferencedAttributes(JsonParser parser) throws IOException
+  {
+    JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+    if (token != JsonToken.START_OBJECT)
+    {
+      throw new de.captaingoldfish.scim.sdk.common.exceptions.IOException("the document is not a json object", null,
+                                                                          null, null);
+    }
+    ReferencedAttributes resource = new ReferencedAttributes();
+    int numberOfFoundAttributes = 0;
+    while (numberOfFoundAttributes < referencedAttributes.size() && parser.nextToken() == JsonToken.FIELD_NAME)
+    {
+      String attributeName = parser.getCurrentName();
+      parser.nextToken();
+      if (referencedAttributes.contains(attributeName))
+      {
+        JsonNode attribute = OBJECT_MAPPER.readTree(parser);
+        resource.set(attributeName, attribute);
+        numberOfFoundAttributes++;
+      }
+      else
+      {
+        parser.skipChildren();
+      }
+    }
+    return resource;
+  }
+
+  /**
+   * wraps a jackson exception into the exception type that is used for unparseable documents
+   */
+  private static de.captaingoldfish.scim.sdk.common.exceptions.IOException getParseException(IOException ex)
+  {
+    return new de.captaingoldfish.scim.sdk.common.exceptions.IOException("Invalid content, the document could not be parsed",
+                                                                         ex, null, null);
+  }
+
+  /**
+   * holds the attributes of a document that are referenced by the filter
+   */
+  private static final class ReferencedAttributes extends ResourceNode
+  {}
+
+  /**
+   * collects the names of the top level attributes that must be read from a document to evaluate the filter
+   */
+  private static final class ReferencedAttributeCollector implements FilterNodeVisitor<Void>
+  {
+
+    /**
+     * the set to which the attribute names are added
+     */
+    private final Set<String> attributeNames;
+
+    public ReferencedAttributeCollector(Set<String> attributeNames)
+    {
+      this.attributeNames = attributeNames;
+    }
+
+    @Override
+    public Void visitAndExpression(AndExpressionNode andExpressionNode)
+    {
+      andExpressionNode.getLeftNode().accept(this);
+      return andExpressionNode.getRightNode().accept(this);
+    }
+
+    @Override
+    public Void visitOrExpression(OrExpressionNode orExpressionNode)
+    {
+      orExpressionNode.getLeftNode().accept(this);
+      return orExpressionNode.getRightNode().accept(this);
+    }
+
+    @Override
+    public Void visitInExpression(InExpressionNode inExpressionNode)
+    {
+      return inExpressionNode.getFirstLeaf().accept(this);
+    }
+
+    @Override
+    public Void visitNotExpression(NotExpressionNode notExpressionNode)
+    {
+      return notExpressionNode.getRightNode().accept(this);
+    }
+
+    @Override
+    public Void visitAttributeExpression(AttributeExpressionLeaf attributeExpressionLeaf)
+    {
+      if (attributeExpressionLeaf.getShortName().indexOf('.') == -1)
+      {
+        attributeNames.add(attributeExpressionLeaf.getSchemaAttribute().getName());
+      }
+      else
+      {
+        attributeNames.add(attributeExpressionLeaf.getSchemaAttribute().getParent().getName());
+      }
+      return null;
+    }
+
+    @Override
+    public Void visitAttributePath(AttributePathRoot attributePathRoot)
+    {
+      return attributePathRoot.getChild().accept(this);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package de.captaingoldfish.scim.sdk.server.filter.translator;
+
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 13:31 <br>
+ * <br>
+ * maps the attributes of a resource type to the columns and tables of a relational datastore. This mapping is
+ * used by the {@link SqlFilterTranslator} to create a parameterized where-clause from a filter expression
+ */
+public interface SqlColumnMapper
+{
+
+  /**
+   * resolves the column for the given attribute. For attributes that are part of a multivalued attribute the
+   * column must be resolvable within the sub-query that is returned by {@link #getMultiValuedSubQuery}
+   *
+   * @param schemaAttribute the attribute that is used within the filter expression
+   * @return the column expression e.g. "u.user_name" or "e.value"
+   */
+  String getColumn(SchemaAttribute schemaAttribute);
+
+  /**
+   * resolves a sub-query that selects the rows of a multivalued attribute that belong to the currently
+   * evaluated resource. The translator will append the conditions for the attribute with an "AND" and will
+   * embed the sub-query into an "EXISTS" clause
+   *
+   * @param multiValuedAttribute a multivalued attribute e.g. "emails"
+   * @return the correlated sub-query e.g. "SELECT 1 FROM user_emails e WHERE e.user_id = u.id"
+   */
+  String getMultiValuedSubQuery(SchemaAttribute multiValuedAttribute);
+}
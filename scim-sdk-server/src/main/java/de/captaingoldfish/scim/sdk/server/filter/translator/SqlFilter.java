@@ -0,0 +1,36 @@
+package de.captaingoldfish.scim.sdk.server.filter.translator;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 13:34 <br>
+ * <br>
+ * the result of a {@link SqlFilterTranslator}. It contains a where-clause with "?" placeholders and the
+ * parameters that must be bound to these placeholders in the order of the list
+ */
+@Getter
+@AllArgsConstructor
+public class SqlFilter
+{
+
+  /**
+   * the where-clause without the "WHERE" keyword
+   */
+  private final String whereClause;
+
+  /**
+   * the parameters for the placeholders of the where-clause
+   */
+  private final List<Object> parameters;
+
+  @Override
+  public String toString()
+  {
+    return whereClause + " " + parameters;
+  }
+}
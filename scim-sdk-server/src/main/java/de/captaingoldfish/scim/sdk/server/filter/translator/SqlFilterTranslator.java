@@ -0,0 +1,388 @@
+package de.captaingoldfish.scim.sdk.server.filter.translator;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.Comparator;
+import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
+import de.captaingoldfish.scim.sdk.common.exceptions.InvalidFilterException;
+import de.captaingoldfish.scim.sdk.common.exceptions.NotImplementedException;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.filter.AndExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import de.captaingoldfish.scim.sdk.server.filter.AttributePathRoot;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNodeVisitor;
+import de.captaingoldfish.scim.sdk.server.filter.InExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.NotExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 13:40 <br>
+ * <br>
+ * translates a {@link FilterNode} tree into a parameterized SQL where-clause. This can be used within a
+ * {@link de.captaingoldfish.scim.sdk.server.endpoints.ResourceHandler} to push the filter expression down to
+ * the database instead of loading all resources and filtering them in memory. <br>
+ * <br>
+ * Multivalued attributes are translated into "EXISTS" sub-queries that are resolved by the
+ * {@link SqlColumnMapper}. A value path expression like 'emails[type eq "work" and value co "@"]' results in
+ * a single sub-query so that both conditions must match on the same email. A "ne" comparison on a multivalued
+ * attribute matches if no element is equal to the value and is therefore translated into a "NOT EXISTS"
+ * sub-query. String comparisons on attributes that are not case exact are executed on the lowercased column
+ * value. <br>
+ * <br>
+ * Missing values are treated like the in-memory filtering does. A comparison with a missing value does not
+ * match, so a "not" expression matches if its condition is false or unknown and is therefore translated into
+ * "IS NOT TRUE". A missing simple boolean is treated as false. <br>
+ * <br>
+ * The escape character of "LIKE" expressions defaults to '!' which needs no escaping within sql string
+ * literals of any database. It can be changed if the datastore expects another one
+ */
+public class SqlFilterTranslator
+{
+
+  /**
+   * the default character used to escape wildcards within "LIKE" expressions
+   */
+  public static final char DEFAULT_LIKE_ESCAPE_CHARACTER = '!';
+
+  /**
+   * maps the attributes to the columns and tables of the datastore
+   */
+  private final SqlColumnMapper columnMapper;
+
+  /**
+   * the character used to escape wildcards within "LIKE" expressions
+   */
+  private final char likeEscapeCharacter;
+
+  public SqlFilterTranslator(SqlColumnMapper columnMapper)
+  {
+    this(columnMapper, DEFAULT_LIKE_ESCAPE_CHARACTER);
+  }
+
+  /**
+   * @param columnMapper maps the attributes to the columns and tables of the datastore
+   * @param likeEscapeCharacter the character used to escape wildcards within "LIKE" expressions. Must not be a
+   *          wildcard or a quote
+   */
+  public SqlFilterTranslator(SqlColumnMapper columnMapper, char likeEscapeCharacter)
+  {
+    if (likeEscapeCharacter == '%' || likeEscapeCharacter == '_' || likeEscapeCharacter == '\''
+        || likeEscapeCharacter == '\\')
+    {
+      throw new IllegalArgumentException("the character '" + likeEscapeCharacter + "' cannot be used to escape "
+                                         + "wildcards within LIKE expressions");
+    }
+    this.columnMapper = columnMapper;
+    this.likeEscapeCharacter = likeEscapeCharacter;
+  }
+
+  /**
+   * translates the given filter into a parameterized where-clause
+   *
+   * @param filterNode the filter expression to translate
+   * @return the where-clause with its parameters or null if the filter node is null
+   */
+  public SqlFilter translate(FilterNode filterNode)
+  {
+    if (filterNode == null)
+    {
+      return null;
+    }
+    SqlVisitor sqlVisitor = new SqlVisitor();
+    String whereClause = filterNode.accept(sqlVisitor);
+    return new SqlFilter(whereClause, Collections.unmodifiableList(sqlVisitor.parameters));
+  }
+
+  /**
+   * converts the comparison value of the given leaf into the parameter that is bound to the statement. May be
+   * overridden if the datastore expects other types for some attributes
+   *
+   * @param attributeExpressionLeaf the leaf that holds the comparison value
+   * @param lowercase if the value is compared against a lowercased column
+   * @return the parameter value
+   */
+  protected Object toParameter(AttributeExpressionLeaf attributeExpressionLeaf, boolean lowercase)
+  {
+    switch (attributeExpressionLeaf.getType())
+    {
+      case BOOLEAN:
+        return attributeExpressionLeaf.getBooleanValue().orElse(null);
+      case INTEGER:
+      case DECIMAL:
+        return attributeExpressionLeaf.getNumberValue().orElse(null);
+      case DATE_TIME:
+        return attributeExpressionLeaf.getDateTime().map(Timestamp::from).orElse(null);
+      default:
+        String value = attributeExpressionLeaf.getValue();
+        return lowercase ? value.toLowerCase(Locale.ROOT) : value;
+    }
+  }
+
+  /**
+   * escapes the wildcards of the given value and adds the wildcards for the given comparator
+   */
+  private String toLikePattern(String value, Comparator comparator)
+  {
+    StringBuilder pattern = new StringBuilder();
+    if (Comparator.CO.equals(comparator) || Comparator.EW.equals(comparator))
+    {
+      pattern.append('%');
+    }
+    for ( char c : value.toCharArray() )
+    {
+      if (c == '%' || c == '_' || c == likeEscapeCharacter)
+      {
+        pattern.append(likeEscapeCharacter);
+      }
+      pattern.append(c);
+    }
+    if (Comparator.CO.equals(comparator) || Comparator.SW.equals(comparator))
+    {
+      pattern.append('%');
+    }
+    return pattern.toString();
+  }
+
+  /**
+   * @return true if the given type is compared as string
+   */
+  private static boolean isStringType(Type type)
+  {
+    return Type.STRING.equals(type) || Type.REFERENCE.equals(type);
+  }
+
+  /**
+   * the visitor that holds the state of a single translation
+   */
+  private class SqlVisitor implements FilterNodeVisitor<String>
+  {
+
+    /**
+     * the parameters in the order of their placeholders
+     */
+    private final List<Object> parameters = new ArrayList<>();
+
+    /**
+     * true while the children of a multivalued value path expression are translated. The children must not open
+     * their own sub-queries in this case
+     */
+    private boolean withinMultiValuedPath;
+
+    @Override
+    public String visitAndExpression(AndExpressionNode andExpressionNode)
+    {
+      return "(" + andExpressionNode.getLeftNode().accept(this) + " AND "
+             + andExpressionNode.getRightNode().accept(this) + ")";
+    }
+
+    @Override
+    public String visitOrExpression(OrExpressionNode orExpressionNode)
+    {
+      List<FilterNode> operands = InExpressionNode.collapseOrOperands(orExpressionNode);
+      if (operands.size() == 1)
+      {
+        return operands.get(0).accept(this);
+      }
+      StringJoiner condition = new StringJoiner(" OR ", "(", ")");
+      operands.forEach(operand -> condition.add(operand.accept(this)));
+      return condition.toString();
+    }
+
+    @Override
+    public String visitInExpression(InExpressionNode inExpressionNode)
+    {
+      SchemaAttribute schemaAttribute = inExpressionNode.getSchemaAttribute();
+      String column = columnMapper.getColumn(schemaAttribute);
+      boolean lowercase = !schemaAttribute.isCaseExact();
+      StringBuilder condition = new StringBuilder(lowercase ? "LOWER(" + column + ")" : column).append(" IN (");
+      for ( int i = 0 ; i < inExpressionNode.getLeafs().size() ; i++ )
+      {
+        condition.append(i == 0 ? "?" : ", ?");
+        parameters.add(toParameter(inExpressionNode.getLeafs().get(i), lowercase));
+      }
+      condition.append(')');
+      SchemaAttribute multiValuedAttribute = getMultiValuedAttribute(schemaAttribute);
+      if (multiValuedAttribute == null)
+      {
+        return condition.toString();
+      }
+      return "EXISTS (" + columnMapper.getMultiValuedSubQuery(multiValuedAttribute) + " AND " + condition + ")";
+    }
+
+    @Override
+    public String visitNotExpression(NotExpressionNode notExpressionNode)
+    {
+      // a condition on a missing value evaluates to unknown which must be negated into a match
+      return "(" + notExpressionNode.getRightNode().accept(this) + ") IS NOT TRUE";
+    }
+
+    @Override
+    public String visitAttributePath(AttributePathRoot attributePathRoot)
+    {
+      if (attributePathRoot.getChild() == null)
+      {
+        throw new InvalidFilterException("the value path expression '" + attributePathRoot
+                                         + "' does not contain a filter", null);
+      }
+      SchemaAttribute schemaAttribute = attributePathRoot.getSchemaAttribute();
+      if (withinMultiValuedPath || !schemaAttribute.isMultiValued())
+      {
+        return attributePathRoot.getChild().accept(this);
+      }
+      withinMultiValuedPath = true;
+      try
+      {
+        String condition = attributePathRoot.getChild().accept(this);
+        return "EXISTS (" + columnMapper.getMultiValuedSubQuery(schemaAttribute) + " AND " + condition + ")";
+      }
+      finally
+      {
+        withinMultiValuedPath = false;
+      }
+    }
+
+    @Override
+    public String visitAttributeExpression(AttributeExpressionLeaf attributeExpressionLeaf)
+    {
+      SchemaAttribute schemaAttribute = attributeExpressionLeaf.getSchemaAttribute();
+      String column = columnMapper.getColumn(schemaAttribute);
+      SchemaAttribute multiValuedAttribute = getMultiValuedAttribute(schemaAttribute);
+      if (multiValuedAttribute == null)
+      {
+        return getCondition(attributeExpressionLeaf, column, attributeExpressionLeaf.getComparator());
+      }
+      String subQuery = columnMapper.getMultiValuedSubQuery(multiValuedAttribute);
+      if (Comparator.NE.equals(attributeExpressionLeaf.getComparator()) && !attributeExpressionLeaf.isNull())
+      {
+        // no element must be equal which also matches resources without any element
+        return "NOT EXISTS (" + subQuery + " AND " + getCondition(attributeExpressionLeaf, column, Comparator.EQ) + ")";
+      }
+      return "EXISTS (" + subQuery + " AND "
+             + getCondition(attributeExpressionLeaf, column, attributeExpressionLeaf.getComparator()) + ")";
+    }
+
+    /**
+     * finds the multivalued attribute that needs its own sub-query for the given attribute
+     *
+     * @return the multivalued attribute or null if no sub-query is required
+     */
+    private SchemaAttribute getMultiValuedAttribute(SchemaAttribute schemaAttribute)
+    {
+      if (withinMultiValuedPath)
+      {
+        return null;
+      }
+      if (schemaAttribute.isMultiValued())
+      {
+        return schemaAttribute;
+      }
+      SchemaAttribute parent = schemaAttribute.getParent();
+      if (parent != null && parent.isMultiValued())
+      {
+        return parent;
+      }
+      return null;
+    }
+
+    /**
+     * builds the condition of a single comparison
+     *
+     * @param attributeExpressionLeaf the comparison expression
+     * @param column the column that must be compared
+     * @param comparator the comparator that is used instead of the comparator of the expression
+     * @return the condition with placeholders for its values
+     */
+    private String getCondition(AttributeExpressionLeaf attributeExpressionLeaf, String column, Comparator comparator)
+    {
+      if (Comparator.PR.equals(comparator))
+      {
+        return column + " IS NOT NULL";
+      }
+      if (attributeExpressionLeaf.isNull())
+      {
+        switch (comparator)
+        {
+          case EQ:
+            return column + " IS NULL";
+          case NE:
+            return column + " IS NOT NULL";
+          default:
+            throw new InvalidFilterException("the comparator '" + comparator + "' cannot be used with null", null);
+        }
+      }
+      Type type = attributeExpressionLeaf.getType();
+      boolean lowercase = isStringType(type) && !attributeExpressionLeaf.getSchemaAttribute().isCaseExact();
+      String comparedColumn = lowercase ? "LOWER(" + column + ")" : column;
+      Object parameter = toParameter(attributeExpressionLeaf, lowercase);
+      if (Type.BOOLEAN.equals(type) && !attributeExpressionLeaf.isMultiValued())
+      {
+        return getBooleanCondition(column, comparator, (Boolean)parameter);
+      }
+      switch (comparator)
+      {
+        case EQ:
+          parameters.add(parameter);
+          return comparedColumn + " = ?";
+        case NE:
+          parameters.add(parameter);
+          return "(" + column + " IS NULL OR " + comparedColumn + " <> ?)";
+        case GT:
+          parameters.add(parameter);
+          return comparedColumn + " > ?";
+        case GE:
+          parameters.add(parameter);
+          return comparedColumn + " >= ?";
+        case LT:
+          parameters.add(parameter);
+          return comparedColumn + " < ?";
+        case LE:
+          parameters.add(parameter);
+          return comparedColumn + " <= ?";
+        default:
+          if (!isStringType(type))
+          {
+            throw new NotImplementedException("the comparator '" + comparator + "' cannot be translated for "
+                                              + "attributes of type '" + type.getValue() + "'");
+          }
+          parameters.add(toLikePattern((String)parameter, comparator));
+          return comparedColumn + " LIKE ? ESCAPE '" + likeEscapeCharacter + "'";
+      }
+    }
+
+    /**
+     * builds the condition of a comparison on a simple boolean attribute. A missing value is treated as false
+     *
+     * @param column the column that must be compared
+     * @param comparator the comparator of the expression
+     * @param value the value that is compared
+     * @return the condition with a placeholder for the value
+     */
+    private String getBooleanCondition(String column, Comparator comparator, Boolean value)
+    {
+      boolean matchesMissingValue;
+      switch (comparator)
+      {
+        case EQ:
+          matchesMissingValue = Boolean.FALSE.equals(value);
+          break;
+        case NE:
+          matchesMissingValue = Boolean.TRUE.equals(value);
+          break;
+        default:
+          throw new InvalidFilterException("the comparator '" + comparator + "' cannot be used with boolean "
+                                           + "attributes", null);
+      }
+      parameters.add(value);
+      String condition = column + (Comparator.EQ.equals(comparator) ? " = ?" : " <> ?");
+      return matchesMissingValue ? "(" + condition + " OR " + column + " IS NULL)" : condition;
+    }
+  }
+}
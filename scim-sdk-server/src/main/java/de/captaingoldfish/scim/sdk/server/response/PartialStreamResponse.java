@@ -0,0 +1,46 @@
+package de.captaingoldfish.scim.sdk.server.response;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.endpoints.ResourceHandler;
+import de.captaingoldfish.scim.sdk.server.endpoints.authorize.Authorization;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import lombok.Builder;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 20:10 <br>
+ * <br>
+ * this type may be returned by
+ * {@link ResourceHandler#streamResources(FilterNode, SchemaAttribute, SortOrder, List, List, Authorization)}
+ * methods. The resources are read lazily and only until the requested page is complete
+ */
+@Getter
+@Builder
+public class PartialStreamResponse<T extends ResourceNode>
+{
+
+  /**
+   * the lazily evaluated resources. The stream is closed after the page was read
+   */
+  private Stream<T> resources;
+
+  /**
+   * the total number of results if already known by the resource handler. If null the total number of results
+   * is counted on the stream if {@link #isCountTotalResults()} is true
+   */
+  private Long totalResults;
+
+  /**
+   * if the remaining resources of the stream should be read after the page is complete in order to count the
+   * total number of matching resources. If false the stream is not read any further than one resource after the
+   * page and the total results will only tell the client that more results are available
+   */
+  private boolean countTotalResults;
+}
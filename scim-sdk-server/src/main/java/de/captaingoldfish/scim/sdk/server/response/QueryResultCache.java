@@ -0,0 +1,377 @@
+package de.captaingoldfish.scim.sdk.server.response;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.endpoints.authorize.Authorization;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+import lombok.Builder;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 09:15 <br>
+ * <br>
+ * an optional cache for the list responses of a single resource type. Many clients poll the same list queries
+ * over and over again and each of these requests would otherwise go through the resource handler, the
+ * filtering, the sorting and the validation of the resources. The key of an entry consists of the normalized
+ * filter expression, the sorting, the paging and the attributes parameters of the request and the value is
+ * the serialized list response. <br>
+ * <br>
+ * The resource endpoint invalidates the whole cache whenever a resource of the type is created, updated,
+ * patched or deleted. Resource handlers must call {@link #invalidate()} themselves if the resources are
+ * changed by other means, e.g. if the members of a group are changed and the users are cached. Responses that
+ * were computed while the cache was invalidated are not stored. Entries expire after the
+ * {@link #getTimeToLive()} and if the cache is full the oldest entry is removed. <br>
+ * <br>
+ * Clients are distinguished by the key that the {@link #getAuthorizationKey()} function extracts from their
+ * {@link Authorization}. By default this is the {@link Authorization#getClientId()} together with the
+ * {@link Authorization#getClientRoles()}. Requests of clients for which no key can be extracted are not
+ * cached. A custom function must be set if the resource handler scopes its results by other information's of
+ * the authorization
+ */
+public class QueryResultCache
+{
+
+  /**
+   * the default number of list responses that are cached
+   */
+  public static final int DEFAULT_MAX_SIZE = 100;
+
+  /**
+   * the default time after which a cached list response expires
+   */
+  public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(30);
+
+  /**
+   * distinguishes the clients by their id and their roles. Clients without an id are not cached
+   */
+  public static final Function<Authorization, String> DEFAULT_AUTHORIZATION_KEY = authorization -> {
+    if (authorization.getClientId() == null)
+    {
+      return null;
+    }
+    Optional<TreeSet<String>> roles = Optional.ofNullable(authorization.getClientRoles()).map(TreeSet::new);
+    return authorization.getClientId() + roles.map(TreeSet::toString).orElse("");
+  };
+
+  /**
+   * the maximum number of entries within this cache
+   */
+  @Getter
+  private final int maxSize;
+
+  /**
+   * the time after which a cached list response expires
+   */
+  @Getter
+  private final Duration timeToLive;
+
+  /**
+   * the clock that is used to expire the entries
+   */
+  private final Clock clock;
+
+  /**
+   * extracts the part of the cache key that identifies the client. If the function returns null the request is
+   * not cached
+   */
+  @Getter
+  private final Function<Authorization, String> authorizationKey;
+
+  /**
+   * the cached list responses
+   */
+  private final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+
+  /**
+   * the insertion order of the cached responses that is used to evict the oldest entries
+   */
+  private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+  /**
+   * incremented on each invalidation so that responses that were computed before the invalidation are not
+   * stored afterwards
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  /**
+   * counts the number of requests that were served from the cache
+   */
+  private final LongAdder hitCount = new LongAdder();
+
+  /**
+   * counts the number of requests that had to be computed
+   */
+  private final LongAdder missCount = new LongAdder();
+
+  /**
+   * counts the number of entries that were removed because the cache was full or because they expired
+   */
+  private final LongAdder evictionCount = new LongAdder();
+
+  /**
+   * counts the number of invalidations
+   */
+  private final LongAdder invalidationCount = new LongAdder();
+
+  public QueryResultCache()
+  {
+    this(null, null, null, null);
+  }
+
+  /**
+   * @param maxSize the maximum number of cached list responses. Defaults to {@link #DEFAULT_MAX_SIZE}
+   * @param timeToLive the time after which a cached list response expires. Defaults to
+   *          {@link #DEFAULT_TIME_TO_LIVE}
+   * @param clock the clock that is used to expire the entries. Defaults to the system clock
+   * @param authorizationKey extracts the part of the cache key that identifies the client or null if the
+   *          request of the client must not be cached. Defaults to {@link #DEFAULT_AUTHORIZATION_KEY}
+   */
+  @Builder
+  public QueryResultCache(Integer maxSize,
+                          Duration timeToLive,
+                          Clock clock,
+                          Function<Authorization, String> authorizationKey)
+  {
+    this.maxSize = Optional.ofNullable(maxSize).orElse(DEFAULT_MAX_SIZE);
+    if (this.maxSize < 1)
+    {
+      throw new IllegalArgumentException("the maximum size of the cache must be greater than 0 but was: "
+                                         + this.maxSize);
+    }
+    this.timeToLive = Optional.ofNullable(timeToLive).orElse(DEFAULT_TIME_TO_LIVE);
+    if (this.timeToLive.isNegative() || this.timeToLive.isZero())
+    {
+      throw new IllegalArgumentException("the time to live of the cache must be positive but was: " + this.timeToLive);
+    }
+    this.clock = Optional.ofNullable(clock).orElseGet(Clock::systemUTC);
+    this.authorizationKey = Optional.ofNullable(authorizationKey).orElse(DEFAULT_AUTHORIZATION_KEY);
+  }
+
+  /**
+   * creates the key of a list request. The filter is represented by the string form of its parsed tree so that
+   * differences in whitespace or parentheses do not matter and the attribute names are compared case
+   * insensitive regardless of their order
+   *
+   * @param filterNode the parsed filter or null
+   * @param sortBy the sorting attribute or null
+   * @param sortOrder the sort direction or null
+   * @param startIndex the effective 1-based start index
+   * @param count the effective number of resources per page
+   * @param attributes the "attributes" parameter
+   * @param excludedAttributes the "excludedAttributes" parameter
+   * @param baseUrl the base url that is used to create the locations of the resources
+   * @param authorization the authorization of the current client
+   * @return the normalized key of the request or an empty if the request of the client must not be cached
+   */
+  public Optional<String> createKey(FilterNode filterNode,
+                                    SchemaAttribute sortBy,
+                                    SortOrder sortOrder,
+                                    long startIndex,
+                                    int count,
+                                    String attributes,
+                                    String excludedAttributes,
+                                    String baseUrl,
+                                    Authorization authorization)
+  {
+    String clientKey = authorization == null ? "" : authorizationKey.apply(authorization);
+    if (clientKey == null)
+    {
+      return Optional.empty();
+    }
+    return Optional.of(String.join("\n",
+                                   filterNode == null ? "" : filterNode.toString(),
+                                   sortBy == null ? "" : sortBy.getFullResourceName().toLowerCase(),
+                                   sortOrder == null ? "" : sortOrder.name(),
+                                   String.valueOf(startIndex),
+                                   String.valueOf(count),
+                                   normalizeAttributes(attributes),
+                                   normalizeAttributes(excludedAttributes),
+                                   baseUrl == null ? "" : baseUrl,
+                                   clientKey));
+  }
+
+  /**
+   * brings the given attribute names into a case insensitive and sorted form
+   */
+  private static String normalizeAttributes(String attributes)
+  {
+    return RequestUtils.getAttributes(attributes)
+                       .stream()
+                       .map(String::toLowerCase)
+                       .distinct()
+                       .sorted()
+                       .collect(Collectors.joining(","));
+  }
+
+  /**
+   * gets a cached list response
+   *
+   * @param key the key of the request
+   * @return the serialized list response or an empty if the response was not cached or has expired
+   */
+  public Optional<String> get(String key)
+  {
+    CachedResponse cachedResponse = cache.get(key);
+    if (cachedResponse != null && cachedResponse.expiresAt.isAfter(clock.instant()))
+    {
+      hitCount.increment();
+      return Optional.of(cachedResponse.response);
+    }
+    if (cachedResponse != null && cache.remove(key, cachedResponse))
+    {
+      // the oldest occurrence of the key belongs to the expired entry
+      insertionOrder.remove(key);
+      evictionCount.increment();
+    }
+    missCount.increment();
+    return Optional.empty();
+  }
+
+  /**
+   * the current generation of the cache. It must be read before the list response is computed and given to
+   * {@link #put(String, long, String)} afterwards
+   */
+  public long getGeneration()
+  {
+    return generation.get();
+  }
+
+  /**
+   * caches a list response unless the cache was invalidated since the response was started to be computed
+   *
+   * @param key the key of the request
+   * @param generation the generation of the cache before the response was computed
+   * @param response the serialized list response
+   */
+  public void put(String key, long generation, String response)
+  {
+    if (this.generation.get() != generation)
+    {
+      return;
+    }
+    CachedResponse cachedResponse = new CachedResponse(response, clock.instant().plus(timeToLive));
+    if (cache.put(key, cachedResponse) == null)
+    {
+      insertionOrder.add(key);
+    }
+    if (this.generation.get() != generation)
+    {
+      // the cache was invalidated concurrently and the entry might already be outdated
+      cache.remove(key, cachedResponse);
+      return;
+    }
+    while (cache.size() > maxSize)
+    {
+      String eldest = insertionOrder.poll();
+      if (eldest == null)
+      {
+        break;
+      }
+      if (cache.remove(eldest) != null)
+      {
+        evictionCount.increment();
+      }
+    }
+  }
+
+  /**
+   * removes all cached list responses. Must be called whenever a resource of the type is changed
+   */
+  public void invalidate()
+  {
+    generation.incrementAndGet();
+    invalidationCount.increment();
+    cache.clear();
+    insertionOrder.clear();
+  }
+
+  /**
+   * @return the number of requests that were served from the cache
+   */
+  public long getHitCount()
+  {
+    return hitCount.sum();
+  }
+
+  /**
+   * @return the number of requests that had to be computed
+   */
+  public long getMissCount()
+  {
+    return missCount.sum();
+  }
+
+  /**
+   * @return the ratio of the requests that were served from the cache or 0 if no request was made yet
+   */
+  public double getHitRate()
+  {
+    long hits = getHitCount();
+    long requests = hits + getMissCount();
+    return requests == 0 ? 0 : (double)hits / requests;
+  }
+
+  /**
+   * @return the number of entries that were removed because the cache was full or because they expired
+   */
+  public long getEvictionCount()
+  {
+    return evictionCount.sum();
+  }
+
+  /**
+   * @return the number of invalidations
+   */
+  public long getInvalidationCount()
+  {
+    return invalidationCount.sum();
+  }
+
+  /**
+   * @return the current number of cached list responses
+   */
+  public int getSize()
+  {
+    return cache.size();
+  }
+
+  /**
+   * a serialized list response together with its expiration time
+   */
+  private static class CachedResponse
+  {
+
+    /**
+     * the serialized list response
+     */
+    private final String response;
+
+    /**
+     * the time at which the response expires
+     */
+    private final Instant expiresAt;
+
+    public CachedResponse(String response, Instant expiresAt)
+    {
+      this.response = response;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,369 @@
+package de.captaingoldfish.scim.sdk.server.schemas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.captaingoldfish.scim.sdk.common.exceptions.BadRequestException;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 07:10 <br>
+ * <br>
+ * the parsed "attributes" and "excludedAttributes" parameters of a request. The attribute names are parsed
+ * once per request into a tree of schema uris, attributes and sub-attributes so that the resource handlers
+ * and the {@link SchemaValidator} can check with a few map lookups if an attribute will be part of the
+ * response. Resource handlers may use {@link #isReturned(SchemaAttribute)} to skip loading attributes that
+ * would be removed from the response anyway, e.g. the members of a group if the client asked for the
+ * displayName only. <br>
+ * <br>
+ * The {@link SchemaValidator} asks for the compiled {@link ValidationPlan.AttributeStep}s whose lowercase
+ * name segments are resolved once per schema. The decisions for these steps are remembered so that each
+ * attribute is looked up only once per request even if a list response contains many resources
+ */
+public class AttributeProjection
+{
+
+  /**
+   * the projection of requests without the "attributes" and "excludedAttributes" parameters
+   */
+  private static final AttributeProjection DEFAULT = new AttributeProjection(null, null, null, null);
+
+  /**
+   * the attribute definitions of the "attributes" parameter. Empty if the projection was not resolved against a
+   * resource type
+   */
+  @Getter
+  private final List<SchemaAttribute> attributes;
+
+  /**
+   * the attribute definitions of the "excludedAttributes" parameter. Empty if the projection was not resolved
+   * against a resource type
+   */
+  @Getter
+  private final List<SchemaAttribute> excludedAttributes;
+
+  /**
+   * the tree of the "attributes" parameter
+   */
+  private final ProjectionTree requestedTree;
+
+  /**
+   * the tree of the "excludedAttributes" parameter
+   */
+  private final ProjectionTree excludedTree;
+
+  /**
+   * the remembered decisions of {@link #isRequested(ValidationPlan.AttributeStep)}
+   */
+  private final Map<ValidationPlan.AttributeStep, Boolean> requestedSteps = new ConcurrentHashMap<>();
+
+  /**
+   * the remembered decisions of {@link #isExcluded(ValidationPlan.AttributeStep)}
+   */
+  private final Map<ValidationPlan.AttributeStep, Boolean> excludedSteps = new ConcurrentHashMap<>();
+
+  private AttributeProjection(String attributes,
+                              String excludedAttributes,
+                              List<SchemaAttribute> attributeList,
+                              List<SchemaAttribute> excludedAttributeList)
+  {
+    this.requestedTree = new ProjectionTree(RequestUtils.getAttributes(attributes));
+    this.excludedTree = new ProjectionTree(RequestUtils.getAttributes(excludedAttributes));
+    this.attributes = attributeList == null ? Collections.emptyList() : attributeList;
+    this.excludedAttributes = excludedAttributeList == null ? Collections.emptyList() : excludedAttributeList;
+  }
+
+  /**
+   * @return the projection of requests without the "attributes" and "excludedAttributes" parameters
+   */
+  public static AttributeProjection defaultProjection()
+  {
+    return DEFAULT;
+  }
+
+  /**
+   * parses the given parameters without resolving them against a resource type. Names that cannot be resolved
+   * simply do not match any attribute
+   *
+   * @param attributes the comma separated "attributes" parameter
+   * @param excludedAttributes the comma separated "excludedAttributes" parameter
+   * @return the parsed projection
+   */
+  public static AttributeProjection of(String attributes, String excludedAttributes)
+  {
+    if (StringUtils.isBlank(attributes) && StringUtils.isBlank(excludedAttributes))
+    {
+      return DEFAULT;
+    }
+    return new AttributeProjection(attributes, excludedAttributes, null, null);
+  }
+
+  /**
+   * parses the given parameters and resolves the attribute definitions of the names
+   *
+   * @param resourceType the resource type of the request
+   * @param attributes the comma separated "attributes" parameter
+   * @param excludedAttributes the comma separated "excludedAttributes" parameter
+   * @return the parsed projection
+   * @throws BadRequestException if one of the names is unknown to the resource type
+   */
+  public static AttributeProjection of(ResourceType resourceType, String attributes, String excludedAttributes)
+  {
+    if (StringUtils.isBlank(attributes) && StringUtils.isBlank(excludedAttributes))
+    {
+      return DEFAULT;
+    }
+    return new AttributeProjection(attributes, excludedAttributes, resolveAttributes(resourceType, attributes),
+                                   resolveAttributes(resourceType, excludedAttributes));
+  }
+
+  /**
+   * resolves the attribute definitions of the given names. Names of whole schemas like the enterprise user
+   * extension do not resolve to a single attribute and are only kept in the tree
+   */
+  private static List<SchemaAttribute> resolveAttributes(ResourceType resourceType, String attributes)
+  {
+    List<SchemaAttribute> schemaAttributes = new ArrayList<>();
+    for ( String attributeName : RequestUtils.getAttributes(attributes) )
+    {
+      boolean isSchemaName = resourceType.getAllSchemas()
+                                         .stream()
+                                         .anyMatch(schema -> attributeName.equalsIgnoreCase(schema.getNonNullId()));
+      if (!isSchemaName)
+      {
+        schemaAttributes.add(RequestUtils.getSchemaAttributeByAttributeName(resourceType, attributeName));
+      }
+    }
+    return schemaAttributes;
+  }
+
+  /**
+   * @return true if the client has given the "attributes" parameter
+   */
+  public boolean isAttributesPresent()
+  {
+    return !requestedTree.isEmpty();
+  }
+
+  /**
+   * @return true if the client has given the "excludedAttributes" parameter
+   */
+  public boolean isExcludedAttributesPresent()
+  {
+    return !excludedTree.isEmpty();
+  }
+
+  /**
+   * checks if the given attribute is selected by the "attributes" parameter. This is the case if the attribute
+   * itself, one of its parents, one of its sub-attributes or its whole schema was named
+   *
+   * @param schemaAttribute the attribute to check
+   * @return true if the attribute was requested by the client
+   */
+  public boolean isRequested(SchemaAttribute schemaAttribute)
+  {
+    return requestedTree.matches(schemaAttribute, true);
+  }
+
+  /**
+   * like {@link #isRequested(SchemaAttribute)} but with the precompiled names of the step. The decision is
+   * remembered for the remaining resources of the request
+   *
+   * @param step the compiled attribute to check
+   * @return true if the attribute was requested by the client
+   */
+  public boolean isRequested(ValidationPlan.AttributeStep step)
+  {
+    if (requestedTree.isEmpty())
+    {
+      return false;
+    }
+    return requestedSteps.computeIfAbsent(step, s -> {
+      return requestedTree.matches(s.getLowerCaseResourceUri(), s.getLowerCaseNameSegments(), true);
+    });
+  }
+
+  /**
+   * checks if the given attribute is removed by the "excludedAttributes" parameter. This is the case if the
+   * attribute itself, one of its parents or its whole schema was named
+   *
+   * @param schemaAttribute the attribute to check
+   * @return true if the attribute was excluded by the client
+   */
+  public boolean isExcluded(SchemaAttribute schemaAttribute)
+  {
+    return excludedTree.matches(schemaAttribute, false);
+  }
+
+  /**
+   * like {@link #isExcluded(SchemaAttribute)} but with the precompiled names of the step. The decision is
+   * remembered for the remaining resources of the request
+   *
+   * @param step the compiled attribute to check
+   * @return true if the attribute was excluded by the client
+   */
+  public boolean isExcluded(ValidationPlan.AttributeStep step)
+  {
+    if (excludedTree.isEmpty())
+    {
+      return false;
+    }
+    return excludedSteps.computeIfAbsent(step, s -> {
+      return excludedTree.matches(s.getLowerCaseResourceUri(), s.getLowerCaseNameSegments(), false);
+    });
+  }
+
+  /**
+   * tells the resource handlers if the given attribute will be part of the response. Attributes that are not
+   * returned do not need to be loaded
+   *
+   * @param schemaAttribute the attribute to check
+   * @return true if the attribute is returned to the client if it is present on the resource
+   */
+  public boolean isReturned(SchemaAttribute schemaAttribute)
+  {
+    switch (schemaAttribute.getReturned())
+    {
+      case ALWAYS:
+        return true;
+      case NEVER:
+        return false;
+      case REQUEST:
+        return isRequested(schemaAttribute);
+      default:
+        return !isExcluded(schemaAttribute) && (!isAttributesPresent() || isRequested(schemaAttribute));
+    }
+  }
+
+  /**
+   * the attribute names of one parameter. The names are stored case insensitive in a tree per schema uri. Names
+   * without a schema uri are stored under an empty uri and match the attributes of all schemas
+   */
+  private static class ProjectionTree
+  {
+
+    /**
+     * the lowercase schema uris that were named as a whole
+     */
+    private final Set<String> schemaUris = new HashSet<>();
+
+    /**
+     * the attribute trees by their lowercase schema uri
+     */
+    private final Map<String, ProjectionNode> roots = new HashMap<>();
+
+    public ProjectionTree(List<String> attributeNames)
+    {
+      for ( String attributeName : attributeNames )
+      {
+        String name = attributeName.toLowerCase();
+        // a full name like "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User" might name a whole schema
+        schemaUris.add(name);
+        int uriSeparator = name.lastIndexOf(':');
+        String schemaUri = uriSeparator < 0 ? "" : name.substring(0, uriSeparator);
+        ProjectionNode node = roots.computeIfAbsent(schemaUri, uri -> new ProjectionNode());
+        for ( String segment : name.substring(uriSeparator + 1).split("\\.") )
+        {
+          node = node.children.computeIfAbsent(segment, segmentName -> new ProjectionNode());
+        }
+        node.named = true;
+      }
+    }
+
+    /**
+     * @return true if no attribute names were given
+     */
+    public boolean isEmpty()
+    {
+      return roots.isEmpty();
+    }
+
+    /**
+     * checks if the given attribute is selected by this tree
+     *
+     * @param schemaAttribute the attribute to check
+     * @param matchDescendants if the attribute should also be selected if one of its sub-attributes was named
+     * @return true if the attribute is selected
+     */
+    public boolean matches(SchemaAttribute schemaAttribute, boolean matchDescendants)
+    {
+      if (roots.isEmpty())
+      {
+        return false;
+      }
+      return matches(StringUtils.lowerCase(schemaAttribute.getResourceUri()),
+                     schemaAttribute.getScimNodeName().toLowerCase().split("\\."),
+                     matchDescendants);
+    }
+
+    /**
+     * checks if the attribute with the given lowercase schema uri and name segments is selected by this tree
+     *
+     * @param schemaUri the lowercase resource uri of the attribute or null
+     * @param segments the lowercase segments of the scim node name of the attribute
+     * @param matchDescendants if the attribute should also be selected if one of its sub-attributes was named
+     * @return true if the attribute is selected
+     */
+    public boolean matches(String schemaUri, String[] segments, boolean matchDescendants)
+    {
+      if (schemaUri != null && schemaUris.contains(schemaUri))
+      {
+        return true;
+      }
+      return matches(roots.get(""), segments, matchDescendants)
+             || (schemaUri != null && matches(roots.get(schemaUri), segments, matchDescendants));
+    }
+
+    /**
+     * walks down the tree along the given name segments
+     */
+    private boolean matches(ProjectionNode root, String[] segments, boolean matchDescendants)
+    {
+      ProjectionNode node = root;
+      for ( String segment : segments )
+      {
+        node = node == null ? null : node.children.get(segment);
+        if (node == null)
+        {
+          return false;
+        }
+        if (node.named)
+        {
+          // the attribute itself or one of its parents was named
+          return true;
+        }
+      }
+      // one of the sub-attributes of the attribute was named
+      return matchDescendants;
+    }
+  }
+
+  /**
+   * a single attribute name segment within a {@link ProjectionTree}
+   */
+  private static class ProjectionNode
+  {
+
+    /**
+     * the sub-attributes by their lowercase names
+     */
+    private final Map<String, ProjectionNode> children = new HashMap<>();
+
+    /**
+     * true if this attribute was named explicitly
+     */
+    private boolean named;
+  }
+}
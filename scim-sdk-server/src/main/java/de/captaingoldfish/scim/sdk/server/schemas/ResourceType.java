@@ -6,9 +6,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -22,6 +24,7 @@ import de.captaingoldfish.scim.sdk.common.constants.AttributeNames;
 import de.captaingoldfish.scim.sdk.common.constants.EndpointPaths;
 import de.captaingoldfish.scim.sdk.common.constants.HttpStatus;
 import de.captaingoldfish.scim.sdk.common.constants.SchemaUris;
+import de.captaingoldfish.scim.sdk.common.constants.enums.HttpMethod;
 import de.captaingoldfish.scim.sdk.common.exceptions.BadRequestException;
 import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
 import de.captaingoldfish.scim.sdk.common.exceptions.InvalidResourceTypeException;
@@ -33,7 +36,13 @@ import de.captaingoldfish.scim.sdk.common.resources.complex.Meta;
 import de.captaingoldfish.scim.sdk.common.schemas.Schema;
 import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
 import de.captaingoldfish.scim.sdk.server.endpoints.ResourceHandler;
+import de.captaingoldfish.scim.sdk.server.filter.AttributePathRoot;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.ParsedExpressionCache;
+import de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore;
+import de.captaingoldfish.scim.sdk.server.response.QueryResultCache;
 import de.captaingoldfish.scim.sdk.server.schemas.custom.ResourceTypeFeatures;
+import de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -64,6 +73,67 @@ public class ResourceType extends ResourceNode
   @Setter(AccessLevel.PUBLIC)
   private ResourceHandler resourceHandlerImpl;
 
+  /**
+   * caches the parsed filter expressions that were used on this resource type
+   */
+  @Getter
+  private final ParsedExpressionCache<FilterNode> filterCache = new ParsedExpressionCache<>();
+
+  /**
+   * caches the parsed patch path expressions that were used on this resource type
+   */
+  @Getter
+  private final ParsedExpressionCache<AttributePathRoot> patchPathCache = new ParsedExpressionCache<>();
+
+  /**
+   * decides if the automatic filtering and sorting of this resource type is executed sequentially or in
+   * parallel
+   */
+  @Getter
+  @Setter
+  private ExecutionPolicy executionPolicy = ExecutionPolicy.DEFAULT;
+
+  /**
+   * an optional in-memory store that holds the resources of this type. If set the resource endpoint adds
+   * created and updated resources to the store and removes deleted resources from it
+   */
+  @Getter
+  @Setter
+  private IndexedResourceStore<? extends ResourceNode> indexedResourceStore;
+
+  /**
+   * an optional cache for the list responses of this type. If set the resource endpoint serves identical list
+   * requests from the cache and invalidates it whenever a resource of this type is changed
+   */
+  @Getter
+  @Setter
+  private QueryResultCache queryResultCache;
+
+  /**
+   * if the resources returned by the resource handler are trusted to be well-formed. In this mode the response
+   * validation only removes the attributes that must not be returned in place from the returned resources
+   * instead of type-checking and rebuilding each resource. Resource handlers must therefore not return
+   * resources that they keep themselves. The default strict validation should be used during development so
+   * that invalid resources are detected
+   */
+  @Getter
+  @Setter
+  private boolean trustedResponses;
+
+  /**
+   * the maximum number of errors that are reported at once if a request document is invalid. If not set the
+   * request validation is aborted on the first invalid attribute
+   */
+  @Getter
+  @Setter
+  private Integer maxRequestValidationErrors;
+
+  /**
+   * the compiled validation plans of the schemas that are used with this resource type. The key consists of the
+   * schema id, the validation direction and the http method
+   */
+  private final Map<String, ValidationPlan> validationPlans = new ConcurrentHashMap<>();
+
   protected ResourceType(SchemaFactory schemaFactory, String resourceDocument)
   {
     this(schemaFactory, JsonHelper.readJsonDocument(resourceDocument));
@@ -101,6 +171,27 @@ public class ResourceType extends ResourceNode
     setFeatures(resourceTypeFeatures);
   }
 
+  /**
+   * gets the compiled validation plan of the given schema and compiles it if it was not compiled yet or if the
+   * attributes of the schema have changed since
+   *
+   * @param schema the main schema, an extension or the meta schema of this resource type
+   * @param directionType the direction of the validation
+   * @param httpMethod the http method of the request or null for responses
+   * @return the validation plan of the schema
+   */
+  ValidationPlan getValidationPlan(Schema schema, SchemaValidator.DirectionType directionType, HttpMethod httpMethod)
+  {
+    String key = schema.getNonNullId() + "|" + directionType + "|" + httpMethod;
+    ValidationPlan validationPlan = validationPlans.get(key);
+    if (validationPlan == null || !validationPlan.isCompiledFrom(schema))
+    {
+      validationPlan = ValidationPlan.compile(schema, directionType, httpMethod);
+      validationPlans.put(key, validationPlan);
+    }
+    return validationPlan;
+  }
+
   /**
    * creates or gets the meta node and will extend it by the missing attributes
    *
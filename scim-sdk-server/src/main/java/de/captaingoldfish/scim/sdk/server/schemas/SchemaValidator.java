@@ -2,11 +2,15 @@ package de.captaingoldfish.scim.sdk.server.schemas;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
-import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -24,13 +28,11 @@ import de.captaingoldfish.scim.sdk.common.constants.SchemaUris;
 import de.captaingoldfish.scim.sdk.common.constants.ScimType;
 import de.captaingoldfish.scim.sdk.common.constants.enums.HttpMethod;
 import de.captaingoldfish.scim.sdk.common.constants.enums.Mutability;
-import de.captaingoldfish.scim.sdk.common.constants.enums.ReferenceTypes;
 import de.captaingoldfish.scim.sdk.common.constants.enums.Returned;
 import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
 import de.captaingoldfish.scim.sdk.common.constants.enums.Uniqueness;
 import de.captaingoldfish.scim.sdk.common.exceptions.DocumentValidationException;
 import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
-import de.captaingoldfish.scim.sdk.common.exceptions.InvalidDateTimeRepresentationException;
 import de.captaingoldfish.scim.sdk.common.exceptions.ScimException;
 import de.captaingoldfish.scim.sdk.common.resources.base.ScimArrayNode;
 import de.captaingoldfish.scim.sdk.common.resources.base.ScimBooleanNode;
@@ -45,7 +47,6 @@ import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
 import de.captaingoldfish.scim.sdk.common.utils.AttributeValidator;
 import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
 import de.captaingoldfish.scim.sdk.common.utils.TimeUtils;
-import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -86,9 +87,8 @@ public class SchemaValidator
   /**
    * this member is used for attributes that have a returned value of {@link Returned#REQUEST}. Those attributes
    * should only be returned if the attribute was modified on a POST, PUT or PATCH request or in a query request
-   * only if the attribute is present within the {@link #attributes} parameter. So the validated request tells
-   * us if the client tried to write to the attribute and if this is the case the attribute should be returned
-   * <br>
+   * only if the attribute is present within the "attributes" parameter. So the validated request tells us if
+   * the client tried to write to the attribute and if this is the case the attribute should be returned <br>
    * <br>
    * from RFC7643 chapter 7
    *
@@ -103,20 +103,14 @@ public class SchemaValidator
   private final JsonNode validatedRequest;
 
   /**
-   * When specified, the default list of attributes SHALL be overridden, and each resource returned MUST contain
-   * the minimum set of resource attributes and any attributes or sub-attributes explicitly requested by the
-   * "attributes" parameter. The query parameter attributes value is a comma-separated list of resource
-   * attribute names in standard attribute notation (Section 3.10) form (e.g., userName, name, emails).
+   * the parsed "attributes" and "excludedAttributes" parameters. When "attributes" is specified, the default
+   * list of attributes SHALL be overridden, and each resource returned MUST contain the minimum set of resource
+   * attributes and any attributes or sub-attributes explicitly requested by the "attributes" parameter. When
+   * "excludedAttributes" is specified, each resource returned MUST contain the minimum set of resource
+   * attributes. Additionally, the default set of attributes minus those attributes listed in
+   * "excludedAttributes" is returned.
    */
-  private final List<String> attributes;
-
-  /**
-   * When specified, each resource returned MUST contain the minimum set of resource attributes. Additionally,
-   * the default set of attributes minus those attributes listed in "excludedAttributes" is returned. The query
-   * parameter attributes value is a comma-separated list of resource attribute names in standard attribute
-   * notation (Section 3.10) form (e.g., userName, name, emails).
-   */
-  private final List<String> excludedAttributes;
+  private final AttributeProjection projection;
 
   /**
    * used to automatically set $ref values on reference types during schema-validation if the attribute is
@@ -130,23 +124,28 @@ public class SchemaValidator
    */
   private final ResourceTypeFactory resourceTypeFactory;
 
-  private SchemaValidator(DirectionType directionType, String attributes, String excludedAttributes)
+  /**
+   * collects the errors of the validation if present. If null the validation is aborted with an exception on
+   * the first error
+   */
+  private final ValidationResult validationResult;
+
+  private SchemaValidator(DirectionType directionType)
   {
     this.extensionSchema = false;
     this.directionType = directionType;
     this.httpMethod = null;
     this.validatedRequest = null;
-    this.attributes = RequestUtils.getAttributes(attributes);
-    this.excludedAttributes = RequestUtils.getAttributes(excludedAttributes);
+    this.projection = AttributeProjection.defaultProjection();
     this.baseUrlSupplier = null;
     this.resourceTypeFactory = null;
+    this.validationResult = null;
   }
 
   private SchemaValidator(DirectionType directionType,
                           HttpMethod httpMethod,
                           JsonNode validatedRequest,
-                          String attributes,
-                          String excludedAttributes,
+                          AttributeProjection projection,
                           Supplier<String> baseUrlSupplier,
                           ResourceTypeFactory resourceTypeFactory)
   {
@@ -154,29 +153,29 @@ public class SchemaValidator
     this.httpMethod = httpMethod;
     this.extensionSchema = false;
     this.validatedRequest = validatedRequest;
-    this.attributes = RequestUtils.getAttributes(attributes);
-    this.excludedAttributes = RequestUtils.getAttributes(excludedAttributes);
+    this.projection = projection == null ? AttributeProjection.defaultProjection() : projection;
     this.baseUrlSupplier = baseUrlSupplier;
     this.resourceTypeFactory = resourceTypeFactory;
+    this.validationResult = null;
   }
 
   private SchemaValidator(DirectionType directionType,
                           HttpMethod httpMethod,
                           boolean extensionSchema,
                           JsonNode validatedRequest,
-                          String attributes,
-                          String excludedAttributes,
+                          AttributeProjection projection,
                           Supplier<String> baseUrlSupplier,
-                          ResourceTypeFactory resourceTypeFactory)
+                          ResourceTypeFactory resourceTypeFactory,
+                          ValidationResult validationResult)
   {
     this.directionType = directionType;
     this.httpMethod = httpMethod;
     this.extensionSchema = extensionSchema;
     this.validatedRequest = validatedRequest;
-    this.attributes = RequestUtils.getAttributes(attributes);
-    this.excludedAttributes = RequestUtils.getAttributes(excludedAttributes);
+    this.projection = projection == null ? AttributeProjection.defaultProjection() : projection;
     this.baseUrlSupplier = baseUrlSupplier;
     this.resourceTypeFactory = resourceTypeFactory;
+    this.validationResult = validationResult;
   }
 
   /**
@@ -190,8 +189,8 @@ public class SchemaValidator
    */
   public static JsonNode validateSchemaDocument(Schema metaSchema, JsonNode schemaDocument)
   {
-    SchemaValidator schemaValidator = new SchemaValidator(null, null, null);
-    return schemaValidator.validateDocument(metaSchema, schemaDocument);
+    SchemaValidator schemaValidator = new SchemaValidator(null);
+    return schemaValidator.validateDocument(metaSchema, ValidationPlan.compile(metaSchema, null, null), schemaDocument);
   }
 
   /**
@@ -205,8 +204,10 @@ public class SchemaValidator
    */
   public static JsonNode validateSchemaDocumentForRequest(Schema metaSchema, JsonNode schemaDocument)
   {
-    SchemaValidator schemaValidator = new SchemaValidator(DirectionType.REQUEST, null, null);
-    return schemaValidator.validateDocument(metaSchema, schemaDocument);
+    SchemaValidator schemaValidator = new SchemaValidator(DirectionType.REQUEST);
+    return schemaValidator.validateDocument(metaSchema,
+                                            ValidationPlan.compile(metaSchema, DirectionType.REQUEST, null),
+                                            schemaDocument);
   }
 
   /**
@@ -222,8 +223,8 @@ public class SchemaValidator
    * @param validatedRequest this parameter is used for attributes that have a returned value of
    *          {@link Returned#REQUEST}. Those attributes should only be returned if the attribute was modified
    *          on a POST, PUT or PATCH request or in a query request only if the attribute is present within the
-   *          {@link #attributes} parameter. So the validated request tells us if the client tried to write to
-   *          the attribute and if this is the case the attribute should be returned
+   *          "attributes" parameter. So the validated request tells us if the client tried to write to the
+   *          attribute and if this is the case the attribute should be returned
    * @param attributes When specified, the default list of attributes SHALL be overridden, and each resource
    *          returned MUST contain the minimum set of resource attributes and any attributes or sub-attributes
    *          explicitly requested by the "attributes" parameter. The query parameter attributes value is a
@@ -246,12 +247,55 @@ public class SchemaValidator
                                                      Supplier<String> baseUrlSupplier)
     throws DocumentValidationException
   {
+    return validateDocumentForResponse(resourceTypeFactory,
+                                       resourceType,
+                                       document,
+                                       validatedRequest,
+                                       AttributeProjection.of(attributes, excludedAttributes),
+                                       baseUrlSupplier);
+  }
+
+  /**
+   * will validate an outgoing document against its main schema and all its extensions like
+   * {@link #validateDocumentForResponse(ResourceTypeFactory, ResourceType, JsonNode, JsonNode, String, String, Supplier)}
+   * but with already parsed "attributes" and "excludedAttributes" parameters. Attributes that are not part of
+   * the projection are skipped without being validated so resource handlers do not need to load them
+   *
+   * @param resourceTypeFactory the resource type factory is used to resolve the $ref values of resource
+   *          references
+   * @param resourceType the resource type of the document
+   * @param document the document to validate
+   * @param validatedRequest the validated request document of POST, PUT or PATCH requests or null
+   * @param projection the parsed "attributes" and "excludedAttributes" parameters
+   * @param baseUrlSupplier supplies the base url of this application
+   * @return the validated document that consists of {@link ScimNode}s
+   * @throws DocumentValidationException if the schema validation failed
+   */
+  public static JsonNode validateDocumentForResponse(ResourceTypeFactory resourceTypeFactory,
+                                                     ResourceType resourceType,
+                                                     JsonNode document,
+                                                     JsonNode validatedRequest,
+                                                     AttributeProjection projection,
+                                                     Supplier<String> baseUrlSupplier)
+    throws DocumentValidationException
+  {
+    if (resourceType.isTrustedResponses())
+    {
+      return filterTrustedDocumentForResponse(resourceTypeFactory,
+                                              resourceType,
+                                              document,
+                                              validatedRequest,
+                                              projection);
+    }
     ResourceType.ResourceSchema resourceSchema = resourceType.getResourceSchema(document);
-    JsonNode validatedMainDocument = validateDocumentForResponse(resourceSchema.getMetaSchema(),
+    Schema mainSchema = resourceSchema.getMetaSchema();
+    JsonNode validatedMainDocument = validateDocumentForResponse(mainSchema,
+                                                                 resourceType.getValidationPlan(mainSchema,
+                                                                                                DirectionType.RESPONSE,
+                                                                                                null),
                                                                  document,
                                                                  validatedRequest,
-                                                                 attributes,
-                                                                 excludedAttributes,
+                                                                 projection,
                                                                  baseUrlSupplier,
                                                                  resourceTypeFactory);
     validatedForMissingRequiredExtension(resourceType, document, DirectionType.RESPONSE);
@@ -264,11 +308,13 @@ public class SchemaValidator
                                    .orElseThrow(() -> new InternalServerException(message.get(), null,
                                                                                   ScimType.Custom.MISSING_EXTENSION));
       JsonNode extensionNode = validateExtensionForResponse(schemaExtension,
+                                                            resourceType.getValidationPlan(schemaExtension,
+                                                                                           DirectionType.RESPONSE,
+                                                                                           null),
                                                             extension,
                                                             validatedRequest == null ? null
                                                               : validatedRequest.get(schemaExtension.getNonNullId()),
-                                                            attributes,
-                                                            excludedAttributes,
+                                                            projection,
                                                             baseUrlSupplier,
                                                             resourceTypeFactory);
       if (extensionNode == null)
@@ -287,10 +333,12 @@ public class SchemaValidator
     try
     {
       validatedMeta = validateExtensionForResponse(metaSchema,
+                                                   resourceType.getValidationPlan(metaSchema,
+                                                                                  DirectionType.RESPONSE,
+                                                                                  null),
                                                    document,
                                                    validatedRequest,
-                                                   attributes,
-                                                   excludedAttributes,
+                                                   projection,
                                                    baseUrlSupplier,
                                                    resourceTypeFactory);
     }
@@ -309,6 +357,81 @@ public class SchemaValidator
     return validatedMainDocument;
   }
 
+  /**
+   * the response handling of resource types with {@link ResourceType#isTrustedResponses()}. The document is
+   * neither type-checked nor rebuilt. The attributes that are unknown to the schemas of the resource type and
+   * those that must not be returned due to their mutability, their returned value or the "attributes" and
+   * "excludedAttributes" parameters are removed in place so that the same attributes are returned as by the
+   * strict validation. The endpoint hands over copies of resources that are shared with an
+   * {@link de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore}
+   *
+   * @param resourceTypeFactory the resource type factory that knows the meta schema
+   * @param resourceType the resource type of the document
+   * @param document the document as returned by the resource handler
+   * @param validatedRequest the validated request document of POST, PUT or PATCH requests or null
+   * @param projection the parsed "attributes" and "excludedAttributes" parameters
+   * @return the filtered document
+   */
+  private static JsonNode filterTrustedDocumentForResponse(ResourceTypeFactory resourceTypeFactory,
+                                                           ResourceType resourceType,
+                                                           JsonNode document,
+                                                           JsonNode validatedRequest,
+                                                           AttributeProjection projection)
+  {
+    if (!document.isObject())
+    {
+      throw new InternalServerException("the returned resource is not a json object: " + document, null, null);
+    }
+    ObjectNode resource = (ObjectNode)document;
+    ResourceType.ResourceSchema resourceSchema = resourceType.getResourceSchema(resource);
+    Schema mainSchema = resourceSchema.getMetaSchema();
+    Schema metaSchema = resourceTypeFactory.getSchemaFactory().getMetaSchema(SchemaUris.META);
+    ValidationPlan metaPlan = resourceType.getValidationPlan(metaSchema, DirectionType.RESPONSE, null);
+
+    // the main document additionally holds the schemas, the extensions and the meta attribute
+    Set<String> keptAttributes = new HashSet<>();
+    keptAttributes.add(AttributeNames.RFC7643.SCHEMAS);
+    resourceSchema.getExtensions().forEach(schemaExtension -> keptAttributes.add(schemaExtension.getNonNullId()));
+    for ( ValidationPlan.AttributeStep step : metaPlan.getSteps() )
+    {
+      keptAttributes.add(step.getAttribute().getName());
+    }
+    SchemaValidator mainValidator = new SchemaValidator(DirectionType.RESPONSE, null, validatedRequest, projection,
+                                                        null, resourceTypeFactory);
+    ValidationPlan mainPlan = resourceType.getValidationPlan(mainSchema, DirectionType.RESPONSE, null);
+    mainValidator.filterAttributes(mainPlan, resource, keptAttributes);
+    for ( Schema schemaExtension : resourceSchema.getExtensions() )
+    {
+      String extensionId = schemaExtension.getNonNullId();
+      JsonNode extension = resource.get(extensionId);
+      if (extension != null && extension.isObject())
+      {
+        JsonNode extensionRequest = validatedRequest == null ? null : validatedRequest.get(extensionId);
+        SchemaValidator extensionValidator = new SchemaValidator(DirectionType.RESPONSE, null, extensionRequest,
+                                                                 projection, null, resourceTypeFactory);
+        extensionValidator.filterAttributes(resourceType.getValidationPlan(schemaExtension,
+                                                                           DirectionType.RESPONSE,
+                                                                           null),
+                                            (ObjectNode)extension,
+                                            Collections.emptySet());
+      }
+      if (extension == null || extension.size() == 0)
+      {
+        resource.remove(extensionId);
+        JsonHelper.getArrayAttribute(resource, AttributeNames.RFC7643.SCHEMAS).ifPresent(arrayNode -> {
+          JsonHelper.removeSimpleAttributeFromArray(arrayNode, extensionId);
+        });
+      }
+    }
+    // the attributes of the main schema must be kept while the meta attribute is filtered
+    for ( ValidationPlan.AttributeStep step : mainPlan.getSteps() )
+    {
+      keptAttributes.add(step.getAttribute().getName());
+    }
+    mainValidator.filterAttributes(metaPlan, resource, keptAttributes);
+    return resource;
+  }
+
   /**
    * will validate an outgoing document against its main schema and all its extensions. Attributes that are
    * unknown to the given schema or are meaningless or forbidden in responses due to their mutability or
@@ -326,7 +449,13 @@ public class SchemaValidator
                                                         Supplier<String> baseUrlSupplier,
                                                         ResourceTypeFactory resourceTypeFactory)
   {
-    return validateDocumentForResponse(metaSchema, document, null, null, null, baseUrlSupplier, resourceTypeFactory);
+    return validateDocumentForResponse(metaSchema,
+                                       ValidationPlan.compile(metaSchema, DirectionType.RESPONSE, null),
+                                       document,
+                                       null,
+                                       AttributeProjection.defaultProjection(),
+                                       baseUrlSupplier,
+                                       resourceTypeFactory);
   }
 
   /**
@@ -342,9 +471,9 @@ public class SchemaValidator
    * @param validatedRequest this parameter is used for attributes that have a returned value of
    *          {@link Returned#REQUEST}. Those attributes should only be returned if the attribute was modified
    *          on a POST, PUT or PATCH request or in a query request only if the attribute is present within the
-   *          {@link #attributes} parameter. So the validated request tells us if the client tried to write to
-   *          the attribute and if this is the case the attribute should be returned write to the attribute and
-   *          if this is the case the attribute should be returned
+   *          "attributes" parameter. So the validated request tells us if the client tried to write to the
+   *          attribute and if this is the case the attribute should be returned write to the attribute and if
+   *          this is the case the attribute should be returned
    * @param attributes When specified, the default list of attributes SHALL be overridden, and each resource
    *          returned MUST contain the minimum set of resource attributes and any attributes or sub-attributes
    *          explicitly requested by the "attributes" parameter. The query parameter attributes value is a
@@ -365,11 +494,32 @@ public class SchemaValidator
                                                         Supplier<String> baseUrlSupplier,
                                                         ResourceTypeFactory resourceTypeFactory)
   {
-    SchemaValidator schemaValidator = new SchemaValidator(DirectionType.RESPONSE, null, validatedRequest, attributes,
-                                                          excludedAttributes, baseUrlSupplier, resourceTypeFactory);
+    return validateDocumentForResponse(metaSchema,
+                                       ValidationPlan.compile(metaSchema, DirectionType.RESPONSE, null),
+                                       document,
+                                       validatedRequest,
+                                       AttributeProjection.of(attributes, excludedAttributes),
+                                       baseUrlSupplier,
+                                       resourceTypeFactory);
+  }
+
+  /**
+   * validates an outgoing document against the given schema with already parsed "attributes" and
+   * "excludedAttributes" parameters and the compiled validation plan of the schema
+   */
+  private static JsonNode validateDocumentForResponse(Schema metaSchema,
+                                                      ValidationPlan validationPlan,
+                                                      JsonNode document,
+                                                      JsonNode validatedRequest,
+                                                      AttributeProjection projection,
+                                                      Supplier<String> baseUrlSupplier,
+                                                      ResourceTypeFactory resourceTypeFactory)
+  {
+    SchemaValidator schemaValidator = new SchemaValidator(DirectionType.RESPONSE, null, validatedRequest, projection,
+                                                          baseUrlSupplier, resourceTypeFactory);
     try
     {
-      return schemaValidator.validateDocument(metaSchema, document);
+      return schemaValidator.validateDocument(metaSchema, validationPlan, document);
     }
     catch (ScimException ex)
     {
@@ -385,28 +535,28 @@ public class SchemaValidator
    * "schemas"-attrbiute
    *
    * @param metaSchema the json meta schema definition of the extension
+   * @param validationPlan the compiled validation plan of the extension
    * @param document the extension to validate
    * @param validatedRequest this parameter is used for attributes that have a returned value of
    *          {@link Returned#REQUEST}. Those attributes should only be returned if the attribute was modified
    *          on a POST, PUT or PATCH request or in a query request only if the attribute is present within the
-   *          {@link #attributes} parameter. So the validated request tells us if the client tried to write to
-   *          the attribute and if this is the case the attribute should be returned
+   *          "attributes" parameter. So the validated request tells us if the client tried to write to the
+   *          attribute and if this is the case the attribute should be returned
    * @return the validated document that consists of {@link ScimNode}s
    */
   private static JsonNode validateExtensionForResponse(Schema metaSchema,
+                                                       ValidationPlan validationPlan,
                                                        JsonNode document,
                                                        JsonNode validatedRequest,
-                                                       String attributes,
-                                                       String excludedAttributes,
+                                                       AttributeProjection projection,
                                                        Supplier<String> baseUrlSupplier,
                                                        ResourceTypeFactory resourceTypeFactory)
   {
     SchemaValidator schemaValidator = new SchemaValidator(DirectionType.RESPONSE, null, true, validatedRequest,
-                                                          attributes, excludedAttributes, baseUrlSupplier,
-                                                          resourceTypeFactory);
+                                                          projection, baseUrlSupplier, resourceTypeFactory, null);
     try
     {
-      return schemaValidator.validateDocument(metaSchema, document);
+      return schemaValidator.validateDocument(metaSchema, validationPlan, document);
     }
     catch (ScimException ex)
     {
@@ -421,7 +571,10 @@ public class SchemaValidator
    * from the validated document. <br>
    * attributes that will be removed in the request validation are those that are have a mutability of
    * {@link Mutability#READ_ONLY}. The client is not able to write these attributes and therefore the server
-   * does not need to process them.
+   * does not need to process them. <br>
+   * <br>
+   * if {@link ResourceType#getMaxRequestValidationErrors()} is set the errors are collected and reported
+   * together within a single exception. Otherwise the validation is aborted on the first error
    *
    * @param resourceType the resource type definition of the incoming document
    * @param document the document that should be validated
@@ -431,9 +584,57 @@ public class SchemaValidator
    */
   public static JsonNode validateDocumentForRequest(ResourceType resourceType, JsonNode document, HttpMethod httpMethod)
     throws DocumentValidationException
+  {
+    Integer maxErrors = resourceType.getMaxRequestValidationErrors();
+    if (maxErrors == null)
+    {
+      return validateDocumentForRequest(resourceType, document, httpMethod, null);
+    }
+    ValidationResult validationResult = new ValidationResult(maxErrors);
+    JsonNode validatedDocument = validateDocumentForRequest(resourceType, document, httpMethod, validationResult);
+    if (!validationResult.isValid())
+    {
+      throw validationResult.toException(HttpStatus.BAD_REQUEST);
+    }
+    return validatedDocument;
+  }
+
+  /**
+   * will validate an incoming document like
+   * {@link #validateDocumentForRequest(ResourceType, JsonNode, HttpMethod)} but records the errors of invalid
+   * attributes within the given validation result instead of throwing them. Invalid attributes are left out of
+   * the validated document and the validation goes on until the maximum number of errors of the validation
+   * result is reached. Errors that concern the whole document like a missing "schemas"-attribute or a missing
+   * required extension are still thrown
+   *
+   * @param resourceType the resource type definition of the incoming document
+   * @param document the document that should be validated
+   * @param httpMethod the request http method that is used to validate the request-document
+   * @param validationResult collects the errors of the validation. If null the first error is thrown
+   * @return the validated document that consists of {@link ScimNode}s. Must not be used if the validation
+   *         result contains errors
+   * @throws DocumentValidationException if the document as a whole is invalid
+   */
+  public static JsonNode validateDocumentForRequest(ResourceType resourceType,
+                                                    JsonNode document,
+                                                    HttpMethod httpMethod,
+                                                    ValidationResult validationResult)
+    throws DocumentValidationException
   {
     ResourceType.ResourceSchema resourceSchema = resourceType.getResourceSchema(document);
-    JsonNode validatedMainDocument = validateDocumentForRequest(resourceSchema.getMetaSchema(), document, httpMethod);
+    Schema mainSchema = resourceSchema.getMetaSchema();
+    JsonNode validatedMainDocument = validateDocumentForRequest(mainSchema,
+                                                                resourceType.getValidationPlan(mainSchema,
+                                                                                               DirectionType.REQUEST,
+                                                                                               httpMethod),
+                                                                document,
+                                                                httpMethod,
+                                                                false,
+                                                                validationResult);
+    if (validatedMainDocument == null && validationResult != null && !validationResult.isValid())
+    {
+      return null;
+    }
     if (validatedMainDocument == null)
     {
       throw new DocumentValidationException("the received document is invalid and does not contain any data. The "
@@ -443,6 +644,10 @@ public class SchemaValidator
     validatedForMissingRequiredExtension(resourceType, document, DirectionType.REQUEST);
     for ( Schema schemaExtension : resourceSchema.getExtensions() )
     {
+      if (validationResult != null && validationResult.isFull())
+      {
+        break;
+      }
       JsonNode extension = getSchemaExtensionFromResourceDocument(document, validatedMainDocument, schemaExtension);
       if (extension == null)
       {
@@ -450,7 +655,14 @@ public class SchemaValidator
         // the extension so go on to the next one
         continue;
       }
-      JsonNode extensionNode = validateExtensionForRequest(schemaExtension, extension, httpMethod);
+      JsonNode extensionNode = validateDocumentForRequest(schemaExtension,
+                                                          resourceType.getValidationPlan(schemaExtension,
+                                                                                         DirectionType.REQUEST,
+                                                                                         httpMethod),
+                                                          extension,
+                                                          httpMethod,
+                                                          true,
+                                                          validationResult);
       if (extensionNode == null)
       {
         JsonHelper.getArrayAttribute(validatedMainDocument, AttributeNames.RFC7643.SCHEMAS).ifPresent(arrayNode -> {
@@ -542,17 +754,12 @@ public class SchemaValidator
    */
   protected static JsonNode validateDocumentForRequest(Schema metaSchema, JsonNode document, HttpMethod httpMethod)
   {
-    SchemaValidator schemaValidator = new SchemaValidator(DirectionType.REQUEST, httpMethod, null, null, null, null,
-                                                          null);
-    try
-    {
-      return schemaValidator.validateDocument(metaSchema, document);
-    }
-    catch (ScimException ex)
-    {
-      ex.setStatus(HttpStatus.BAD_REQUEST);
-      throw ex;
-    }
+    return validateDocumentForRequest(metaSchema,
+                                      ValidationPlan.compile(metaSchema, DirectionType.REQUEST, httpMethod),
+                                      document,
+                                      httpMethod,
+                                      false,
+                                      null);
   }
 
   /**
@@ -569,11 +776,43 @@ public class SchemaValidator
    */
   protected static JsonNode validateExtensionForRequest(Schema metaSchema, JsonNode document, HttpMethod httpMethod)
   {
-    SchemaValidator schemaValidator = new SchemaValidator(DirectionType.REQUEST, httpMethod, true, null, null, null,
-                                                          null, null);
+    return validateDocumentForRequest(metaSchema,
+                                      ValidationPlan.compile(metaSchema, DirectionType.REQUEST, httpMethod),
+                                      document,
+                                      httpMethod,
+                                      true,
+                                      null);
+  }
+
+  /**
+   * validates an incoming document or extension with the compiled validation plan of its schema
+   *
+   * @param metaSchema the json meta schema definition of the document
+   * @param validationPlan the compiled validation plan of the schema
+   * @param document the document or extension to validate
+   * @param httpMethod the http method of the request
+   * @param extensionSchema if the document is an extension in which case the "schemas"-attribute is not
+   *          validated
+   * @param validationResult collects the attribute errors if present. Otherwise the first error is thrown
+   * @return the validated document that consists of {@link ScimNode}s or null if the maximum number of errors
+   *         was reached
+   */
+  private static JsonNode validateDocumentForRequest(Schema metaSchema,
+                                                     ValidationPlan validationPlan,
+                                                     JsonNode document,
+                                                     HttpMethod httpMethod,
+                                                     boolean extensionSchema,
+                                                     ValidationResult validationResult)
+  {
+    SchemaValidator schemaValidator = new SchemaValidator(DirectionType.REQUEST, httpMethod, extensionSchema, null,
+                                                          null, null, null, validationResult);
     try
     {
-      return schemaValidator.validateDocument(metaSchema, document);
+      return schemaValidator.validateDocument(metaSchema, validationPlan, document);
+    }
+    catch (ValidationAborted ex)
+    {
+      return null;
     }
     catch (ScimException ex)
     {
@@ -612,10 +851,11 @@ public class SchemaValidator
    * document
    *
    * @param metaSchema the document description
+   * @param validationPlan the compiled validation plan of the metaSchema for the current direction
    * @param document the document that should be built after the rules of the metaSchema
    * @return the validated document that consists of {@link ScimNode}s
    */
-  private JsonNode validateDocument(Schema metaSchema, JsonNode document)
+  private JsonNode validateDocument(Schema metaSchema, ValidationPlan validationPlan, JsonNode document)
   {
     log.trace("validating metaSchema vs document");
     JsonNode schemasNode = null;
@@ -623,7 +863,7 @@ public class SchemaValidator
     {
       schemasNode = checkDocumentAndMetaSchemaRelationship(metaSchema, document);
     }
-    JsonNode validatedDocument = validateAttributes(metaSchema.getAttributes(), document, null);
+    JsonNode validatedDocument = validateAttributes(validationPlan, document, null);
     if (validatedDocument != null && schemasNode != null)
     {
       JsonHelper.addAttribute(validatedDocument, AttributeNames.RFC7643.SCHEMAS, schemasNode);
@@ -632,32 +872,46 @@ public class SchemaValidator
   }
 
   /**
-   * will use the given meta attributes to validate each attribute in the document
+   * will execute the steps of the given validation plan to validate each attribute in the document
    *
-   * @param metaAttributes list of meta attributes that may or may not be present within the document
+   * @param validationPlan the compiled meta attributes that may or may not be present within the document
    * @param document the document to validate
    * @param parentAttribute this method is getting called recursively and this is the parent document that is
    *          given to the new {@link SchemaAttribute} object
    * @return the validated document that consists of {@link ScimNode}s
    */
-  private JsonNode validateAttributes(List<SchemaAttribute> metaAttributes,
-                                      JsonNode document,
-                                      SchemaAttribute parentAttribute)
+  private JsonNode validateAttributes(ValidationPlan validationPlan, JsonNode document, SchemaAttribute parentAttribute)
   {
     JsonNode scimNode = new ScimObjectNode(parentAttribute);
-    for ( SchemaAttribute metaAttribute : metaAttributes )
+    for ( ValidationPlan.AttributeStep step : validationPlan.getSteps() )
     {
-      if (document == null)
+      if (DirectionType.RESPONSE.equals(directionType) && !isProjected(step))
       {
-        validateIsRequired(null, metaAttribute);
+        // the attribute is not returned anyway so the resource handler might not even have loaded it
         continue;
       }
-      checkMetaAttributeOnDocument(document, metaAttribute).ifPresent(childNode -> {
-        if (!(childNode.isArray() && childNode.size() == 0))
+      try
+      {
+        if (document == null)
         {
-          JsonHelper.addAttribute(scimNode, metaAttribute.getName(), childNode);
+          validateIsRequired(null, step);
+          continue;
         }
-      });
+        checkMetaAttributeOnDocument(document, step).ifPresent(childNode -> {
+          if (!(childNode.isArray() && childNode.size() == 0))
+          {
+            JsonHelper.addAttribute(scimNode, step.getAttribute().getName(), childNode);
+          }
+        });
+      }
+      catch (AttributeRejected ex)
+      {
+        // the error was recorded in the validation result and the invalid attribute is left out
+      }
+      catch (ScimException ex)
+      {
+        recordException(ex);
+      }
     }
     if (scimNode.size() == 0)
     {
@@ -666,16 +920,129 @@ public class SchemaValidator
     return scimNode;
   }
 
+  /**
+   * removes the attributes that must not be returned from the given trusted document in place. Attributes that
+   * are unknown to the validation plan are removed as well unless they are explicitly kept. The attributes are
+   * looked up in the same way as by the strict validation and are renamed to the name of their definition
+   *
+   * @param validationPlan the compiled response plan of the schema of the document
+   * @param document the document to filter
+   * @param keptAttributes the names of attributes of the document that are not part of the plan but must be
+   *          kept e.g. the extensions of the main document
+   */
+  private void filterAttributes(ValidationPlan validationPlan, ObjectNode document, Set<String> keptAttributes)
+  {
+    Set<String> knownAttributes = new HashSet<>(keptAttributes);
+    for ( ValidationPlan.AttributeStep step : validationPlan.getSteps() )
+    {
+      String attributeName = step.getAttribute().getName();
+      String documentName = getAttributeName(document, attributeName);
+      if (documentName == null)
+      {
+        continue;
+      }
+      if (!documentName.equals(attributeName))
+      {
+        document.set(attributeName, document.remove(documentName));
+      }
+      knownAttributes.add(attributeName);
+    }
+    List<String> unknownAttributes = new ArrayList<>();
+    document.fieldNames().forEachRemaining(fieldName -> {
+      if (!knownAttributes.contains(fieldName))
+      {
+        unknownAttributes.add(fieldName);
+      }
+    });
+    document.remove(unknownAttributes);
+    for ( ValidationPlan.AttributeStep step : validationPlan.getSteps() )
+    {
+      String attributeName = step.getAttribute().getName();
+      JsonNode attributeNode = document.get(attributeName);
+      if (attributeNode == null)
+      {
+        continue;
+      }
+      if (step.isRemovedIfPresent() || Mutability.WRITE_ONLY.equals(step.getAttribute().getMutability())
+          || !isProjected(step))
+      {
+        document.remove(attributeName);
+        continue;
+      }
+      if (step.getSubAttributePlan() == null)
+      {
+        continue;
+      }
+      if (attributeNode.isObject())
+      {
+        filterAttributes(step.getSubAttributePlan(), (ObjectNode)attributeNode, Collections.emptySet());
+      }
+      else if (attributeNode.isArray())
+      {
+        Iterator<JsonNode> elements = attributeNode.elements();
+        while (elements.hasNext())
+        {
+          JsonNode element = elements.next();
+          if (element.isObject())
+          {
+            filterAttributes(step.getSubAttributePlan(), (ObjectNode)element, Collections.emptySet());
+          }
+          if (element.size() == 0 && element.isContainerNode())
+          {
+            elements.remove();
+          }
+        }
+      }
+      if (attributeNode.isContainerNode() && attributeNode.size() == 0)
+      {
+        document.remove(attributeName);
+      }
+    }
+  }
+
+  /**
+   * resolves the name under which the given attribute is present within the document. Attribute names are
+   * case-insensitive (RFC7643 section 2.1) so the fields of the document are only searched if the attribute is
+   * not present with the exact name of its definition
+   *
+   * @param document the document that might contain the attribute
+   * @param attributeName the name of the attribute definition
+   * @return the name of the field within the document or null if the attribute is not present
+   */
+  private static String getAttributeName(JsonNode document, String attributeName)
+  {
+    if (document.has(attributeName))
+    {
+      return attributeName;
+    }
+    if (!document.isObject())
+    {
+      return null;
+    }
+    Iterator<String> fieldNames = document.fieldNames();
+    while (fieldNames.hasNext())
+    {
+      String fieldName = fieldNames.next();
+      if (fieldName.equalsIgnoreCase(attributeName))
+      {
+        return fieldName;
+      }
+    }
+    return null;
+  }
+
   /**
    * will check a single meta-attribute on the given document
    *
    * @param document the document to validate
-   * @param schemaAttribute the single meta-attribute that will be validated against the given document
+   * @param step the compiled single meta-attribute that will be validated against the given document
    * @return the attribute if present in the document an empty else
    */
-  private Optional<JsonNode> checkMetaAttributeOnDocument(JsonNode document, SchemaAttribute schemaAttribute)
+  private Optional<JsonNode> checkMetaAttributeOnDocument(JsonNode document, ValidationPlan.AttributeStep step)
   {
-    JsonNode documentNode = document.get(schemaAttribute.getName());
+    SchemaAttribute schemaAttribute = step.getAttribute();
+    String documentName = getAttributeName(document, schemaAttribute.getName());
+    JsonNode documentNode = documentName == null ? null : document.get(documentName);
     if (log.isTraceEnabled())
     {
       log.trace("validating attribute '{}' with value '{}'",
@@ -684,9 +1051,8 @@ public class SchemaValidator
                         .map(JsonNode::textValue)
                         .orElse(Optional.ofNullable(documentNode).map(JsonNode::toString).orElse(null)));
     }
-    validateIsRequired(documentNode, schemaAttribute);
-    if (directionType != null && directionType.equals(DirectionType.RESPONSE) && documentNode == null
-        && schemaAttribute.getReferenceTypes().contains(ReferenceTypes.RESOURCE))
+    validateIsRequired(documentNode, step);
+    if (documentNode == null && step.isResourceReferenceResolvable())
     {
       // this block is used for automatically setting $ref values if not already present on complex
       // resource-references
@@ -706,19 +1072,20 @@ public class SchemaValidator
       validateNonPresentAttributes(schemaAttribute);
       return Optional.empty();
     }
-    else if (!validatePresentAttributes(schemaAttribute))
+    else if (step.isRemovedIfPresent())
     {
+      logRemovedAttribute(schemaAttribute);
       return Optional.empty();
     }
     documentNode = validateComplexAndArrayTypeAttribute(documentNode, schemaAttribute);
 
     if (schemaAttribute.isMultiValued())
     {
-      return handleMultivaluedNodes(documentNode, schemaAttribute);
+      return handleMultivaluedNodes(documentNode, step);
     }
     else
     {
-      return handleNode(documentNode, schemaAttribute);
+      return handleNode(documentNode, step);
     }
   }
 
@@ -804,7 +1171,7 @@ public class SchemaValidator
 
       if (isSimpleMultiValuedExpected && !isNodeSimpleMultiValued || isComplexExpected && !isNodeMultiValuedComplex)
       {
-        throw new DocumentValidationException(errorMessage.get(), null, getHttpStatus(), null);
+        throw getException(errorMessage.get(), null);
       }
     }
     else if (Type.COMPLEX.equals(schemaAttribute.getType()))
@@ -812,7 +1179,7 @@ public class SchemaValidator
       boolean isNodeComplex = document == null || document.isObject();
       if (!isNodeComplex)
       {
-        throw new DocumentValidationException(errorMessage.get(), null, getHttpStatus(), null);
+        throw getException(errorMessage.get(), null);
       }
     }
     return document;
@@ -822,18 +1189,19 @@ public class SchemaValidator
    * validates attributes that are marked as multiValued attributes in the meta attribute
    *
    * @param document the document that holds the multiValued attribute
-   * @param schemaAttribute the meta information of the attribute
+   * @param step the compiled meta information of the attribute
    * @return the attribute if present in the document or an empty else
    */
-  private Optional<JsonNode> handleMultivaluedNodes(JsonNode document, SchemaAttribute schemaAttribute)
+  private Optional<JsonNode> handleMultivaluedNodes(JsonNode document, ValidationPlan.AttributeStep step)
   {
-    if (Type.COMPLEX.equals(schemaAttribute.getType()))
+    SchemaAttribute schemaAttribute = step.getAttribute();
+    if (step.getSubAttributePlan() != null)
     {
       // we will throw an exception if the primary counter exceeds 1
       AtomicInteger countPrimary = new AtomicInteger(0);
       return handleMultivaluedNode(document, schemaAttribute, (jsonNode, scimArrayNode) -> {
         countPrimary.set(checkForPrimary(jsonNode, schemaAttribute, countPrimary.get()));
-        handleComplexNode(jsonNode, schemaAttribute).ifPresent(returnedAttribute -> {
+        handleComplexNode(jsonNode, step).ifPresent(returnedAttribute -> {
           JsonHelper.addAttributeToArray(scimArrayNode, returnedAttribute);
         });
       });
@@ -841,7 +1209,7 @@ public class SchemaValidator
     else
     {
       return handleMultivaluedNode(document, schemaAttribute, (jsonNode, scimArrayNode) -> {
-        JsonNode attribute = handleSimpleNode(jsonNode, schemaAttribute);
+        JsonNode attribute = handleSimpleNode(jsonNode, step);
         JsonHelper.addAttributeToArray(scimArrayNode, attribute);
       });
     }
@@ -911,64 +1279,58 @@ public class SchemaValidator
    * handles a simple json node with a primitive value
    *
    * @param document the document that should be validated
-   * @param schemaAttribute the meta information of the attribute
+   * @param step the compiled meta information of the attribute
    * @return the attribute if present in the document or an empty else
    */
-  private Optional<JsonNode> handleNode(JsonNode document, SchemaAttribute schemaAttribute)
+  private Optional<JsonNode> handleNode(JsonNode document, ValidationPlan.AttributeStep step)
   {
-    if (Type.COMPLEX.equals(schemaAttribute.getType()))
+    if (step.getSubAttributePlan() != null)
     {
-      return handleComplexNode(document, schemaAttribute);
+      return handleComplexNode(document, step);
     }
     else
     {
-      return Optional.of(handleSimpleNode(document, schemaAttribute));
+      return Optional.of(handleSimpleNode(document, step));
     }
   }
 
   /**
    * handles a complex json node type. A complex node type has its own meta-attribute array and is itself a full
    * fleshed json document so this method will initiate a recursive call to
-   * {@link #validateDocument(Schema, JsonNode)} to do its work
+   * {@link #validateAttributes(ValidationPlan, JsonNode, SchemaAttribute)} to do its work
    *
    * @param document the document complex node to validate
-   * @param schemaAttribute the meta information of the attribute
+   * @param step the compiled meta information of the attribute
    * @return the attribute if present in the document or an empty else
    */
-  private Optional<JsonNode> handleComplexNode(JsonNode document, SchemaAttribute schemaAttribute)
+  private Optional<JsonNode> handleComplexNode(JsonNode document, ValidationPlan.AttributeStep step)
   {
-    validateIsRequired(document, schemaAttribute);
-    List<SchemaAttribute> metaSubAttributes = schemaAttribute.getSubAttributes();
-    return Optional.ofNullable(validateAttributes(metaSubAttributes, document, schemaAttribute));
+    validateIsRequired(document, step);
+    return Optional.ofNullable(validateAttributes(step.getSubAttributePlan(), document, step.getAttribute()));
   }
 
   /**
    * the handling of a simple json node with a primitive type
    *
    * @param simpleDocumentNode the simple value node that should be validated
-   * @param schemaAttribute the meta information of the attribute
+   * @param step the compiled meta information of the attribute
    * @return the attribute as a {@link JsonNode} that implements the interface {@link ScimNode} in its
    *         corresponding node type
    */
-  private JsonNode handleSimpleNode(JsonNode simpleDocumentNode, SchemaAttribute schemaAttribute)
+  private JsonNode handleSimpleNode(JsonNode simpleDocumentNode, ValidationPlan.AttributeStep step)
   {
-    checkCanonicalValues(schemaAttribute, simpleDocumentNode);
+    SchemaAttribute schemaAttribute = step.getAttribute();
+    checkCanonicalValues(step, simpleDocumentNode);
+    isNodeOfExpectedType(step, simpleDocumentNode);
     Type type = schemaAttribute.getType();
     switch (type)
     {
       case STRING:
-        isNodeOfExpectedType(schemaAttribute,
-                             simpleDocumentNode,
-                             jsonNode -> jsonNode.isTextual() || jsonNode.isObject());
         return new ScimTextNode(schemaAttribute, simpleDocumentNode.isTextual() ? simpleDocumentNode.textValue()
           : simpleDocumentNode.toString());
       case BOOLEAN:
-        isNodeOfExpectedType(schemaAttribute, simpleDocumentNode, JsonNode::isBoolean);
         return new ScimBooleanNode(schemaAttribute, simpleDocumentNode.booleanValue());
       case INTEGER:
-        isNodeOfExpectedType(schemaAttribute,
-                             simpleDocumentNode,
-                             jsonNode -> jsonNode.isInt() || jsonNode.isLong() || jsonNode.isBigDecimal());
         if (simpleDocumentNode.intValue() == simpleDocumentNode.longValue())
         {
           return new ScimIntNode(schemaAttribute, simpleDocumentNode.intValue());
@@ -978,18 +1340,12 @@ public class SchemaValidator
           return new ScimLongNode(schemaAttribute, simpleDocumentNode.intValue());
         }
       case DECIMAL:
-        isNodeOfExpectedType(schemaAttribute,
-                             simpleDocumentNode,
-                             jsonNode -> jsonNode.isInt() || jsonNode.isLong() || jsonNode.isFloat()
-                                         || jsonNode.isDouble() || jsonNode.isBigDecimal());
         return new ScimDoubleNode(schemaAttribute, simpleDocumentNode.doubleValue());
       case DATE_TIME:
-        isNodeOfExpectedType(schemaAttribute, simpleDocumentNode, JsonNode::isTextual);
         parseDateTime(simpleDocumentNode.textValue());
         return new ScimTextNode(schemaAttribute, simpleDocumentNode.textValue());
       default:
-        isNodeOfExpectedType(schemaAttribute, simpleDocumentNode, JsonNode::isTextual);
-        validateValueNodeWithReferenceTypes(schemaAttribute, simpleDocumentNode);
+        validateValueNodeWithReferenceTypes(step, simpleDocumentNode);
         return new ScimTextNode(schemaAttribute, simpleDocumentNode.textValue());
     }
   }
@@ -999,61 +1355,48 @@ public class SchemaValidator
    * present within the document.
    *
    * @param document the document that should contain the attribute
-   * @param schemaAttribute the meta information of the attribute
+   * @param step the compiled meta information of the attribute
    */
-  private void validateIsRequired(JsonNode document, SchemaAttribute schemaAttribute)
+  private void validateIsRequired(JsonNode document, ValidationPlan.AttributeStep step)
   {
-    if (!schemaAttribute.isRequired())
+    if (!step.isRequiredIfMissing() || document != null && !document.isNull())
     {
       return;
     }
     if (DirectionType.REQUEST.equals(directionType))
     {
-      validateIsRequiredForRequest(document, schemaAttribute);
+      throwRequiredForRequest(step.getAttribute());
     }
     else
     {
-      validateIsRequiredForResponse(document, schemaAttribute);
+      throwRequiredForResponse(step.getAttribute());
     }
   }
 
   /**
-   * checks if the attribute is required in a request
+   * reports a required attribute that is missing in a request. Whether the attribute is required for the
+   * current http method was already resolved by the {@link ValidationPlan}
    *
-   * @param document the document that should contain the attribute
    * @param schemaAttribute the meta information of the attribute
    */
-  private void validateIsRequiredForRequest(JsonNode document, SchemaAttribute schemaAttribute)
+  private void throwRequiredForRequest(SchemaAttribute schemaAttribute)
   {
-    boolean isNodeNull = document == null || document.isNull();
-    Supplier<String> errorMessage = () -> "the attribute '" + schemaAttribute.getFullResourceName() + "' is required "
-                                          + (httpMethod == null ? "" : "for http method '" + httpMethod + "' ")
-                                          + "\n\tmutability: '" + schemaAttribute.getMutability() + "'"
-                                          + "\n\treturned: '" + schemaAttribute.getReturned() + "'";
-    if ((Mutability.READ_WRITE.equals(schemaAttribute.getMutability())
-         || Mutability.WRITE_ONLY.equals(schemaAttribute.getMutability()))
-        && isNodeNull)
-    {
-      throw new DocumentValidationException(errorMessage.get(), null, getHttpStatus(), ScimType.Custom.REQUIRED);
-    }
-    else if (Mutability.IMMUTABLE.equals(schemaAttribute.getMutability()) && HttpMethod.POST.equals(httpMethod)
-             && isNodeNull)
-    {
-      throw new DocumentValidationException(errorMessage.get(), null, getHttpStatus(), ScimType.Custom.REQUIRED);
-    }
+    String errorMessage = "the attribute '" + schemaAttribute.getFullResourceName() + "' is required "
+                          + (httpMethod == null ? "" : "for http method '" + httpMethod + "' ") + "\n\tmutability: '"
+                          + schemaAttribute.getMutability() + "'" + "\n\treturned: '" + schemaAttribute.getReturned()
+                          + "'";
+    throw getException(errorMessage, ScimType.Custom.REQUIRED);
   }
 
   /**
-   * checks if the attribute is required in a response
+   * reports a required attribute that is missing in a response
    *
-   * @param document the document that should contain the attribute
    * @param schemaAttribute the meta information of the attribute
    */
-  private void validateIsRequiredForResponse(JsonNode document, SchemaAttribute schemaAttribute)
+  private void throwRequiredForResponse(SchemaAttribute schemaAttribute)
   {
-    boolean isNodeNull = document == null || document.isNull();
     // @formatter:off
-    Supplier<String> errorMessage = () -> String.format("the attribute '%s' is required on response." +
+    String errorMessage = String.format("the attribute '%s' is required on response." +
                                                           "\n\t\tname: '%s'" +
                                                           "\n\t\ttype: '%s'" +
                                                           "\n\t\tdescription: '%s'" +
@@ -1074,10 +1417,7 @@ public class SchemaValidator
                                                         schemaAttribute.isRequired(),
                                                         schemaAttribute.isCaseExact());
     // @formatter:on
-    if (isNodeNull && !Mutability.WRITE_ONLY.equals(schemaAttribute.getMutability()))
-    {
-      throw getException(errorMessage.get(), null);
-    }
+    throw getException(errorMessage, null);
   }
 
   /**
@@ -1130,6 +1470,11 @@ public class SchemaValidator
    */
   private void validateNonPresentAttributesForResponse(SchemaAttribute schemaAttribute)
   {
+    if (!log.isDebugEnabled())
+    {
+      // the projection lookup below is not necessary for each missing attribute of each resource
+      return;
+    }
     final String scimNodeName = schemaAttribute.getScimNodeName();
     if (Returned.ALWAYS.equals(schemaAttribute.getReturned()))
     {
@@ -1140,7 +1485,7 @@ public class SchemaValidator
     }
     else if ((Returned.REQUEST.equals(schemaAttribute.getReturned())
               || Returned.DEFAULT.equals(schemaAttribute.getReturned()))
-             && attributes.stream().anyMatch(s -> StringUtils.equalsIgnoreCase(s, scimNodeName)))
+             && projection.isRequested(schemaAttribute))
     {
       log.debug("the attribute '{}' was requested by the client but it is not present within the document. "
                 + "Maybe the value has not been set on the resource?",
@@ -1149,142 +1494,79 @@ public class SchemaValidator
   }
 
   /**
-   * checks if an attribute must be removed from the current document
+   * logs that an attribute is removed from the current document. Read-only attributes are removed from requests
+   * and attributes that are never returned are removed from responses
    *
    * @param schemaAttribute the schema meta definition that holds the necessary information
-   * @return true if the attribute should be kept in the response, false if the attribute should be removed
    */
-  private boolean validatePresentAttributes(SchemaAttribute schemaAttribute)
-  {
-    if (DirectionType.RESPONSE.equals(directionType))
-    {
-      return validatePresentAttributesForResponse(schemaAttribute);
-    }
-    else if (DirectionType.REQUEST.equals(directionType))
-    {
-      return validatePresentAttributesForRequest(schemaAttribute);
-    }
-    // in case for schema validation. in this case the directionType will be null
-    return true;
-  }
-
-  private boolean validatePresentAttributesForRequest(SchemaAttribute schemaAttribute)
+  private void logRemovedAttribute(SchemaAttribute schemaAttribute)
   {
-    if (Mutability.READ_ONLY.equals(schemaAttribute.getMutability()))
+    if (DirectionType.REQUEST.equals(directionType))
     {
       log.debug("removed attribute '{}' from request since it has a mutability of {}",
                 schemaAttribute.getFullResourceName(),
                 schemaAttribute.getMutability());
-      return false;
     }
-    return true;
+    else
+    {
+      log.warn("attribute '{}' was present on the response document but has a returned value of '{}'. Attribute is "
+               + "being removed from response document",
+               schemaAttribute.getFullResourceName(),
+               schemaAttribute.getReturned());
+    }
   }
 
   /**
-   * checks if an attribute must be removed from the response document
+   * checks if an attribute is part of the projection that was requested with the "attributes" and
+   * "excludedAttributes" parameters. Attributes that are not projected are neither validated nor returned
    *
-   * @param schemaAttribute the schema meta definition that holds the necessary information
-   * @return true if the attribute should be kept in the response, false if the attribute should be removed
+   * @param step the compiled schema meta definition that holds the necessary information
+   * @return true if the attribute must be validated, false if the attribute should be skipped
    */
-  private boolean validatePresentAttributesForResponse(SchemaAttribute schemaAttribute)
+  private boolean isProjected(ValidationPlan.AttributeStep step)
   {
-    if (Returned.ALWAYS.equals(schemaAttribute.getReturned()))
+    if (step.isAlwaysProjected())
     {
       return true;
     }
-    if (!excludedAttributes.isEmpty() && isExcludedParameterPresent(schemaAttribute))
+    SchemaAttribute schemaAttribute = step.getAttribute();
+    if (projection.isExcludedAttributesPresent() && projection.isExcluded(step))
     {
       return false;
     }
-    if (Returned.NEVER.equals(schemaAttribute.getReturned()))
+    if (Returned.DEFAULT.equals(schemaAttribute.getReturned()) && projection.isAttributesPresent()
+        && !projection.isRequested(step) && !isAttributePresentInRequest(step))
     {
-      log.warn("attribute '{}' was present on the response document but has a returned value of '{}'. Attribute is "
-               + "being removed from response document",
-               schemaAttribute.getFullResourceName(),
-               schemaAttribute.getReturned());
-      return false;
-    }
-    if (Returned.DEFAULT.equals(schemaAttribute.getReturned()) && !attributes.isEmpty()
-        && isAttributeMissingInAttributeParameter(schemaAttribute) && !isAttributePresentInRequest(schemaAttribute))
-    {
-      log.trace("removing attribute '{}' from response for its returned value is '{}' and its name is not in the list"
-                + " of requested attributes: {}",
+      log.trace("skipping attribute '{}' for its returned value is '{}' and its name is not in the list of requested"
+                + " attributes",
                 schemaAttribute.getFullResourceName(),
-                schemaAttribute.getReturned(),
-                attributes);
+                schemaAttribute.getReturned());
       return false;
     }
-    if (Returned.REQUEST.equals(schemaAttribute.getReturned())
-        && isAttributeMissingInAttributeParameter(schemaAttribute) && !isAttributePresentInRequest(schemaAttribute))
+    if (Returned.REQUEST.equals(schemaAttribute.getReturned()) && !projection.isRequested(step)
+        && !isAttributePresentInRequest(step))
     {
-      log.trace("removing attribute '{}' from response for its returned value is '{}' and its name is not in the list"
-                + " of requested attributes: {}",
+      log.trace("skipping attribute '{}' for its returned value is '{}' and its name is not in the list of requested"
+                + " attributes",
                 schemaAttribute.getFullResourceName(),
-                schemaAttribute.getReturned(),
-                attributes);
+                schemaAttribute.getReturned());
       return false;
     }
     return true;
   }
 
-  /**
-   * will check if the given attribute is set in the excludedAttributes parameter list
-   *
-   * @param schemaAttribute the attribute to check if it is excluded
-   * @return true if the attribute should be excluded, false else
-   */
-  private boolean isExcludedParameterPresent(SchemaAttribute schemaAttribute)
-  {
-    final String shortName = schemaAttribute.getScimNodeName();
-    final String fullName = schemaAttribute.getResourceUri() + ":" + shortName;
-    // this will check if the full name is matching any parameter in the attributes parameter list or
-    // if this attribute to check is a subnode of the attributes defined in the attributes parameter list
-    boolean anyFullNameMatch = excludedAttributes.stream()
-                                                 .anyMatch(param -> StringUtils.equalsIgnoreCase(fullName, param)
-                                                                    || StringUtils.equalsIgnoreCase(shortName, param)
-                                                                    || StringUtils.equalsIgnoreCase(param,
-                                                                                                    schemaAttribute.getResourceUri()));
-    return anyFullNameMatch;
-  }
-
-  /**
-   * checks if the given attribute name is missing within the attributes parameter
-   *
-   * @param schemaAttribute the schema attribute definition of the parameter
-   * @return false if the attribute is present within the attributes parameter, true else
-   */
-  private boolean isAttributeMissingInAttributeParameter(SchemaAttribute schemaAttribute)
-  {
-    final String shortName = schemaAttribute.getScimNodeName();
-    final String fullName = schemaAttribute.getResourceUri() + ":" + shortName;
-    // this will check if the full name is matching any parameter in the attributes parameter list or
-    // if this attribute to check is a subnode of the attributes defined in the attributes parameter list
-    boolean anyNameMatch = attributes.stream()
-                                     .anyMatch(param -> StringUtils.equalsIgnoreCase(fullName, param)
-                                                        || StringUtils.equalsIgnoreCase(shortName, param)
-                                                        || (StringUtils.startsWithIgnoreCase(fullName, param)
-                                                            && StringUtils.endsWithIgnoreCase(fullName,
-                                                                                              "." + schemaAttribute.getName()))
-                                                        || StringUtils.startsWithIgnoreCase(shortName, param + ".")
-                                                        || StringUtils.startsWith(param, fullName + ".")
-                                                        || StringUtils.startsWithIgnoreCase(param, shortName + ".")
-                                                        || StringUtils.equalsIgnoreCase(param,
-                                                                                        schemaAttribute.getResourceUri()));
-    return !anyNameMatch;
-  }
-
   /**
    * this method will check if the given attribute was present in the request document.<br>
    * <b>NOTE:</b>:<br>
    * this type of validation is ignored for multivalued complex types because this might lead to drastic
    * performance issues under specific circumstances
    *
-   * @param schemaAttribute the meta definition of the attribute
+   * @param step the compiled meta definition of the attribute
    * @return true if the attribute was present within the response, false else
    */
-  private boolean isAttributePresentInRequest(SchemaAttribute schemaAttribute)
+  private boolean isAttributePresentInRequest(ValidationPlan.AttributeStep step)
   {
-    String[] scimNodeParts = schemaAttribute.getScimNodeName().split("\\.");
+    String[] scimNodeParts = step.getScimNodeNameSegments();
     if (validatedRequest == null)
     {
       return false;
@@ -1316,19 +1598,15 @@ public class SchemaValidator
    * will verify that the current value node does define one of the canonical values of the attribute definition
    * if some are defined
    *
-   * @param attributeDefinition the attribute definition from the meta schema
+   * @param step the compiled attribute definition from the meta schema
    * @param valueNode the value that matches to this definition
    */
-  private void checkCanonicalValues(SchemaAttribute attributeDefinition, JsonNode valueNode)
+  private void checkCanonicalValues(ValidationPlan.AttributeStep step, JsonNode valueNode)
   {
-    if (attributeDefinition.getCanonicalValues().isEmpty())
-    {
-      // all values are valid
-      return;
-    }
     final String value = valueNode.textValue();
-    if (attributeDefinition.getCanonicalValues().stream().noneMatch(s -> StringUtils.equalsIgnoreCase(s, value)))
+    if (!step.isCanonicalValue(value))
     {
+      SchemaAttribute attributeDefinition = step.getAttribute();
       final String errorMessage = "attribute with name '" + attributeDefinition.getName()
                                   + "' does not have one of the " + "canonicalValues: '"
                                   + attributeDefinition.getCanonicalValues() + "' actual value is: '" + value + "'";
@@ -1337,21 +1615,22 @@ public class SchemaValidator
   }
 
   /**
-   * checks if the given node is of the expected type
+   * checks if the given node is of the expected type with the type checker of the compiled attribute
    *
-   * @param attributeDefinition the meta attribute definition
+   * @param step the compiled meta attribute definition
    * @param valueNode the current value node that should be checked
-   * @param isOfType the check that will validate if the node has the expected type
    */
-  private void isNodeOfExpectedType(SchemaAttribute attributeDefinition,
-                                    JsonNode valueNode,
-                                    Function<JsonNode, Boolean> isOfType)
+  private void isNodeOfExpectedType(ValidationPlan.AttributeStep step, JsonNode valueNode)
   {
-    Type type = attributeDefinition.getType();
+    if (step.getTypeChecker().test(valueNode))
+    {
+      return;
+    }
+    SchemaAttribute attributeDefinition = step.getAttribute();
     final String errorMessage = "value of field with name '" + attributeDefinition.getFullResourceName()
-                                + "' is not of type '" + type.getValue() + "' but of type: "
+                                + "' is not of type '" + attributeDefinition.getType().getValue() + "' but of type: "
                                 + StringUtils.lowerCase(valueNode.getNodeType().toString());
-    checkAttributeValidity(isOfType.apply(valueNode), errorMessage);
+    throw getException(errorMessage, null);
   }
 
   /**
@@ -1373,53 +1652,38 @@ public class SchemaValidator
    */
   private void parseDateTime(String textValue)
   {
-    try
-    {
-      TimeUtils.parseDateTime(textValue);
-    }
-    catch (InvalidDateTimeRepresentationException ex)
+    if (!TimeUtils.isDateTime(textValue))
     {
-      throw new DocumentValidationException("given value is not a valid dateTime: " + textValue, null, getHttpStatus(),
-                                            null);
+      throw getException("given value is not a valid dateTime: " + textValue, null);
     }
   }
 
   /**
    * validates a simple value node against the valid resource types defined in the meta schema
    *
-   * @param attributeDefinition the meta attribute definition
+   * @param step the compiled meta attribute definition
    * @param valueNode the value node
    */
-  private void validateValueNodeWithReferenceTypes(SchemaAttribute attributeDefinition, JsonNode valueNode)
+  private void validateValueNodeWithReferenceTypes(ValidationPlan.AttributeStep step, JsonNode valueNode)
   {
-    boolean isValidReferenceType = false;
-    for ( ReferenceTypes referenceType : attributeDefinition.getReferenceTypes() )
-    {
-      switch (referenceType)
-      {
-        case RESOURCE:
-        case URI:
-          isValidReferenceType = parseUri(valueNode.textValue());
-          break;
-        default:
-          isValidReferenceType = true;
-      }
-      if (isValidReferenceType)
-      {
-        break;
-      }
-    }
+    boolean isValidReferenceType = step.isAnyReferenceAccepted()
+                                   || step.isUriReferenceAccepted() && parseUri(valueNode.textValue());
     checkAttributeValidity(isValidReferenceType,
                            "given value is not a valid reference type: " + valueNode.textValue()
                                                  + ": was expected to be of one of the following types: "
-                                                 + attributeDefinition.getReferenceTypes());
+                                                 + step.getAttribute().getReferenceTypes());
   }
 
   /**
-   * tries to parse the given text into a URI
+   * tries to parse the given text into a URI. Values with characters that are never allowed within a URI are
+   * rejected before the parser is called because the parser reports them with an exception
    */
   private boolean parseUri(String textValue)
   {
+    if (textValue == null || hasIllegalUriCharacter(textValue))
+    {
+      return false;
+    }
     try
     {
       new URI(textValue);
@@ -1432,6 +1696,23 @@ public class SchemaValidator
     }
   }
 
+  /**
+   * checks if the given text contains a whitespace, a control character or one of the characters that must
+   * always be escaped within a URI
+   */
+  private static boolean hasIllegalUriCharacter(String textValue)
+  {
+    for ( int i = 0 ; i < textValue.length() ; i++ )
+    {
+      char c = textValue.charAt(i);
+      if (c <= ' ' || Character.isISOControl(c) || Character.isSpaceChar(c) || "\"<>\\^`{|}".indexOf(c) != -1)
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * this method will verify that the meta schema is the correct schema to validate the document. This is done
    * by comparing the "id"-attribute of the metaSchema with the "schemas"-attribute of the document
@@ -1446,13 +1727,15 @@ public class SchemaValidator
     final String schemasAttribute = AttributeNames.RFC7643.SCHEMAS;
     final String documentNoSchemasMessage = "document does not have a '" + schemasAttribute + "'-attribute";
     List<String> documentSchemas = JsonHelper.getSimpleAttributeArray(document, schemasAttribute)
-                                             .orElseThrow(() -> getException(documentNoSchemasMessage, null));
+                                             .orElseThrow(() -> new DocumentValidationException(documentNoSchemasMessage,
+                                                                                                null, getHttpStatus(),
+                                                                                                null));
     if (!documentSchemas.contains(metaSchemaId))
     {
       final String errorMessage = "document can not be validated against meta-schema with id '" + metaSchemaId
                                   + "' for id is missing in the '" + schemasAttribute + "'-list. The given document "
                                   + "can only be validated against the following schemas: " + documentSchemas;
-      throw getException(errorMessage, null);
+      throw new DocumentValidationException(errorMessage, null, getHttpStatus(), null);
     }
     log.trace("meta schema with id {} does apply to document with schemas '{}'", metaSchemaId, documentSchemas);
     ScimArrayNode schemasNode = new ScimArrayNode(null);
@@ -1461,15 +1744,44 @@ public class SchemaValidator
   }
 
   /**
-   * builds an exception
+   * reports an invalid attribute. Without a {@link ValidationResult} the returned exception aborts the
+   * validation. The stack trace is only filled in for response validations since an invalid request is the
+   * fault of the client and not of the application. With a {@link ValidationResult} the error is recorded and
+   * the returned signal makes the validation skip the current attribute or stop if the maximum number of errors
+   * is reached
    *
    * @param errorMessage the error message of the exception
-   * @param cause the cause of this exception, may be null
-   * @return a document validation exception
+   * @param scimType the scim type of the error, may be null
+   * @return the exception to throw
    */
-  private DocumentValidationException getException(String errorMessage, Exception cause)
+  private RuntimeException getException(String errorMessage, String scimType)
   {
-    return new DocumentValidationException(errorMessage, cause, getHttpStatus(), null);
+    if (validationResult == null)
+    {
+      return new DocumentValidationException(errorMessage, getHttpStatus(), scimType,
+                                             !DirectionType.REQUEST.equals(directionType));
+    }
+    validationResult.addError(errorMessage, scimType);
+    return validationResult.isFull() ? ValidationAborted.INSTANCE : AttributeRejected.INSTANCE;
+  }
+
+  /**
+   * records the given exception within the {@link ValidationResult} or rethrows it if errors are not collected
+   *
+   * @param ex an exception of a validation that is not done by this class e.g. by the
+   *          {@link AttributeValidator}
+   */
+  private void recordException(ScimException ex)
+  {
+    if (validationResult == null)
+    {
+      throw ex;
+    }
+    validationResult.addError(ex.getMessage(), ex.getScimType());
+    if (validationResult.isFull())
+    {
+      throw ValidationAborted.INSTANCE;
+    }
   }
 
   /**
@@ -1503,4 +1815,34 @@ public class SchemaValidator
       this.httpStatus = httpStatus;
     }
   }
+
+  /**
+   * tells the validation that an attribute was rejected and that its error was already recorded within the
+   * {@link ValidationResult}. The signal has no stack trace and is shared since it never leaves this class
+   */
+  private static final class AttributeRejected extends RuntimeException
+  {
+
+    private static final AttributeRejected INSTANCE = new AttributeRejected();
+
+    private AttributeRejected()
+    {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * tells the validation that the maximum number of errors of the {@link ValidationResult} is reached and that
+   * the remaining attributes should not be validated anymore
+   */
+  private static final class ValidationAborted extends RuntimeException
+  {
+
+    private static final ValidationAborted INSTANCE = new ValidationAborted();
+
+    private ValidationAborted()
+    {
+      super(null, null, false, false);
+    }
+  }
 }
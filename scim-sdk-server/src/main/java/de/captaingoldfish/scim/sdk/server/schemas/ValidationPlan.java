@@ -0,0 +1,254 @@
+package de.captaingoldfish.scim.sdk.server.schemas;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.HttpMethod;
+import de.captaingoldfish.scim.sdk.common.constants.enums.Mutability;
+import de.captaingoldfish.scim.sdk.common.constants.enums.ReferenceTypes;
+import de.captaingoldfish.scim.sdk.common.constants.enums.Returned;
+import de.captaingoldfish.scim.sdk.common.constants.enums.Type;
+import de.captaingoldfish.scim.sdk.common.schemas.Schema;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 11:05 <br>
+ * <br>
+ * the compiled form of a {@link Schema} for a single validation direction. The {@link SchemaValidator} would
+ * otherwise decide for each attribute of each validated document again if the attribute is required, if it
+ * must be removed due to its mutability or returned value, which canonical values and reference types it
+ * accepts and how its type is checked. All these decisions depend only on the schema, the direction and the
+ * http method of the request and are therefore resolved once into an array of {@link AttributeStep}s. <br>
+ * <br>
+ * The plans are cached by the {@link ResourceType} and are recompiled if the attributes of the schema were
+ * changed
+ */
+public class ValidationPlan
+{
+
+  /**
+   * the attribute list from which this plan was compiled. Used to detect changes on the schema
+   */
+  private final List<SchemaAttribute> source;
+
+  /**
+   * the compiled steps in the order of the attribute definitions
+   */
+  @Getter
+  private final AttributeStep[] steps;
+
+  private ValidationPlan(List<SchemaAttribute> source,
+                         SchemaValidator.DirectionType directionType,
+                         HttpMethod httpMethod)
+  {
+    this.source = source;
+    this.steps = new AttributeStep[source.size()];
+    for ( int i = 0 ; i < steps.length ; i++ )
+    {
+      steps[i] = new AttributeStep(source.get(i), directionType, httpMethod);
+    }
+  }
+
+  /**
+   * compiles the attributes of the given schema into a validation plan
+   *
+   * @param schema the schema to compile
+   * @param directionType the direction of the validation or null if a schema definition is validated
+   * @param httpMethod the http method of the request or null for responses
+   * @return the compiled validation plan
+   */
+  public static ValidationPlan compile(Schema schema,
+                                       SchemaValidator.DirectionType directionType,
+                                       HttpMethod httpMethod)
+  {
+    return new ValidationPlan(schema.getAttributes(), directionType, httpMethod);
+  }
+
+  /**
+   * @return true if this plan was compiled from the current attributes of the given schema
+   */
+  public boolean isCompiledFrom(Schema schema)
+  {
+    return source == schema.getAttributes();
+  }
+
+  /**
+   * the pre-resolved validation decisions of a single attribute
+   */
+  @Getter
+  public static class AttributeStep
+  {
+
+    /**
+     * the attribute definition
+     */
+    private final SchemaAttribute attribute;
+
+    /**
+     * the segments of the scim node name e.g. "name" and "givenName" used to find the attribute within a document
+     */
+    private final String[] scimNodeNameSegments;
+
+    /**
+     * the lowercase segments of the scim node name used to match the "attributes" and "excludedAttributes"
+     * parameters
+     */
+    private final String[] lowerCaseNameSegments;
+
+    /**
+     * the lowercase resource uri of the attribute or null
+     */
+    private final String lowerCaseResourceUri;
+
+    /**
+     * attributes with a returned value of {@link Returned#ALWAYS} are part of every projection
+     */
+    private final boolean alwaysProjected;
+
+    /**
+     * if the validation must fail if the attribute is missing in the document
+     */
+    private final boolean requiredIfMissing;
+
+    /**
+     * if the attribute must be removed from the document if present. This applies to {@link Mutability#READ_ONLY}
+     * attributes in requests and to {@link Returned#NEVER} attributes in responses
+     */
+    private final boolean removedIfPresent;
+
+    /**
+     * if a missing $ref value should be created from the value and type of the resource reference
+     */
+    private final boolean resourceReferenceResolvable;
+
+    /**
+     * the canonical values of the attribute compared case insensitive. Empty if all values are accepted
+     */
+    private final Set<String> canonicalValues;
+
+    /**
+     * checks if a simple value node has the type of the attribute
+     */
+    private final Predicate<JsonNode> typeChecker;
+
+    /**
+     * if the attribute accepts any reference value e.g. because it has the reference type
+     * {@link ReferenceTypes#EXTERNAL}
+     */
+    private final boolean anyReferenceAccepted;
+
+    /**
+     * if the attribute accepts reference values that are parseable as uri
+     */
+    private final boolean uriReferenceAccepted;
+
+    /**
+     * the compiled sub attributes of a complex attribute or null
+     */
+    private final ValidationPlan subAttributePlan;
+
+    private AttributeStep(SchemaAttribute attribute, SchemaValidator.DirectionType directionType, HttpMethod httpMethod)
+    {
+      this.attribute = attribute;
+      this.scimNodeNameSegments = attribute.getScimNodeName().split("\\.");
+      this.lowerCaseNameSegments = attribute.getScimNodeName().toLowerCase().split("\\.");
+      this.lowerCaseResourceUri = StringUtils.lowerCase(attribute.getResourceUri());
+      this.alwaysProjected = Returned.ALWAYS.equals(attribute.getReturned());
+      this.requiredIfMissing = attribute.isRequired() && isRequiredIfMissing(attribute, directionType, httpMethod);
+      this.removedIfPresent = isRemovedIfPresent(attribute, directionType);
+      this.resourceReferenceResolvable = SchemaValidator.DirectionType.RESPONSE.equals(directionType)
+                                         && attribute.getReferenceTypes().contains(ReferenceTypes.RESOURCE);
+      if (attribute.getCanonicalValues().isEmpty())
+      {
+        this.canonicalValues = Collections.emptySet();
+      }
+      else
+      {
+        Set<String> values = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        values.addAll(attribute.getCanonicalValues());
+        this.canonicalValues = Collections.unmodifiableSet(values);
+      }
+      this.typeChecker = getTypeChecker(attribute.getType());
+      this.anyReferenceAccepted = attribute.getReferenceTypes().stream().anyMatch(referenceType -> {
+        return !ReferenceTypes.RESOURCE.equals(referenceType) && !ReferenceTypes.URI.equals(referenceType);
+      });
+      this.uriReferenceAccepted = attribute.getReferenceTypes().contains(ReferenceTypes.RESOURCE)
+                                  || attribute.getReferenceTypes().contains(ReferenceTypes.URI);
+      this.subAttributePlan = Type.COMPLEX.equals(attribute.getType())
+        ? new ValidationPlan(attribute.getSubAttributes(), directionType, httpMethod) : null;
+    }
+
+    /**
+     * in requests read-write and write-only attributes are always required and immutable attributes only on POST.
+     * In responses all attributes except write-only attributes are required
+     */
+    private static boolean isRequiredIfMissing(SchemaAttribute attribute,
+                                               SchemaValidator.DirectionType directionType,
+                                               HttpMethod httpMethod)
+    {
+      Mutability mutability = attribute.getMutability();
+      if (SchemaValidator.DirectionType.REQUEST.equals(directionType))
+      {
+        return Mutability.READ_WRITE.equals(mutability) || Mutability.WRITE_ONLY.equals(mutability)
+               || Mutability.IMMUTABLE.equals(mutability) && HttpMethod.POST.equals(httpMethod);
+      }
+      return !Mutability.WRITE_ONLY.equals(mutability);
+    }
+
+    /**
+     * read-only attributes are removed from requests and attributes that are never returned are removed from
+     * responses. Schema definitions are validated without removing any attributes
+     */
+    private static boolean isRemovedIfPresent(SchemaAttribute attribute, SchemaValidator.DirectionType directionType)
+    {
+      if (SchemaValidator.DirectionType.REQUEST.equals(directionType))
+      {
+        return Mutability.READ_ONLY.equals(attribute.getMutability());
+      }
+      if (SchemaValidator.DirectionType.RESPONSE.equals(directionType))
+      {
+        return Returned.NEVER.equals(attribute.getReturned());
+      }
+      return false;
+    }
+
+    /**
+     * resolves the check for the json node types that are accepted by the given attribute type
+     */
+    private static Predicate<JsonNode> getTypeChecker(Type type)
+    {
+      switch (type)
+      {
+        case STRING:
+          return jsonNode -> jsonNode.isTextual() || jsonNode.isObject();
+        case BOOLEAN:
+          return JsonNode::isBoolean;
+        case INTEGER:
+          return jsonNode -> jsonNode.isInt() || jsonNode.isLong() || jsonNode.isBigDecimal();
+        case DECIMAL:
+          return jsonNode -> jsonNode.isInt() || jsonNode.isLong() || jsonNode.isFloat() || jsonNode.isDouble()
+                             || jsonNode.isBigDecimal();
+        default:
+          return JsonNode::isTextual;
+      }
+    }
+
+    /**
+     * checks if the given value is one of the canonical values of the attribute
+     */
+    public boolean isCanonicalValue(String value)
+    {
+      return canonicalValues.isEmpty() || value != null && canonicalValues.contains(value);
+    }
+  }
+}
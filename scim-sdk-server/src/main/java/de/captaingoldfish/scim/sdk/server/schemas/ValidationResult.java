@@ -0,0 +1,119 @@
+package de.captaingoldfish.scim.sdk.server.schemas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.captaingoldfish.scim.sdk.common.exceptions.DocumentValidationException;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 13:20 <br>
+ * <br>
+ * collects the errors of a schema validation instead of aborting the validation with an exception on the
+ * first error. The {@link SchemaValidator} leaves out the invalid attributes, goes on with the remaining
+ * attributes and stops as soon as the maximum number of errors is reached. So clients learn about all errors
+ * of a request at once and invalid requests do not cost the creation of an exception with a stack trace per
+ * attribute
+ */
+public class ValidationResult
+{
+
+  /**
+   * the maximum number of errors if all errors should be collected
+   */
+  public static final int UNLIMITED = Integer.MAX_VALUE;
+
+  /**
+   * the maximum number of errors that are collected before the validation is stopped
+   */
+  @Getter
+  private final int maxErrors;
+
+  /**
+   * the collected error messages
+   */
+  private final List<String> errors = new ArrayList<>();
+
+  /**
+   * the scim type of the first error that defines one
+   */
+  @Getter
+  private String scimType;
+
+  public ValidationResult()
+  {
+    this(UNLIMITED);
+  }
+
+  /**
+   * @param maxErrors the maximum number of errors that are collected before the validation is stopped
+   */
+  public ValidationResult(int maxErrors)
+  {
+    if (maxErrors < 1)
+    {
+      throw new IllegalArgumentException("the maximum number of errors must be greater than 0 but was: " + maxErrors);
+    }
+    this.maxErrors = maxErrors;
+  }
+
+  /**
+   * records an error
+   *
+   * @param errorMessage the error message
+   * @param scimType the scim type of the error or null
+   */
+  public void addError(String errorMessage, String scimType)
+  {
+    if (isFull())
+    {
+      return;
+    }
+    errors.add(errorMessage);
+    if (this.scimType == null)
+    {
+      this.scimType = scimType;
+    }
+  }
+
+  /**
+   * @return true if no error was recorded
+   */
+  public boolean isValid()
+  {
+    return errors.isEmpty();
+  }
+
+  /**
+   * @return true if the maximum number of errors is reached and the validation should be stopped
+   */
+  public boolean isFull()
+  {
+    return errors.size() >= maxErrors;
+  }
+
+  /**
+   * @return the recorded error messages in the order of their detection
+   */
+  public List<String> getErrors()
+  {
+    return Collections.unmodifiableList(errors);
+  }
+
+  /**
+   * creates the exception that reports all recorded errors to the client. The stack trace of the exception is
+   * not filled in since it would only point to the validation itself
+   *
+   * @param httpStatus the http status of the error response
+   * @return the exception with the recorded errors
+   */
+  public DocumentValidationException toException(int httpStatus)
+  {
+    String message = errors.size() == 1 ? errors.get(0)
+      : "the document contains " + errors.size() + " errors:\n" + String.join("\n", errors);
+    return new DocumentValidationException(message, httpStatus, scimType, false);
+  }
+}
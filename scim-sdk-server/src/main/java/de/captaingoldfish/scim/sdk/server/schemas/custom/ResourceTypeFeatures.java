@@ -1,5 +1,6 @@
 package de.captaingoldfish.scim.sdk.server.schemas.custom;
 
+import java.util.List;
 import java.util.Optional;
 
 import de.captaingoldfish.scim.sdk.common.constants.AttributeNames;
@@ -23,7 +24,10 @@ public class ResourceTypeFeatures extends ScimObjectNode
                               boolean singletonEndpoint,
                               EndpointControlFeature endpointControlFeature,
                               ResourceTypeAuthorization authorization,
-                              ETagFeature eTagFeature)
+                              ETagFeature eTagFeature,
+                              List<String> indexedAttributes,
+                              List<String> ngramIndexedAttributes,
+                              List<String> sortedAttributes)
   {
     super(null);
     setAutoFiltering(autoFiltering);
@@ -32,6 +36,9 @@ public class ResourceTypeFeatures extends ScimObjectNode
     setEndpointControlFeature(endpointControlFeature);
     setAuthorization(authorization);
     setETagFeature(eTagFeature);
+    setIndexedAttributes(indexedAttributes);
+    setNgramIndexedAttributes(ngramIndexedAttributes);
+    setSortedAttributes(sortedAttributes);
   }
 
   /**
@@ -114,6 +121,66 @@ public class ResourceTypeFeatures extends ScimObjectNode
     setAttribute(AttributeNames.Custom.AUTO_SORTING, autoSorting);
   }
 
+  /**
+   * the names of the attributes that should be indexed if the resources of this type are kept within an
+   * {@link de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore}. The indexes are used for
+   * automatic filtering
+   */
+  public List<String> getIndexedAttributes()
+  {
+    return getSimpleArrayAttribute(AttributeNames.Custom.INDEXED_ATTRIBUTES);
+  }
+
+  /**
+   * the names of the attributes that should be indexed if the resources of this type are kept within an
+   * {@link de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore}. The indexes are used for
+   * automatic filtering
+   */
+  public void setIndexedAttributes(List<String> indexedAttributes)
+  {
+    setStringAttributeList(AttributeNames.Custom.INDEXED_ATTRIBUTES, indexedAttributes);
+  }
+
+  /**
+   * the names of the string attributes that should get a trigram index if the resources of this type are kept
+   * within an {@link de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore}. The trigram index
+   * is used for "co", "sw" and "ew" filters
+   */
+  public List<String> getNgramIndexedAttributes()
+  {
+    return getSimpleArrayAttribute(AttributeNames.Custom.NGRAM_INDEXED_ATTRIBUTES);
+  }
+
+  /**
+   * the names of the string attributes that should get a trigram index if the resources of this type are kept
+   * within an {@link de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore}. The trigram index
+   * is used for "co", "sw" and "ew" filters
+   */
+  public void setNgramIndexedAttributes(List<String> ngramIndexedAttributes)
+  {
+    setStringAttributeList(AttributeNames.Custom.NGRAM_INDEXED_ATTRIBUTES, ngramIndexedAttributes);
+  }
+
+  /**
+   * the names of the attributes that should get an incrementally maintained sorted view if the resources of
+   * this type are kept within an {@link de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore}.
+   * Unfiltered list requests that are sorted by one of these attributes are paged directly from the view
+   */
+  public List<String> getSortedAttributes()
+  {
+    return getSimpleArrayAttribute(AttributeNames.Custom.SORTED_ATTRIBUTES);
+  }
+
+  /**
+   * the names of the attributes that should get an incrementally maintained sorted view if the resources of
+   * this type are kept within an {@link de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore}.
+   * Unfiltered list requests that are sorted by one of these attributes are paged directly from the view
+   */
+  public void setSortedAttributes(List<String> sortedAttributes)
+  {
+    setStringAttributeList(AttributeNames.Custom.SORTED_ATTRIBUTES, sortedAttributes);
+  }
+
   /**
    * if the current resource type is disabled
    */
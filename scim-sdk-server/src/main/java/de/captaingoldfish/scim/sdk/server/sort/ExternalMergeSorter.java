@@ -0,0 +1,319 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 04:40 <br>
+ * <br>
+ * sorts an arbitrary number of resources with a bounded amount of memory. The resources are collected in a
+ * buffer and as soon as the buffer reaches the run size it is sorted and written as a sorted run into a
+ * temporary file with one json document per line. When the page is requested the runs are merged with a k-way
+ * merge that only keeps the current resource of each run in memory. The resources are stored in the same
+ * order as the {@link ResourceNodeComparator} would sort them. Resources with equal sort values keep the
+ * order in which they were added. If the buffer never overflows the resources are sorted in memory without
+ * touching the file system. <br>
+ * <br>
+ * The temporary files are deleted when the sorter is closed
+ */
+@Slf4j
+public class ExternalMergeSorter<T extends ResourceNode> implements AutoCloseable
+{
+
+  /**
+   * used to write and read the resources of the runs
+   */
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  /**
+   * the attribute that defines the order
+   */
+  private final SchemaAttribute sortBy;
+
+  /**
+   * the ordering direction
+   */
+  private final SortOrder sortOrder;
+
+  /**
+   * the maximum number of resources that are kept in memory before they are written into a sorted run
+   */
+  private final int runSize;
+
+  /**
+   * sorts the buffer before it is written into a run
+   */
+  private final ExecutionPolicy executionPolicy;
+
+  /**
+   * the resources that were not yet written into a run
+   */
+  private List<T> buffer = new ArrayList<>();
+
+  /**
+   * the temporary files that contain the sorted runs
+   */
+  private final List<Path> runs = new ArrayList<>();
+
+  /**
+   * the type of the added resources. Needed to read the resources of the runs
+   */
+  private Class<T> resourceType;
+
+  /**
+   * the total number of added resources
+   */
+  @Getter
+  private long size;
+
+  /**
+   * @param sortBy the attribute that defines the order
+   * @param sortOrder the ordering direction
+   * @param runSize the maximum number of resources that are kept in memory before they are written into a
+   *          temporary file
+   * @param executionPolicy sorts the buffered resources
+   */
+  public ExternalMergeSorter(SchemaAttribute sortBy, SortOrder sortOrder, int runSize, ExecutionPolicy executionPolicy)
+  {
+    if (runSize < 1)
+    {
+      throw new IllegalArgumentException("the run size must be greater than 0 but was: " + runSize);
+    }
+    this.sortBy = sortBy;
+    this.sortOrder = sortOrder;
+    this.runSize = runSize;
+    this.executionPolicy = executionPolicy;
+  }
+
+  /**
+   * adds the given resource. The buffered resources are written into a sorted run if the buffer is full
+   *
+   * @param resource the resource to add
+   */
+  public void add(T resource)
+  {
+    if (resourceType == null)
+    {
+      resourceType = (Class<T>)resource.getClass();
+    }
+    buffer.add(resource);
+    size++;
+    if (buffer.size() >= runSize)
+    {
+      writeRun();
+    }
+  }
+
+  /**
+   * @return the number of sorted runs that were written into temporary files
+   */
+  public int getNumberOfRuns()
+  {
+    return runs.size();
+  }
+
+  /**
+   * reads a page of the sorted resources
+   *
+   * @param startIndex the one based index of the first resource of the page
+   * @param count the maximum number of resources of the page
+   * @return the resources of the page in sorted order
+   */
+  public List<T> getPage(long startIndex, int count)
+  {
+    long fromIndex = Math.max(0, startIndex - 1);
+    if (runs.isEmpty())
+    {
+      List<T> sorted = PrecomputedKeySorter.sort(buffer, sortBy, sortOrder, executionPolicy, fromIndex + count);
+      int toIndex = (int)Math.min(sorted.size(), fromIndex + count);
+      return fromIndex >= toIndex ? new ArrayList<>() : new ArrayList<>(sorted.subList((int)fromIndex, toIndex));
+    }
+    if (!buffer.isEmpty())
+    {
+      writeRun();
+    }
+    return mergeRuns(fromIndex, count);
+  }
+
+  /**
+   * merges the sorted runs and collects the resources of the requested page
+   */
+  private List<T> mergeRuns(long fromIndex, int count)
+  {
+    boolean ascending = SortOrder.ASCENDING.equals(sortOrder);
+    PriorityQueue<RunReader> queue = new PriorityQueue<>(runs.size(), (reader1, reader2) -> {
+      int result = SortKey.compare(reader1.currentKey, reader2.currentKey, ascending);
+      // equal resources of earlier runs were added first
+      return result == 0 ? Integer.compare(reader1.runIndex, reader2.runIndex) : result;
+    });
+    List<RunReader> readers = new ArrayList<>(runs.size());
+    try
+    {
+      for ( int i = 0 ; i < runs.size() ; i++ )
+      {
+        RunReader reader = new RunReader(i, Files.newBufferedReader(runs.get(i), StandardCharsets.UTF_8));
+        readers.add(reader);
+        if (reader.next())
+        {
+          queue.add(reader);
+        }
+      }
+      List<T> page = new ArrayList<>(Math.min(count, 1024));
+      long position = 0;
+      while (!queue.isEmpty() && page.size() < count)
+      {
+        RunReader reader = queue.poll();
+        if (position >= fromIndex)
+        {
+          page.add(reader.current);
+        }
+        position++;
+        if (reader.next())
+        {
+          queue.add(reader);
+        }
+      }
+      return page;
+    }
+    catch (IOException ex)
+    {
+      throw new InternalServerException("the sorted runs of the resources could not be read", ex, null);
+    }
+    finally
+    {
+      readers.forEach(RunReader::close);
+    }
+  }
+
+  /**
+   * sorts the buffered resources and writes them into a new temporary file
+   */
+  private void writeRun()
+  {
+    List<T> sorted = PrecomputedKeySorter.sort(buffer, sortBy, sortOrder, executionPolicy, buffer.size());
+    buffer = new ArrayList<>();
+    try
+    {
+      Path run = Files.createTempFile("scim-sort-", ".run");
+      runs.add(run);
+      try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8))
+      {
+        for ( T resource : sorted )
+        {
+          // line breaks within string values are escaped so each resource is written into a single line
+          writer.write(OBJECT_MAPPER.writeValueAsString(resource));
+          writer.newLine();
+        }
+      }
+    }
+    catch (IOException ex)
+    {
+      throw new InternalServerException("the sorted run of the resources could not be written", ex, null);
+    }
+  }
+
+  /**
+   * deletes the temporary files of the sorted runs
+   */
+  @Override
+  public void close()
+  {
+    for ( Path run : runs )
+    {
+      try
+      {
+        Files.deleteIfExists(run);
+      }
+      catch (IOException ex)
+      {
+        log.warn("the temporary file '{}' could not be deleted", run, ex);
+      }
+    }
+    runs.clear();
+    buffer = new ArrayList<>();
+  }
+
+  /**
+   * reads the resources of a single sorted run
+   */
+  private final class RunReader
+  {
+
+    /**
+     * the position of the run. Used to keep the order of equal resources
+     */
+    private final int runIndex;
+
+    /**
+     * the reader of the temporary file
+     */
+    private final BufferedReader reader;
+
+    /**
+     * the resource that was read last
+     */
+    private T current;
+
+    /**
+     * the sort key of the current resource
+     */
+    private SortKey currentKey;
+
+    public RunReader(int runIndex, BufferedReader reader)
+    {
+      this.runIndex = runIndex;
+      this.reader = reader;
+    }
+
+    /**
+     * reads the next resource of the run
+     *
+     * @return false if the run is exhausted
+     */
+    private boolean next() throws IOException
+    {
+      String line = reader.readLine();
+      if (line == null)
+      {
+        current = null;
+        currentKey = null;
+        return false;
+      }
+      current = JsonHelper.copyResourceToObject(OBJECT_MAPPER.readTree(line), resourceType);
+      currentKey = SortKey.of(current, sortBy);
+      return true;
+    }
+
+    private void close()
+    {
+      try
+      {
+        reader.close();
+      }
+      catch (IOException ex)
+      {
+        log.debug("the reader of a sorted run could not be closed", ex);
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 02:55 <br>
+ * <br>
+ * sorts resources in the same order as the {@link ResourceNodeComparator} but extracts the sort key of each
+ * resource only once. The {@link ResourceNodeComparator} extracts the sorting attribute of both resources in
+ * each comparison and parses dateTime values or compares strings case insensitive again and again. This
+ * sorter decorates each resource with its precomputed {@link SortKey}, sorts the decorated entries with cheap
+ * comparisons of the keys and returns the resources in the new order
+ */
+public final class PrecomputedKeySorter
+{
+
+  private PrecomputedKeySorter()
+  {}
+
+  /**
+   * sorts the given resources by the given attribute
+   *
+   * @param resources the resources to sort. The list is not modified
+   * @param sortBy the attribute that defines the order
+   * @param sortOrder the ordering direction
+   * @param executionPolicy decides how the decorated entries are sorted
+   * @param limit the number of resources of the sorted list that are needed by the caller
+   * @return a new sorted list that contains at least the first {@code limit} resources of the sorted list
+   */
+  public static <T extends ResourceNode> List<T> sort(List<T> resources,
+                                                      SchemaAttribute sortBy,
+                                                      SortOrder sortOrder,
+                                                      ExecutionPolicy executionPolicy,
+                                                      long limit)
+  {
+    List<SortEntry<T>> entries = new ArrayList<>(resources.size());
+    for ( T resource : resources )
+    {
+      entries.add(new SortEntry<>(resource, sortBy));
+    }
+    boolean ascending = SortOrder.ASCENDING.equals(sortOrder);
+    List<SortEntry<T>> sortedEntries = executionPolicy.sort(entries,
+                                                            (entry1, entry2) -> SortKey.compare(entry1.key,
+                                                                                                entry2.key,
+                                                                                                ascending),
+                                                            limit);
+    List<T> sortedResources = new ArrayList<>(sortedEntries.size());
+    for ( SortEntry<T> entry : sortedEntries )
+    {
+      sortedResources.add(entry.resource);
+    }
+    return sortedResources;
+  }
+
+  /**
+   * a resource together with its precomputed sort key
+   */
+  private static final class SortEntry<T extends ResourceNode>
+  {
+
+    /**
+     * the decorated resource
+     */
+    private final T resource;
+
+    /**
+     * the precomputed key of the resource
+     */
+    private final SortKey key;
+
+    public SortEntry(T resource, SchemaAttribute sortBy)
+    {
+      this.resource = resource;
+      this.key = SortKey.of(resource, sortBy);
+    }
+  }
+}
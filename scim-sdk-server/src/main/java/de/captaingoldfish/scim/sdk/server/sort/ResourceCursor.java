@@ -0,0 +1,181 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 05:40 <br>
+ * <br>
+ * the decoded position of a cursor based list request. The cursor points behind the last resource of the
+ * previous page and consists of the value of the sorting attribute and the id of this resource. Resources are
+ * ordered by the value of the sorting attribute in the requested direction, resources without a value come
+ * last, and resources with equal values are ordered by their ids. So the next page simply consists of the
+ * resources that follow the cursor in this order and no resources have to be skipped. Resources that are
+ * created or deleted between two pages do not shift the following pages. The cursor is bound to the filter of
+ * the request that issued it so that it cannot be replayed against another query
+ */
+@Getter
+@AllArgsConstructor
+public class ResourceCursor
+{
+
+  /**
+   * the name of the resource type the cursor was issued for
+   */
+  private final String resourceType;
+
+  /**
+   * the full name of the sorting attribute or null if the resources are only ordered by their ids
+   */
+  private final String sortBy;
+
+  /**
+   * the sort direction
+   */
+  private final SortOrder sortOrder;
+
+  /**
+   * the fingerprint of the filter of the request that issued the cursor or null if the request had no filter
+   */
+  private final String filterHash;
+
+  /**
+   * the value of the sorting attribute of the last resource of the previous page. Null if the resource had no
+   * value or if the resources are only ordered by their ids
+   */
+  private final JsonNode sortValue;
+
+  /**
+   * the id of the last resource of the previous page
+   */
+  private final String id;
+
+  /**
+   * creates the cursor that points behind the given resource
+   *
+   * @param resourceType the name of the resource type
+   * @param resource the last resource of the current page
+   * @param filter the filter of the current request or null
+   * @param sortBy the sorting attribute or null
+   * @param sortOrder the sort direction
+   * @return the cursor of the next page
+   * @throws InternalServerException if the resource has no id. The id is the tiebreaker of the cursor order so
+   *           a resource without an id cannot mark the position of a page
+   */
+  public static ResourceCursor after(String resourceType,
+                                     ResourceNode resource,
+                                     FilterNode filter,
+                                     SchemaAttribute sortBy,
+                                     SortOrder sortOrder)
+  {
+    String id = resource.getId()
+                        .orElseThrow(() -> new InternalServerException("cannot create a cursor after a resource "
+                                                                       + "without an id"));
+    return new ResourceCursor(resourceType, sortBy == null ? null : sortBy.getFullResourceName(),
+                              getSortOrder(sortOrder), getFilterHash(filter),
+                              sortBy == null ? null : resource.getSortingAttribute(sortBy).orElse(null), id);
+  }
+
+  /**
+   * checks if this cursor was issued for a request with the given resource type, filter and sorting
+   */
+  public boolean matches(String resourceType, FilterNode filter, SchemaAttribute sortBy, SortOrder sortOrder)
+  {
+    return Objects.equals(this.resourceType, resourceType)
+           && Objects.equals(this.sortBy, sortBy == null ? null : sortBy.getFullResourceName())
+           && this.sortOrder == getSortOrder(sortOrder) && Objects.equals(this.filterHash, getFilterHash(filter));
+  }
+
+  /**
+   * creates the fingerprint of the given filter. The fingerprint is a hash of the normalized string
+   * representation of the parsed filter so that different notations of the same expression are treated equally
+   * and the cursor does not grow with the size of the filter
+   *
+   * @param filter the filter of a request or null
+   * @return the fingerprint of the filter or null if the filter is null
+   */
+  public static String getFilterHash(FilterNode filter)
+  {
+    if (filter == null)
+    {
+      return null;
+    }
+    try
+    {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = messageDigest.digest(filter.toString().getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+    catch (NoSuchAlgorithmException ex)
+    {
+      throw new InternalServerException("the fingerprint of the filter could not be created", ex, null);
+    }
+  }
+
+  /**
+   * compares the given resource with the position of this cursor
+   *
+   * @param resource the resource to compare
+   * @param sortBy the sorting attribute or null
+   * @return true if the resource follows this cursor in the order of the cursor
+   */
+  public boolean follows(ResourceNode resource, SchemaAttribute sortBy)
+  {
+    if (sortBy != null)
+    {
+      int result = SortKey.compare(SortKey.of(resource, sortBy),
+                                   SortKey.ofValue(sortValue, sortBy),
+                                   SortOrder.ASCENDING.equals(getSortOrder(sortOrder)));
+      if (result != 0)
+      {
+        return result > 0;
+      }
+    }
+    return resource.getId().orElse("").compareTo(id) > 0;
+  }
+
+  /**
+   * the order in which cursor based requests return the resources
+   *
+   * @param sortBy the sorting attribute or null if the resources are only ordered by their ids
+   * @param sortOrder the sort direction
+   * @return a comparator that orders by the sorting attribute first and by the ids second
+   */
+  public static Comparator<ResourceNode> getKeysetOrder(SchemaAttribute sortBy, SortOrder sortOrder)
+  {
+    Comparator<ResourceNode> idOrder = Comparator.comparing(resource -> resource.getId().orElse(""));
+    if (sortBy == null)
+    {
+      return idOrder;
+    }
+    boolean ascending = SortOrder.ASCENDING.equals(getSortOrder(sortOrder));
+    Comparator<ResourceNode> valueOrder = (resource1, resource2) -> {
+      return SortKey.compare(SortKey.of(resource1, sortBy), SortKey.of(resource2, sortBy), ascending);
+    };
+    return valueOrder.thenComparing(idOrder);
+  }
+
+  /**
+   * the order of cursor based requests. A missing sort order is treated as ascending
+   */
+  private static SortOrder getSortOrder(SortOrder sortOrder)
+  {
+    return sortOrder == null ? SortOrder.ASCENDING : sortOrder;
+  }
+}
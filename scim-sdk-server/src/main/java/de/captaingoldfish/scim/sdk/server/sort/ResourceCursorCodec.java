@@ -0,0 +1,184 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ScimType;
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.exceptions.BadRequestException;
+import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 05:55 <br>
+ * <br>
+ * encodes {@link ResourceCursor}s into opaque strings that are handed out to the clients and decodes them
+ * again. The cursor is serialized as json, base64url encoded and signed with a HMAC-SHA256 so that clients
+ * cannot forge cursors that point to arbitrary positions. <br>
+ * <br>
+ * The default constructor creates a random key that is only known by this instance. If the SCIM server runs
+ * on several nodes behind a load balancer all nodes must be configured with the same key
+ */
+public class ResourceCursorCodec
+{
+
+  /**
+   * the algorithm of the signature
+   */
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  /**
+   * reads and writes the json representation of the cursors
+   */
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final String RESOURCE_TYPE = "rt";
+
+  private static final String SORT_BY = "sb";
+
+  private static final String SORT_ORDER = "so";
+
+  private static final String SORT_VALUE = "sv";
+
+  private static final String FILTER_HASH = "fh";
+
+  private static final String ID = "id";
+
+  /**
+   * the key of the signature
+   */
+  private final SecretKeySpec signingKey;
+
+  /**
+   * creates a codec with a random key
+   */
+  public ResourceCursorCodec()
+  {
+    this(createRandomKey());
+  }
+
+  /**
+   * @param signingKey the key that is used to sign the cursors. Should be at least 32 bytes long
+   */
+  public ResourceCursorCodec(byte[] signingKey)
+  {
+    if (signingKey == null || signingKey.length == 0)
+    {
+      throw new IllegalArgumentException("the key to sign the cursors must not be empty");
+    }
+    this.signingKey = new SecretKeySpec(signingKey.clone(), HMAC_ALGORITHM);
+  }
+
+  private static byte[] createRandomKey()
+  {
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    return key;
+  }
+
+  /**
+   * encodes the given cursor into a signed opaque string
+   *
+   * @param cursor the cursor to encode
+   * @return the signed cursor
+   */
+  public String encode(ResourceCursor cursor)
+  {
+    ObjectNode cursorNode = OBJECT_MAPPER.createObjectNode();
+    cursorNode.put(RESOURCE_TYPE, cursor.getResourceType());
+    cursorNode.put(SORT_BY, cursor.getSortBy());
+    cursorNode.put(SORT_ORDER, cursor.getSortOrder().name());
+    cursorNode.put(FILTER_HASH, cursor.getFilterHash());
+    cursorNode.set(SORT_VALUE, cursor.getSortValue());
+    cursorNode.put(ID, cursor.getId());
+    String payload;
+    try
+    {
+      payload = Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(cursorNode));
+    }
+    catch (IOException ex)
+    {
+      throw new InternalServerException("the cursor could not be serialized", ex, null);
+    }
+    return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(payload));
+  }
+
+  /**
+   * verifies the signature of the given cursor and decodes it
+   *
+   * @param cursor the cursor that was sent by the client
+   * @return the decoded cursor
+   * @throws BadRequestException if the cursor is malformed or its signature is invalid
+   */
+  public ResourceCursor decode(String cursor)
+  {
+    int separator = cursor.lastIndexOf('.');
+    if (separator < 0)
+    {
+      throw new BadRequestException("the cursor '" + cursor + "' is malformed", ScimType.Custom.INVALID_CURSOR);
+    }
+    String payload = cursor.substring(0, separator);
+    try
+    {
+      byte[] signature = Base64.getUrlDecoder().decode(cursor.substring(separator + 1));
+      if (!MessageDigest.isEqual(sign(payload), signature))
+      {
+        throw new BadRequestException("the cursor '" + cursor + "' was not issued by this server",
+                                      ScimType.Custom.INVALID_CURSOR);
+      }
+      JsonNode cursorNode = OBJECT_MAPPER.readTree(Base64.getUrlDecoder().decode(payload));
+      String sortOrder = getText(cursorNode, SORT_ORDER);
+      String id = getText(cursorNode, ID);
+      if (sortOrder == null || id == null)
+      {
+        throw new BadRequestException("the cursor '" + cursor + "' is malformed", ScimType.Custom.INVALID_CURSOR);
+      }
+      JsonNode sortValue = cursorNode.get(SORT_VALUE);
+      return new ResourceCursor(getText(cursorNode, RESOURCE_TYPE), getText(cursorNode, SORT_BY),
+                                SortOrder.valueOf(sortOrder), getText(cursorNode, FILTER_HASH),
+                                sortValue == null || sortValue.isNull() ? null : sortValue, id);
+    }
+    catch (IllegalArgumentException | IOException ex)
+    {
+      throw new BadRequestException("the cursor '" + cursor + "' is malformed", ex, ScimType.Custom.INVALID_CURSOR);
+    }
+  }
+
+  /**
+   * reads an optional text attribute of the cursor
+   */
+  private static String getText(JsonNode cursorNode, String attributeName)
+  {
+    JsonNode attribute = cursorNode.get(attributeName);
+    return attribute == null || attribute.isNull() ? null : attribute.textValue();
+  }
+
+  /**
+   * creates the signature of the given payload
+   */
+  private byte[] sign(String payload)
+  {
+    try
+    {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(signingKey);
+      return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+    catch (GeneralSecurityException ex)
+    {
+      throw new InternalServerException("the cursor could not be signed", ex, null);
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.TimeUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 03:30 <br>
+ * <br>
+ * the precomputed value of the sorting attribute of a single resource. The key is extracted once with
+ * {@link ResourceNode#getSortingAttribute(SchemaAttribute)} and holds epoch millis for dateTime values, the
+ * number for numeric values and the case folded string for case insensitive strings so that comparing two
+ * keys results in the same order as the {@link ResourceNodeComparator} without extracting or parsing the
+ * attribute again
+ */
+public final class SortKey
+{
+
+  /**
+   * the type of the sorting attribute
+   */
+  private final KeyType keyType;
+
+  /**
+   * if the resource has a value for the sort attribute
+   */
+  private final boolean present;
+
+  /**
+   * the key of integer and dateTime attributes
+   */
+  private final long numberKey;
+
+  /**
+   * the key of decimal attributes
+   */
+  private final double decimalKey;
+
+  /**
+   * the key of string, boolean and reference attributes. Folded if the attribute is not case exact
+   */
+  private final String stringKey;
+
+  private SortKey(KeyType keyType, boolean present, long numberKey, double decimalKey, String stringKey)
+  {
+    this.keyType = keyType;
+    this.present = present;
+    this.numberKey = numberKey;
+    this.decimalKey = decimalKey;
+    this.stringKey = stringKey;
+  }
+
+  /**
+   * extracts the sort key of the given resource
+   *
+   * @param resource the resource to extract the key from
+   * @param sortBy the attribute that defines the order
+   * @return the sort key of the resource
+   */
+  public static SortKey of(ResourceNode resource, SchemaAttribute sortBy)
+  {
+    return ofValue(resource.getSortingAttribute(sortBy).orElse(null), sortBy);
+  }
+
+  /**
+   * creates the sort key of the given value of the sorting attribute
+   *
+   * @param attribute the value of the sorting attribute or null if the resource has no value
+   * @param sortBy the attribute that defines the order
+   * @return the sort key of the value
+   */
+  public static SortKey ofValue(JsonNode attribute, SchemaAttribute sortBy)
+  {
+    KeyType keyType = KeyType.of(sortBy);
+    if (attribute == null || attribute.isNull())
+    {
+      return new SortKey(keyType, false, 0, 0, null);
+    }
+    switch (sortBy.getType())
+    {
+      case DATE_TIME:
+        return new SortKey(keyType, true, TimeUtils.parseDateTime(attribute.textValue()).toEpochMilli(), 0, null);
+      case INTEGER:
+        return new SortKey(keyType, true, attribute.longValue(), 0, null);
+      case DECIMAL:
+        return new SortKey(keyType, true, 0, attribute.doubleValue(), null);
+      default:
+        String value = sortBy.isCaseExact() ? attribute.asText() : foldCase(attribute.asText());
+        return new SortKey(keyType, true, 0, 0, value);
+    }
+  }
+
+  /**
+   * @return true if the resource has a value for the sort attribute
+   */
+  public boolean isPresent()
+  {
+    return present;
+  }
+
+  /**
+   * compares the values of two present keys in ascending order. The keys must have been extracted for the same
+   * attribute
+   *
+   * @param other the other key
+   * @return a negative number, zero or a positive number if this key is less than, equal to or greater than the
+   *         other key
+   */
+  public int compareValueTo(SortKey other)
+  {
+    switch (keyType)
+    {
+      case NUMBER:
+        return Long.compare(numberKey, other.numberKey);
+      case DECIMAL:
+        return decimalKey == other.decimalKey ? 0 : (decimalKey < other.decimalKey ? -1 : 1);
+      default:
+        return stringKey.compareTo(other.stringKey);
+    }
+  }
+
+  /**
+   * compares two keys in the given direction. Keys without a value are always sorted to the end regardless of
+   * the direction just like the {@link ResourceNodeComparator} does it
+   *
+   * @param key1 the first key
+   * @param key2 the second key
+   * @param ascending the sort direction
+   * @return the comparison result
+   */
+  public static int compare(SortKey key1, SortKey key2, boolean ascending)
+  {
+    if (!key1.present || !key2.present)
+    {
+      return key1.present == key2.present ? 0 : (key1.present ? -1 : 1);
+    }
+    int result = key1.compareValueTo(key2);
+    return ascending ? result : -result;
+  }
+
+  /**
+   * folds the given string so that a case sensitive comparison of the folded strings results in the same order
+   * as {@link String#compareToIgnoreCase(String)} on the original strings
+   */
+  private static String foldCase(String value)
+  {
+    char[] chars = value.toCharArray();
+    for ( int i = 0 ; i < chars.length ; i++ )
+    {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  /**
+   * the field of the key that is compared
+   */
+  private enum KeyType
+  {
+
+    NUMBER, DECIMAL, STRING;
+
+    private static KeyType of(SchemaAttribute sortBy)
+    {
+      switch (sortBy.getType())
+      {
+        case DATE_TIME:
+        case INTEGER:
+          return NUMBER;
+        case DECIMAL:
+          return DECIMAL;
+        default:
+          return STRING;
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 02:05 <br>
+ * <br>
+ * selects the first k elements of a list in sorted order without sorting the whole list. The elements are
+ * pushed through a bounded heap that holds the k best elements seen so far which results in a complexity of
+ * O(n log k) instead of the O(n log n) of a full sort. This is used for paged list requests where only the
+ * elements up to the end of the requested page are needed. <br>
+ * <br>
+ * The selection is stable: elements that are equal in respect to the comparator keep the order of the input
+ * list exactly as if the list would have been sorted with {@link List#sort(Comparator)}
+ */
+public final class TopKSelector
+{
+
+  /**
+   * the input list must be at least this many times larger than k for the heap selection to be preferable over
+   * a full sort
+   */
+  public static final int MIN_SIZE_RATIO = 4;
+
+  private TopKSelector()
+  {}
+
+  /**
+   * tells us if selecting the first k elements with a bounded heap is cheaper than sorting the whole list
+   *
+   * @param size the size of the list
+   * @param k the number of elements that are needed
+   * @return true if {@link #selectTopK(List, int, Comparator)} should be used
+   */
+  public static boolean isPreferable(int size, long k)
+  {
+    return k >= 0 && k <= size / MIN_SIZE_RATIO;
+  }
+
+  /**
+   * selects the first k elements of the given list in sorted order
+   *
+   * @param list the list to select the elements from. The list is not modified
+   * @param k the number of elements to select
+   * @param comparator the comparator that defines the order
+   * @return a new list with the first min(k, list.size()) elements of the sorted list
+   */
+  public static <T> List<T> selectTopK(List<T> list, int k, Comparator<? super T> comparator)
+  {
+    if (k <= 0)
+    {
+      return new ArrayList<>();
+    }
+    List<T> elements = list instanceof RandomAccess ? list : new ArrayList<>(list);
+    // the head of the heap is the element that is ranked last. Equal elements are ranked by their position
+    Comparator<Integer> lastRankedFirst = (index1, index2) -> {
+      int result = comparator.compare(elements.get(index2), elements.get(index1));
+      return result != 0 ? result : Integer.compare(index2, index1);
+    };
+    PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(k, elements.size()) + 1, lastRankedFirst);
+    for ( int i = 0 ; i < elements.size() ; i++ )
+    {
+      if (heap.size() < k)
+      {
+        heap.add(i);
+      }
+      // the current element comes after all elements of the heap if it is equal to the last ranked element
+      else if (comparator.compare(elements.get(i), elements.get(heap.peek())) < 0)
+      {
+        heap.poll();
+        heap.add(i);
+      }
+    }
+    Object[] selected = new Object[heap.size()];
+    for ( int i = selected.length - 1 ; i >= 0 ; i-- )
+    {
+      selected[i] = elements.get(heap.poll());
+    }
+    return new ArrayList<>((List<T>)Arrays.asList(selected));
+  }
+}
@@ -0,0 +1,351 @@
+package de.captaingoldfish.scim.sdk.server.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
+import de.captaingoldfish.scim.sdk.server.sort.TopKSelector;
+import lombok.Builder;
+import lombok.Getter;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 19:30 <br>
+ * <br>
+ * decides how the automatic filtering and sorting of a resource list is executed. Lists that are smaller than
+ * the {@link #getParallelThreshold()} are processed sequentially because the overhead of splitting the work
+ * is higher than its benefit. Larger lists are processed by parallel streams that are run within a dedicated
+ * {@link ForkJoinPool} so that the common pool of the JVM, which might be shared with unrelated work of the
+ * application server, is not used. <br>
+ * <br>
+ * Sorted resource streams of a {@link de.captaingoldfish.scim.sdk.server.response.PartialStreamResponse} are
+ * kept in memory until the {@link #getExternalSortThreshold()} is exceeded. Beyond this threshold sorted runs
+ * are written into temporary files and merged while the page is read so that the memory usage does not grow
+ * with the number of resources. <br>
+ * <br>
+ * The meta data, versions and response validation of the resources of a list response are computed
+ * sequentially by default. Setting a {@link #getResponseValidationThreshold()} enables the parallel
+ * computation for pages with at least this number of resources. The order of the resources is kept. The
+ * response validation is counted separately from the filtering and sorting and may be given its own pool so
+ * that it does not compete with the filtering and sorting of other requests. <br>
+ * <br>
+ * An execution policy can be set on each {@link de.captaingoldfish.scim.sdk.server.schemas.ResourceType}. The
+ * policies that were not given an own pool share a single lazily created pool
+ */
+public class ExecutionPolicy
+{
+
+  /**
+   * the default number of resources from which the resources are processed in parallel
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 2000;
+
+  /**
+   * the default number of streamed resources from which the sorting spills sorted runs into temporary files
+   */
+  public static final int DEFAULT_EXTERNAL_SORT_THRESHOLD = 100_000;
+
+  /**
+   * the default number of listed resources from which the resources are validated in parallel. The parallel
+   * validation is disabled by default
+   */
+  public static final int DEFAULT_RESPONSE_VALIDATION_THRESHOLD = Integer.MAX_VALUE;
+
+  /**
+   * the policy that is used if no policy was configured
+   */
+  public static final ExecutionPolicy DEFAULT = ExecutionPolicy.builder().build();
+
+  /**
+   * the minimum number of resources from which the resources are processed in parallel
+   */
+  @Getter
+  private final int parallelThreshold;
+
+  /**
+   * the maximum number of streamed resources that are sorted in memory. Larger streams are sorted in runs of
+   * this size that are written into temporary files
+   */
+  @Getter
+  private final int externalSortThreshold;
+
+  /**
+   * the minimum number of resources of a list response from which the resources are validated in parallel
+   */
+  @Getter
+  private final int responseValidationThreshold;
+
+  /**
+   * the pool that executes the parallel streams of this policy. Null if the shared pool should be used
+   */
+  private final ForkJoinPool forkJoinPool;
+
+  /**
+   * the pool that executes the parallel response validation of this policy. Null if the pool of the filtering
+   * and sorting should be used
+   */
+  private final ForkJoinPool responseValidationPool;
+
+  /**
+   * counts how often lists were processed sequentially
+   */
+  private final LongAdder sequentialExecutions = new LongAdder();
+
+  /**
+   * counts how often lists were processed in parallel
+   */
+  private final LongAdder parallelExecutions = new LongAdder();
+
+  /**
+   * counts how often only the first elements of a list were selected instead of sorting the whole list
+   */
+  private final LongAdder topKExecutions = new LongAdder();
+
+  /**
+   * counts how often the resources of a list response were validated sequentially
+   */
+  private final LongAdder sequentialResponseValidations = new LongAdder();
+
+  /**
+   * counts how often the resources of a list response were validated in parallel
+   */
+  private final LongAdder parallelResponseValidations = new LongAdder();
+
+  /**
+   * @param parallelThreshold the minimum number of resources from which the resources are processed in
+   *          parallel. A value of {@link Integer#MAX_VALUE} disables the parallel processing
+   * @param forkJoinPool the pool in which the parallel streams are executed. If null a shared pool is used
+   *          whose parallelism is limited to the number of available processors
+   * @param externalSortThreshold the maximum number of streamed resources that are sorted in memory. A value of
+   *          {@link Integer#MAX_VALUE} disables the sorting with temporary files
+   * @param responseValidationThreshold the minimum number of resources of a list response from which the
+   *          resources are validated in parallel. If null the resources are always validated sequentially
+   * @param responseValidationPool the pool in which the response validation is executed in parallel. If null
+   *          the pool of the filtering and sorting is used
+   */
+  @Builder
+  public ExecutionPolicy(Integer parallelThreshold,
+                         ForkJoinPool forkJoinPool,
+                         Integer externalSortThreshold,
+                         Integer responseValidationThreshold,
+                         ForkJoinPool responseValidationPool)
+  {
+    this.parallelThreshold = Optional.ofNullable(parallelThreshold).orElse(DEFAULT_PARALLEL_THRESHOLD);
+    if (this.parallelThreshold < 1)
+    {
+      throw new IllegalArgumentException("the parallel threshold must be greater than 0 but was: "
+                                         + this.parallelThreshold);
+    }
+    this.forkJoinPool = forkJoinPool;
+    this.externalSortThreshold = Optional.ofNullable(externalSortThreshold).orElse(DEFAULT_EXTERNAL_SORT_THRESHOLD);
+    if (this.externalSortThreshold < 1)
+    {
+      throw new IllegalArgumentException("the external sort threshold must be greater than 0 but was: "
+                                         + this.externalSortThreshold);
+    }
+    this.responseValidationThreshold = Optional.ofNullable(responseValidationThreshold)
+                                               .orElse(DEFAULT_RESPONSE_VALIDATION_THRESHOLD);
+    if (this.responseValidationThreshold < 1)
+    {
+      throw new IllegalArgumentException("the response validation threshold must be greater than 0 but was: "
+                                         + this.responseValidationThreshold);
+    }
+    this.responseValidationPool = responseValidationPool;
+  }
+
+  /**
+   * filters the given list
+   *
+   * @param list the list to filter
+   * @param predicate the predicate that the elements must match
+   * @return a new list with the matching elements in the same order as in the original list
+   */
+  public <T> List<T> filter(List<T> list, Predicate<? super T> predicate)
+  {
+    if (!isParallel(list))
+    {
+      List<T> filteredList = new ArrayList<>();
+      for ( T element : list )
+      {
+        if (predicate.test(element))
+        {
+          filteredList.add(element);
+        }
+      }
+      return filteredList;
+    }
+    return executeInPool(() -> list.parallelStream().filter(predicate).collect(Collectors.toList()));
+  }
+
+  /**
+   * sorts the given list
+   *
+   * @param list the list to sort
+   * @param comparator the comparator that defines the order
+   * @return a new sorted list
+   */
+  public <T> List<T> sort(List<T> list, Comparator<? super T> comparator)
+  {
+    if (!isParallel(list))
+    {
+      List<T> sortedList = new ArrayList<>(list);
+      sortedList.sort(comparator);
+      return sortedList;
+    }
+    return executeInPool(() -> list.parallelStream().sorted(comparator).collect(Collectors.toList()));
+  }
+
+  /**
+   * sorts the given list if the caller needs only the first {@code limit} elements of the sorted list. If the
+   * limit is small compared to the size of the list the elements are selected with a bounded heap by the
+   * {@link TopKSelector} instead of sorting the whole list
+   *
+   * @param list the list to sort
+   * @param comparator the comparator that defines the order
+   * @param limit the number of elements of the sorted list that are needed by the caller
+   * @return a new sorted list that contains at least the first {@code limit} elements of the sorted list
+   */
+  public <T> List<T> sort(List<T> list, Comparator<? super T> comparator, long limit)
+  {
+    if (TopKSelector.isPreferable(list.size(), limit))
+    {
+      topKExecutions.increment();
+      return TopKSelector.selectTopK(list, (int)limit, comparator);
+    }
+    return sort(list, comparator);
+  }
+
+  /**
+   * prepares the resources of a list response by applying the given function to each of them. Pages with at
+   * least {@link #getResponseValidationThreshold()} resources are processed in parallel within the response
+   * validation pool of this policy. The function must therefore not depend on the calling thread
+   *
+   * @param resources the resources of the list response
+   * @param function the function that is applied to each resource
+   * @return the results of the function in the same order as the given resources
+   */
+  public <T, R> List<R> mapResponse(List<T> resources, Function<? super T, ? extends R> function)
+  {
+    if (resources.size() < responseValidationThreshold)
+    {
+      sequentialResponseValidations.increment();
+      List<R> results = new ArrayList<>(resources.size());
+      for ( T resource : resources )
+      {
+        results.add(function.apply(resource));
+      }
+      return results;
+    }
+    parallelResponseValidations.increment();
+    return executeInPool(Optional.ofNullable(responseValidationPool).orElse(forkJoinPool),
+                         () -> resources.parallelStream().map(function).collect(Collectors.toList()));
+  }
+
+  /**
+   * @return how often a list was processed sequentially by this policy
+   */
+  public long getSequentialExecutions()
+  {
+    return sequentialExecutions.sum();
+  }
+
+  /**
+   * @return how often a list was processed in parallel by this policy
+   */
+  public long getParallelExecutions()
+  {
+    return parallelExecutions.sum();
+  }
+
+  /**
+   * @return how often only the first elements of a list were selected instead of sorting the whole list
+   */
+  public long getTopKExecutions()
+  {
+    return topKExecutions.sum();
+  }
+
+  /**
+   * @return how often the resources of a list response were validated sequentially by this policy
+   */
+  public long getSequentialResponseValidations()
+  {
+    return sequentialResponseValidations.sum();
+  }
+
+  /**
+   * @return how often the resources of a list response were validated in parallel by this policy
+   */
+  public long getParallelResponseValidations()
+  {
+    return parallelResponseValidations.sum();
+  }
+
+  /**
+   * decides if the given list is processed in parallel and records the decision
+   */
+  private boolean isParallel(List<?> list)
+  {
+    if (list.size() < parallelThreshold)
+    {
+      sequentialExecutions.increment();
+      return false;
+    }
+    parallelExecutions.increment();
+    return true;
+  }
+
+  /**
+   * executes the given parallel stream operation within the pool of this policy. Parallel streams that are
+   * started from within a {@link ForkJoinPool} use the pool of the calling task instead of the common pool
+   */
+  private <R> R executeInPool(Callable<R> operation)
+  {
+    return executeInPool(forkJoinPool, operation);
+  }
+
+  /**
+   * executes the given parallel stream operation within the given pool or the shared pool if the given pool is
+   * null
+   */
+  private <R> R executeInPool(ForkJoinPool forkJoinPool, Callable<R> operation)
+  {
+    ForkJoinPool pool = forkJoinPool == null ? SharedPool.INSTANCE : forkJoinPool;
+    try
+    {
+      return pool.submit(operation).get();
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+      throw new InternalServerException("the processing of the resources was interrupted", ex, null);
+    }
+    catch (ExecutionException ex)
+    {
+      if (ex.getCause() instanceof RuntimeException)
+      {
+        throw (RuntimeException)ex.getCause();
+      }
+      throw new InternalServerException(ex.getCause().getMessage(), ex.getCause(), null);
+    }
+  }
+
+  /**
+   * holds the pool that is shared by all policies without an own pool. The pool is only created if it is needed
+   */
+  private static final class SharedPool
+  {
+
+    private static final ForkJoinPool INSTANCE = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+  }
+}
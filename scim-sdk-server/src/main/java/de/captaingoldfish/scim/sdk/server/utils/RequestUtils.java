@@ -124,7 +124,8 @@ public final class RequestUtils
   }
 
   /**
-   * parsed the filter of a list request
+   * parsed the filter of a list request. The parsed tree is cached within the
+   * {@link ResourceType#getFilterCache()} and shared with later calls so it must not be modified
    *
    * @param resourceType the resource type that describes the endpoint on which the filter is used so that the
    *          filter expression can be correctly resolved
@@ -138,6 +139,18 @@ public final class RequestUtils
     {
       return null;
     }
+    return resourceType.getFilterCache().get(filter, expression -> parseFilterExpression(resourceType, expression));
+  }
+
+  /**
+   * parses the given filter expression without using the cache of the resource type
+   *
+   * @param resourceType the resource type that describes the endpoint on which the filter is used
+   * @param filter the filter expression that must apply to the given resource type
+   * @return the parsed filter expression
+   */
+  private static FilterNode parseFilterExpression(ResourceType resourceType, String filter)
+  {
     FilterRuleErrorListener filterRuleErrorListener = new FilterRuleErrorListener();
     ScimFilterLexer lexer = new ScimFilterLexer(CharStreams.fromString(filter));
     lexer.removeErrorListeners();
@@ -152,7 +165,8 @@ public final class RequestUtils
   }
 
   /**
-   * parses a value path context for patch path expressions
+   * parses a value path context for patch path expressions. The parsed tree is cached within the
+   * {@link ResourceType#getPatchPathCache()} and shared with later calls so it must not be modified
    *
    * @param resourceType the resource type that describes the endpoint on which the path expression is used
    * @param path the path expression that must apply to the given resource type
@@ -165,6 +179,18 @@ public final class RequestUtils
     {
       return null;
     }
+    return resourceType.getPatchPathCache().get(path, expression -> parsePatchPathExpression(resourceType, expression));
+  }
+
+  /**
+   * parses the given patch path expression without using the cache of the resource type
+   *
+   * @param resourceType the resource type that describes the endpoint on which the path is used
+   * @param path the path expression that must apply to the given resource type
+   * @return the parsed path expression
+   */
+  private static AttributePathRoot parsePatchPathExpression(ResourceType resourceType, String path)
+  {
     FilterRuleErrorListener filterRuleErrorListener = new FilterRuleErrorListener();
     ScimFilterLexer lexer = new ScimFilterLexer(CharStreams.fromString(path));
     lexer.removeErrorListeners();
@@ -181,9 +207,7 @@ public final class RequestUtils
       throw new BadRequestException("the path expression is invalid and not supported for patch operations: '" + path
                                     + "'", null, ScimType.RFC7644.INVALID_PATH);
     }
-    AttributePathRoot attributePathRoot = (AttributePathRoot)filterNode;
-    attributePathRoot.setOriginalExpressionString(path);
-    return attributePathRoot;
+    return (AttributePathRoot)filterNode;
   }
 
   /**
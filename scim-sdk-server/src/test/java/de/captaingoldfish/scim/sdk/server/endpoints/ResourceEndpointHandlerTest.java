@@ -5,6 +5,7 @@ import java.lang.reflect.Modifier;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -12,8 +13,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -25,8 +29,12 @@ import org.junit.jupiter.api.TestFactory;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
 import de.captaingoldfish.scim.sdk.common.constants.AttributeNames;
 import de.captaingoldfish.scim.sdk.common.constants.EndpointPaths;
 import de.captaingoldfish.scim.sdk.common.constants.HttpHeader;
@@ -77,10 +85,16 @@ import de.captaingoldfish.scim.sdk.server.endpoints.handler.ResourceTypeHandler;
 import de.captaingoldfish.scim.sdk.server.endpoints.handler.ServiceProviderHandler;
 import de.captaingoldfish.scim.sdk.server.endpoints.handler.UserHandlerImpl;
 import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.index.IndexedResourceStore;
 import de.captaingoldfish.scim.sdk.server.response.PartialListResponse;
+import de.captaingoldfish.scim.sdk.server.response.PartialStreamResponse;
+import de.captaingoldfish.scim.sdk.server.response.QueryResultCache;
+import de.captaingoldfish.scim.sdk.server.schemas.AttributeProjection;
 import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
 import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
 import de.captaingoldfish.scim.sdk.server.schemas.custom.ResourceTypeFeatures;
+import de.captaingoldfish.scim.sdk.server.sort.ResourceCursor;
+import de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy;
 import de.captaingoldfish.scim.sdk.server.utils.FileReferences;
 import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -196,6 +210,161 @@ public class ResourceEndpointHandlerTest implements FileReferences
     Assertions.assertEquals(HttpStatus.NOT_FOUND, errorResponse.getHttpStatus());
   }
 
+  /**
+   * verifies that a registered in-memory store is kept up to date by the endpoint on create, update and delete
+   */
+  @Test
+  public void testIndexedResourceStoreIsMaintained()
+  {
+    final String endpoint = "/Users";
+    ResourceType resourceType = resourceTypeFactory.getResourceType(endpoint);
+    resourceType.getFeatures().setNgramIndexedAttributes(Arrays.asList("userName"));
+    IndexedResourceStore<User> resourceStore = new IndexedResourceStore<>(resourceType);
+    resourceType.setIndexedResourceStore(resourceStore);
+
+    User createdUser = createUser(endpoint);
+    String userId = createdUser.getId().get();
+    Assertions.assertTrue(resourceStore.get(userId).isPresent());
+    String userName = createdUser.getUserName().get();
+    FilterNode filterNode = RequestUtils.parseFilter(resourceType, "userName co \"" + userName.substring(1) + "\"");
+    Assertions.assertEquals(1, resourceStore.filter(filterNode).size());
+
+    User updatedUser = updateUser(endpoint, getUser(endpoint, userId));
+    Assertions.assertEquals(updatedUser.getUserName(), resourceStore.get(userId).get().getUserName());
+
+    ScimResponse deleteResponse = resourceEndpointHandler.deleteResource(endpoint,
+                                                                         userId,
+                                                                         Collections.emptyMap(),
+                                                                         null);
+    MatcherAssert.assertThat(deleteResponse.getClass(), Matchers.typeCompatibleWith(DeleteResponse.class));
+    Assertions.assertEquals(0, resourceStore.size());
+    Assertions.assertEquals(0, resourceStore.filter(filterNode).size());
+  }
+
+  /**
+   * verifies that identical list requests are served from the query result cache and that the cache is
+   * invalidated if a resource is created or deleted
+   */
+  @Test
+  public void testQueryResultCache()
+  {
+    final String endpoint = "/Users";
+    ResourceType resourceType = resourceTypeFactory.getResourceType(endpoint);
+    QueryResultCache queryResultCache = QueryResultCache.builder().maxSize(10).build();
+    resourceType.setQueryResultCache(queryResultCache);
+
+    User createdUser = createUser(endpoint);
+    String userId = createdUser.getId().get();
+    Assertions.assertEquals(1, queryResultCache.getInvalidationCount());
+
+    ListResponse<ScimObjectNode> firstResponse = listUsersForCache(endpoint, "userName,id");
+    ListResponse<ScimObjectNode> secondResponse = listUsersForCache(endpoint, "ID,userName");
+    Assertions.assertEquals(1, firstResponse.getTotalResults());
+    Assertions.assertEquals(firstResponse, secondResponse);
+    Assertions.assertEquals(1, queryResultCache.getHitCount());
+    Assertions.assertEquals(1, queryResultCache.getMissCount());
+    Assertions.assertEquals(0.5, queryResultCache.getHitRate());
+    Mockito.verify(userHandler, Mockito.times(1))
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+
+    ScimResponse deleteResponse = resourceEndpointHandler.deleteResource(endpoint,
+                                                                         userId,
+                                                                         Collections.emptyMap(),
+                                                                         null);
+    MatcherAssert.assertThat(deleteResponse.getClass(), Matchers.typeCompatibleWith(DeleteResponse.class));
+    Assertions.assertEquals(2, queryResultCache.getInvalidationCount());
+    Assertions.assertEquals(0, queryResultCache.getSize());
+    Assertions.assertEquals(0, listUsersForCache(endpoint, "userName,id").getTotalResults());
+    Assertions.assertEquals(2, queryResultCache.getMissCount());
+  }
+
+  /**
+   * verifies that clients with the same id but different roles do not get the cached responses of each other if
+   * the resource handler scopes its results by the authorization
+   */
+  @Test
+  public void testQueryResultCacheDistinguishesAuthorizations()
+  {
+    final String endpoint = "/Users";
+    ResourceType resourceType = resourceTypeFactory.getResourceType(endpoint);
+    QueryResultCache queryResultCache = QueryResultCache.builder().maxSize(10).build();
+    resourceType.setQueryResultCache(queryResultCache);
+    List<User> users = createUsers(2);
+    Mockito.doAnswer(invocation -> {
+      Authorization authorization = invocation.getArgument(7);
+      List<User> visibleUsers = authorization.getClientRoles().contains("admin") ? users
+        : Collections.singletonList(users.get(0));
+      return PartialListResponse.<User> builder().totalResults(visibleUsers.size()).resources(visibleUsers).build();
+    })
+           .when(userHandler)
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.notNull());
+
+    Authorization admin = new ResourceEndpointTest.ClientAuthorization("client", "admin");
+    Authorization reader = new ResourceEndpointTest.ClientAuthorization("client", "reader");
+    Assertions.assertEquals(2, listUsersForCache(endpoint, admin).getTotalResults());
+    Assertions.assertEquals(1, listUsersForCache(endpoint, reader).getTotalResults());
+    Assertions.assertEquals(2, listUsersForCache(endpoint, admin).getTotalResults());
+    Assertions.assertEquals(1, listUsersForCache(endpoint, reader).getTotalResults());
+    Assertions.assertEquals(2, queryResultCache.getHitCount());
+    Assertions.assertEquals(2, queryResultCache.getSize());
+
+    Authorization anonymous = new ResourceEndpointTest.ClientAuthorization(null, "admin");
+    Assertions.assertEquals(2, listUsersForCache(endpoint, anonymous).getTotalResults());
+    Assertions.assertEquals(2, queryResultCache.getSize());
+  }
+
+  /**
+   * lists the users of the given client
+   */
+  private ListResponse<ScimObjectNode> listUsersForCache(String endpoint, Authorization authorization)
+  {
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(endpoint,
+                                                                      1L,
+                                                                      10,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      authorization);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    return (ListResponse<ScimObjectNode>)scimResponse;
+  }
+
+  /**
+   * lists the users with the given attributes parameter
+   */
+  private ListResponse<ScimObjectNode> listUsersForCache(String endpoint, String attributes)
+  {
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(endpoint,
+                                                                      1L,
+                                                                      10,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      attributes,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    return (ListResponse<ScimObjectNode>)scimResponse;
+  }
+
   /**
    * creates a simple user and returns the created resource
    *
@@ -504,6 +673,155 @@ public class ResourceEndpointHandlerTest implements FileReferences
     Assertions.assertFalse(returnedUser.getEnterpriseUser().get().getCostCenter().isPresent());
   }
 
+  /**
+   * verifies that the trusted response filtering returns the same document as the strict validation for a
+   * resource that contains unknown attributes and attributes whose names differ in case from their definition
+   */
+  @Test
+  public void testTrustedResponseMatchesStrictResponse()
+  {
+    User user = JsonHelper.loadJsonDocument(USER_RESOURCE, User.class);
+    user.setPassword("secret");
+    user.setEnterpriseUser(EnterpriseUser.builder().costCenter("costCenter").department("department").build());
+    user.setMeta(Meta.builder().created(Instant.now()).lastModified(Instant.now()).build());
+    user.set("unknownAttribute", new TextNode("unknown"));
+    user.set("NICKNAME", new TextNode("goldfish"));
+    ((ObjectNode)user.get(AttributeNames.RFC7643.NAME)).set("unknownSubAttribute", new TextNode("unknown"));
+    ((ObjectNode)user.get(SchemaUris.ENTERPRISE_USER_URI)).set("unknownExtensionAttribute", new TextNode("x"));
+
+    userHandler.getInMemoryMap().put(user.getId().get(), JsonHelper.copyResourceToObject(user, User.class));
+    ScimResponse strictResponse = resourceEndpointHandler.getResource("/Users",
+                                                                      user.getId().get(),
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    resourceTypeFactory.getResourceType("/Users").setTrustedResponses(true);
+    userHandler.getInMemoryMap().put(user.getId().get(), JsonHelper.copyResourceToObject(user, User.class));
+    ScimResponse trustedResponse = resourceEndpointHandler.getResource("/Users",
+                                                                       user.getId().get(),
+                                                                       null,
+                                                                       null,
+                                                                       null,
+                                                                       getBaseUrlSupplier(),
+                                                                       null);
+
+    MatcherAssert.assertThat(strictResponse.getClass(), Matchers.typeCompatibleWith(GetResponse.class));
+    MatcherAssert.assertThat(trustedResponse.getClass(), Matchers.typeCompatibleWith(GetResponse.class));
+    Assertions.assertEquals(JsonHelper.readJsonDocument(strictResponse.toString()),
+                            JsonHelper.readJsonDocument(trustedResponse.toString()));
+    User returnedUser = JsonHelper.copyResourceToObject(trustedResponse, User.class);
+    Assertions.assertNull(returnedUser.get("unknownAttribute"));
+    Assertions.assertEquals("goldfish", returnedUser.getNickName().get());
+    Assertions.assertNull(returnedUser.get(AttributeNames.RFC7643.NAME).get("unknownSubAttribute"));
+  }
+
+  /**
+   * verifies that the resources of trusted resource types are filtered in place
+   */
+  @Test
+  public void testGetResourceWithTrustedResponses()
+  {
+    resourceTypeFactory.getResourceType("/Users").setTrustedResponses(true);
+    User user = JsonHelper.loadJsonDocument(USER_RESOURCE, User.class);
+    user.setPassword("secret");
+    user.setEnterpriseUser(EnterpriseUser.builder().costCenter("costCenter").department("department").build());
+    user.setMeta(Meta.builder().created(Instant.now()).lastModified(Instant.now()).build());
+    userHandler.getInMemoryMap().put(user.getId().get(), user);
+    ScimResponse scimResponse = resourceEndpointHandler.getResource("/Users",
+                                                                    user.getId().get(),
+                                                                    null,
+                                                                    "costCenter",
+                                                                    null,
+                                                                    getBaseUrlSupplier(),
+                                                                    null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(GetResponse.class));
+    User returnedUser = JsonHelper.copyResourceToObject(scimResponse, User.class);
+    Assertions.assertEquals(user.getUserName(), returnedUser.getUserName());
+    Assertions.assertFalse(returnedUser.getPassword().isPresent());
+    Assertions.assertTrue(returnedUser.getEnterpriseUser().get().getDepartment().isPresent());
+    Assertions.assertFalse(returnedUser.getEnterpriseUser().get().getCostCenter().isPresent());
+    Assertions.assertEquals(getLocation("/Users", user.getId().get()),
+                            returnedUser.getMeta().get().getLocation().get());
+    // the resource of the handler was filtered without being copied
+    Assertions.assertFalse(user.getPassword().isPresent());
+
+    scimResponse = resourceEndpointHandler.getResource("/Users",
+                                                       user.getId().get(),
+                                                       "userName",
+                                                       null,
+                                                       null,
+                                                       getBaseUrlSupplier(),
+                                                       null);
+    returnedUser = JsonHelper.copyResourceToObject(scimResponse, User.class);
+    Assertions.assertTrue(returnedUser.getId().isPresent());
+    Assertions.assertTrue(returnedUser.getUserName().isPresent());
+    Assertions.assertFalse(returnedUser.getName().isPresent());
+    Assertions.assertFalse(returnedUser.getEnterpriseUser().isPresent());
+    Assertions.assertFalse(returnedUser.getSchemas().contains(SchemaUris.ENTERPRISE_USER_URI));
+  }
+
+  /**
+   * verifies that the in place filtering of trusted resource types does not modify the resources of an
+   * {@link IndexedResourceStore} that were listed by the resource handler so that a second list request still
+   * returns the complete resources
+   */
+  @Test
+  public void testListStoredResourcesWithTrustedResponses()
+  {
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setMaxResults(Integer.MAX_VALUE);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.setTrustedResponses(true);
+    IndexedResourceStore<User> resourceStore = new IndexedResourceStore<>(resourceType, Arrays.asList("userName"));
+    for ( int i = 0 ; i < 3 ; i++ )
+    {
+      resourceStore.put(User.builder()
+                            .id(String.valueOf(i))
+                            .userName("user" + i)
+                            .nickName("nick" + i)
+                            .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                            .build());
+    }
+    Mockito.doAnswer(invocation -> PartialListResponse.<User> builder().resources(resourceStore.getResources()).build())
+           .when(userHandler)
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+
+    for ( String attributes : Arrays.asList("userName", "nickName") )
+    {
+      ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                        1L,
+                                                                        10,
+                                                                        null,
+                                                                        null,
+                                                                        null,
+                                                                        attributes,
+                                                                        null,
+                                                                        getBaseUrlSupplier(),
+                                                                        null);
+      MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+      ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+      Assertions.assertEquals(3, listResponse.getListedResources().size());
+      for ( ScimObjectNode listedResource : listResponse.getListedResources() )
+      {
+        Assertions.assertNotNull(listedResource.get(attributes), listedResource.toPrettyString());
+      }
+    }
+    for ( int i = 0 ; i < 3 ; i++ )
+    {
+      User storedUser = resourceStore.get(String.valueOf(i)).get();
+      Assertions.assertEquals("user" + i, storedUser.getUserName().get());
+      Assertions.assertEquals("nick" + i, storedUser.getNickName().get());
+    }
+  }
+
   /**
    * will show that a {@link RuntimeException} is correctly handled by the
    * {@link ResourceEndpointHandler#deleteResource(String, String)} method
@@ -729,7 +1047,7 @@ public class ResourceEndpointHandlerTest implements FileReferences
 
     ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
                                                                       1L,
-                                                                      0,
+                                                                      1,
                                                                       null,
                                                                       sortBy,
                                                                       null,
@@ -742,7 +1060,7 @@ public class ResourceEndpointHandlerTest implements FileReferences
     SchemaAttribute sortByAttribute = RequestUtils.getSchemaAttributeByAttributeName(resourceType, sortBy);
     Mockito.verify(userHandler, Mockito.times(1))
            .listResources(Mockito.eq(1L),
-                          Mockito.eq(0),
+                          Mockito.eq(1),
                           Mockito.isNull(),
                           Mockito.eq(sortByAttribute),
                           Mockito.eq(SortOrder.ASCENDING),
@@ -819,7 +1137,7 @@ public class ResourceEndpointHandlerTest implements FileReferences
     final String sortOrderString = sortOrder == null ? null : sortOrder.name().toLowerCase();
     ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
                                                                       1L,
-                                                                      0,
+                                                                      1,
                                                                       null,
                                                                       sortBy,
                                                                       sortOrderString,
@@ -833,7 +1151,7 @@ public class ResourceEndpointHandlerTest implements FileReferences
     SortOrder actualSortOrder = sortOrder == null && sortBy != null ? SortOrder.ASCENDING : sortOrder;
     Mockito.verify(userHandler, Mockito.times(1))
            .listResources(Mockito.eq(1L),
-                          Mockito.eq(0),
+                          Mockito.eq(1),
                           Mockito.isNull(),
                           Mockito.eq(sortByAttribute),
                           Mockito.eq(actualSortOrder),
@@ -1858,6 +2176,618 @@ public class ResourceEndpointHandlerTest implements FileReferences
     return updatedUser;
   }
 
+  /**
+   * verifies that a streaming resource handler is read only until the requested page was found and that the
+   * filter is applied while the stream is read
+   */
+  @Test
+  public void testListStreamedResources()
+  {
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setMaxResults(Integer.MAX_VALUE);
+    resourceTypeFactory.getResourceType(EndpointPaths.USERS).getFeatures().setAutoFiltering(true);
+    AtomicInteger readResources = new AtomicInteger();
+    Stream<User> users = IntStream.range(0, 1_000_000).mapToObj(i -> {
+      readResources.incrementAndGet();
+      return User.builder()
+                 .id(String.valueOf(i))
+                 .userName((i % 2 == 0 ? "even" : "odd") + i)
+                 .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                 .build();
+    });
+    Mockito.doReturn(PartialStreamResponse.<User> builder().resources(users).build())
+           .when(userHandler)
+           .streamResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      11L,
+                                                                      5,
+                                                                      "userName sw \"odd\"",
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+    Assertions.assertEquals(5, listResponse.getItemsPerPage());
+    Assertions.assertEquals(11, listResponse.getStartIndex());
+    List<String> ids = listResponse.getListedResources()
+                                   .stream()
+                                   .map(user -> user.get(AttributeNames.RFC7643.ID).textValue())
+                                   .collect(Collectors.toList());
+    Assertions.assertEquals(Arrays.asList("21", "23", "25", "27", "29"), ids);
+    // one additional match was read to tell the client that more results are available
+    Assertions.assertEquals(16, listResponse.getTotalResults());
+    Assertions.assertEquals(32, readResources.get());
+    Mockito.verify(userHandler, Mockito.never())
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+  }
+
+  /**
+   * verifies that the total results are counted on the stream if requested by the resource handler
+   */
+  @Test
+  public void testListStreamedResourcesWithTotalResults()
+  {
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setMaxResults(Integer.MAX_VALUE);
+    resourceTypeFactory.getResourceType(EndpointPaths.USERS).getFeatures().setAutoFiltering(true);
+    Stream<User> users = IntStream.range(0, 100).mapToObj(i -> {
+      return User.builder()
+                 .id(String.valueOf(i))
+                 .userName((i % 2 == 0 ? "even" : "odd") + i)
+                 .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                 .build();
+    });
+    Mockito.doReturn(PartialStreamResponse.<User> builder().resources(users).countTotalResults(true).build())
+           .when(userHandler)
+           .streamResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      1L,
+                                                                      5,
+                                                                      "userName sw \"odd\"",
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+    Assertions.assertEquals(5, listResponse.getItemsPerPage());
+    Assertions.assertEquals(50, listResponse.getTotalResults());
+  }
+
+  /**
+   * verifies that a streaming resource handler is sorted with temporary files if the stream is larger than the
+   * external sort threshold
+   */
+  @Test
+  public void testListSortedStreamedResources()
+  {
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getSortConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setMaxResults(Integer.MAX_VALUE);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.getFeatures().setAutoFiltering(true);
+    resourceType.getFeatures().setAutoSorting(true);
+    resourceType.setExecutionPolicy(ExecutionPolicy.builder().externalSortThreshold(10).build());
+    Stream<User> users = IntStream.range(0, 100).mapToObj(i -> {
+      return User.builder()
+                 .id(String.valueOf(i))
+                 .userName((i % 2 == 0 ? "even" : "odd") + String.format("%03d", (i * 37) % 100))
+                 .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                 .build();
+    });
+    Mockito.doReturn(PartialStreamResponse.<User> builder().resources(users).build())
+           .when(userHandler)
+           .streamResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      3L,
+                                                                      4,
+                                                                      "userName sw \"odd\"",
+                                                                      "userName",
+                                                                      "descending",
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+    Assertions.assertEquals(50, listResponse.getTotalResults());
+    List<String> userNames = listResponse.getListedResources()
+                                         .stream()
+                                         .map(user -> user.get(AttributeNames.RFC7643.USER_NAME).textValue())
+                                         .collect(Collectors.toList());
+    Assertions.assertEquals(Arrays.asList("odd095", "odd093", "odd091", "odd089"), userNames);
+  }
+
+  /**
+   * verifies that the resources of a large page are validated in parallel if the response validation threshold
+   * was configured and that the order of the resources is kept
+   */
+  @Test
+  public void testListResourcesWithParallelResponseValidation()
+  {
+    resourceEndpointHandler.getServiceProvider().getSortConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setMaxResults(Integer.MAX_VALUE);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.getFeatures().setAutoSorting(true);
+    ExecutionPolicy executionPolicy = ExecutionPolicy.builder().responseValidationThreshold(10).build();
+    resourceType.setExecutionPolicy(executionPolicy);
+    Stream<User> users = IntStream.range(0, 100).mapToObj(i -> {
+      return User.builder()
+                 .id(String.valueOf(i))
+                 .userName(String.format("user%03d", (i * 37) % 100))
+                 .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                 .build();
+    });
+    Mockito.doReturn(PartialStreamResponse.<User> builder().resources(users).build())
+           .when(userHandler)
+           .streamResources(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      1L,
+                                                                      50,
+                                                                      null,
+                                                                      "userName",
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+    Assertions.assertEquals(50, listResponse.getItemsPerPage());
+    List<ScimObjectNode> listedResources = listResponse.getListedResources();
+    for ( int i = 0 ; i < listedResources.size() ; i++ )
+    {
+      User user = JsonHelper.copyResourceToObject(listedResources.get(i), User.class);
+      Assertions.assertEquals(String.format("user%03d", i), user.getUserName().get());
+      Assertions.assertEquals(getBaseUrlSupplier().get() + EndpointPaths.USERS + "/" + user.getId().get(),
+                              user.getMeta().flatMap(Meta::getLocation).get());
+    }
+    Assertions.assertEquals(1, executionPolicy.getParallelResponseValidations());
+  }
+
+  /**
+   * verifies that an unfiltered sorted list request is paged directly from the sorted view of an in-memory
+   * store
+   */
+  @Test
+  public void testListResourcesFromSortedView()
+  {
+    resourceEndpointHandler.getServiceProvider().getSortConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setMaxResults(Integer.MAX_VALUE);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.getFeatures().setAutoSorting(true);
+    resourceType.getFeatures().setSortedAttributes(Arrays.asList("userName"));
+    IndexedResourceStore<User> resourceStore = new IndexedResourceStore<>(resourceType);
+    for ( int i = 0 ; i < 20 ; i++ )
+    {
+      resourceStore.put(User.builder()
+                            .id(String.valueOf(i))
+                            .userName(String.format("user%02d", (i * 7) % 20))
+                            .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                            .build());
+    }
+    Mockito.doReturn(PartialListResponse.<User> builder().resources(resourceStore.getResources()).build())
+           .when(userHandler)
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      3L,
+                                                                      3,
+                                                                      null,
+                                                                      "userName",
+                                                                      "descending",
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+    Assertions.assertEquals(20, listResponse.getTotalResults());
+    Assertions.assertEquals(3, listResponse.getStartIndex());
+    List<String> userNames = listResponse.getListedResources()
+                                         .stream()
+                                         .map(user -> user.get(AttributeNames.RFC7643.USER_NAME).textValue())
+                                         .collect(Collectors.toList());
+    Assertions.assertEquals(Arrays.asList("user17", "user16", "user15"), userNames);
+    // the response meta data must only be added to copies of the stored resources
+    for ( int i = 0 ; i < 20 ; i++ )
+    {
+      Meta storedMeta = resourceStore.get(String.valueOf(i)).get().getMeta().get();
+      Assertions.assertFalse(storedMeta.getLocation().isPresent());
+    }
+  }
+
+  /**
+   * verifies that the parsed attributes parameter is given to the resource handler and that attributes that are
+   * not projected are not required in the response so that the handler does not need to load them
+   */
+  @Test
+  public void testGetResourceWithAttributeProjection()
+  {
+    final String id = UUID.randomUUID().toString();
+    User user = User.builder()
+                    .id(id)
+                    .nickName("goldfish")
+                    .meta(Meta.builder()
+                              .resourceType(ResourceTypeNames.USER)
+                              .created(Instant.now())
+                              .lastModified(Instant.now())
+                              .build())
+                    .build();
+    Mockito.doReturn(user)
+           .when(userHandler)
+           .getResource(Mockito.eq(id), Mockito.any(AttributeProjection.class), Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.getResource(EndpointPaths.USERS,
+                                                                    id,
+                                                                    "nickName",
+                                                                    null,
+                                                                    Collections.emptyMap(),
+                                                                    getBaseUrlSupplier(),
+                                                                    null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(GetResponse.class));
+    Assertions.assertEquals("goldfish", scimResponse.get(AttributeNames.RFC7643.NICK_NAME).textValue());
+    Assertions.assertNull(scimResponse.get(AttributeNames.RFC7643.USER_NAME));
+
+    ArgumentCaptor<AttributeProjection> projectionCaptor = ArgumentCaptor.forClass(AttributeProjection.class);
+    Mockito.verify(userHandler).getResource(Mockito.eq(id), projectionCaptor.capture(), Mockito.any());
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    AttributeProjection projection = projectionCaptor.getValue();
+    Assertions.assertTrue(projection.isReturned(RequestUtils.getSchemaAttributeByAttributeName(resourceType,
+                                                                                               "nickName")));
+    Assertions.assertFalse(projection.isReturned(RequestUtils.getSchemaAttributeByAttributeName(resourceType,
+                                                                                                "userName")));
+  }
+
+  /**
+   * verifies that the entity tag of a resource does not depend on the attribute projection if the resource
+   * handler returns only partial resources without a meta.version
+   */
+  @Test
+  public void testETagOfProjectedResourceMatchesCompleteResource()
+  {
+    UserHandlerImpl projectingHandler = new UserHandlerImpl(false)
+    {
+
+      @Override
+      public User getResource(String id, AttributeProjection projection, Authorization authorization)
+      {
+        User user = getResource(id, authorization);
+        if (user == null || !projection.isAttributesPresent())
+        {
+          return user;
+        }
+        return User.builder().id(id).nickName(user.getNickName().orElse(null)).meta(user.getMeta().get()).build();
+      }
+    };
+    resourceEndpointHandler.registerEndpoint(new UserEndpointDefinition(projectingHandler));
+    resourceEndpointHandler.getServiceProvider().getETagConfig().setSupported(true);
+    resourceTypeFactory.getResourceTypeByName(ResourceTypeNames.USER)
+                       .get()
+                       .getFeatures()
+                       .getETagFeature()
+                       .setEnabled(true);
+    final String id = UUID.randomUUID().toString();
+    Meta meta = Meta.builder()
+                    .resourceType(ResourceTypeNames.USER)
+                    .created(Instant.now())
+                    .lastModified(Instant.now())
+                    .build();
+    User user = User.builder().id(id).userName("goldfish").nickName("captain").meta(meta).build();
+    projectingHandler.getInMemoryMap().put(id, user);
+
+    GetResponse completeResponse = (GetResponse)resourceEndpointHandler.getResource(EndpointPaths.USERS,
+                                                                                    id,
+                                                                                    null,
+                                                                                    null,
+                                                                                    Collections.emptyMap(),
+                                                                                    getBaseUrlSupplier(),
+                                                                                    null);
+    GetResponse projectedResponse = (GetResponse)resourceEndpointHandler.getResource(EndpointPaths.USERS,
+                                                                                     id,
+                                                                                     "nickName",
+                                                                                     null,
+                                                                                     Collections.emptyMap(),
+                                                                                     getBaseUrlSupplier(),
+                                                                                     null);
+    Assertions.assertEquals(HttpStatus.OK, projectedResponse.getHttpStatus());
+    Assertions.assertNull(projectedResponse.get(AttributeNames.RFC7643.USER_NAME));
+    String completeVersion = completeResponse.getHttpHeaders().get(HttpHeader.E_TAG_HEADER);
+    String projectedVersion = projectedResponse.getHttpHeaders().get(HttpHeader.E_TAG_HEADER);
+    Assertions.assertNotNull(projectedVersion);
+    Assertions.assertEquals(completeVersion, projectedVersion);
+  }
+
+  /**
+   * verifies that a patch request with an attribute projection does not reduce the resource that is handed to
+   * {@link ResourceHandler#updateResource(ResourceNode, AttributeProjection, Authorization)}
+   */
+  @Test
+  public void testPatchResourceUpdatesWithDefaultProjection()
+  {
+    resourceEndpointHandler.getServiceProvider().getPatchConfig().setSupported(true);
+    Name name = Name.builder().givenName("goldfish").familyName("captain").build();
+    List<PatchRequestOperation> operations = Arrays.asList(PatchRequestOperation.builder()
+                                                                                .op(PatchOp.ADD)
+                                                                                .path("name")
+                                                                                .valueNode(name)
+                                                                                .build());
+    PatchOpRequest patchOpRequest = PatchOpRequest.builder().operations(operations).build();
+    Meta meta = Meta.builder()
+                    .resourceType(ResourceTypeNames.USER)
+                    .created(Instant.now())
+                    .lastModified(Instant.now())
+                    .build();
+    String id = UUID.randomUUID().toString();
+    User user = User.builder().id(id).userName("goldfish").nickName("captain").meta(meta).build();
+    userHandler.getInMemoryMap().put(id, user);
+
+    ScimResponse scimResponse = resourceEndpointHandler.patchResource(EndpointPaths.USERS,
+                                                                      id,
+                                                                      patchOpRequest.toString(),
+                                                                      "nickName",
+                                                                      null,
+                                                                      Collections.emptyMap(),
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(UpdateResponse.class));
+    Assertions.assertEquals("captain", scimResponse.get(AttributeNames.RFC7643.NICK_NAME).textValue());
+    Assertions.assertNull(scimResponse.get(AttributeNames.RFC7643.USER_NAME));
+
+    ArgumentCaptor<AttributeProjection> projectionCaptor = ArgumentCaptor.forClass(AttributeProjection.class);
+    Mockito.verify(userHandler).updateResource(Mockito.any(), projectionCaptor.capture(), Mockito.any());
+    AttributeProjection projection = projectionCaptor.getValue();
+    Assertions.assertFalse(projection.isAttributesPresent());
+    Assertions.assertFalse(projection.isExcludedAttributesPresent());
+    Assertions.assertEquals("goldfish", userHandler.getInMemoryMap().get(id).getUserName().get());
+  }
+
+  /**
+   * verifies that a list request with a count of 0 is answered by the count hook of the resource handler
+   * without loading any resources
+   */
+  @Test
+  public void testCountResourcesWithCountHook()
+  {
+    Mockito.doReturn(42L).when(userHandler).countResources(Mockito.any(), Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      null,
+                                                                      0,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+    Assertions.assertEquals(42, listResponse.getTotalResults());
+    Assertions.assertEquals(0, listResponse.getItemsPerPage());
+    Assertions.assertEquals(0, listResponse.getListedResources().size());
+    Mockito.verify(userHandler, Mockito.never())
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+  }
+
+  /**
+   * verifies that only the matching resources are counted if a list request with a count of 0 must be filtered
+   * automatically and that the count hook is not used in this case
+   */
+  @Test
+  public void testCountResourcesWithAutoFiltering()
+  {
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getSortConfig().setSupported(true);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.getFeatures().setAutoFiltering(true);
+    resourceType.getFeatures().setAutoSorting(true);
+    List<User> users = IntStream.range(0, 30).mapToObj(i -> {
+      return User.builder()
+                 .id(String.valueOf(i))
+                 .userName((i % 3 == 0 ? "chuck" : "norris") + i)
+                 .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                 .build();
+    }).collect(Collectors.toList());
+    Mockito.doReturn(PartialListResponse.<User> builder().resources(users).build())
+           .when(userHandler)
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      null,
+                                                                      0,
+                                                                      "userName sw \"chuck\"",
+                                                                      "userName",
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+    ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+    Assertions.assertEquals(10, listResponse.getTotalResults());
+    Assertions.assertEquals(0, listResponse.getListedResources().size());
+    Mockito.verify(userHandler, Mockito.never()).countResources(Mockito.any(), Mockito.any());
+    Mockito.verify(userHandler, Mockito.times(1))
+           .listResources(Mockito.anyLong(),
+                          Mockito.eq(0),
+                          Mockito.isNull(),
+                          Mockito.isNull(),
+                          Mockito.isNull(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+  }
+
+  /**
+   * verifies that the pages of a cursor based list request contain each resource exactly once even if resources
+   * of previous pages are deleted between the requests
+   */
+  @Test
+  public void testListResourcesWithCursor()
+  {
+    resourceEndpointHandler.getServiceProvider().getSortConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setMaxResults(Integer.MAX_VALUE);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.getFeatures().setAutoSorting(true);
+    List<User> users = new ArrayList<>();
+    for ( int i = 0 ; i < 25 ; i++ )
+    {
+      users.add(User.builder()
+                    .id(String.format("%02d", i))
+                    .userName("user" + (i % 5))
+                    .meta(Meta.builder().resourceType(ResourceTypeNames.USER).created(Instant.now()).build())
+                    .build());
+    }
+    Mockito.doAnswer(invocation -> PartialListResponse.<User> builder().resources(new ArrayList<>(users)).build())
+           .when(userHandler)
+           .listResources(Mockito.anyLong(),
+                          Mockito.anyInt(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any(),
+                          Mockito.any());
+
+    List<String> ids = new ArrayList<>();
+    String cursor = "";
+    do
+    {
+      ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                        null,
+                                                                        4,
+                                                                        null,
+                                                                        "userName",
+                                                                        "descending",
+                                                                        null,
+                                                                        null,
+                                                                        cursor,
+                                                                        getBaseUrlSupplier(),
+                                                                        null);
+      MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ListResponse.class));
+      ListResponse<ScimObjectNode> listResponse = (ListResponse<ScimObjectNode>)scimResponse;
+      Assertions.assertEquals(users.size(), listResponse.getTotalResults());
+      listResponse.getListedResources().forEach(user -> ids.add(user.get(AttributeNames.RFC7643.ID).textValue()));
+      // deleting the resource the cursor points to must not shift the following pages
+      users.removeIf(user -> user.getId().get().equals(ids.get(ids.size() - 1)));
+      cursor = listResponse.getNextCursor().orElse(null);
+    }
+    while (cursor != null);
+
+    Assertions.assertEquals(25, ids.size());
+    Assertions.assertEquals(Arrays.asList("04", "09", "14", "19", "24", "03"), ids.subList(0, 6));
+    Assertions.assertEquals(25, new HashSet<>(ids).size());
+  }
+
+  /**
+   * verifies that a cursor cannot be used with another sorting than the one it was issued for
+   */
+  @Test
+  public void testListResourcesWithMismatchingCursor()
+  {
+    resourceEndpointHandler.getServiceProvider().getSortConfig().setSupported(true);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.getFeatures().setAutoSorting(true);
+    User user = User.builder().id("1").userName("goldfish").build();
+    String cursor = resourceEndpointHandler.getCursorCodec()
+                                           .encode(ResourceCursor.after(resourceType.getName(),
+                                                                        user,
+                                                                        null,
+                                                                        null,
+                                                                        null));
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      null,
+                                                                      4,
+                                                                      null,
+                                                                      "userName",
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      cursor,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ErrorResponse.class));
+    ErrorResponse errorResponse = (ErrorResponse)scimResponse;
+    Assertions.assertEquals(HttpStatus.BAD_REQUEST, errorResponse.getHttpStatus());
+    Assertions.assertEquals(ScimType.Custom.INVALID_CURSOR, errorResponse.getScimException().getScimType());
+  }
+
+  /**
+   * verifies that a cursor cannot be replayed against a request with another filter than the one it was issued
+   * for
+   */
+  @Test
+  public void testListResourcesWithCursorOfAnotherFilter()
+  {
+    resourceEndpointHandler.getServiceProvider().getSortConfig().setSupported(true);
+    resourceEndpointHandler.getServiceProvider().getFilterConfig().setSupported(true);
+    ResourceType resourceType = resourceTypeFactory.getResourceType(EndpointPaths.USERS);
+    resourceType.getFeatures().setAutoSorting(true);
+    User user = User.builder().id("1").userName("goldfish").build();
+    FilterNode filterNode = RequestUtils.parseFilter(resourceType, "userName eq \"goldfish\"");
+    String cursor = resourceEndpointHandler.getCursorCodec()
+                                           .encode(ResourceCursor.after(resourceType.getName(),
+                                                                        user,
+                                                                        filterNode,
+                                                                        null,
+                                                                        null));
+
+    ScimResponse scimResponse = resourceEndpointHandler.listResources(EndpointPaths.USERS,
+                                                                      null,
+                                                                      4,
+                                                                      "userName eq \"chuck\"",
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      null,
+                                                                      cursor,
+                                                                      getBaseUrlSupplier(),
+                                                                      null);
+    MatcherAssert.assertThat(scimResponse.getClass(), Matchers.typeCompatibleWith(ErrorResponse.class));
+    ErrorResponse errorResponse = (ErrorResponse)scimResponse;
+    Assertions.assertEquals(HttpStatus.BAD_REQUEST, errorResponse.getHttpStatus());
+    Assertions.assertEquals(ScimType.Custom.INVALID_CURSOR, errorResponse.getScimException().getScimType());
+  }
+
   /**
    * this method will get the current location uri to a resource
    *
@@ -0,0 +1,208 @@
+package de.captaingoldfish.scim.sdk.server.filter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.multicomplex.Email;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.resources.FilterResourceResolver;
+import de.captaingoldfish.scim.sdk.server.filter.resources.PatchFilterResolver;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 18:55 <br>
+ * <br>
+ */
+public class InExpressionNodeTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * initializes the user resource type for the following tests
+   */
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+  }
+
+  /**
+   * verifies that a long chain of "eq" comparisons on the same attribute is collapsed into a single node while
+   * the parsed tree keeps its "or" expressions
+   */
+  @Test
+  public void testOrChainIsCollapsed()
+  {
+    String filter = IntStream.range(0, 300).mapToObj(i -> "id eq \"" + i + "\"").collect(Collectors.joining(" or "));
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, filter);
+    MatcherAssert.assertThat(filterNode, Matchers.instanceOf(OrExpressionNode.class));
+    List<FilterNode> operands = InExpressionNode.collapseOrOperands((OrExpressionNode)filterNode);
+    Assertions.assertEquals(1, operands.size());
+    MatcherAssert.assertThat(operands.get(0), Matchers.instanceOf(InExpressionNode.class));
+    InExpressionNode inExpressionNode = (InExpressionNode)operands.get(0);
+    Assertions.assertEquals(300, inExpressionNode.getValues().size());
+    Assertions.assertEquals("0", inExpressionNode.getValues().get(0));
+    Assertions.assertEquals("299", inExpressionNode.getValues().get(299));
+    Assertions.assertEquals("id", inExpressionNode.getSchemaAttribute().getName());
+    Assertions.assertEquals(filter.replace(" eq ", " EQ "), filterNode.toString());
+    Assertions.assertEquals(filterNode.toString(), inExpressionNode.toString());
+    MatcherAssert.assertThat(inExpressionNode.getFirstLeaf().getParent(), Matchers.instanceOf(OrExpressionNode.class));
+  }
+
+  /**
+   * verifies that only the comparisons on the same attribute are collapsed and that the other operands keep
+   * their place
+   */
+  @Test
+  public void testMixedChainIsPartiallyCollapsed()
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType,
+                                                     "userName sw \"a\" or id eq \"1\" or externalId eq \"x\" or "
+                                                                       + "id eq \"2\" or id eq \"3\"");
+    List<FilterNode> operands = InExpressionNode.collapseOrOperands((OrExpressionNode)filterNode);
+    Assertions.assertEquals(3, operands.size());
+    MatcherAssert.assertThat(operands.get(0), Matchers.instanceOf(AttributeExpressionLeaf.class));
+    MatcherAssert.assertThat(operands.get(1), Matchers.instanceOf(InExpressionNode.class));
+    Assertions.assertEquals(Arrays.asList("1", "2", "3"), ((InExpressionNode)operands.get(1)).getValues());
+    Assertions.assertEquals("externalId", ((AttributeExpressionLeaf)operands.get(2)).getShortName());
+  }
+
+  /**
+   * verifies that chains that are too small or that mix attributes or comparators are not collapsed
+   */
+  @Test
+  public void testChainIsNotCollapsed()
+  {
+    for ( String filter : Arrays.asList("id eq \"1\" or id eq \"2\"",
+                                        "id eq \"1\" or id eq \"2\" or externalId eq \"3\"",
+                                        "id eq \"1\" or id eq \"2\" or id sw \"3\"") )
+    {
+      FilterNode filterNode = RequestUtils.parseFilter(userResourceType, filter);
+      List<FilterNode> operands = InExpressionNode.collapseOrOperands((OrExpressionNode)filterNode);
+      Assertions.assertTrue(operands.stream().noneMatch(InExpressionNode.class::isInstance), filter);
+    }
+  }
+
+  /**
+   * verifies that the set membership honours the case exactness of the attribute
+   */
+  @Test
+  public void testCaseExactness()
+  {
+    List<User> users = Arrays.asList(User.builder().id("a").userName("Goldfish").build(),
+                                     User.builder().id("A").userName("shark").build(),
+                                     User.builder().id("b").userName("whale").build());
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType,
+                                                     "userName eq \"GOLDFISH\" or userName eq \"Shark\" or "
+                                                                       + "userName eq \"dolphin\"");
+    Assertions.assertEquals(2, FilterResourceResolver.filterResources(users, filterNode).size());
+
+    filterNode = RequestUtils.parseFilter(userResourceType, "id eq \"a\" or id eq \"c\" or id eq \"d\"");
+    List<User> filteredUsers = FilterResourceResolver.filterResources(users, filterNode);
+    Assertions.assertEquals(1, filteredUsers.size());
+    Assertions.assertEquals("a", filteredUsers.get(0).getId().get());
+  }
+
+  /**
+   * verifies that an "or" chain within a patch path is resolved on the elements of the multivalued complex
+   * attribute
+   */
+  @Test
+  public void testPatchPathWithInList()
+  {
+    AttributePathRoot path = RequestUtils.parsePatchPath(userResourceType,
+                                                         "emails[value eq \"a@b.de\" or value eq \"c@d.de\" or "
+                                                                           + "value eq \"e@f.de\"]");
+    MatcherAssert.assertThat(path.getChild(), Matchers.instanceOf(OrExpressionNode.class));
+    PatchFilterResolver patchFilterResolver = new PatchFilterResolver();
+    ObjectNode matchingEmail = Email.builder().value("C@D.de").build();
+    ObjectNode otherEmail = Email.builder().value("x@y.de").build();
+    Assertions.assertTrue(patchFilterResolver.isNodeMatchingFilter(matchingEmail, path).isPresent());
+    Assertions.assertFalse(patchFilterResolver.isNodeMatchingFilter(otherEmail, path).isPresent());
+  }
+
+  /**
+   * verifies that a visitor that does not handle collapsed nodes visits the comparisons of the collapsed node
+   * as the "or" chain they came from without modifying the parsed tree
+   */
+  @Test
+  public void testDefaultVisitOfCollapsedNode()
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, "id eq \"1\" or id eq \"2\" or id eq \"3\"");
+    InExpressionNode inExpressionNode = (InExpressionNode)InExpressionNode.collapseOrOperands((OrExpressionNode)filterNode)
+                                                                          .get(0);
+    List<FilterNode> parents = inExpressionNode.getLeafs()
+                                               .stream()
+                                               .map(FilterNode::getParent)
+                                               .collect(Collectors.toList());
+    FilterNodeVisitor<String> visitor = new FilterNodeVisitor<String>()
+    {
+
+      @Override
+      public String visitAndExpression(AndExpressionNode andExpressionNode)
+      {
+        throw new IllegalStateException("not expected");
+      }
+
+      @Override
+      public String visitOrExpression(OrExpressionNode orExpressionNode)
+      {
+        return "(" + orExpressionNode.getLeftNode().accept(this) + " | " + orExpressionNode.getRightNode().accept(this)
+               + ")";
+      }
+
+      @Override
+      public String visitNotExpression(NotExpressionNode notExpressionNode)
+      {
+        throw new IllegalStateException("not expected");
+      }
+
+      @Override
+      public String visitAttributeExpression(AttributeExpressionLeaf attributeExpressionLeaf)
+      {
+        return attributeExpressionLeaf.getValue();
+      }
+
+      @Override
+      public String visitAttributePath(AttributePathRoot attributePathRoot)
+      {
+        throw new IllegalStateException("not expected");
+      }
+    };
+    Assertions.assertEquals("((1 | 2) | 3)", inExpressionNode.accept(visitor));
+    Assertions.assertEquals(filterNode.accept(visitor), inExpressionNode.accept(visitor));
+    Assertions.assertEquals(parents,
+                            inExpressionNode.getLeafs()
+                                            .stream()
+                                            .map(FilterNode::getParent)
+                                            .collect(Collectors.toList()));
+  }
+}
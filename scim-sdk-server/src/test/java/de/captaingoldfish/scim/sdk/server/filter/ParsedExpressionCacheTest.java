@@ -0,0 +1,145 @@
+package de.captaingoldfish.scim.sdk.server.filter;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.resources.ServiceProvider;
+import de.captaingoldfish.scim.sdk.common.resources.complex.FilterConfig;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.endpoints.ResourceEndpoint;
+import de.captaingoldfish.scim.sdk.server.endpoints.base.UserEndpointDefinition;
+import de.captaingoldfish.scim.sdk.server.endpoints.handler.UserHandlerImpl;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 11:48 <br>
+ * <br>
+ */
+public class ParsedExpressionCacheTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * initializes the user resource type
+   */
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+  }
+
+  /**
+   * verifies that the same filter expression is parsed only once and that the counters are updated
+   */
+  @Test
+  public void testFilterIsParsedOnlyOnce()
+  {
+    final String filter = "userName eq \"goldfish\" and emails[value co \"@ocean\"]";
+    FilterNode first = RequestUtils.parseFilter(userResourceType, filter);
+    FilterNode second = RequestUtils.parseFilter(userResourceType, filter);
+    Assertions.assertSame(first, second);
+    ParsedExpressionCache<FilterNode> filterCache = userResourceType.getFilterCache();
+    Assertions.assertEquals(1, filterCache.getMissCount());
+    Assertions.assertEquals(1, filterCache.getHitCount());
+    Assertions.assertEquals(1, filterCache.getSize());
+  }
+
+  /**
+   * verifies that patch paths are cached separately from filter expressions
+   */
+  @Test
+  public void testPatchPathIsParsedOnlyOnce()
+  {
+    final String path = "emails[type eq \"work\"].value";
+    AttributePathRoot first = RequestUtils.parsePatchPath(userResourceType, path);
+    AttributePathRoot second = RequestUtils.parsePatchPath(userResourceType, path);
+    Assertions.assertSame(first, second);
+    Assertions.assertEquals(path, second.toString());
+    Assertions.assertEquals(1, userResourceType.getPatchPathCache().getHitCount());
+    Assertions.assertEquals(0, userResourceType.getFilterCache().getSize());
+  }
+
+  /**
+   * verifies that the oldest entries are removed if the cache exceeds its maximum size
+   */
+  @Test
+  public void testCacheIsBounded()
+  {
+    ParsedExpressionCache<FilterNode> cache = new ParsedExpressionCache<>(2);
+    for ( String userName : new String[]{"a", "b", "c"} )
+    {
+      String filter = "userName eq \"" + userName + "\"";
+      cache.get(filter, expression -> RequestUtils.parseFilter(userResourceType, expression));
+    }
+    Assertions.assertEquals(2, cache.getSize());
+    Assertions.assertEquals(3, cache.getMissCount());
+
+    cache.get("userName eq \"a\"", expression -> RequestUtils.parseFilter(userResourceType, expression));
+    Assertions.assertEquals(4, cache.getMissCount());
+    cache.get("userName eq \"c\"", expression -> RequestUtils.parseFilter(userResourceType, expression));
+    Assertions.assertEquals(1, cache.getHitCount());
+  }
+
+  /**
+   * verifies that the shared patch path trees do not offer public setters that would allow one request to
+   * change the tree of another request
+   */
+  @Test
+  public void testCachedPatchPathIsNotModifiable()
+  {
+    for ( Method method : AttributePathRoot.class.getMethods() )
+    {
+      Assertions.assertFalse(method.getName().startsWith("set"), method.getName());
+    }
+    AttributePathRoot pathRoot = RequestUtils.parsePatchPath(userResourceType, "name.givenName");
+    Assertions.assertEquals("name.givenName", pathRoot.toString());
+  }
+
+  /**
+   * verifies that the maximum size of the caches is read from the filter config of the service provider
+   */
+  @Test
+  public void testCacheSizeIsBoundToServiceProvider()
+  {
+    ServiceProvider serviceProvider = ServiceProvider.builder()
+                                                     .filterConfig(FilterConfig.builder()
+                                                                               .supported(true)
+                                                                               .expressionCacheSize(1)
+                                                                               .build())
+                                                     .build();
+    ResourceEndpoint resourceEndpoint = new ResourceEndpoint(serviceProvider);
+    ResourceType resourceType = resourceEndpoint.registerEndpoint(new UserEndpointDefinition(new UserHandlerImpl(true)));
+    Assertions.assertEquals(1, resourceType.getFilterCache().getMaxSize());
+    Assertions.assertEquals(1, resourceType.getPatchPathCache().getMaxSize());
+
+    RequestUtils.parseFilter(resourceType, "userName eq \"a\"");
+    RequestUtils.parseFilter(resourceType, "userName eq \"b\"");
+    Assertions.assertEquals(1, resourceType.getFilterCache().getSize());
+
+    serviceProvider.getFilterConfig().setExpressionCacheSize(0);
+    RequestUtils.parseFilter(resourceType, "userName eq \"c\"");
+    Assertions.assertEquals(1, resourceType.getFilterCache().getSize());
+    Assertions.assertEquals(3, resourceType.getFilterCache().getMissCount());
+  }
+}
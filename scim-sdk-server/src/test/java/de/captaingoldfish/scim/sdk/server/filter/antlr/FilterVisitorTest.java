@@ -253,6 +253,21 @@ public class FilterVisitorTest
     Assertions.assertEquals(dateTime, expressionLeaf.getStringValue().get());
   }
 
+  /**
+   * verifies that string values of attributes that are not of type dateTime are not parsed into dateTimes even
+   * if they look like one
+   */
+  @Test
+  public void testDateTimeIsOnlyParsedForDateTimeAttributes()
+  {
+    final String dateTime = "2019-10-17T01:07:00Z";
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, "userName eq \"" + dateTime + "\"");
+    AttributeExpressionLeaf expressionLeaf = (AttributeExpressionLeaf)filterNode;
+    Assertions.assertEquals(Type.STRING, expressionLeaf.getType());
+    Assertions.assertFalse(expressionLeaf.getDateTime().isPresent());
+    Assertions.assertEquals(dateTime, expressionLeaf.getStringValue().get());
+  }
+
   /**
    * this method will add an ambiguous attribute
    */
@@ -0,0 +1,207 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.exceptions.InvalidConfigException;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.complex.Meta;
+import de.captaingoldfish.scim.sdk.common.resources.multicomplex.Email;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.resources.FilterResourceResolver;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 16:40 <br>
+ * <br>
+ */
+public class IndexedResourceStoreTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * the store under test
+   */
+  private IndexedResourceStore<User> store;
+
+  /**
+   * the same users that were put into the store
+   */
+  private List<User> users;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    userResourceType.getFeatures().setIndexedAttributes(Arrays.asList("userName", "emails.value", "meta.lastModified"));
+    this.store = new IndexedResourceStore<>(userResourceType);
+    this.users = new ArrayList<>();
+    for ( int i = 0 ; i < 50 ; i++ )
+    {
+      User user = User.builder()
+                      .id(String.valueOf(i))
+                      .userName((i % 2 == 0 ? "Goldfish" : "shark") + i)
+                      .emails(Arrays.asList(Email.builder().value("user" + i + "@ocean.de").build(),
+                                            Email.builder().value("user" + i + "@sea.de").build()))
+                      .meta(Meta.builder()
+                                .resourceType("User")
+                                .created(Instant.ofEpochSecond(1_600_000_000L))
+                                .lastModified(Instant.ofEpochSecond(1_600_000_000L + i * 60))
+                                .build())
+                      .build();
+      users.add(user);
+      store.put(user);
+    }
+  }
+
+  /**
+   * verifies that the indexed filtering returns exactly the same resources as the full scan
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"userName eq \"goldfish10\"", "userName sw \"GOLD\"", "userName gt \"shark3\"",
+                          "userName ge \"shark3\" and emails.value ew \"@sea.de\"",
+                          "emails[value eq \"USER7@ocean.de\"] or userName eq \"goldfish8\"",
+                          "meta.lastModified gt \"2020-09-13T12:50:00Z\"",
+                          "meta.lastModified le \"2020-09-13T12:30:00Z\" and not (userName sw \"shark\")",
+                          "userName lt \"h\"", "userName eq \"unknown\""})
+  public void testIndexedFilterMatchesFullScan(String filter)
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, filter);
+    List<String> expectedIds = getIds(FilterResourceResolver.filterResources(users, filterNode));
+    List<String> actualIds = getIds(store.getResources().filter(filterNode));
+    MatcherAssert.assertThat(actualIds, Matchers.containsInAnyOrder(expectedIds.toArray()));
+  }
+
+  /**
+   * verifies that replaced and removed resources are no longer found by their old values
+   */
+  @Test
+  public void testIndexIsUpdated()
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, "userName eq \"goldfish0\"");
+    Assertions.assertEquals(1, store.filter(filterNode).size());
+
+    User user = JsonHelper.copyResourceToObject(users.get(0).deepCopy(), User.class);
+    user.setUserName("renamed");
+    store.put(user);
+    Assertions.assertEquals(0, store.filter(filterNode).size());
+    Assertions.assertEquals(1,
+                            store.filter(RequestUtils.parseFilter(userResourceType, "userName eq \"renamed\"")).size());
+
+    store.remove("0");
+    Assertions.assertEquals(49, store.size());
+    Assertions.assertEquals(0,
+                            store.filter(RequestUtils.parseFilter(userResourceType, "userName eq \"renamed\"")).size());
+  }
+
+  /**
+   * verifies that a list returned by the store keeps answering the size, the filtering, the sorted pages and
+   * its elements from the state of the store at the time the list was created
+   */
+  @Test
+  public void testListIsPinnedToTheVersionOfItsCreation()
+  {
+    IndexedResourceStore<User> sortedStore = new IndexedResourceStore<>(userResourceType, Arrays.asList("userName"),
+                                                                        Collections.emptyList(),
+                                                                        Arrays.asList("userName"));
+    users.forEach(sortedStore::put);
+    SchemaAttribute userName = RequestUtils.getSchemaAttributeByAttributeName(userResourceType, "userName");
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, "userName sw \"goldfish\"");
+    IndexedResourceList<User> resourceList = sortedStore.getResources();
+    Assertions.assertTrue(resourceList.getSortedPage(userName, SortOrder.ASCENDING, 1, 10).isPresent());
+
+    sortedStore.remove("0");
+    sortedStore.put(User.builder().id("new").userName("goldfishNew").build());
+
+    Assertions.assertEquals(50, resourceList.size());
+    List<String> filteredIds = getIds(resourceList.filter(filterNode));
+    Assertions.assertEquals(25, filteredIds.size());
+    MatcherAssert.assertThat(filteredIds, Matchers.hasItem("0"));
+    MatcherAssert.assertThat(filteredIds, Matchers.not(Matchers.hasItem("new")));
+    Assertions.assertFalse(resourceList.getSortedPage(userName, SortOrder.ASCENDING, 1, 10).isPresent());
+    MatcherAssert.assertThat(getIds(resourceList), Matchers.containsInAnyOrder(getIds(users).toArray()));
+
+    IndexedResourceList<User> currentList = sortedStore.getResources();
+    Assertions.assertEquals(50, currentList.size());
+    MatcherAssert.assertThat(getIds(currentList.filter(filterNode)), Matchers.hasItem("new"));
+    Assertions.assertEquals(25, currentList.filter(filterNode).size());
+  }
+
+  /**
+   * verifies that a pinned list still finds replaced and removed resources by the values they had when the list
+   * was created and that resources added afterwards are not visible to it
+   */
+  @Test
+  public void testPinnedListFiltersReplacedResourcesByTheirOldValues()
+  {
+    IndexedResourceList<User> resourceList = store.getResources();
+
+    User user = JsonHelper.copyResourceToObject(users.get(0).deepCopy(), User.class);
+    user.setUserName("renamed");
+    store.put(user);
+    store.remove("2");
+    store.put(User.builder().id("new").userName("goldfish0").build());
+
+    FilterNode oldName = RequestUtils.parseFilter(userResourceType, "userName eq \"goldfish0\"");
+    FilterNode newName = RequestUtils.parseFilter(userResourceType, "userName eq \"renamed\"");
+    FilterNode removedName = RequestUtils.parseFilter(userResourceType, "userName eq \"goldfish2\"");
+    Assertions.assertEquals(Arrays.asList("0"), getIds(resourceList.filter(oldName)));
+    Assertions.assertEquals(0, resourceList.filter(newName).size());
+    Assertions.assertEquals(Arrays.asList("2"), getIds(resourceList.filter(removedName)));
+    MatcherAssert.assertThat(getIds(resourceList), Matchers.containsInAnyOrder(getIds(users).toArray()));
+
+    IndexedResourceList<User> currentList = store.getResources();
+    Assertions.assertEquals(Arrays.asList("new"), getIds(currentList.filter(oldName)));
+    Assertions.assertEquals(Arrays.asList("0"), getIds(currentList.filter(newName)));
+    Assertions.assertEquals(0, currentList.filter(removedName).size());
+    Assertions.assertEquals(50, currentList.size());
+  }
+
+  /**
+   * verifies that boolean attributes are rejected as index attributes
+   */
+  @Test
+  public void testBooleanAttributesCannotBeIndexed()
+  {
+    Assertions.assertThrows(InvalidConfigException.class,
+                            () -> new IndexedResourceStore<User>(userResourceType, Arrays.asList("active")));
+  }
+
+  private List<String> getIds(List<User> userList)
+  {
+    return userList.stream().map(user -> user.getId().get()).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,152 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.complex.Meta;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.sort.ResourceNodeComparator;
+import de.captaingoldfish.scim.sdk.server.sort.SortKey;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 04:05 <br>
+ * <br>
+ */
+public class SortedViewTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * the store under test that maintains sorted views on userName and meta.created
+   */
+  private IndexedResourceStore<User> store;
+
+  /**
+   * the users that are currently within the store
+   */
+  private List<User> users;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    userResourceType.getFeatures().setSortedAttributes(Arrays.asList("userName", "meta.created"));
+    this.store = new IndexedResourceStore<>(userResourceType);
+    this.users = new ArrayList<>();
+
+    Random random = new Random(1);
+    for ( int i = 0 ; i < 300 ; i++ )
+    {
+      User user = createUser(random, i);
+      users.add(user);
+      store.put(user);
+    }
+    // replace and remove some of the users so that the views must move and delete entries
+    for ( int i = 0 ; i < 300 ; i += 3 )
+    {
+      User user = createUser(random, i);
+      users.set(i, user);
+      store.put(user);
+    }
+    for ( int i = 299 ; i >= 0 ; i -= 7 )
+    {
+      store.remove(users.remove(i).getId().get());
+    }
+  }
+
+  /**
+   * creates a user with the given id number. Some users do not have a userName or a creation date
+   */
+  private User createUser(Random random, int idNumber)
+  {
+    return User.builder()
+               .id("id-" + idNumber)
+               .userName(random.nextInt(10) == 0 ? null
+                 : (random.nextBoolean() ? "Goldfish" : "goldfish") + random.nextInt(100))
+               .meta(random.nextInt(10) == 0 ? null
+                 : Meta.builder().created(Instant.ofEpochSecond(1_600_000_000L + random.nextInt(50))).build())
+               .build();
+  }
+
+  /**
+   * verifies that each page read from the sorted view matches the page of the fully sorted list and that the
+   * pages together contain each user exactly once
+   */
+  @ParameterizedTest
+  @CsvSource({"userName,ASCENDING,1", "userName,DESCENDING,1", "userName,ASCENDING,7", "userName,DESCENDING,13",
+              "meta.created,ASCENDING,10", "meta.created,DESCENDING,10", "meta.created,DESCENDING,1000"})
+  public void testPagesMatchFullSort(String attributeName, SortOrder sortOrder, int count)
+  {
+    SchemaAttribute sortBy = RequestUtils.getSchemaAttributeByAttributeName(userResourceType, attributeName);
+    List<User> expected = new ArrayList<>(users);
+    expected.sort(new ResourceNodeComparator(sortBy, sortOrder));
+
+    Set<String> ids = new HashSet<>();
+    for ( int startIndex = 1 ; startIndex <= expected.size() ; startIndex += count )
+    {
+      List<User> page = store.getSortedPage(sortBy, sortOrder, startIndex, count).get();
+      Assertions.assertEquals(Math.min(count, expected.size() - startIndex + 1), page.size());
+      for ( int i = 0 ; i < page.size() ; i++ )
+      {
+        User expectedUser = expected.get(startIndex - 1 + i);
+        // resources with equal values are ordered by their ids within the view, so only the keys are compared
+        Assertions.assertEquals(0,
+                                SortKey.compare(SortKey.of(expectedUser, sortBy),
+                                                SortKey.of(page.get(i), sortBy),
+                                                true),
+                                "position " + (startIndex + i));
+        Assertions.assertTrue(ids.add(page.get(i).getId().get()));
+      }
+    }
+    Assertions.assertEquals(users.size(), ids.size());
+    Assertions.assertEquals(0, store.getSortedPage(sortBy, sortOrder, expected.size() + 1, count).get().size());
+  }
+
+  /**
+   * verifies that no page is returned for attributes without a sorted view and that the views are emptied with
+   * the store
+   */
+  @Test
+  public void testUndeclaredAttributeAndClear()
+  {
+    SchemaAttribute id = RequestUtils.getSchemaAttributeByAttributeName(userResourceType, "id");
+    Assertions.assertFalse(store.getSortedPage(id, SortOrder.ASCENDING, 1, 10).isPresent());
+
+    SchemaAttribute userName = RequestUtils.getSchemaAttributeByAttributeName(userResourceType, "userName");
+    store.clear();
+    Assertions.assertEquals(0, store.getSortedPage(userName, SortOrder.ASCENDING, 1, 10).get().size());
+  }
+}
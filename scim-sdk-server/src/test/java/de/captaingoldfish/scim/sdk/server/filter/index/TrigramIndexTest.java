@@ -0,0 +1,146 @@
+package de.captaingoldfish.scim.sdk.server.filter.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.exceptions.InvalidConfigException;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.multicomplex.Email;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.resources.FilterResourceResolver;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 01:40 <br>
+ * <br>
+ */
+public class TrigramIndexTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * the store under test that only has trigram indexes
+   */
+  private IndexedResourceStore<User> store;
+
+  /**
+   * the same users that were put into the store
+   */
+  private List<User> users;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    userResourceType.getFeatures().setNgramIndexedAttributes(Arrays.asList("userName", "emails.value", "id"));
+    this.store = new IndexedResourceStore<>(userResourceType);
+    this.users = new ArrayList<>();
+    for ( int i = 0 ; i < 50 ; i++ )
+    {
+      User user = User.builder()
+                      .id("Id-" + i)
+                      .userName((i % 2 == 0 ? "Goldfish" : "shark") + i)
+                      .emails(Arrays.asList(Email.builder().value("user" + i + "@ocean.de").build(),
+                                            Email.builder().value("user" + i + "@sea.de").build()))
+                      .build();
+      users.add(user);
+      store.put(user);
+    }
+  }
+
+  /**
+   * verifies that the trigram indexed filtering returns exactly the same resources as the full scan
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"userName co \"FISH1\"", "userName co \"ark4\"", "userName ew \"h12\"",
+                          "userName sw \"gold\"", "userName co \"dfi\" and emails.value ew \"@sea.de\"",
+                          "emails[value co \"17@oc\"] or userName co \"sh\"", "id co \"d-1\"", "id co \"D-1\"",
+                          "userName co \"unknown\"", "userName ew \"9\"", "not (userName co \"fish\")"})
+  public void testIndexedFilterMatchesFullScan(String filter)
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, filter);
+    List<String> expectedIds = getIds(FilterResourceResolver.filterResources(users, filterNode));
+    List<String> actualIds = getIds(store.getResources().filter(filterNode));
+    MatcherAssert.assertThat(actualIds, Matchers.containsInAnyOrder(expectedIds.toArray()));
+  }
+
+  /**
+   * verifies that the candidates are narrowed by the index and that too short comparison values are not
+   * resolved by the index
+   */
+  @Test
+  public void testCandidatesAreNarrowed()
+  {
+    TrigramIndex trigramIndex = new TrigramIndex(RequestUtils.getSchemaAttributeByAttributeName(userResourceType,
+                                                                                                "userName"));
+    users.forEach(user -> trigramIndex.add(user.getId().get(), user));
+
+    AttributeExpressionLeaf leaf = getLeaf("userName co \"fish4\"");
+    Assertions.assertTrue(trigramIndex.supports(leaf));
+    Set<String> candidates = trigramIndex.lookup(leaf);
+    MatcherAssert.assertThat(candidates,
+                             Matchers.containsInAnyOrder("Id-4", "Id-40", "Id-42", "Id-44", "Id-46", "Id-48"));
+
+    Assertions.assertEquals(Collections.singleton("Id-12"), trigramIndex.lookup(getLeaf("userName ew \"h12\"")));
+    Assertions.assertTrue(trigramIndex.supports(getLeaf("userName sw \"go\"")));
+    Assertions.assertFalse(trigramIndex.supports(getLeaf("userName sw \"g\"")));
+    Assertions.assertFalse(trigramIndex.supports(getLeaf("userName co \"fi\"")));
+    Assertions.assertFalse(trigramIndex.supports(getLeaf("userName eq \"goldfish4\"")));
+
+    trigramIndex.remove("Id-4", users.get(4));
+    MatcherAssert.assertThat(trigramIndex.lookup(leaf), Matchers.not(Matchers.hasItem("Id-4")));
+  }
+
+  /**
+   * verifies that only string attributes can get a trigram index
+   */
+  @Test
+  public void testNonStringAttributesCannotBeIndexed()
+  {
+    Assertions.assertThrows(InvalidConfigException.class,
+                            () -> new IndexedResourceStore<User>(userResourceType, Collections.emptyList(),
+                                                                 Arrays.asList("meta.lastModified")));
+  }
+
+  private AttributeExpressionLeaf getLeaf(String filter)
+  {
+    return (AttributeExpressionLeaf)RequestUtils.parseFilter(userResourceType, filter);
+  }
+
+  private List<String> getIds(List<User> userList)
+  {
+    return userList.stream().map(user -> user.getId().get()).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,122 @@
+package de.captaingoldfish.scim.sdk.server.filter.resources;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.complex.Name;
+import de.captaingoldfish.scim.sdk.common.resources.multicomplex.Email;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.resources.AllTypes;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.FileReferences;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 10:03 <br>
+ * <br>
+ */
+public class FilterCompilerTest implements FileReferences
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * the resource type for all types definition. Contains data types of any possible scim representation
+   */
+  private ResourceType allTypesResourceType;
+
+  /**
+   * initializes the resource types for the following tests
+   */
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    JsonNode allTypesResourceType = JsonHelper.loadJsonDocument(ALL_TYPES_RESOURCE_TYPE);
+    JsonNode allTypesSchema = JsonHelper.loadJsonDocument(ALL_TYPES_JSON_SCHEMA);
+    this.allTypesResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                         allTypesResourceType,
+                                                                         allTypesSchema,
+                                                                         enterpriseUser);
+  }
+
+  /**
+   * verifies that a compiled predicate can be reused on several resources and evaluates nested and multivalued
+   * complex attributes correctly
+   */
+  @Test
+  public void testCompiledPredicateIsReusable()
+  {
+    User goldfish = User.builder()
+                        .userName("goldfish")
+                        .name(Name.builder().givenName("Captain").build())
+                        .emails(Arrays.asList(Email.builder().value("goldfish@ocean.de").build()))
+                        .build();
+    User shark = User.builder().userName("Shark").name(Name.builder().givenName("Bruce").build()).build();
+
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType,
+                                                     "name.givenName sw \"cap\" or emails.value ew \"@ocean.de\"");
+    Predicate<ResourceNode> predicate = FilterCompiler.compile(filterNode);
+    Assertions.assertTrue(predicate.test(goldfish));
+    Assertions.assertFalse(predicate.test(shark));
+
+    filterNode = RequestUtils.parseFilter(userResourceType, "not (userName eq \"shark\")");
+    predicate = FilterCompiler.compile(filterNode);
+    Assertions.assertTrue(predicate.test(goldfish));
+    Assertions.assertFalse(predicate.test(shark));
+  }
+
+  /**
+   * verifies that numbers, booleans and dateTimes are compared with the precomputed comparison values
+   */
+  @Test
+  public void testTypedComparisons()
+  {
+    AllTypes allTypes = new AllTypes(true);
+    allTypes.setNumber(5L);
+    allTypes.setDecimal(5.5);
+    allTypes.setBool(true);
+    allTypes.setDate(Instant.parse("2019-10-20T10:00:00Z"));
+    allTypes.setNumberArray(Arrays.asList(1L, 2L, 3L));
+
+    Assertions.assertTrue(matches(allTypes, "number gt 4 and decimal le 5.5"));
+    Assertions.assertFalse(matches(allTypes, "number ne 5"));
+    Assertions.assertTrue(matches(allTypes, "numberArray eq 2"));
+    Assertions.assertFalse(matches(allTypes, "numberArray gt 3"));
+    Assertions.assertTrue(matches(allTypes, "bool eq true"));
+    Assertions.assertTrue(matches(allTypes, "date gt \"2019-10-20T09:59:59Z\""));
+    Assertions.assertFalse(matches(allTypes, "date lt \"2019-10-20T10:00:00Z\""));
+  }
+
+  /**
+   * compiles the given filter on the all types resource type and evaluates it on the given resource
+   */
+  private boolean matches(AllTypes allTypes, String filter)
+  {
+    return FilterCompiler.compile(RequestUtils.parseFilter(allTypesResourceType, filter)).test(allTypes);
+  }
+}
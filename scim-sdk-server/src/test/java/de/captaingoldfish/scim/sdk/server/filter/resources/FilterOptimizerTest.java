@@ -0,0 +1,169 @@
+package de.captaingoldfish.scim.sdk.server.filter.resources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.multicomplex.Email;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.AndExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.AttributeExpressionLeaf;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.NotExpressionNode;
+import de.captaingoldfish.scim.sdk.server.filter.OrExpressionNode;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 17:52 <br>
+ * <br>
+ */
+public class FilterOptimizerTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * some users to evaluate the filters on
+   */
+  private List<User> users;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    this.users = new ArrayList<>();
+    for ( int i = 0 ; i < 20 ; i++ )
+    {
+      users.add(User.builder()
+                    .id(String.valueOf(i))
+                    .userName("user" + i)
+                    .active(i % 3 == 0)
+                    .nickName(i % 2 == 0 ? null : "nick" + i)
+                    .emails(Arrays.asList(Email.builder().value("user" + i + "@ocean.de").build()))
+                    .build());
+    }
+  }
+
+  /**
+   * verifies that the reordered and simplified predicates still return the same results as the original
+   * expression
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"emails.value co \"1\" and userName eq \"user1\" and active eq false",
+                          "emails.value ew \"2@ocean.de\" or userName eq \"user5\" or nickName pr",
+                          "(emails.value co \"1\" or active eq true) and not (nickName pr)",
+                          "not (not (userName sw \"user1\"))", "active pr and userName eq \"user3\"",
+                          "active pr or userName eq \"user3\"", "not (active pr) or userName eq \"user3\"",
+                          "not (active pr) and userName eq \"user3\""})
+  public void testOptimizedFilterMatchesOriginal(String filter)
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, filter);
+    List<String> expectedIds = users.stream()
+                                    .filter(user -> evaluateUnoptimized(filterNode, user))
+                                    .map(user -> user.getId().get())
+                                    .collect(Collectors.toList());
+    List<String> actualIds = users.stream()
+                                  .filter(FilterCompiler.compile(filterNode))
+                                  .map(user -> user.getId().get())
+                                  .collect(Collectors.toList());
+    Assertions.assertEquals(expectedIds, actualIds);
+  }
+
+  /**
+   * verifies that a "pr" expression on a simple boolean attribute is folded into a constant
+   */
+  @Test
+  public void testConstantFolding()
+  {
+    Assertions.assertEquals(CompiledFilter.TRUE,
+                            FilterCompiler.compileNode(RequestUtils.parseFilter(userResourceType, "active pr")));
+    Assertions.assertEquals(CompiledFilter.FALSE,
+                            FilterCompiler.compileNode(RequestUtils.parseFilter(userResourceType,
+                                                                                "not (active pr) and userName pr")));
+    Assertions.assertEquals(CompiledFilter.TRUE,
+                            FilterCompiler.compileNode(RequestUtils.parseFilter(userResourceType,
+                                                                                "userName pr or active pr")));
+  }
+
+  /**
+   * verifies that a double negation is removed
+   */
+  @Test
+  public void testDoubleNegationIsRemoved()
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, "not (not (userName eq \"user1\"))");
+    CompiledFilter compiledFilter = FilterCompiler.compileNode(filterNode);
+    AttributeExpressionLeaf leaf = (AttributeExpressionLeaf)RequestUtils.parseFilter(userResourceType,
+                                                                                     "userName eq \"user1\"");
+    Assertions.assertEquals(FilterOptimizer.estimateSelectivity(leaf), compiledFilter.getSelectivity());
+  }
+
+  /**
+   * verifies that cheap and selective operands are evaluated first within "and" and "or" expressions
+   */
+  @Test
+  public void testOperandsAreReordered()
+  {
+    List<String> evaluationOrder = new ArrayList<>();
+    CompiledFilter expensive = new CompiledFilter(resource -> evaluationOrder.add("expensive") && false, 12, 0.3);
+    CompiledFilter cheap = new CompiledFilter(resource -> evaluationOrder.add("cheap") && false, 2, 0.1);
+
+    Assertions.assertFalse(FilterOptimizer.and(Arrays.asList(expensive, cheap)).getPredicate().test(null));
+    MatcherAssert.assertThat(evaluationOrder, Matchers.contains("cheap"));
+
+    evaluationOrder.clear();
+    CompiledFilter likely = new CompiledFilter(resource -> evaluationOrder.add("likely"), 2, 0.9);
+    CompiledFilter unlikely = new CompiledFilter(resource -> evaluationOrder.add("unlikely"), 2, 0.1);
+    Assertions.assertTrue(FilterOptimizer.or(Arrays.asList(unlikely, likely)).getPredicate().test(null));
+    MatcherAssert.assertThat(evaluationOrder, Matchers.contains("likely"));
+  }
+
+  /**
+   * evaluates the filter without any reordering or simplification by compiling each single leaf
+   */
+  private boolean evaluateUnoptimized(FilterNode filterNode, User user)
+  {
+    if (filterNode instanceof AndExpressionNode)
+    {
+      AndExpressionNode and = (AndExpressionNode)filterNode;
+      return evaluateUnoptimized(and.getLeftNode(), user) && evaluateUnoptimized(and.getRightNode(), user);
+    }
+    if (filterNode instanceof OrExpressionNode)
+    {
+      OrExpressionNode or = (OrExpressionNode)filterNode;
+      return evaluateUnoptimized(or.getLeftNode(), user) || evaluateUnoptimized(or.getRightNode(), user);
+    }
+    if (filterNode instanceof NotExpressionNode)
+    {
+      return !evaluateUnoptimized(((NotExpressionNode)filterNode).getRightNode(), user);
+    }
+    return FilterCompiler.compile(filterNode).test(user);
+  }
+}
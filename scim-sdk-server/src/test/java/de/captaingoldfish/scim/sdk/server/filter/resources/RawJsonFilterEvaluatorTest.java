@@ -0,0 +1,132 @@
+package de.captaingoldfish.scim.sdk.server.filter.resources;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.exceptions.IOException;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.complex.Name;
+import de.captaingoldfish.scim.sdk.common.resources.multicomplex.Email;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 00:41 <br>
+ * <br>
+ */
+public class RawJsonFilterEvaluatorTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * some users to evaluate the filters on
+   */
+  private List<User> users;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    this.users = new ArrayList<>();
+    for ( int i = 0 ; i < 20 ; i++ )
+    {
+      users.add(User.builder()
+                    .id(String.valueOf(i))
+                    .userName("user" + i)
+                    .active(i % 3 == 0)
+                    .nickName(i % 2 == 0 ? null : "nick" + i)
+                    .name(Name.builder().givenName("given" + i).build())
+                    .emails(Arrays.asList(Email.builder().value("user" + i + "@ocean.de").build()))
+                    .build());
+    }
+  }
+
+  /**
+   * verifies that the evaluation on the raw json documents returns the same results as the evaluation on the
+   * parsed resources
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"userName eq \"user1\"", "emails.value co \"1\" and active eq true",
+                          "nickName pr or name.givenName ew \"4\"", "not (emails[value sw \"user1\"])",
+                          "id eq \"1\" or id eq \"2\" or id eq \"3\"", "active eq false and not (nickName pr)"})
+  public void testRawEvaluationMatchesResourceEvaluation(String filter)
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, filter);
+    List<String> expectedIds = FilterResourceResolver.filterResources(users, filterNode)
+                                                     .stream()
+                                                     .map(user -> user.getId().get())
+                                                     .collect(Collectors.toList());
+
+    RawJsonFilterEvaluator evaluator = new RawJsonFilterEvaluator(filterNode);
+    List<byte[]> documents = users.stream()
+                                  .map(user -> user.toString().getBytes(StandardCharsets.UTF_8))
+                                  .collect(Collectors.toList());
+    List<User> matchingUsers = evaluator.filterDocuments(documents, User.class);
+    Assertions.assertEquals(expectedIds,
+                            matchingUsers.stream().map(user -> user.getId().get()).collect(Collectors.toList()));
+    for ( User user : matchingUsers )
+    {
+      Assertions.assertEquals(users.get(Integer.parseInt(user.getId().get())), user);
+    }
+  }
+
+  /**
+   * verifies that only the attributes referenced by the filter are read from the documents
+   */
+  @Test
+  public void testOnlyReferencedAttributesAreRead()
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType,
+                                                     "userName eq \"user1\" or emails.value ew \"@ocean.de\"");
+    RawJsonFilterEvaluator evaluator = new RawJsonFilterEvaluator(filterNode);
+    Assertions.assertEquals(new HashSet<>(Arrays.asList("userName", "emails")), evaluator.getReferencedAttributes());
+
+    // the parser stops after the referenced attributes so the broken remainder of the document is never read
+    String document = "{\"userName\": \"user1\", \"emails\": [], \"nickName\": ";
+    Assertions.assertTrue(evaluator.matches(document));
+    Assertions.assertFalse(evaluator.readIfMatching("{\"userName\": \"user2\", \"emails\": []}", User.class)
+                                    .isPresent());
+  }
+
+  /**
+   * verifies that an invalid document causes the same exception as if the document would have been parsed
+   * completely
+   */
+  @Test
+  public void testInvalidDocument()
+  {
+    FilterNode filterNode = RequestUtils.parseFilter(userResourceType, "userName eq \"user1\"");
+    RawJsonFilterEvaluator evaluator = new RawJsonFilterEvaluator(filterNode);
+    Assertions.assertThrows(IOException.class, () -> evaluator.matches("{\"nickName\": "));
+    Assertions.assertThrows(IOException.class, () -> evaluator.matches("[]"));
+  }
+}
@@ -0,0 +1,474 @@
+package de.captaingoldfish.scim.sdk.server.filter.translator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.exceptions.NotImplementedException;
+import de.captaingoldfish.scim.sdk.common.resources.ResourceNode;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.filter.FilterNode;
+import de.captaingoldfish.scim.sdk.server.filter.resources.FilterCompiler;
+import de.captaingoldfish.scim.sdk.server.resources.AllTypes;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.FileReferences;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 14:12 <br>
+ * <br>
+ */
+public class SqlFilterTranslatorTest implements FileReferences
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * the resource type for all types definition
+   */
+  private ResourceType allTypesResourceType;
+
+  /**
+   * a simple mapper that uses the attribute names as column names
+   */
+  private SqlFilterTranslator translator;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    JsonNode allTypesResourceType = JsonHelper.loadJsonDocument(ALL_TYPES_RESOURCE_TYPE);
+    JsonNode allTypesSchema = JsonHelper.loadJsonDocument(ALL_TYPES_JSON_SCHEMA);
+    this.allTypesResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                         allTypesResourceType,
+                                                                         allTypesSchema,
+                                                                         enterpriseUser);
+    this.translator = new SqlFilterTranslator(new SqlColumnMapper()
+    {
+
+      @Override
+      public String getColumn(SchemaAttribute schemaAttribute)
+      {
+        return schemaAttribute.getParent() == null ? "r." + schemaAttribute.getName()
+          : schemaAttribute.getParent().getName() + "." + schemaAttribute.getName();
+      }
+
+      @Override
+      public String getMultiValuedSubQuery(SchemaAttribute multiValuedAttribute)
+      {
+        String table = multiValuedAttribute.getName();
+        return "SELECT 1 FROM " + table + " " + table + " WHERE " + table + ".resource_id = r.id";
+      }
+    });
+  }
+
+  /**
+   * verifies that simple expressions are translated with respect to the case exactness of the attribute
+   */
+  @Test
+  public void testTranslateSimpleExpressions()
+  {
+    SqlFilter sqlFilter = translate(userResourceType, "userName eq \"Goldfish\" or not (externalId sw \"a_b\")");
+    Assertions.assertEquals("(LOWER(r.userName) = ? OR (r.externalId LIKE ? ESCAPE '!') IS NOT TRUE)",
+                            sqlFilter.getWhereClause());
+    Assertions.assertEquals(Arrays.asList("goldfish", "a!_b%"), sqlFilter.getParameters());
+
+    sqlFilter = translate(allTypesResourceType, "number ge 5 and bool eq true");
+    Assertions.assertEquals("(r.number >= ? AND r.bool = ?)", sqlFilter.getWhereClause());
+    Assertions.assertEquals(Arrays.asList(new BigDecimal("5"), true), sqlFilter.getParameters());
+
+    sqlFilter = translate(userResourceType, "title pr and nickName eq null");
+    Assertions.assertEquals("(r.title IS NOT NULL AND r.nickName IS NULL)", sqlFilter.getWhereClause());
+    Assertions.assertEquals(Collections.emptyList(), sqlFilter.getParameters());
+  }
+
+  /**
+   * verifies that all conditions of a value path expression are put into the same sub-query
+   */
+  @Test
+  public void testTranslateMultiValuedComplexAttributes()
+  {
+    SqlFilter sqlFilter = translate(userResourceType, "emails[type eq \"work\" and value co \"@\"]");
+    Assertions.assertEquals("EXISTS (SELECT 1 FROM emails emails WHERE emails.resource_id = r.id AND "
+                            + "(LOWER(emails.type) = ? AND LOWER(emails.value) LIKE ? ESCAPE '!'))",
+                            sqlFilter.getWhereClause());
+    Assertions.assertEquals(Arrays.asList("work", "%@%"), sqlFilter.getParameters());
+
+    sqlFilter = translate(userResourceType, "emails.value ew \"@ocean.de\"");
+    Assertions.assertEquals("EXISTS (SELECT 1 FROM emails emails WHERE emails.resource_id = r.id AND "
+                            + "LOWER(emails.value) LIKE ? ESCAPE '!')",
+                            sqlFilter.getWhereClause());
+  }
+
+  /**
+   * verifies that a "ne" comparison on a multivalued attribute matches only if no element is equal to the value
+   * while the same comparison within a value path expression is evaluated on each element
+   */
+  @Test
+  public void testTranslateNotEqualOnMultiValuedAttribute()
+  {
+    SqlFilter sqlFilter = translate(userResourceType, "emails.value ne \"a@b.de\"");
+    Assertions.assertEquals("NOT EXISTS (SELECT 1 FROM emails emails WHERE emails.resource_id = r.id AND "
+                            + "LOWER(emails.value) = ?)",
+                            sqlFilter.getWhereClause());
+    Assertions.assertEquals(Collections.singletonList("a@b.de"), sqlFilter.getParameters());
+
+    sqlFilter = translate(userResourceType, "emails[type eq \"work\" and value ne \"a@b.de\"]");
+    Assertions.assertEquals("EXISTS (SELECT 1 FROM emails emails WHERE emails.resource_id = r.id AND "
+                            + "(LOWER(emails.type) = ? AND (emails.value IS NULL OR LOWER(emails.value) <> ?)))",
+                            sqlFilter.getWhereClause());
+
+    sqlFilter = translate(userResourceType, "userName ne \"goldfish\"");
+    Assertions.assertEquals("(r.userName IS NULL OR LOWER(r.userName) <> ?)", sqlFilter.getWhereClause());
+  }
+
+  /**
+   * verifies that the escape character of "LIKE" expressions can be adjusted to the datastore
+   */
+  @Test
+  public void testCustomLikeEscapeCharacter()
+  {
+    SqlFilterTranslator customTranslator = new SqlFilterTranslator(new SqlColumnMapper()
+    {
+
+      @Override
+      public String getColumn(SchemaAttribute schemaAttribute)
+      {
+        return schemaAttribute.getName();
+      }
+
+      @Override
+      public String getMultiValuedSubQuery(SchemaAttribute multiValuedAttribute)
+      {
+        return null;
+      }
+    }, '#');
+    SqlFilter sqlFilter = customTranslator.translate(RequestUtils.parseFilter(userResourceType,
+                                                                              "externalId co \"5%#\""));
+    Assertions.assertEquals("externalId LIKE ? ESCAPE '#'", sqlFilter.getWhereClause());
+    Assertions.assertEquals(Collections.singletonList("%5#%##%"), sqlFilter.getParameters());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new SqlFilterTranslator(null, '\''));
+  }
+
+  /**
+   * verifies that chains of "eq" comparisons on the same attribute are translated into an "IN" list
+   */
+  @Test
+  public void testTranslateInList()
+  {
+    SqlFilter sqlFilter = translate(userResourceType, "id eq \"1\" or id eq \"2\" or id eq \"3\"");
+    Assertions.assertEquals("r.id IN (?, ?, ?)", sqlFilter.getWhereClause());
+    Assertions.assertEquals(Arrays.asList("1", "2", "3"), sqlFilter.getParameters());
+
+    sqlFilter = translate(userResourceType,
+                          "emails.value eq \"A@b.de\" or emails.value eq \"c@d.de\" or "
+                                            + "emails.value eq \"e@f.de\"");
+    Assertions.assertEquals("EXISTS (SELECT 1 FROM emails emails WHERE emails.resource_id = r.id AND "
+                            + "LOWER(emails.value) IN (?, ?, ?))",
+                            sqlFilter.getWhereClause());
+    Assertions.assertEquals(Arrays.asList("a@b.de", "c@d.de", "e@f.de"), sqlFilter.getParameters());
+  }
+
+  /**
+   * verifies that negations and boolean comparisons match missing values like the in-memory filtering
+   */
+  @Test
+  public void testTranslateMissingValues()
+  {
+    SqlFilter sqlFilter = translate(allTypesResourceType, "not (number gt 5)");
+    Assertions.assertEquals("(r.number > ?) IS NOT TRUE", sqlFilter.getWhereClause());
+
+    sqlFilter = translate(allTypesResourceType, "bool eq false or bool ne false");
+    Assertions.assertEquals("((r.bool = ? OR r.bool IS NULL) OR r.bool <> ?)", sqlFilter.getWhereClause());
+    Assertions.assertEquals(Arrays.asList(false, false), sqlFilter.getParameters());
+
+    sqlFilter = translate(allTypesResourceType, "bool ne true");
+    Assertions.assertEquals("(r.bool <> ? OR r.bool IS NULL)", sqlFilter.getWhereClause());
+  }
+
+  /**
+   * evaluates the translated where-clause with the three-valued logic of sql on resources with missing values
+   * and verifies that it matches the same resources as the in-memory filtering
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"not (string eq \"a\")", "not (number gt 5)", "not (not (number gt 5))",
+                          "not (string eq \"a\" and number gt 5)", "not (string sw \"a\" or number lt 3)",
+                          "string ne \"a\" and not (bool eq true)", "bool eq false", "bool eq true", "bool ne false",
+                          "bool ne true", "not (bool eq false)", "not (string pr)",
+                          "not (number ge 3 and bool eq false)"})
+  public void testTranslationMatchesInMemoryFiltering(String filter)
+  {
+    List<AllTypes> resources = new ArrayList<>();
+    for ( String string : Arrays.asList(null, "a", "abc", "b") )
+    {
+      for ( Long number : Arrays.asList(null, 1L, 5L, 10L) )
+      {
+        for ( Boolean bool : Arrays.asList(null, true, false) )
+        {
+          AllTypes allTypes = new AllTypes(true);
+          allTypes.setString(string);
+          allTypes.setNumber(number);
+          allTypes.setBool(bool);
+          resources.add(allTypes);
+        }
+      }
+    }
+    FilterNode filterNode = RequestUtils.parseFilter(allTypesResourceType, filter);
+    Predicate<ResourceNode> inMemoryFilter = FilterCompiler.compile(filterNode);
+    SqlFilter sqlFilter = translator.translate(filterNode);
+    for ( AllTypes resource : resources )
+    {
+      boolean sqlMatch = Boolean.TRUE.equals(new SqlEvaluator(sqlFilter, resource).evaluate());
+      Assertions.assertEquals(inMemoryFilter.test(resource), sqlMatch, sqlFilter.getWhereClause() + " on " + resource);
+    }
+  }
+
+  /**
+   * verifies that comparisons that have no sql representation are rejected
+   */
+  @Test
+  public void testUnsupportedComparison()
+  {
+    Assertions.assertThrows(NotImplementedException.class, () -> translate(allTypesResourceType, "number co 5"));
+  }
+
+  private SqlFilter translate(ResourceType resourceType, String filter)
+  {
+    return translator.translate(RequestUtils.parseFilter(resourceType, filter));
+  }
+
+  /**
+   * a minimal evaluator for the where-clauses of simple attributes that applies the three-valued logic of sql.
+   * An unknown result is represented by null
+   */
+  private static class SqlEvaluator
+  {
+
+    /**
+     * splits a where-clause into its tokens
+     */
+    private static final Pattern TOKEN = Pattern.compile("'[^']*'|<>|>=|<=|[()=<>?]|[\\w.]+");
+
+    /**
+     * the tokens of the where-clause
+     */
+    private final List<String> tokens = new ArrayList<>();
+
+    /**
+     * the parameters of the where-clause
+     */
+    private final Iterator<Object> parameters;
+
+    /**
+     * the row that is evaluated
+     */
+    private final AllTypes row;
+
+    /**
+     * the position of the next token
+     */
+    private int position;
+
+    public SqlEvaluator(SqlFilter sqlFilter, AllTypes row)
+    {
+      Matcher matcher = TOKEN.matcher(sqlFilter.getWhereClause());
+      while (matcher.find())
+      {
+        tokens.add(matcher.group());
+      }
+      this.parameters = sqlFilter.getParameters().iterator();
+      this.row = row;
+    }
+
+    public Boolean evaluate()
+    {
+      Boolean result = parseOr();
+      Assertions.assertEquals(tokens.size(), position, "unparsed tokens in " + tokens);
+      return result;
+    }
+
+    private Boolean parseOr()
+    {
+      Boolean result = parseAnd();
+      while (accept("OR"))
+      {
+        Boolean right = parseAnd();
+        result = Boolean.TRUE.equals(result) || Boolean.TRUE.equals(right) ? Boolean.TRUE
+          : (result == null || right == null ? null : Boolean.FALSE);
+      }
+      return result;
+    }
+
+    private Boolean parseAnd()
+    {
+      Boolean result = parsePrimary();
+      while (accept("AND"))
+      {
+        Boolean right = parsePrimary();
+        result = Boolean.FALSE.equals(result) || Boolean.FALSE.equals(right) ? Boolean.FALSE
+          : (result == null || right == null ? null : Boolean.TRUE);
+      }
+      return result;
+    }
+
+    private Boolean parsePrimary()
+    {
+      if (accept("("))
+      {
+        Boolean result = parseOr();
+        expect(")");
+        if (accept("IS"))
+        {
+          expect("NOT");
+          expect("TRUE");
+          return !Boolean.TRUE.equals(result);
+        }
+        return result;
+      }
+      Object value = parseValue();
+      if (accept("IS"))
+      {
+        boolean negated = accept("NOT");
+        expect("NULL");
+        return negated == (value != null);
+      }
+      String operator = tokens.get(position++);
+      if ("LIKE".equals(operator))
+      {
+        String pattern = (String)parseValue();
+        expect("ESCAPE");
+        position++;
+        return value == null ? null : ((String)value).matches(toRegex(pattern));
+      }
+      Object compared = parseValue();
+      if (value == null || compared == null)
+      {
+        return null;
+      }
+      int comparison = compare(value, compared);
+      switch (operator)
+      {
+        case "=":
+          return comparison == 0;
+        case "<>":
+          return comparison != 0;
+        case ">":
+          return comparison > 0;
+        case ">=":
+          return comparison >= 0;
+        case "<":
+          return comparison < 0;
+        default:
+          return comparison <= 0;
+      }
+    }
+
+    private Object parseValue()
+    {
+      String token = tokens.get(position++);
+      if ("?".equals(token))
+      {
+        return parameters.next();
+      }
+      if ("LOWER".equals(token))
+      {
+        expect("(");
+        Object value = parseValue();
+        expect(")");
+        return value == null ? null : ((String)value).toLowerCase();
+      }
+      switch (token)
+      {
+        case "r.string":
+          return row.getString().orElse(null);
+        case "r.number":
+          return row.getNumber().map(BigDecimal::valueOf).orElse(null);
+        case "r.bool":
+          return row.getBool().orElse(null);
+        default:
+          throw new IllegalStateException("unknown column: " + token);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object value, Object compared)
+    {
+      if (value instanceof Boolean)
+      {
+        return Objects.equals(value, compared) ? 0 : 1;
+      }
+      return ((Comparable<Object>)value).compareTo(compared);
+    }
+
+    private static String toRegex(String pattern)
+    {
+      StringBuilder regex = new StringBuilder();
+      for ( int i = 0 ; i < pattern.length() ; i++ )
+      {
+        char c = pattern.charAt(i);
+        if (c == SqlFilterTranslator.DEFAULT_LIKE_ESCAPE_CHARACTER)
+        {
+          regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+        }
+        else if (c == '%')
+        {
+          regex.append(".*");
+        }
+        else if (c == '_')
+        {
+          regex.append('.');
+        }
+        else
+        {
+          regex.append(Pattern.quote(String.valueOf(c)));
+        }
+      }
+      return regex.toString();
+    }
+
+    private boolean accept(String token)
+    {
+      if (position < tokens.size() && tokens.get(position).equals(token))
+      {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(String token)
+    {
+      Assertions.assertTrue(accept(token), "expected '" + token + "' at " + position + " in " + tokens);
+    }
+  }
+}
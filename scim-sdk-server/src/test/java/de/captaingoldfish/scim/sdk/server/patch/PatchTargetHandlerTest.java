@@ -18,6 +18,8 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import de.captaingoldfish.scim.sdk.common.constants.AttributeNames;
 import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
@@ -2622,8 +2624,7 @@ public class PatchTargetHandlerTest implements FileReferences
   {
     JsonNode readOnlyNameDef = JsonHelper.loadJsonDocument(READ_ONLY_NAME_ATTRIBUTE);
     Schema allTypesSchema = resourceTypeFactory.getSchemaFactory().getResourceSchema(AllTypes.ALL_TYPES_URI);
-    allTypesSchema.addAttribute(readOnlyNameDef);
-    TestHelper.modifyAttributeMetaData(allTypesSchema,
+    TestHelper.modifyAttributeMetaData(toAttributeList(readOnlyNameDef),
                                        "name",
                                        null,
                                        Mutability.READ_WRITE,
@@ -2633,6 +2634,7 @@ public class PatchTargetHandlerTest implements FileReferences
                                        null,
                                        null,
                                        null);
+    allTypesSchema.addAttribute(readOnlyNameDef);
 
 
     final String path = "name.givenName";
@@ -2709,8 +2711,7 @@ public class PatchTargetHandlerTest implements FileReferences
   {
     JsonNode readOnlyNameDef = JsonHelper.loadJsonDocument(IMMUTABLE_NAME_ATTRIBUTE);
     Schema allTypesSchema = resourceTypeFactory.getSchemaFactory().getResourceSchema(AllTypes.ALL_TYPES_URI);
-    allTypesSchema.addAttribute(readOnlyNameDef);
-    TestHelper.modifyAttributeMetaData(allTypesSchema,
+    TestHelper.modifyAttributeMetaData(toAttributeList(readOnlyNameDef),
                                        "name.givenName",
                                        null,
                                        Mutability.READ_WRITE,
@@ -2720,6 +2721,7 @@ public class PatchTargetHandlerTest implements FileReferences
                                        null,
                                        null,
                                        null);
+    allTypesSchema.addAttribute(readOnlyNameDef);
 
 
     final String path = "name.givenName";
@@ -2757,8 +2759,7 @@ public class PatchTargetHandlerTest implements FileReferences
   {
     JsonNode readOnlyNameDef = JsonHelper.loadJsonDocument(IMMUTABLE_NAME_ATTRIBUTE);
     Schema allTypesSchema = resourceTypeFactory.getSchemaFactory().getResourceSchema(AllTypes.ALL_TYPES_URI);
-    allTypesSchema.addAttribute(readOnlyNameDef);
-    TestHelper.modifyAttributeMetaData(allTypesSchema,
+    TestHelper.modifyAttributeMetaData(toAttributeList(readOnlyNameDef),
                                        "name",
                                        null,
                                        Mutability.READ_WRITE,
@@ -2768,6 +2769,7 @@ public class PatchTargetHandlerTest implements FileReferences
                                        null,
                                        null,
                                        null);
+    allTypesSchema.addAttribute(readOnlyNameDef);
 
 
     final String path = "name.givenName";
@@ -2805,8 +2807,7 @@ public class PatchTargetHandlerTest implements FileReferences
   {
     JsonNode readOnlyNameDef = JsonHelper.loadJsonDocument(IMMUTABLE_NAME_ATTRIBUTE);
     Schema allTypesSchema = resourceTypeFactory.getSchemaFactory().getResourceSchema(AllTypes.ALL_TYPES_URI);
-    allTypesSchema.addAttribute(readOnlyNameDef);
-    TestHelper.modifyAttributeMetaData(allTypesSchema,
+    TestHelper.modifyAttributeMetaData(toAttributeList(readOnlyNameDef),
                                        "name",
                                        null,
                                        Mutability.READ_WRITE,
@@ -2816,6 +2817,7 @@ public class PatchTargetHandlerTest implements FileReferences
                                        null,
                                        null,
                                        null);
+    allTypesSchema.addAttribute(readOnlyNameDef);
 
     final String path = "name.givenName";
     List<String> values = Arrays.asList("chuck");
@@ -3162,4 +3164,17 @@ public class PatchTargetHandlerTest implements FileReferences
                               ex.getDetail());
     }
   }
+
+  /**
+   * wraps the given attribute definition into an "attributes" list so that it can be modified with
+   * {@link TestHelper#modifyAttributeMetaData(JsonNode, String, Type, Mutability, Returned, Uniqueness, Boolean, Boolean, Boolean, List)}
+   * before it is added to a schema
+   */
+  private JsonNode toAttributeList(JsonNode attributeDefinition)
+  {
+    ObjectNode attributeList = new ObjectNode(JsonNodeFactory.instance);
+    attributeList.set(AttributeNames.RFC7643.ATTRIBUTES,
+                      new ArrayNode(JsonNodeFactory.instance).add(attributeDefinition));
+    return attributeList;
+  }
 }
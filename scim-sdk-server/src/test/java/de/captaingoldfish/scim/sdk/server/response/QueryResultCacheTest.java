@@ -0,0 +1,139 @@
+package de.captaingoldfish.scim.sdk.server.response;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import de.captaingoldfish.scim.sdk.server.endpoints.ResourceEndpointTest.ClientAuthorization;
+import de.captaingoldfish.scim.sdk.server.endpoints.authorize.Authorization;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 09:50 <br>
+ * <br>
+ */
+public class QueryResultCacheTest
+{
+
+  /**
+   * verifies that the cached responses expire after the time to live
+   */
+  @Test
+  public void testEntriesExpire()
+  {
+    Clock clock = Mockito.mock(Clock.class);
+    Instant now = Instant.now();
+    Mockito.doReturn(now).when(clock).instant();
+    QueryResultCache queryResultCache = QueryResultCache.builder()
+                                                        .timeToLive(Duration.ofSeconds(10))
+                                                        .clock(clock)
+                                                        .build();
+    queryResultCache.put("key", queryResultCache.getGeneration(), "response");
+    Assertions.assertEquals("response", queryResultCache.get("key").get());
+
+    Mockito.doReturn(now.plusSeconds(10)).when(clock).instant();
+    Assertions.assertFalse(queryResultCache.get("key").isPresent());
+    Assertions.assertEquals(1, queryResultCache.getEvictionCount());
+    Assertions.assertEquals(0, queryResultCache.getSize());
+    Assertions.assertEquals(1, queryResultCache.getHitCount());
+    Assertions.assertEquals(1, queryResultCache.getMissCount());
+  }
+
+  /**
+   * verifies that the oldest entries are removed if the cache is full
+   */
+  @Test
+  public void testOldestEntriesAreEvicted()
+  {
+    QueryResultCache queryResultCache = QueryResultCache.builder().maxSize(2).build();
+    queryResultCache.put("1", queryResultCache.getGeneration(), "first");
+    queryResultCache.put("2", queryResultCache.getGeneration(), "second");
+    queryResultCache.put("3", queryResultCache.getGeneration(), "third");
+    Assertions.assertEquals(2, queryResultCache.getSize());
+    Assertions.assertEquals(1, queryResultCache.getEvictionCount());
+    Assertions.assertFalse(queryResultCache.get("1").isPresent());
+    Assertions.assertEquals("third", queryResultCache.get("3").get());
+  }
+
+  /**
+   * verifies that a response that was computed before an invalidation is not cached
+   */
+  @Test
+  public void testResponseOfPreviousGenerationIsNotCached()
+  {
+    QueryResultCache queryResultCache = new QueryResultCache();
+    long generation = queryResultCache.getGeneration();
+    queryResultCache.invalidate();
+    queryResultCache.put("key", generation, "response");
+    Assertions.assertFalse(queryResultCache.get("key").isPresent());
+    Assertions.assertEquals(1, queryResultCache.getInvalidationCount());
+    Assertions.assertEquals(0, queryResultCache.getHitRate());
+  }
+
+  /**
+   * verifies that an expired entry does not cause the eviction of a newer entry with the same key
+   */
+  @Test
+  public void testExpiredEntryIsRemovedFromInsertionOrder()
+  {
+    Clock clock = Mockito.mock(Clock.class);
+    Instant now = Instant.now();
+    Mockito.doReturn(now).when(clock).instant();
+    QueryResultCache queryResultCache = QueryResultCache.builder()
+                                                        .maxSize(2)
+                                                        .timeToLive(Duration.ofSeconds(10))
+                                                        .clock(clock)
+                                                        .build();
+    queryResultCache.put("a", queryResultCache.getGeneration(), "first");
+    Mockito.doReturn(now.plusSeconds(5)).when(clock).instant();
+    queryResultCache.put("b", queryResultCache.getGeneration(), "second");
+
+    Mockito.doReturn(now.plusSeconds(10)).when(clock).instant();
+    Assertions.assertFalse(queryResultCache.get("a").isPresent());
+    queryResultCache.put("a", queryResultCache.getGeneration(), "third");
+    queryResultCache.put("c", queryResultCache.getGeneration(), "fourth");
+
+    Assertions.assertEquals(2, queryResultCache.getSize());
+    Assertions.assertEquals("third", queryResultCache.get("a").get());
+    Assertions.assertEquals("fourth", queryResultCache.get("c").get());
+    Assertions.assertFalse(queryResultCache.get("b").isPresent());
+  }
+
+  /**
+   * verifies that clients are distinguished by their id and their roles and that requests of clients without id
+   * are not cached
+   */
+  @Test
+  public void testCreateKeyDistinguishesClients()
+  {
+    QueryResultCache queryResultCache = new QueryResultCache();
+    Optional<String> adminKey = createKey(queryResultCache, new ClientAuthorization("client", "admin", "user"));
+    Optional<String> reorderedAdminKey = createKey(queryResultCache,
+                                                   new ClientAuthorization("client", "user", "admin"));
+    Optional<String> userKey = createKey(queryResultCache, new ClientAuthorization("client", "user"));
+
+    Assertions.assertTrue(adminKey.isPresent());
+    Assertions.assertEquals(adminKey, reorderedAdminKey);
+    Assertions.assertNotEquals(adminKey, userKey);
+    Assertions.assertFalse(createKey(queryResultCache, new ClientAuthorization(null, "admin")).isPresent());
+    Assertions.assertTrue(createKey(queryResultCache, null).isPresent());
+
+    QueryResultCache tenantCache = QueryResultCache.builder().authorizationKey(Authorization::getRealm).build();
+    Assertions.assertEquals(createKey(tenantCache, new ClientAuthorization(null, "admin")),
+                            createKey(tenantCache, new ClientAuthorization("client", "user")));
+  }
+
+  /**
+   * creates the key of a simple list request of the given client
+   */
+  private Optional<String> createKey(QueryResultCache queryResultCache, Authorization authorization)
+  {
+    return queryResultCache.createKey(null, null, null, 1, 10, null, null, null, authorization);
+  }
+}
@@ -0,0 +1,156 @@
+package de.captaingoldfish.scim.sdk.server.schemas;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.constants.SchemaUris;
+import de.captaingoldfish.scim.sdk.common.exceptions.BadRequestException;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 07:40 <br>
+ * <br>
+ */
+public class AttributeProjectionTest
+{
+
+  /**
+   * the user resource type with the enterprise user extension
+   */
+  private ResourceType userResourceType;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+  }
+
+  /**
+   * verifies which attributes are returned for the given "attributes" parameter
+   */
+  @ParameterizedTest
+  @CsvSource({"name.givenName,name,true", "name.givenName,name.givenName,true", "name.givenName,name.familyName,false",
+              "name.givenName,userName,false", "name.givenName,id,true", "NAME,name.familyName,true",
+              "urn:ietf:params:scim:schemas:core:2.0:User:name,name.familyName,true", "userName,employeeNumber,false",
+              SchemaUris.ENTERPRISE_USER_URI + ",employeeNumber,true", "emails.value,emails.type,false"})
+  public void testAttributesParameter(String attributes, String attributeName, boolean returned)
+  {
+    AttributeProjection projection = AttributeProjection.of(userResourceType, attributes, null);
+    Assertions.assertTrue(projection.isAttributesPresent());
+    Assertions.assertEquals(returned,
+                            projection.isReturned(RequestUtils.getSchemaAttributeByAttributeName(userResourceType,
+                                                                                                 attributeName)));
+  }
+
+  /**
+   * verifies which attributes are returned for the given "excludedAttributes" parameter
+   */
+  @ParameterizedTest
+  @CsvSource({"name,name,false", "name,name.givenName,false", "name.givenName,name,true",
+              "name.givenName,name.familyName,true", "userName,nickName,true", "id,id,true",
+              SchemaUris.ENTERPRISE_USER_URI + ",employeeNumber,false", "emails,emails.value,false"})
+  public void testExcludedAttributesParameter(String excludedAttributes, String attributeName, boolean returned)
+  {
+    AttributeProjection projection = AttributeProjection.of(userResourceType, null, excludedAttributes);
+    Assertions.assertTrue(projection.isExcludedAttributesPresent());
+    Assertions.assertEquals(returned,
+                            projection.isReturned(RequestUtils.getSchemaAttributeByAttributeName(userResourceType,
+                                                                                                 attributeName)));
+  }
+
+  /**
+   * verifies that requests without parameters return the attributes with a returned value of default only
+   */
+  @Test
+  public void testDefaultProjection()
+  {
+    AttributeProjection projection = AttributeProjection.of(userResourceType, null, null);
+    Assertions.assertSame(AttributeProjection.defaultProjection(), projection);
+    Assertions.assertTrue(projection.isReturned(RequestUtils.getSchemaAttributeByAttributeName(userResourceType,
+                                                                                               "userName")));
+    Assertions.assertFalse(projection.isReturned(RequestUtils.getSchemaAttributeByAttributeName(userResourceType,
+                                                                                                "password")));
+  }
+
+  /**
+   * verifies that the attribute definitions are resolved if the projection is created for a resource type
+   */
+  @Test
+  public void testResolveAttributes()
+  {
+    AttributeProjection projection = AttributeProjection.of(userResourceType, "userName,name.givenName", null);
+    Assertions.assertEquals(2, projection.getAttributes().size());
+    Assertions.assertEquals(0, projection.getExcludedAttributes().size());
+    Assertions.assertThrows(BadRequestException.class,
+                            () -> AttributeProjection.of(userResourceType, "unknownAttribute", null));
+    Assertions.assertEquals(0, AttributeProjection.of("unknownAttribute", null).getAttributes().size());
+  }
+
+  /**
+   * verifies that the compiled steps of a validation plan are matched like their attribute definitions
+   */
+  @ParameterizedTest
+  @CsvSource({"name.givenName,,name,true,false", "name.givenName,,name.familyName,false,false",
+              "NAME,,name.familyName,true,false", ",name,name.givenName,false,true", ",name.givenName,name,false,false",
+              SchemaUris.ENTERPRISE_USER_URI + "," + SchemaUris.ENTERPRISE_USER_URI + ",employeeNumber,true,true"})
+  public void testCompiledSteps(String attributes,
+                                String excludedAttributes,
+                                String attributeName,
+                                boolean requested,
+                                boolean excluded)
+  {
+    AttributeProjection projection = AttributeProjection.of(userResourceType, attributes, excludedAttributes);
+    SchemaAttribute schemaAttribute = RequestUtils.getSchemaAttributeByAttributeName(userResourceType, attributeName);
+    ValidationPlan plan = ValidationPlan.compile(schemaAttribute.getSchema(),
+                                                 SchemaValidator.DirectionType.RESPONSE,
+                                                 null);
+    ValidationPlan.AttributeStep step = findStep(plan, schemaAttribute);
+    Assertions.assertEquals(requested, projection.isRequested(step));
+    Assertions.assertEquals(projection.isRequested(schemaAttribute), projection.isRequested(step));
+    Assertions.assertEquals(excluded, projection.isExcluded(step));
+    Assertions.assertEquals(projection.isExcluded(schemaAttribute), projection.isExcluded(step));
+    // the remembered decisions are returned for the following resources
+    Assertions.assertEquals(requested, projection.isRequested(step));
+    Assertions.assertEquals(excluded, projection.isExcluded(step));
+  }
+
+  /**
+   * searches the step of the given attribute within the plan and the plans of the complex attributes
+   */
+  private ValidationPlan.AttributeStep findStep(ValidationPlan plan, SchemaAttribute schemaAttribute)
+  {
+    for ( ValidationPlan.AttributeStep step : plan.getSteps() )
+    {
+      if (step.getAttribute() == schemaAttribute)
+      {
+        return step;
+      }
+      if (step.getSubAttributePlan() != null)
+      {
+        ValidationPlan.AttributeStep subStep = findStep(step.getSubAttributePlan(), schemaAttribute);
+        if (subStep != null)
+        {
+          return subStep;
+        }
+      }
+    }
+    return null;
+  }
+}
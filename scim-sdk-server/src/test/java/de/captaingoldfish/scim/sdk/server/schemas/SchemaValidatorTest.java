@@ -2462,4 +2462,51 @@ public class SchemaValidatorTest implements FileReferences
                                                                       null,
                                                                       baseUrlSupplier));
   }
+
+  /**
+   * verifies that the errors of all invalid attributes are collected and reported within a single exception
+   * without stack trace if the resource type limits the number of reported errors
+   */
+  @Test
+  public void testCollectRequestValidationErrors()
+  {
+    final JsonNode userResourceTypeNode = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    final JsonNode userSchemaNode = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    final JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    ResourceType userResourceType = resourceTypeFactory.registerResourceType(new UserHandlerImpl(true),
+                                                                             userResourceTypeNode,
+                                                                             userSchemaNode,
+                                                                             enterpriseUser);
+    ObjectNode user = (ObjectNode)JsonHelper.loadJsonDocument(USER_RESOURCE);
+    user.set(AttributeNames.RFC7643.USER_NAME, new IntNode(1));
+    user.set(AttributeNames.RFC7643.NICK_NAME, new IntNode(2));
+    user.set(AttributeNames.RFC7643.ACTIVE, new TextNode("yes"));
+
+    DocumentValidationException failFastException = Assertions.assertThrows(DocumentValidationException.class,
+                                                                            () -> SchemaValidator.validateDocumentForRequest(userResourceType,
+                                                                                                                             user,
+                                                                                                                             HttpMethod.POST));
+    Assertions.assertEquals(0, failFastException.getStackTrace().length);
+
+    ValidationResult validationResult = new ValidationResult();
+    Assertions.assertDoesNotThrow(() -> SchemaValidator.validateDocumentForRequest(userResourceType,
+                                                                                   user,
+                                                                                   HttpMethod.POST,
+                                                                                   validationResult));
+    Assertions.assertEquals(3, validationResult.getErrors().size(), validationResult.getErrors().toString());
+
+    ValidationResult limitedResult = new ValidationResult(2);
+    SchemaValidator.validateDocumentForRequest(userResourceType, user, HttpMethod.POST, limitedResult);
+    Assertions.assertEquals(2, limitedResult.getErrors().size());
+    Assertions.assertTrue(limitedResult.isFull());
+
+    userResourceType.setMaxRequestValidationErrors(ValidationResult.UNLIMITED);
+    DocumentValidationException ex = Assertions.assertThrows(DocumentValidationException.class,
+                                                             () -> SchemaValidator.validateDocumentForRequest(userResourceType,
+                                                                                                              user,
+                                                                                                              HttpMethod.POST));
+    Assertions.assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+    Assertions.assertEquals(0, ex.getStackTrace().length);
+    MatcherAssert.assertThat(ex.getDetail(), Matchers.startsWith("the document contains 3 errors"));
+  }
 }
@@ -0,0 +1,149 @@
+package de.captaingoldfish.scim.sdk.server.schemas;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.AttributeNames;
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.constants.enums.HttpMethod;
+import de.captaingoldfish.scim.sdk.common.schemas.Schema;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 11:40 <br>
+ * <br>
+ */
+public class ValidationPlanTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * registers the user resource type
+   */
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON),
+                                                                JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON),
+                                                                JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON));
+  }
+
+  /**
+   * verifies that the mutability and the http method are resolved for requests
+   */
+  @Test
+  public void testRequestPlan()
+  {
+    Schema userSchema = userResourceType.getMainSchema();
+    ValidationPlan postPlan = ValidationPlan.compile(userSchema,
+                                                     SchemaValidator.DirectionType.REQUEST,
+                                                     HttpMethod.POST);
+    ValidationPlan putPlan = ValidationPlan.compile(userSchema, SchemaValidator.DirectionType.REQUEST, HttpMethod.PUT);
+
+    Assertions.assertTrue(getStep(postPlan, AttributeNames.RFC7643.USER_NAME).isRequiredIfMissing());
+    Assertions.assertFalse(getStep(putPlan, AttributeNames.RFC7643.USER_NAME).isRequiredIfMissing());
+    Assertions.assertTrue(getStep(postPlan, AttributeNames.RFC7643.ID).isRemovedIfPresent());
+    Assertions.assertFalse(getStep(postPlan, AttributeNames.RFC7643.PASSWORD).isRemovedIfPresent());
+
+    ValidationPlan.AttributeStep groups = getStep(postPlan, AttributeNames.RFC7643.GROUPS);
+    Assertions.assertNotNull(groups.getSubAttributePlan());
+    Assertions.assertFalse(getStep(groups.getSubAttributePlan(),
+                                   AttributeNames.RFC7643.REF).isResourceReferenceResolvable());
+  }
+
+  /**
+   * verifies that the returned values and the reference types are resolved for responses
+   */
+  @Test
+  public void testResponsePlan()
+  {
+    Schema userSchema = userResourceType.getMainSchema();
+    ValidationPlan plan = ValidationPlan.compile(userSchema, SchemaValidator.DirectionType.RESPONSE, null);
+
+    ValidationPlan.AttributeStep id = getStep(plan, AttributeNames.RFC7643.ID);
+    Assertions.assertTrue(id.isAlwaysProjected());
+    Assertions.assertTrue(id.isRequiredIfMissing());
+    Assertions.assertFalse(id.isRemovedIfPresent());
+    Assertions.assertTrue(getStep(plan, AttributeNames.RFC7643.PASSWORD).isRemovedIfPresent());
+
+    ValidationPlan.AttributeStep groups = getStep(plan, AttributeNames.RFC7643.GROUPS);
+    ValidationPlan.AttributeStep groupReference = getStep(groups.getSubAttributePlan(), AttributeNames.RFC7643.REF);
+    Assertions.assertTrue(groupReference.isResourceReferenceResolvable());
+    Assertions.assertTrue(groupReference.isUriReferenceAccepted());
+    Assertions.assertFalse(groupReference.isAnyReferenceAccepted());
+    Assertions.assertTrue(getStep(plan, AttributeNames.RFC7643.PROFILE_URL).isAnyReferenceAccepted());
+
+    ValidationPlan.AttributeStep active = getStep(plan, AttributeNames.RFC7643.ACTIVE);
+    Assertions.assertTrue(active.getTypeChecker().test(JsonHelper.readJsonDocument("true")));
+    Assertions.assertFalse(active.getTypeChecker().test(new TextNode("true")));
+    Assertions.assertFalse(getStep(plan, AttributeNames.RFC7643.USER_NAME).getTypeChecker().test(new IntNode(1)));
+  }
+
+  /**
+   * verifies that the canonical values are compared case insensitive
+   */
+  @Test
+  public void testCanonicalValues()
+  {
+    Schema userSchema = userResourceType.getMainSchema();
+    userSchema.addAttribute(JsonHelper.readJsonDocument("{\"name\": \"color\", \"type\": \"string\", "
+                                                        + "\"description\": \"a color\", "
+                                                        + "\"canonicalValues\": [\"red\", \"green\"]}"));
+    ValidationPlan plan = ValidationPlan.compile(userSchema, SchemaValidator.DirectionType.REQUEST, HttpMethod.POST);
+    ValidationPlan.AttributeStep color = getStep(plan, "color");
+    Assertions.assertTrue(color.isCanonicalValue("RED"));
+    Assertions.assertFalse(color.isCanonicalValue("blue"));
+    Assertions.assertFalse(color.isCanonicalValue(null));
+    Assertions.assertTrue(getStep(plan, AttributeNames.RFC7643.USER_NAME).isCanonicalValue("anything"));
+  }
+
+  /**
+   * verifies that the resource type caches the plans and recompiles them if the schema was changed
+   */
+  @Test
+  public void testPlansAreCachedUntilSchemaChanges()
+  {
+    Schema userSchema = userResourceType.getMainSchema();
+    ValidationPlan plan = userResourceType.getValidationPlan(userSchema, SchemaValidator.DirectionType.RESPONSE, null);
+    Assertions.assertSame(plan,
+                          userResourceType.getValidationPlan(userSchema, SchemaValidator.DirectionType.RESPONSE, null));
+    Assertions.assertNotSame(plan,
+                             userResourceType.getValidationPlan(userSchema,
+                                                                SchemaValidator.DirectionType.REQUEST,
+                                                                HttpMethod.POST));
+
+    userSchema.addAttribute(JsonHelper.readJsonDocument("{\"name\": \"nickColor\", \"type\": \"string\", "
+                                                        + "\"description\": \"a color\"}"));
+    ValidationPlan recompiledPlan = userResourceType.getValidationPlan(userSchema,
+                                                                       SchemaValidator.DirectionType.RESPONSE,
+                                                                       null);
+    Assertions.assertNotSame(plan, recompiledPlan);
+    Assertions.assertTrue(recompiledPlan.isCompiledFrom(userSchema));
+    Assertions.assertEquals(plan.getSteps().length + 1, recompiledPlan.getSteps().length);
+  }
+
+  /**
+   * gets the step of the attribute with the given name
+   */
+  private ValidationPlan.AttributeStep getStep(ValidationPlan plan, String attributeName)
+  {
+    return Arrays.stream(plan.getSteps())
+                 .filter(step -> step.getAttribute().getName().equals(attributeName))
+                 .findAny()
+                 .orElseThrow(() -> new IllegalStateException("missing step for attribute: " + attributeName));
+  }
+}
@@ -0,0 +1,105 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.complex.Meta;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 05:05 <br>
+ * <br>
+ */
+public class ExternalMergeSorterTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * the users to sort. Many of them share the same values so that the stability of the merge is verified
+   */
+  private List<User> users;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    Random random = new Random(1);
+    this.users = new ArrayList<>();
+    for ( int i = 0 ; i < 250 ; i++ )
+    {
+      users.add(User.builder()
+                    .id(String.valueOf(i))
+                    .userName((random.nextBoolean() ? "Goldfish" : "goldfish") + random.nextInt(30))
+                    .meta(i % 9 == 0 ? null
+                      : Meta.builder().created(Instant.ofEpochSecond(1_600_000_000L + random.nextInt(40))).build())
+                    .build());
+    }
+  }
+
+  /**
+   * verifies that the pages of the merged runs are equal to the pages of the fully sorted list including the
+   * order of equal resources
+   */
+  @ParameterizedTest
+  @CsvSource({"userName,ASCENDING,1000", "userName,ASCENDING,17", "userName,DESCENDING,17", "meta.created,ASCENDING,1",
+              "meta.created,DESCENDING,64"})
+  public void testPagesMatchFullSort(String attributeName, SortOrder sortOrder, int runSize)
+  {
+    SchemaAttribute sortBy = RequestUtils.getSchemaAttributeByAttributeName(userResourceType, attributeName);
+    List<String> expectedIds = users.stream()
+                                    .sorted(new ResourceNodeComparator(sortBy, sortOrder))
+                                    .map(user -> user.getId().get())
+                                    .collect(Collectors.toList());
+
+    try (
+      ExternalMergeSorter<User> sorter = new ExternalMergeSorter<>(sortBy, sortOrder, runSize, ExecutionPolicy.DEFAULT))
+    {
+      users.forEach(sorter::add);
+      Assertions.assertEquals(users.size(), sorter.getSize());
+      Assertions.assertEquals(runSize >= users.size() ? 0 : users.size() / runSize, sorter.getNumberOfRuns());
+
+      for ( int startIndex : new int[]{1, 20, 240, 251} )
+      {
+        List<String> pageIds = sorter.getPage(startIndex, 20)
+                                     .stream()
+                                     .map(user -> user.getId().get())
+                                     .collect(Collectors.toList());
+        int fromIndex = Math.min(startIndex - 1, expectedIds.size());
+        Assertions.assertEquals(expectedIds.subList(fromIndex, Math.min(fromIndex + 20, expectedIds.size())),
+                                pageIds,
+                                "startIndex " + startIndex);
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.resources.complex.Meta;
+import de.captaingoldfish.scim.sdk.common.resources.complex.Name;
+import de.captaingoldfish.scim.sdk.common.resources.multicomplex.Email;
+import de.captaingoldfish.scim.sdk.common.schemas.SchemaAttribute;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.ExecutionPolicy;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 03:10 <br>
+ * <br>
+ */
+public class PrecomputedKeySorterTest
+{
+
+  /**
+   * the user resource type
+   */
+  private ResourceType userResourceType;
+
+  /**
+   * the users to sort. Some of them do not have the sorted attributes
+   */
+  private List<User> users;
+
+  @BeforeEach
+  public void initialize()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    this.userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                     userResourceTypeJson,
+                                                                     userSchema,
+                                                                     enterpriseUser);
+    Random random = new Random(1);
+    this.users = new ArrayList<>();
+    for ( int i = 0 ; i < 200 ; i++ )
+    {
+      User user = User.builder()
+                      .id(String.valueOf(random.nextInt(50)))
+                      .userName((random.nextBoolean() ? "Goldfish" : "goldfish") + random.nextInt(20))
+                      .name(i % 7 == 0 ? null : Name.builder().givenName("given" + random.nextInt(30)).build())
+                      .emails(Arrays.asList(Email.builder().value("user" + random.nextInt(40) + "@ocean.de").build()))
+                      .meta(i % 5 == 0 ? null
+                        : Meta.builder()
+                              .created(Instant.ofEpochSecond(1_600_000_000L))
+                              .lastModified(Instant.ofEpochSecond(1_600_000_000L + random.nextInt(100) * 60))
+                              .build())
+                      .build();
+      users.add(user);
+    }
+  }
+
+  /**
+   * verifies that the sorting with precomputed keys results in exactly the same order as the sorting with the
+   * {@link ResourceNodeComparator}
+   */
+  @ParameterizedTest
+  @CsvSource({"userName,ASCENDING", "userName,DESCENDING", "id,ASCENDING", "meta.lastModified,ASCENDING",
+              "meta.lastModified,DESCENDING", "name.givenName,ASCENDING", "name.givenName,DESCENDING",
+              "emails.value,ASCENDING"})
+  public void testSameOrderAsComparator(String attributeName, SortOrder sortOrder)
+  {
+    SchemaAttribute sortBy = RequestUtils.getSchemaAttributeByAttributeName(userResourceType, attributeName);
+    List<User> expected = new ArrayList<>(users);
+    expected.sort(new ResourceNodeComparator(sortBy, sortOrder));
+
+    List<User> sorted = PrecomputedKeySorter.sort(users, sortBy, sortOrder, ExecutionPolicy.DEFAULT, users.size());
+    Assertions.assertEquals(expected.size(), sorted.size());
+    for ( int i = 0 ; i < expected.size() ; i++ )
+    {
+      Assertions.assertSame(expected.get(i), sorted.get(i), "position " + i);
+    }
+
+    List<User> firstPage = PrecomputedKeySorter.sort(users, sortBy, sortOrder, ExecutionPolicy.DEFAULT, 10);
+    for ( int i = 0 ; i < 10 ; i++ )
+    {
+      Assertions.assertSame(expected.get(i), firstPage.get(i), "position " + i);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ScimType;
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.exceptions.BadRequestException;
+import de.captaingoldfish.scim.sdk.common.exceptions.InternalServerException;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 06:20 <br>
+ * <br>
+ */
+public class ResourceCursorCodecTest
+{
+
+  /**
+   * verifies that a cursor is decoded into the same values it was created from
+   */
+  @Test
+  public void testEncodeAndDecodeCursor()
+  {
+    ResourceCursorCodec codec = new ResourceCursorCodec();
+    ResourceCursor cursor = new ResourceCursor("User", "urn:ietf:params:scim:schemas:core:2.0:User:userName",
+                                               SortOrder.DESCENDING, "aGFzaA", new TextNode("goldfish"), "123456");
+
+    ResourceCursor decodedCursor = codec.decode(codec.encode(cursor));
+    Assertions.assertEquals(cursor.getResourceType(), decodedCursor.getResourceType());
+    Assertions.assertEquals(cursor.getSortBy(), decodedCursor.getSortBy());
+    Assertions.assertEquals(cursor.getSortOrder(), decodedCursor.getSortOrder());
+    Assertions.assertEquals(cursor.getFilterHash(), decodedCursor.getFilterHash());
+    Assertions.assertEquals(cursor.getSortValue(), decodedCursor.getSortValue());
+    Assertions.assertEquals(cursor.getId(), decodedCursor.getId());
+  }
+
+  /**
+   * verifies that a cursor without a sorting attribute can be decoded
+   */
+  @Test
+  public void testEncodeAndDecodeCursorWithoutSortValue()
+  {
+    ResourceCursorCodec codec = new ResourceCursorCodec();
+    ResourceCursor cursor = new ResourceCursor("User", null, SortOrder.ASCENDING, null, null, "123456");
+
+    ResourceCursor decodedCursor = codec.decode(codec.encode(cursor));
+    Assertions.assertNull(decodedCursor.getSortBy());
+    Assertions.assertNull(decodedCursor.getSortValue());
+    Assertions.assertNull(decodedCursor.getFilterHash());
+    Assertions.assertEquals("123456", decodedCursor.getId());
+  }
+
+  /**
+   * verifies that cursors that were signed with another key or that were modified are rejected
+   */
+  @Test
+  public void testTamperedCursorIsRejected()
+  {
+    ResourceCursor cursor = new ResourceCursor("User", null, SortOrder.ASCENDING, null, null, "123456");
+    String encodedCursor = new ResourceCursorCodec().encode(cursor);
+
+    BadRequestException ex = Assertions.assertThrows(BadRequestException.class,
+                                                     () -> new ResourceCursorCodec().decode(encodedCursor));
+    Assertions.assertEquals(ScimType.Custom.INVALID_CURSOR, ex.getScimType());
+
+    ResourceCursorCodec codec = new ResourceCursorCodec();
+    String otherCursor = codec.encode(new ResourceCursor("User", null, SortOrder.ASCENDING, null, null, "654321"));
+    String forgedCursor = otherCursor.substring(0, otherCursor.indexOf('.'))
+                          + codec.encode(cursor).substring(codec.encode(cursor).indexOf('.'));
+    Assertions.assertThrows(BadRequestException.class, () -> codec.decode(forgedCursor));
+  }
+
+  /**
+   * verifies that malformed cursors are rejected with a bad request
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"abc", "abc.def", "a.b.c", "!!!.???"})
+  public void testMalformedCursorIsRejected(String cursor)
+  {
+    BadRequestException ex = Assertions.assertThrows(BadRequestException.class,
+                                                     () -> new ResourceCursorCodec().decode(cursor));
+    Assertions.assertEquals(ScimType.Custom.INVALID_CURSOR, ex.getScimType());
+  }
+
+  /**
+   * verifies that no cursor can be created after a resource without an id because such a cursor could not be
+   * decoded again
+   */
+  @Test
+  public void testCursorAfterResourceWithoutIdIsRejected()
+  {
+    User user = User.builder().userName("goldfish").build();
+    Assertions.assertThrows(InternalServerException.class,
+                            () -> ResourceCursor.after("User", user, null, null, SortOrder.ASCENDING));
+  }
+}
@@ -0,0 +1,111 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.captaingoldfish.scim.sdk.common.constants.ClassPathReferences;
+import de.captaingoldfish.scim.sdk.common.constants.enums.SortOrder;
+import de.captaingoldfish.scim.sdk.common.resources.User;
+import de.captaingoldfish.scim.sdk.common.utils.JsonHelper;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceType;
+import de.captaingoldfish.scim.sdk.server.schemas.ResourceTypeFactory;
+import de.captaingoldfish.scim.sdk.server.utils.RequestUtils;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 02:38 <br>
+ * <br>
+ * compares the top-k selection with the full sort for the first page of a large list of users sorted by
+ * userName. This benchmark is only executed if the system property "scim.benchmark" is set to true e.g.:
+ *
+ * <pre>
+ * mvn test -pl scim-sdk-server -Dtest=TopKSelectorBenchmarkTest -Dscim.benchmark=true
+ * </pre>
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "scim.benchmark", matches = "true")
+public class TopKSelectorBenchmarkTest
+{
+
+  /**
+   * the number of users that are sorted
+   */
+  private static final int NUMBER_OF_USERS = 100_000;
+
+  /**
+   * the size of the requested page
+   */
+  private static final int PAGE_SIZE = 25;
+
+  /**
+   * the number of measured runs of each variant after the warm up
+   */
+  private static final int RUNS = 20;
+
+  @Test
+  public void benchmarkTopKSelectionAgainstFullSort()
+  {
+    ResourceTypeFactory resourceTypeFactory = new ResourceTypeFactory();
+    JsonNode userResourceTypeJson = JsonHelper.loadJsonDocument(ClassPathReferences.USER_RESOURCE_TYPE_JSON);
+    JsonNode userSchema = JsonHelper.loadJsonDocument(ClassPathReferences.USER_SCHEMA_JSON);
+    JsonNode enterpriseUser = JsonHelper.loadJsonDocument(ClassPathReferences.ENTERPRISE_USER_SCHEMA_JSON);
+    ResourceType userResourceType = resourceTypeFactory.registerResourceType(null,
+                                                                             userResourceTypeJson,
+                                                                             userSchema,
+                                                                             enterpriseUser);
+    ResourceNodeComparator comparator = new ResourceNodeComparator(RequestUtils.getSchemaAttributeByAttributeName(userResourceType,
+                                                                                                                  "userName"),
+                                                                   SortOrder.ASCENDING);
+    Random random = new Random(NUMBER_OF_USERS);
+    List<User> users = new ArrayList<>();
+    for ( int i = 0 ; i < NUMBER_OF_USERS ; i++ )
+    {
+      users.add(User.builder().id(String.valueOf(i)).userName("user-" + random.nextInt()).build());
+    }
+
+    Supplier<List<User>> fullSort = () -> {
+      List<User> sortedUsers = new ArrayList<>(users);
+      sortedUsers.sort(comparator);
+      return sortedUsers.subList(0, PAGE_SIZE);
+    };
+    Supplier<List<User>> topKSelection = () -> TopKSelector.selectTopK(users, PAGE_SIZE, comparator);
+    Assertions.assertEquals(fullSort.get(), topKSelection.get());
+
+    long fullSortNanos = measure(fullSort);
+    long topKNanos = measure(topKSelection);
+    log.info("sorting {} users for a page of {} entries: full sort {} ms, top-k selection {} ms",
+             NUMBER_OF_USERS,
+             PAGE_SIZE,
+             TimeUnit.NANOSECONDS.toMillis(fullSortNanos),
+             TimeUnit.NANOSECONDS.toMillis(topKNanos));
+  }
+
+  /**
+   * runs the given variant a few times to warm up the jvm and returns the average duration of the following
+   * runs
+   */
+  private long measure(Supplier<List<User>> variant)
+  {
+    for ( int i = 0 ; i < RUNS ; i++ )
+    {
+      Assertions.assertEquals(PAGE_SIZE, variant.get().size());
+    }
+    long start = System.nanoTime();
+    for ( int i = 0 ; i < RUNS ; i++ )
+    {
+      Assertions.assertEquals(PAGE_SIZE, variant.get().size());
+    }
+    return (System.nanoTime() - start) / RUNS;
+  }
+}
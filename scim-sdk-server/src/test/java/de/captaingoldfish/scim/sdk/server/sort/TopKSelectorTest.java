@@ -0,0 +1,65 @@
+package de.captaingoldfish.scim.sdk.server.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 17.10.2026 - 02:24 <br>
+ * <br>
+ */
+public class TopKSelectorTest
+{
+
+  /**
+   * verifies that the selected elements are exactly the first k elements of the fully sorted list including the
+   * order of equal elements
+   */
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 2, 25, 999, 1000, 5000})
+  public void testSelectionEqualsFullSort(int k)
+  {
+    Random random = new Random(k);
+    List<int[]> elements = new ArrayList<>();
+    for ( int i = 0 ; i < 1000 ; i++ )
+    {
+      // many duplicates so that the stability of the selection is verified
+      elements.add(new int[]{random.nextInt(50), i});
+    }
+    Comparator<int[]> comparator = Comparator.comparingInt(element -> element[0]);
+
+    List<int[]> sorted = new ArrayList<>(elements);
+    sorted.sort(comparator);
+    List<int[]> expected = sorted.subList(0, Math.min(k, sorted.size()));
+
+    List<int[]> selected = TopKSelector.selectTopK(elements, k, comparator);
+    Assertions.assertEquals(expected.size(), selected.size());
+    for ( int i = 0 ; i < expected.size() ; i++ )
+    {
+      Assertions.assertSame(expected.get(i), selected.get(i));
+    }
+    Assertions.assertEquals(expected.size(), TopKSelector.selectTopK(new LinkedList<>(elements), k, comparator).size());
+  }
+
+  /**
+   * verifies the decision if the heap selection is preferable over a full sort
+   */
+  @Test
+  public void testIsPreferable()
+  {
+    Assertions.assertTrue(TopKSelector.isPreferable(100_000, 25));
+    Assertions.assertTrue(TopKSelector.isPreferable(100, 25));
+    Assertions.assertFalse(TopKSelector.isPreferable(100, 26));
+    Assertions.assertFalse(TopKSelector.isPreferable(10, 25));
+    Assertions.assertFalse(TopKSelector.isPreferable(100, Long.MAX_VALUE));
+  }
+}
@@ -0,0 +1,186 @@
+package de.captaingoldfish.scim.sdk.server.utils;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * author Pascal Knueppel <br>
+ * created at: 16.10.2026 - 19:52 <br>
+ * <br>
+ */
+public class ExecutionPolicyTest
+{
+
+  /**
+   * a dedicated pool for the tests
+   */
+  private final ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+
+  @AfterEach
+  public void shutdownPool()
+  {
+    forkJoinPool.shutdownNow();
+  }
+
+  /**
+   * verifies that small lists are processed sequentially on the calling thread
+   */
+  @Test
+  public void testSmallListsAreProcessedSequentially()
+  {
+    ExecutionPolicy executionPolicy = ExecutionPolicy.builder().parallelThreshold(100).build();
+    List<Integer> numbers = IntStream.range(0, 99).boxed().collect(Collectors.toList());
+    Thread callingThread = Thread.currentThread();
+    List<Integer> evenNumbers = executionPolicy.filter(numbers, number -> {
+      Assertions.assertSame(callingThread, Thread.currentThread());
+      return number % 2 == 0;
+    });
+    Assertions.assertEquals(50, evenNumbers.size());
+    Assertions.assertEquals(1, executionPolicy.getSequentialExecutions());
+    Assertions.assertEquals(0, executionPolicy.getParallelExecutions());
+  }
+
+  /**
+   * verifies that large lists are processed within the configured pool and not within the common pool
+   */
+  @Test
+  public void testLargeListsAreProcessedInDedicatedPool()
+  {
+    ExecutionPolicy executionPolicy = ExecutionPolicy.builder()
+                                                     .parallelThreshold(100)
+                                                     .forkJoinPool(forkJoinPool)
+                                                     .build();
+    List<Integer> numbers = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+    Set<ForkJoinPool> usedPools = ConcurrentHashMap.newKeySet();
+    List<Integer> evenNumbers = executionPolicy.filter(numbers, number -> {
+      usedPools.add(ForkJoinTask.getPool());
+      return number % 2 == 0;
+    });
+    Assertions.assertEquals(5_000, evenNumbers.size());
+    Assertions.assertEquals(IntStream.range(0, 5_000).map(i -> i * 2).boxed().collect(Collectors.toList()),
+                            evenNumbers);
+    Assertions.assertEquals(Collections.singleton(forkJoinPool), usedPools);
+
+    Collections.shuffle(numbers);
+    List<Integer> sortedNumbers = executionPolicy.sort(numbers, Comparator.reverseOrder());
+    Assertions.assertEquals(9_999, sortedNumbers.get(0));
+    Assertions.assertEquals(0, sortedNumbers.get(9_999));
+    Assertions.assertEquals(2, executionPolicy.getParallelExecutions());
+    Assertions.assertEquals(0, executionPolicy.getSequentialExecutions());
+  }
+
+  /**
+   * verifies that only the first elements are selected if the limit is small compared to the list size
+   */
+  @Test
+  public void testSortWithLimitSelectsTopElements()
+  {
+    ExecutionPolicy executionPolicy = ExecutionPolicy.builder().build();
+    List<Integer> numbers = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+    Collections.shuffle(numbers);
+    List<Integer> sortedNumbers = executionPolicy.sort(numbers, Comparator.naturalOrder(), 10);
+    Assertions.assertEquals(IntStream.range(0, 10).boxed().collect(Collectors.toList()), sortedNumbers);
+    Assertions.assertEquals(1, executionPolicy.getTopKExecutions());
+
+    sortedNumbers = executionPolicy.sort(numbers, Comparator.naturalOrder(), 800);
+    Assertions.assertEquals(1000, sortedNumbers.size());
+    Assertions.assertEquals(1, executionPolicy.getTopKExecutions());
+    Assertions.assertEquals(1, executionPolicy.getSequentialExecutions());
+  }
+
+  /**
+   * verifies that the resources of a list response are only processed in parallel if the response validation
+   * threshold is reached and that the order of the results is kept
+   */
+  @Test
+  public void testMapResponse()
+  {
+    List<Integer> numbers = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+    List<String> expectedResults = numbers.stream().map(String::valueOf).collect(Collectors.toList());
+
+    ExecutionPolicy defaultPolicy = ExecutionPolicy.builder().parallelThreshold(1).build();
+    Assertions.assertEquals(expectedResults, defaultPolicy.mapResponse(numbers, String::valueOf));
+    Assertions.assertEquals(1, defaultPolicy.getSequentialResponseValidations());
+    Assertions.assertEquals(0, defaultPolicy.getParallelResponseValidations());
+    Assertions.assertEquals(0, defaultPolicy.getSequentialExecutions());
+    Assertions.assertEquals(0, defaultPolicy.getParallelExecutions());
+
+    ExecutionPolicy executionPolicy = ExecutionPolicy.builder()
+                                                     .responseValidationThreshold(100)
+                                                     .forkJoinPool(forkJoinPool)
+                                                     .build();
+    Set<ForkJoinPool> usedPools = ConcurrentHashMap.newKeySet();
+    List<String> results = executionPolicy.mapResponse(numbers, number -> {
+      usedPools.add(ForkJoinTask.getPool());
+      return String.valueOf(number);
+    });
+    Assertions.assertEquals(expectedResults, results);
+    Assertions.assertEquals(Collections.singleton(forkJoinPool), usedPools);
+    Assertions.assertEquals(1, executionPolicy.getParallelResponseValidations());
+    Assertions.assertEquals(0, executionPolicy.getParallelExecutions());
+  }
+
+  /**
+   * verifies that the response validation is executed in its own pool if one was configured and that the
+   * filtering is still executed in the pool of the filtering and sorting
+   */
+  @Test
+  public void testMapResponseWithOwnPool()
+  {
+    List<Integer> numbers = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+    ForkJoinPool responseValidationPool = new ForkJoinPool(2);
+    try
+    {
+      ExecutionPolicy executionPolicy = ExecutionPolicy.builder()
+                                                       .parallelThreshold(100)
+                                                       .responseValidationThreshold(100)
+                                                       .forkJoinPool(forkJoinPool)
+                                                       .responseValidationPool(responseValidationPool)
+                                                       .build();
+      Set<ForkJoinPool> validationPools = ConcurrentHashMap.newKeySet();
+      executionPolicy.mapResponse(numbers, number -> {
+        validationPools.add(ForkJoinTask.getPool());
+        return number;
+      });
+      Assertions.assertEquals(Collections.singleton(responseValidationPool), validationPools);
+
+      Set<ForkJoinPool> filterPools = ConcurrentHashMap.newKeySet();
+      executionPolicy.filter(numbers, number -> filterPools.add(ForkJoinTask.getPool()) || true);
+      Assertions.assertEquals(Collections.singleton(forkJoinPool), filterPools);
+
+      Assertions.assertEquals(1, executionPolicy.getParallelResponseValidations());
+      Assertions.assertEquals(0, executionPolicy.getSequentialResponseValidations());
+      Assertions.assertEquals(1, executionPolicy.getParallelExecutions());
+      Assertions.assertEquals(0, executionPolicy.getSequentialExecutions());
+    }
+    finally
+    {
+      responseValidationPool.shutdown();
+    }
+  }
+
+  /**
+   * verifies that exceptions of the parallel execution are thrown to the caller
+   */
+  @Test
+  public void testExceptionIsPropagated()
+  {
+    ExecutionPolicy executionPolicy = ExecutionPolicy.builder().parallelThreshold(1).build();
+    List<Integer> numbers = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+    Assertions.assertThrows(IllegalStateException.class, () -> executionPolicy.filter(numbers, number -> {
+      throw new IllegalStateException("failure");
+    }));
+  }
+}